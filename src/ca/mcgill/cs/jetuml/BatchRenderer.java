@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml;
+
+import static java.util.stream.Collectors.toList;
+
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import ca.mcgill.cs.jetuml.application.FileExtensions;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import ca.mcgill.cs.jetuml.views.ImageCreator;
+import ca.mcgill.cs.jetuml.views.RenderingThread;
+import ca.mcgill.cs.jetuml.views.SvgDocument;
+import javafx.application.Platform;
+
+/**
+ * Command-line entry point to render diagram files as images without
+ * opening the editor. The arguments are:
+ * 
+ * [-format png|svg] [-output directory] (file|directory|glob)...
+ * 
+ * Each input can be a diagram file, a directory, in which all the diagram
+ * files are rendered recursively, or a glob pattern such as diagrams/*.class.jet.
+ * The image of a diagram is written next to its file, or in the output directory 
+ * if one is specified, with the .jet extension replaced by the extension of 
+ * the format. The format is png by default, and can be svg or any other format 
+ * for which ImageIO has a writer. A file whose image would overwrite the image 
+ * of a previous file, such as a file with the same name as another one in a 
+ * different directory when an output directory is specified, is not rendered 
+ * and is reported as a failure. A file designated more than once is rendered once.
+ * 
+ * The files are read and the images are encoded and written on a pool of worker 
+ * threads sized to the number of available processors, while the diagrams themselves 
+ * are drawn on the JavaFX application thread, one strip or one part of the SVG 
+ * document at a time. The time taken by each file and the 
+ * cause of each failure are reported on the standard output. The exit code is 0 
+ * if all the files were rendered, 1 if any could not be, and 2 if the arguments 
+ * are invalid. JavaFX must be able to start, which on a machine without a 
+ * display requires a headless platform such as Monocle.
+ */
+public final class BatchRenderer
+{
+	private static final String USAGE = 
+			"Usage: BatchRenderer [-format png|svg] [-output <directory>] <file|directory|glob>...";
+	private static final String OPTION_FORMAT = "-format";
+	private static final String OPTION_OUTPUT = "-output";
+	private static final String DEFAULT_FORMAT = "png";
+	private static final String FORMAT_SVG = "svg";
+	private static final String EXTENSION_JET = ".jet";
+	private static final String GLOB_CHARACTERS = "*?[{";
+	private static final int SVG_ELEMENTS_PER_PART = 100;
+	private static final int EXIT_SUCCESS = 0;
+	private static final int EXIT_FAILURE = 1;
+	private static final int EXIT_USAGE = 2;
+	
+	private final String aFormat;
+	private final Optional<Path> aOutputDirectory;
+	
+	private BatchRenderer(String pFormat, Optional<Path> pOutputDirectory)
+	{
+		aFormat = pFormat;
+		aOutputDirectory = pOutputDirectory;
+	}
+	
+	/**
+	 * Renders the diagram files designated by pArgs and exits.
+	 * 
+	 * @param pArgs The options and inputs, as described above.
+	 */
+	public static void main(String[] pArgs)
+	{
+		Platform.startup(() -> {});
+		System.exit(run(Arrays.asList(pArgs), System.out));
+	}
+	
+	/*
+	 * Renders the diagram files designated by pArgs, reports on pOut, and 
+	 * returns the exit code. The JavaFX platform must already be started.
+	 */
+	static int run(List<String> pArgs, PrintStream pOut)
+	{
+		String format = DEFAULT_FORMAT;
+		Optional<Path> outputDirectory = Optional.empty();
+		List<String> inputs = new ArrayList<>();
+		for( int i = 0; i < pArgs.size(); i++ )
+		{
+			String argument = pArgs.get(i);
+			if( (argument.equals(OPTION_FORMAT) || argument.equals(OPTION_OUTPUT)) && i + 1 < pArgs.size() )
+			{
+				i++;
+				if( argument.equals(OPTION_FORMAT) )
+				{
+					format = pArgs.get(i).toLowerCase();
+				}
+				else
+				{
+					outputDirectory = Optional.of(Paths.get(pArgs.get(i)));
+				}
+			}
+			else if( argument.startsWith("-") )
+			{
+				inputs.clear();
+				break;
+			}
+			else
+			{
+				inputs.add(argument);
+			}
+		}
+		if( inputs.isEmpty() || !(format.equals(FORMAT_SVG) || ImageIO.getImageWritersByFormatName(format).hasNext()) )
+		{
+			pOut.println(USAGE);
+			return EXIT_USAGE;
+		}
+		return new BatchRenderer(format, outputDirectory).renderAll(inputs, pOut);
+	}
+	
+	private int renderAll(List<String> pInputs, PrintStream pOut)
+	{
+		long start = System.nanoTime();
+		int failures = 0;
+		int rendered = 0;
+		List<Path> files = new ArrayList<>();
+		Map<Path, Path> sources = new HashMap<>(); // The file whose image is written to each output
+		for( String input : pInputs )
+		{
+			try
+			{
+				List<Path> matches = expand(input);
+				if( matches.isEmpty() )
+				{
+					pOut.println(String.format("FAILED %s: no diagram files", input));
+					failures++;
+				}
+				for( Path match : matches )
+				{
+					Path source = match.toAbsolutePath().normalize();
+					Path previous = sources.putIfAbsent(outputFor(source), source);
+					if( previous == null )
+					{
+						files.add(match);
+					}
+					else if( !previous.equals(source) )
+					{
+						pOut.println(String.format("FAILED %s: same output file as %s", match, previous));
+						failures++;
+					}
+				}
+			}
+			catch(IOException | RuntimeException exception)
+			{
+				pOut.println(String.format("FAILED %s: %s", input, exception));
+				failures++;
+			}
+		}
+		try
+		{
+			if( aOutputDirectory.isPresent() )
+			{
+				Files.createDirectories(aOutputDirectory.get());
+			}
+		}
+		catch(IOException exception)
+		{
+			pOut.println(String.format("FAILED %s: %s", aOutputDirectory.get(), exception));
+			return EXIT_FAILURE;
+		}
+		
+		ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try
+		{
+			List<Future<Long>> results = new ArrayList<>();
+			for( Path file : files )
+			{
+				results.add(workers.submit(() -> render(file)));
+			}
+			for( int i = 0; i < files.size(); i++ )
+			{
+				try
+				{
+					pOut.println(String.format("%6d ms %s -> %s", results.get(i).get(), files.get(i), outputFor(files.get(i))));
+					rendered++;
+				}
+				catch(ExecutionException exception)
+				{
+					pOut.println(String.format("FAILED %s: %s", files.get(i), rootCause(exception)));
+					failures++;
+				}
+			}
+		}
+		catch(InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+			return EXIT_FAILURE;
+		}
+		finally
+		{
+			workers.shutdownNow();
+		}
+		pOut.println(String.format("Rendered %d of %d files in %d ms", rendered, files.size(), 
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+		return failures == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+	}
+	
+	/*
+	 * Reads pFile, writes its image, and returns the time this took in milliseconds.
+	 */
+	private long render(Path pFile) throws Exception
+	{
+		long start = System.nanoTime();
+		write(PersistenceService.read(pFile.toFile()).diagram(), outputFor(pFile), aFormat);
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+	
+	/*
+	 * Writes the image of pDiagram to pOutput, in pFormat. The diagram is drawn on the 
+	 * JavaFX application thread, while the file is written on the calling thread. 
+	 * The geometry computed to draw the diagram is attached to it, so nothing 
+	 * refers to the diagram once the image is written.
+	 */
+	static void write(Diagram pDiagram, Path pOutput, String pFormat) throws Exception
+	{
+		try
+		{
+			if( pFormat.equals(FORMAT_SVG) )
+			{
+				SvgDocument document = RenderingThread.call(() -> ImageCreator.createSvgDocument(pDiagram));
+				try( Writer writer = Files.newBufferedWriter(pOutput, StandardCharsets.UTF_8) )
+				{
+					// The document is only modified by the calls on the JavaFX application
+					// thread, which complete before its state is read here.
+					while( !document.isComplete() )
+					{
+						writer.write(RenderingThread.call(() -> document.next(SVG_ELEMENTS_PER_PART)));
+					}
+				}
+			}
+			else
+			{
+				RenderedImage image = RenderingThread.call(() -> ImageCreator.createTiledImage(pDiagram));
+				try( OutputStream out = Files.newOutputStream(pOutput) )
+				{
+					ImageIO.write(image, pFormat, out);
+				}
+			}
+		}
+		catch(Exception exception)
+		{
+			Files.deleteIfExists(pOutput); // Do not leave a partial image behind
+			throw exception;
+		}
+	}
+	
+	private Path outputFor(Path pFile)
+	{
+		String name = FileExtensions.clipApplicationExtension(pFile.toFile()).getName() + "." + aFormat;
+		return aOutputDirectory.map(directory -> directory.resolve(name)).orElseGet(() -> pFile.resolveSibling(name));
+	}
+	
+	/*
+	 * Returns the files designated by pInput, in order.
+	 */
+	private static List<Path> expand(String pInput) throws IOException
+	{
+		if( isGlob(pInput) )
+		{
+			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pInput);
+			try( Stream<Path> paths = Files.walk(globBase(pInput)) )
+			{
+				return paths.filter(Files::isRegularFile).filter(matcher::matches).sorted().collect(toList());
+			}
+		}
+		Path path = Paths.get(pInput);
+		if( Files.isDirectory(path) )
+		{
+			try( Stream<Path> paths = Files.walk(path) )
+			{
+				return paths.filter(Files::isRegularFile)
+						.filter(file -> file.getFileName().toString().endsWith(EXTENSION_JET))
+						.sorted().collect(toList());
+			}
+		}
+		if( !Files.exists(path) )
+		{
+			throw new NoSuchFileException(pInput);
+		}
+		return List.of(path);
+	}
+	
+	private static boolean isGlob(String pInput)
+	{
+		return pInput.chars().anyMatch(character -> GLOB_CHARACTERS.indexOf(character) >= 0);
+	}
+	
+	/*
+	 * Returns the directory that contains all the files that can match pGlob,
+	 * which is the part of the pattern before the first special character, 
+	 * up to the last separator.
+	 */
+	private static Path globBase(String pGlob)
+	{
+		int firstSpecial = 0;
+		while( GLOB_CHARACTERS.indexOf(pGlob.charAt(firstSpecial)) < 0 )
+		{
+			firstSpecial++;
+		}
+		int separator = Math.max(pGlob.lastIndexOf('/', firstSpecial), pGlob.lastIndexOf(File.separatorChar, firstSpecial));
+		if( separator < 0 )
+		{
+			return Paths.get("");
+		}
+		return Paths.get(pGlob.substring(0, Math.max(separator, 1)));
+	}
+	
+	private static Throwable rootCause(ExecutionException pException)
+	{
+		Throwable cause = pException.getCause();
+		while( cause instanceof ExecutionException && cause.getCause() != null )
+		{
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+}
@@ -21,12 +21,16 @@
 package ca.mcgill.cs.jetuml.application;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.ElementCopier;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.nodes.PointNode;
 
@@ -132,99 +136,53 @@ public final class Clipboard
 	 */
 	private List<Node> copyNodes(List<Edge> pEdges, Iterable<DiagramElement> pSelection)
 	{
+		Set<Node> clipboardNodes = identitySet();
+		clipboardNodes.addAll(aNodes);
+		ElementCopier copier = new ElementCopier();
 		List<Node> result = new ArrayList<>();
 		for( DiagramElement element : pSelection )
 		{
 			if( element instanceof Node )
 			{
-				if( missingParent( (Node)element ))
+				if( missingParent((Node)element, clipboardNodes) )
 				{
 					continue;
 				}
-				Node cloned = ((Node) element).clone();
-				result.add(cloned);
-				reassignEdges(pEdges, (Node)element, cloned);
+				result.add(copier.copy((Node) element));
 			}
 		}
+		for( Edge edge : pEdges )
+		{
+			copier.reconnect(edge, edge.getDiagram());
+		}
 		return result;
 	}
 	
 	private void removeDanglingEdges()
 	{
-		List<Edge> toDelete = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( !recursivelyContains(edge.getStart()) || !recursivelyContains(edge.getEnd()))
-			{
-				toDelete.add(edge);
-			}
-		}
-		for( Edge edge : toDelete )
-		{
-			aEdges.remove(edge);
-		}
+		Set<Node> nodes = identitySet();
+		aNodes.forEach(node -> addWithDescendants(node, nodes));
+		aEdges.removeIf(edge -> !nodes.contains(edge.getStart()) || !nodes.contains(edge.getEnd()));
 	}
 	
-	private boolean recursivelyContains(Node pNode)
+	private static void addWithDescendants(Node pNode, Set<Node> pNodes)
 	{
-		for( Node node : aNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
+		pNodes.add(pNode);
+		pNode.getChildren().forEach(child -> addWithDescendants(child, pNodes));
 	}
 	
-	private boolean recursivelyContains(Node pNode, List<Node> pNodes)
+	private static Set<Node> identitySet()
 	{
-		for( Node node : pNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	private void reassignEdges(List<Edge> pEdges, Node pOld, Node pNew)
-	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.getStart() == pOld )
-			{
-				edge.connect(pNew, edge.getEnd(), edge.getDiagram());
-			}
-			if( edge.getEnd() == pOld)
-			{
-				edge.connect(edge.getStart(), pNew, edge.getDiagram());
-			}
-		}
-		List<Node> oldChildren = pOld.getChildren();
-		List<Node> newChildren = pNew.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
-		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
-		}
+		return Collections.newSetFromMap(new IdentityHashMap<>());
 	}
 	
 	/*
 	 * Returns true if pNode needs a parent that isn't in 
 	 * the clipboard.
 	 */
-	private boolean missingParent(Node pNode)
+	private static boolean missingParent(Node pNode, Set<Node> pClipboardNodes)
 	{
-		return pNode.requiresParent() && !aNodes.contains(pNode.getParent()) ;
+		return pNode.requiresParent() && !pClipboardNodes.contains(pNode.getParent()) ;
 	}
 	
 	/*
@@ -74,7 +74,7 @@ public class MoveTracker
 	public CompoundOperation endTrackingMove(DiagramBuilder pDiagramBuilder)
 	{
 		assert pDiagramBuilder != null;
-		CompoundOperation operation = new CompoundOperation();
+		CompoundOperation operation = new CompoundOperation(pDiagramBuilder.getDiagram());
 		Rectangle[] selectionBounds2 = new Rectangle[aOriginalBounds.size()];
 		int i = 0;
 		for(Node node : aTrackedNodes)
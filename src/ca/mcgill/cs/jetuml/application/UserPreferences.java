@@ -41,7 +41,7 @@ public final class UserPreferences
 	public enum BooleanPreference
 	{	
 		showGrid(true), showToolHints(false), autoEditNode(false), verboseToolTips(false),
-		showTips(true);
+		showTips(true), showRepaintRegions(false), showRenderStatistics(false);
 		
 		private boolean aDefault;
 		
@@ -61,7 +61,7 @@ public final class UserPreferences
 	 */
 	public enum IntegerPreference
 	{
-		diagramWidth(0), diagramHeight(0), nextTipId(1), fontSize(DEFAULT_FONT_SIZE);
+		diagramWidth(0), diagramHeight(0), nextTipId(1), fontSize(DEFAULT_FONT_SIZE), namesOnlyZoom(60), outlineZoom(35);
 		
 		private int aDefault;
 		
@@ -70,6 +70,13 @@ public abstract class AbstractDiagramElement implements DiagramElement
 	 */
 	protected void buildProperties()
 	{
-		aProperties = new Properties();
+		aProperties = new Properties(this::propertyChanged);
 	}
+	
+	/**
+	 * Called every time the value of one of the properties of this 
+	 * element is set. Does nothing by default.
+	 */
+	protected void propertyChanged()
+	{}
 }
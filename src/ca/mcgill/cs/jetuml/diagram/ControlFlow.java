@@ -21,10 +21,15 @@
 
 package ca.mcgill.cs.jetuml.diagram;
 
+import static java.util.Collections.emptyList;
+
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -40,6 +45,12 @@ import ca.mcgill.cs.jetuml.viewers.nodes.ImplicitParameterNodeViewer;
  * An immutable wrapper around a SequenceDiagram that can answer
  * various queries about the control-flow represented by 
  * the wrapped sequence diagram.
+ * 
+ * The calls of a diagram are indexed the first time they are queried, and
+ * the index is attached to the diagram, where it is shared by all the control-flow 
+ * objects that wrap the diagram until the revision of the diagram changes. 
+ * Creating a control-flow object is thus cheap, and most queries are answered in constant time or in time
+ * proportional to the number of calls of a node.
  */
 public final class ControlFlow
 {
@@ -70,15 +81,7 @@ public final class ControlFlow
 	public List<Node> getCallees(Node pNode)
 	{
 		assert pNode != null && aDiagram.contains(pNode);
-		List<Node> callees = new ArrayList<>();
-		for( Edge edge : aDiagram.edges() )
-		{
-			if ( edge.getStart() == pNode && edge instanceof CallEdge )
-			{
-				callees.add(edge.getEnd());
-			}
-		}
-		return callees;
+		return index().aCallees.getOrDefault(pNode, emptyList());
 	}
 	
 	/**
@@ -89,15 +92,7 @@ public final class ControlFlow
 	public List<CallEdge> getCalls(Node pCaller)
 	{
 		assert pCaller != null;
-		ArrayList<CallEdge> result = new ArrayList<>();
-		for( Edge edge : aDiagram.edges() )
-		{
-			if( edge instanceof CallEdge && edge.getStart() == pCaller )
-			{
-				result.add((CallEdge)edge);
-			}
-		}
-		return result;
+		return index().aCalls.getOrDefault(pCaller, emptyList());
 	}
 	
 	/**
@@ -111,14 +106,7 @@ public final class ControlFlow
 	public Optional<CallNode> getCaller(Node pNode)
 	{
 		assert pNode != null && aDiagram.contains(pNode);
-		for( Edge edge : aDiagram.edges() )
-		{
-			if( edge.getEnd() == pNode  && edge instanceof CallEdge )
-			{
-				return Optional.of((CallNode) edge.getStart());
-			}
-		}
-		return Optional.empty();
+		return Optional.ofNullable(index().aCallers.get(pNode));
 	}
 	
 	/**
@@ -132,10 +120,8 @@ public final class ControlFlow
 	public boolean isFirstCallee(CallNode pNode)
 	{
 		assert pNode != null;
-		Optional<CallNode> caller = getCaller(pNode);
-		assert caller.isPresent();
-		List<Node> callees = getCallees(caller.get());
-		return callees.get(0) == pNode;
+		assert getCaller(pNode).isPresent();
+		return index().aCalleeIndices.get(pNode) == 0;
 	}
 	
 	/**
@@ -152,10 +138,9 @@ public final class ControlFlow
 		Optional<CallNode> caller = getCaller(pNode);
 		assert caller.isPresent();
 		assert !isFirstCallee(pNode);
-		List<Node> callees = getCallees(caller.get());
-		int index = callees.indexOf(pNode);
+		int index = index().aCalleeIndices.get(pNode);
 		assert index >= 1;
-		return (CallNode) callees.get(index-1);
+		return (CallNode) getCallees(caller.get()).get(index-1);
 	}
 	
 	/**
@@ -182,17 +167,7 @@ public final class ControlFlow
 	public int getNestingDepth(CallNode pNode)
 	{
 		assert pNode != null;
-		int result = 0;
-		Optional<CallNode> node = getCaller(pNode);
-		while( node.isPresent() )
-		{
-			if( node.get().getParent() == pNode.getParent() )
-			{
-				result++;
-			}
-			node = getCaller(node.get());
-		}
-		return result;
+		return index().nestingDepths().getOrDefault(pNode, 0);
 	}
 	
 	/**
@@ -220,14 +195,7 @@ public final class ControlFlow
 		{
 			return false;
 		}
-		for( Edge edge : aDiagram.edges() )
-		{
-			if ( edge.getEnd() == pNode && edge.getClass() == ConstructorEdge.class )
-			{
-				return true;
-			}
-		}
-		return false;	
+		return index().aConstructorEdges.containsKey(pNode);
 	}
 	
 	/*
@@ -253,14 +221,7 @@ public final class ControlFlow
 		{
 			return Optional.empty();	
 		}
-		for( Edge edge : aDiagram.edges() )
-		{
-			if ( edge.getEnd() == pNode && edge.getClass() == ConstructorEdge.class )
-			{
-				return Optional.of(edge);
-			}
-		}
-		return Optional.empty();	
+		return Optional.ofNullable(index().aConstructorEdges.get(pNode));
 	}
 
 	/**
@@ -290,13 +251,7 @@ public final class ControlFlow
 				}
 				
 				// Add upstream edges of the child nodes
-				for( Edge edge: aDiagram.edges() )
-				{
-					if( edge.getEnd() == child )
-					{
-						downstreamElements.add(edge);
-					}
-				}
+				downstreamElements.addAll(index().aIncomingEdges.getOrDefault(child, emptyList()));
 			}
 		}
 		else if( pEdge.getClass() == CallEdge.class )
@@ -374,9 +329,9 @@ public final class ControlFlow
 	
 	private Optional<Edge> getReturnEdge(Edge pEdge)
 	{
-		for( Edge edge : aDiagram.edges() )
+		for( Edge edge : index().aReturnEdges.getOrDefault(pEdge.getEnd(), emptyList()) )
 		{
-			if( edge.getClass() == ReturnEdge.class && edge.getStart() == pEdge.getEnd() && edge.getEnd() == pEdge.getStart() )
+			if( edge.getEnd() == pEdge.getStart() )
 			{
 				return Optional.of(edge);
 			}
@@ -485,4 +440,105 @@ public final class ControlFlow
 				new ImplicitParameterNodeViewer().getTopRectangle(pNode).contains(pPoint) && 
 				pNode.getChildren().size()==0;
 	}
+	
+	/*
+	 * Returns the index of the calls for the current revision of the diagram.
+	 */
+	private CallIndex index()
+	{
+		CallIndex index = aDiagram.getAttachment(CallIndex.class).orElse(null);
+		if( index == null || index.aRevision != aDiagram.getRevision() )
+		{
+			index = new CallIndex(aDiagram);
+			aDiagram.attach(CallIndex.class, index);
+		}
+		return index;
+	}
+	
+	/*
+	 * The calls of a diagram, indexed in a single pass over its edges. Where
+	 * several edges qualify, the first one in the order of the diagram is used, 
+	 * e.g., the caller of a node is the start of the first call edge that ends at the node.
+	 */
+	private static final class CallIndex
+	{
+		private final long aRevision;
+		private final Map<Node, List<CallEdge>> aCalls = new IdentityHashMap<>();
+		private final Map<Node, List<Node>> aCallees = new IdentityHashMap<>();
+		private final Map<Node, CallNode> aCallers = new IdentityHashMap<>();
+		private final Map<Node, Integer> aCalleeIndices = new IdentityHashMap<>();
+		private final Map<Node, Edge> aConstructorEdges = new IdentityHashMap<>();
+		private final Map<Node, List<Edge>> aIncomingEdges = new IdentityHashMap<>();
+		private final Map<Node, List<Edge>> aReturnEdges = new IdentityHashMap<>();
+		private Map<Node, Integer> aNestingDepths; // Computed on demand
+		
+		CallIndex(Diagram pDiagram)
+		{
+			aRevision = pDiagram.getRevision();
+			for( Edge edge : pDiagram.edges() )
+			{
+				aIncomingEdges.computeIfAbsent(edge.getEnd(), key -> new ArrayList<>()).add(edge);
+				if( edge instanceof CallEdge )
+				{
+					List<CallEdge> calls = aCalls.computeIfAbsent(edge.getStart(), key -> new ArrayList<>());
+					List<Node> callees = aCallees.computeIfAbsent(edge.getStart(), key -> new ArrayList<>());
+					if( !aCallers.containsKey(edge.getEnd()) )
+					{
+						aCallers.put(edge.getEnd(), (CallNode) edge.getStart());
+						aCalleeIndices.put(edge.getEnd(), callees.size());
+					}
+					calls.add((CallEdge) edge);
+					callees.add(edge.getEnd());
+				}
+				if( edge.getClass() == ConstructorEdge.class && !aConstructorEdges.containsKey(edge.getEnd()) )
+				{
+					aConstructorEdges.put(edge.getEnd(), edge);
+				}
+				else if( edge.getClass() == ReturnEdge.class )
+				{
+					aReturnEdges.computeIfAbsent(edge.getStart(), key -> new ArrayList<>()).add(edge);
+				}
+			}
+			aCalls.replaceAll((node, calls) -> Collections.unmodifiableList(calls));
+			aCallees.replaceAll((node, callees) -> Collections.unmodifiableList(callees));
+		}
+		
+		/*
+		 * The nesting depth of every call node is computed by walking down the call tree from 
+		 * the nodes that have no caller, while keeping track of the number of call nodes on the 
+		 * path that are on each implicit parameter node.
+		 */
+		Map<Node, Integer> nestingDepths()
+		{
+			if( aNestingDepths == null )
+			{
+				aNestingDepths = new IdentityHashMap<>();
+				Map<Node, Integer> callsOnPath = new IdentityHashMap<>();
+				for( Node caller : aCallees.keySet() )
+				{
+					if( !aCallers.containsKey(caller) )
+					{
+						computeNestingDepths(caller, callsOnPath);
+					}
+				}
+			}
+			return aNestingDepths;
+		}
+		
+		private void computeNestingDepths(Node pNode, Map<Node, Integer> pCallsOnPath)
+		{
+			Node parent = pNode.getParent();
+			int depth = pCallsOnPath.getOrDefault(parent, 0);
+			aNestingDepths.put(pNode, depth);
+			pCallsOnPath.put(parent, depth + 1);
+			for( Node callee : aCallees.getOrDefault(pNode, emptyList()) )
+			{
+				if( aCallers.get(callee) == pNode && !aNestingDepths.containsKey(callee) )
+				{
+					computeNestingDepths(callee, pCallsOnPath);
+				}
+			}
+			pCallsOnPath.put(parent, depth);
+		}
+	}
 }
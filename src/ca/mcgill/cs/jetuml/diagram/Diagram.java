@@ -21,9 +21,14 @@
 package ca.mcgill.cs.jetuml.diagram;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
@@ -35,6 +40,33 @@ import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
  * of diagrams (handled by DiagramBuilder), or of computing the geometry of a diagram
  * (handled by DiagramView). DiagramData provides immutable access to the information
  * stored in the diagram.
+ * 
+ * The diagram indexes its edges by the nodes they connect, so that the edges
+ * connected to a node can be obtained without going through all the edges.
+ * For this reason, an edge must not be connected to different nodes while
+ * it is in a diagram. The diagram also keeps track of all the elements it 
+ * contains, including the descendants of its root nodes, which requires the 
+ * nodes that accept children to report the addition and removal of children
+ * with childAdded and childRemoved.
+ * 
+ * Changes to the diagram and its elements are reported to the registered 
+ * DiagramListener objects. Nodes and edges report their own changes with 
+ * elementChanged. Each change increments the revision of the diagram, and 
+ * the revision of each element is the revision of the diagram when the 
+ * element was last added or changed. The changes made between startBatch 
+ * and endBatch are reported together, with repeated changes to an element 
+ * reported once if their type allows it.
+ * 
+ * The diagram also maintains an immutable snapshot of its content, returned by 
+ * snapshot. To bring the snapshot up to date, the diagram only records again the 
+ * state of the elements that were added, removed, or changed since the previous 
+ * snapshot, and shares the state of the other elements with it.
+ * 
+ * Components that derive data from a diagram, such as caches of its geometry,
+ * attach the data to the diagram instead of keeping it in static maps. The 
+ * data then lives exactly as long as the diagram: a static map keyed by the 
+ * diagram, even a weak one, would keep the diagram reachable through the 
+ * elements that its data refers to.
  */
 public final class Diagram implements DiagramData
 {
@@ -42,9 +74,25 @@ public final class Diagram implements DiagramData
 	 * Only root nodes are explicitly tracked by a diagram object. Nodes that are children of their parent should be
 	 * managed and accessed through their parent node.
 	 */
-	private final ArrayList<Node> aRootNodes;
-	private final ArrayList<Edge> aEdges;
+	private final IndexedList<Node> aRootNodes;
+	private final IndexedList<Edge> aEdges;
+	// The membership of each element in this diagram
+	private final Map<DiagramElement, Membership> aElements = new IdentityHashMap<>();
+	// The edges connected to each node, in the same order as in aEdges
+	private final Map<Node, Incidence> aIncidences = new IdentityHashMap<>();
 	private final DiagramType aType;
+	private long aRevision = 0;
+	private List<DiagramListener> aListeners = Collections.emptyList();
+	private int aBatchDepth = 0;
+	private final List<DiagramChange> aPendingChanges = new ArrayList<>();
+	private final Set<DiagramChange> aCoalescedChanges = new HashSet<>();
+	private ImmutableDiagram aSnapshot;
+	// The elements whose state may differ from aSnapshot
+	private final Set<DiagramElement> aModified = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final ImmutableDiagram.ListEdits<Node> aRootNodeEdits = new ImmutableDiagram.ListEdits<>();
+	private final ImmutableDiagram.ListEdits<Edge> aEdgeEdits = new ImmutableDiagram.ListEdits<>();
+	// The data derived from this diagram by other components, by type
+	private final Map<Class<?>, Object> aAttachments = new IdentityHashMap<>();
 
 	/**
 	 * Creates an empty diagram.
@@ -54,8 +102,8 @@ public final class Diagram implements DiagramData
 	public Diagram(DiagramType pType)
 	{
 		aType = pType;
-		aRootNodes = new ArrayList<>();
-		aEdges = new ArrayList<>();
+		aRootNodes = new IndexedList<>();
+		aEdges = new IndexedList<>();
 	}
 
 	/**
@@ -67,20 +115,23 @@ public final class Diagram implements DiagramData
 	public Diagram duplicate()
 	{
 		Diagram copy = new Diagram(this.aType);
-		aEdges.forEach(edge -> copy.aEdges.add(edge.clone()));
-
+		ElementCopier copier = new ElementCopier();
 		for( Node node : aRootNodes )
 		{
-			Node nodeCopy = node.clone();
-			copy.aRootNodes.add(nodeCopy);
-			reassignEdges(copy.aEdges, node, nodeCopy);
+			copy.aRootNodes.add(copier.copy(node));
 		}
-
-		// Reassign diagram
-		copy.aEdges.forEach(edge -> edge.connect(edge.getStart(), edge.getEnd(), copy));
+		for( Edge edge : aEdges )
+		{
+			Edge edgeCopy = edge.clone();
+			copier.reconnect(edgeCopy, copy);
+			copy.aEdges.add(edgeCopy);
+		}
+		copy.aEdges.forEach(copy::index);
+		copy.aEdges.forEach(edge -> copy.adjustOccurrence(edge, 1));
 		for( Node node : copy.aRootNodes )
 		{
 			copy.attachNode(node);
+			copy.adjustOccurrences(node, 1);
 		}
 		return copy;
 	}
@@ -97,41 +148,241 @@ public final class Diagram implements DiagramData
 		}
 	}
 
+	@Override
+	public List<Node> rootNodes()
+	{
+		return Collections.unmodifiableList(aRootNodes);
+	}
+
+	@Override
+	public List<Edge> edges()
+	{
+		return Collections.unmodifiableList(aEdges);
+	}
+
+	/**
+	 * @return A number that increases every time the structure of this diagram,
+	 *     or the state of any of its elements, changes.
+	 */
+	public long getRevision()
+	{
+		return aRevision;
+	}
+	
+	/**
+	 * @param pType The type of the attached data.
+	 * @return The data of type pType attached to this diagram, if there is any.
+	 * @param <T> The type of the attached data.
+	 * @pre pType != null
+	 */
+	public <T> Optional<T> getAttachment(Class<T> pType)
+	{
+		assert pType != null;
+		return Optional.ofNullable(pType.cast(aAttachments.get(pType)));
+	}
+	
+	/**
+	 * Attaches pData to this diagram, replacing any data of type pType attached 
+	 * before. Attachments are not copied by duplicate.
+	 * 
+	 * @param pType The type of the data.
+	 * @param pData The data to attach.
+	 * @param <T> The type of the attached data.
+	 * @pre pType != null && pData != null
+	 */
+	public <T> void attach(Class<T> pType, T pData)
+	{
+		assert pType != null && pData != null;
+		aAttachments.put(pType, pData);
+	}
+	
+	/**
+	 * Records that this diagram or one of its elements has changed in a way that
+	 * can affect its geometry. Any geometric information computed for a previous
+	 * revision of the diagram should be considered stale.
+	 */
+	public void incrementRevision()
+	{
+		aRevision++;
+	}
+	
+	/**
+	 * @param pElement An element of this diagram.
+	 * @return The revision of this diagram when pElement was last added or changed.
+	 * @pre pElement != null && contains(pElement)
+	 */
+	public long getRevision(DiagramElement pElement)
+	{
+		assert pElement != null && contains(pElement);
+		return aElements.get(pElement).aRevision;
+	}
+	
+	/**
+	 * Records that pElement changed. Increments the revision of this diagram and,
+	 * if pElement is in this diagram, updates its revision and reports the 
+	 * change to the listeners.
+	 * 
+	 * @param pElement The element that changed.
+	 * @param pType The type of change.
+	 * @pre pElement != null && pType != null
+	 */
+	public void elementChanged(DiagramElement pElement, DiagramChange.Type pType)
+	{
+		assert pElement != null && pType != null;
+		incrementRevision();
+		Membership membership = aElements.get(pElement);
+		if( membership != null )
+		{
+			membership.aRevision = aRevision;
+			modified(pElement);
+			publish(pType, pElement);
+		}
+	}
+	
+	/**
+	 * Returns an immutable snapshot of the content of this diagram. The snapshot
+	 * is brought up to date with the changes made since the previous call, 
+	 * which takes time proportional to the number of elements that changed. 
+	 * The snapshot can then be read from any thread.
+	 * 
+	 * @return A snapshot of the current content of this diagram.
+	 */
+	public ImmutableDiagram snapshot()
+	{
+		if( aSnapshot == null )
+		{
+			aSnapshot = ImmutableDiagram.of(this);
+		}
+		else if( aSnapshot.getRevision() != aRevision )
+		{
+			aSnapshot = aSnapshot.update(this, aModified, aRootNodeEdits, aEdgeEdits);
+		}
+		aModified.clear();
+		aRootNodeEdits.clear();
+		aEdgeEdits.clear();
+		return aSnapshot;
+	}
+	
 	/*
-	 * For node pOriginal, go through all edges that refer to it and replace it with pCopy in the edge. Do this
-	 * recursively for all children of pOriginal, assuming the same topology for pCopy.
+	 * Records that the state of pElement may differ from the current snapshot.
+	 * Nothing is recorded until a first snapshot is taken.
 	 */
-	private static void reassignEdges(List<Edge> pEdges, Node pOriginal, Node pCopy)
+	private void modified(DiagramElement pElement)
 	{
-		for( Edge edge : pEdges )
+		if( aSnapshot != null )
 		{
-			if( edge.getStart() == pOriginal )
-			{
-				edge.connect(pCopy, edge.getEnd(), edge.getDiagram());
-			}
-			if( edge.getEnd() == pOriginal )
-			{
-				edge.connect(edge.getStart(), pCopy, edge.getDiagram());
-			}
+			aModified.add(pElement);
 		}
-		List<Node> oldChildren = pOriginal.getChildren();
-		List<Node> newChildren = pCopy.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
+	}
+	
+	/*
+	 * Records a change to the root nodes so that it can be applied to the 
+	 * current snapshot.
+	 */
+	private void rootNodesEdited(UnaryOperator<PersistentList<Node>> pEdit)
+	{
+		if( aSnapshot != null )
 		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
+			aRootNodeEdits.record(pEdit, aRootNodes.size());
 		}
 	}
-
-	@Override
-	public List<Node> rootNodes()
+	
+	/*
+	 * Records a change to the edges so that it can be applied to the 
+	 * current snapshot.
+	 */
+	private void edgesEdited(UnaryOperator<PersistentList<Edge>> pEdit)
 	{
-		return Collections.unmodifiableList(aRootNodes);
+		if( aSnapshot != null )
+		{
+			aEdgeEdits.record(pEdit, aEdges.size());
+		}
 	}
-
-	@Override
-	public List<Edge> edges()
+	
+	/**
+	 * Registers pListener to be notified of the changes to this diagram.
+	 * 
+	 * @param pListener The listener to add.
+	 * @pre pListener != null
+	 */
+	public void addListener(DiagramListener pListener)
 	{
-		return Collections.unmodifiableList(aEdges);
+		assert pListener != null;
+		List<DiagramListener> listeners = new ArrayList<>(aListeners);
+		listeners.add(pListener);
+		aListeners = Collections.unmodifiableList(listeners);
+	}
+	
+	/**
+	 * Stops notifying pListener of the changes to this diagram. Does nothing 
+	 * if pListener is not registered.
+	 * 
+	 * @param pListener The listener to remove.
+	 * @pre pListener != null
+	 */
+	public void removeListener(DiagramListener pListener)
+	{
+		assert pListener != null;
+		List<DiagramListener> listeners = new ArrayList<>(aListeners);
+		listeners.remove(pListener);
+		aListeners = Collections.unmodifiableList(listeners);
+	}
+	
+	/**
+	 * Starts a batch of changes. The changes are reported to the listeners 
+	 * when the batch ends. Batches can be nested, in which case the 
+	 * changes are reported when the outermost batch ends.
+	 */
+	public void startBatch()
+	{
+		aBatchDepth++;
+	}
+	
+	/**
+	 * Ends the batch started by the matching call to startBatch.
+	 * 
+	 * @pre a batch was started.
+	 */
+	public void endBatch()
+	{
+		assert aBatchDepth > 0;
+		aBatchDepth--;
+		if( aBatchDepth == 0 && !aPendingChanges.isEmpty() )
+		{
+			List<DiagramChange> changes = new ArrayList<>(aPendingChanges);
+			aPendingChanges.clear();
+			aCoalescedChanges.clear();
+			notifyListeners(Collections.unmodifiableList(changes));
+		}
+	}
+	
+	/*
+	 * Reports a change to the listeners, or records it until the end of the 
+	 * current batch. Nothing is allocated if there are no listeners.
+	 */
+	private void publish(DiagramChange.Type pType, DiagramElement pElement)
+	{
+		if( aListeners.isEmpty() )
+		{
+			return;
+		}
+		DiagramChange change = new DiagramChange(pType, pElement);
+		if( aBatchDepth == 0 )
+		{
+			notifyListeners(List.of(change));
+		}
+		else if( !pType.isCoalesced() || aCoalescedChanges.add(change) )
+		{
+			aPendingChanges.add(change);
+		}
+	}
+	
+	private void notifyListeners(List<DiagramChange> pChanges)
+	{
+		for( DiagramListener listener : aListeners )
+		{
+			listener.diagramChanged(this, pChanges);
+		}
 	}
 
 	/**
@@ -169,34 +420,7 @@ public final class Diagram implements DiagramData
 	public boolean contains(DiagramElement pElement)
 	{
 		assert pElement != null;
-		if( aEdges.contains(pElement) )
-		{
-			return true;
-		}
-		for( Node node : aRootNodes )
-		{
-			if( containsNode(node, pElement) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean containsNode(Node pTest, DiagramElement pTarget)
-	{
-		if( pTest == pTarget )
-		{
-			return true;
-		}
-		for( Node node : pTest.getChildren() )
-		{
-			if( containsNode(node, pTarget) )
-			{
-				return true;
-			}
-		}
-		return false;
+		return aElements.containsKey(pElement);
 	}
 
 	/**
@@ -223,22 +447,39 @@ public final class Diagram implements DiagramData
 
 	/**
 	 * @param pNode The node to test for
-	 * @return All the edges connected to pNode
+	 * @return An unmodifiable view of the edges of this diagram connected to pNode, 
+	 *     in the order of edges(). An edge that starts and ends on pNode is only 
+	 *     included once.
 	 * @pre pNode != null
-	 * @pre contains(pNode)
 	 */
-	public Iterable<Edge> edgesConnectedTo(Node pNode)
+	public List<Edge> edgesConnectedTo(Node pNode)
 	{
-		assert pNode != null && contains(pNode);
-		Collection<Edge> lReturn = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( edge.getStart() == pNode || edge.getEnd() == pNode )
-			{
-				lReturn.add(edge);
-			}
-		}
-		return lReturn;
+		assert pNode != null;
+		return aIncidences.getOrDefault(pNode, Incidence.NONE).aAllView;
+	}
+	
+	/**
+	 * @param pNode The node to test for
+	 * @return An unmodifiable view of the edges of this diagram that start on pNode,
+	 *     in the order of edges().
+	 * @pre pNode != null
+	 */
+	public List<Edge> outgoingEdges(Node pNode)
+	{
+		assert pNode != null;
+		return aIncidences.getOrDefault(pNode, Incidence.NONE).aOutgoingView;
+	}
+	
+	/**
+	 * @param pNode The node to test for
+	 * @return An unmodifiable view of the edges of this diagram that end on pNode,
+	 *     in the order of edges().
+	 * @pre pNode != null
+	 */
+	public List<Edge> incomingEdges(Node pNode)
+	{
+		assert pNode != null;
+		return aIncidences.getOrDefault(pNode, Incidence.NONE).aIncomingView;
 	}
 
 	/**
@@ -253,6 +494,96 @@ public final class Diagram implements DiagramData
 		assert pNode != null;
 		recursiveAttach(pNode);
 		aRootNodes.add(pNode);
+		rootNodesEdited(list -> list.withLast(pNode));
+		incrementRevision();
+		adjustOccurrences(pNode, 1);
+		publish(DiagramChange.Type.NODE_ADDED, pNode);
+	}
+	
+	/**
+	 * Records that pChild was added to the children of pParent. Nodes that accept
+	 * children must call this method on their diagram when a child is added to them. 
+	 * If pParent is in this diagram, pChild and its descendants become part of 
+	 * this diagram and are attached to it.
+	 * 
+	 * @param pParent The node to which pChild was added.
+	 * @param pChild The child node.
+	 * @pre pParent != null && pChild != null
+	 */
+	public void childAdded(Node pParent, Node pChild)
+	{
+		assert pParent != null && pChild != null;
+		Membership parent = aElements.get(pParent);
+		if( parent != null )
+		{
+			recursiveAttach(pChild);
+			incrementRevision();
+			parent.aRevision = aRevision;
+			modified(pParent);
+			adjustOccurrences(pChild, parent.aOccurrences);
+			publish(DiagramChange.Type.CHILD_RELINKED, pChild);
+		}
+	}
+	
+	/**
+	 * Records that pChild was removed from the children of pParent. Nodes that accept
+	 * children must call this method on their diagram when a child is removed from them. 
+	 * 
+	 * @param pParent The node from which pChild was removed.
+	 * @param pChild The child node.
+	 * @pre pParent != null && pChild != null
+	 */
+	public void childRemoved(Node pParent, Node pChild)
+	{
+		assert pParent != null && pChild != null;
+		Membership parent = aElements.get(pParent);
+		if( parent != null )
+		{
+			incrementRevision();
+			parent.aRevision = aRevision;
+			modified(pParent);
+			adjustOccurrences(pChild, -parent.aOccurrences);
+			Membership child = aElements.get(pChild);
+			if( child != null )
+			{
+				child.aRevision = aRevision;
+			}
+			publish(DiagramChange.Type.CHILD_RELINKED, pChild);
+		}
+	}
+	
+	/*
+	 * Adds pDelta to the number of occurrences of pNode and its descendants,
+	 * and forgets the nodes that no longer occur in the diagram.
+	 */
+	private void adjustOccurrences(Node pNode, int pDelta)
+	{
+		adjustOccurrence(pNode, pDelta);
+		for( Node child : pNode.getChildren() )
+		{
+			adjustOccurrences(child, pDelta);
+		}
+	}
+	
+	private void adjustOccurrence(DiagramElement pElement, int pDelta)
+	{
+		Membership membership = aElements.get(pElement);
+		if( membership == null )
+		{
+			membership = new Membership();
+			aElements.put(pElement, membership);
+			modified(pElement);
+		}
+		membership.aOccurrences += pDelta;
+		if( membership.aOccurrences <= 0 )
+		{
+			aElements.remove(pElement);
+			modified(pElement);
+		}
+		else if( pDelta > 0 )
+		{
+			membership.aRevision = aRevision;
+		}
 	}
 
 	private void recursiveAttach(Node pNode)
@@ -276,9 +607,14 @@ public final class Diagram implements DiagramData
 	 */
 	public void removeRootNode(Node pNode)
 	{
-		assert pNode != null && aRootNodes.contains(pNode);
+		assert pNode != null && containsAsRoot(pNode);
 		recursiveDetach(pNode);
-		aRootNodes.remove(pNode);
+		int index = aRootNodes.indexOf(pNode);
+		aRootNodes.remove(index);
+		rootNodesEdited(list -> list.without(index));
+		incrementRevision();
+		adjustOccurrences(pNode, -1);
+		publish(DiagramChange.Type.NODE_REMOVED, pNode);
 	}
 
 	/**
@@ -292,6 +628,11 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && pEdge.getStart() != null && pEdge.getEnd() != null && pEdge.getDiagram() != null;
 		aEdges.add(pEdge);
+		edgesEdited(list -> list.withLast(pEdge));
+		incrementRevision();
+		adjustOccurrence(pEdge, 1);
+		index(pEdge);
+		publish(DiagramChange.Type.EDGE_ADDED, pEdge);
 	}
 	
 	/**
@@ -305,6 +646,123 @@ public final class Diagram implements DiagramData
 	{
 		assert pEdge != null && pIndex >= 0 && pIndex <= aEdges.size();
 		aEdges.add(pIndex, pEdge);
+		edgesEdited(list -> list.with(pIndex, pEdge));
+		incrementRevision();
+		adjustOccurrence(pEdge, 1);
+		if( pIndex == aEdges.size() - 1 )
+		{
+			index(pEdge);
+		}
+		else
+		{
+			indexAt(pIndex, pEdge);
+		}
+		publish(DiagramChange.Type.EDGE_ADDED, pEdge);
+	}
+	
+	/*
+	 * Adds pEdge at the end of the incidence lists of its nodes.
+	 */
+	private void index(Edge pEdge)
+	{
+		Incidence start = incidenceOf(pEdge.getStart());
+		start.aAll.add(pEdge);
+		start.aOutgoing.add(pEdge);
+		Incidence end = incidenceOf(pEdge.getEnd());
+		if( end != start )
+		{
+			end.aAll.add(pEdge);
+		}
+		end.aIncoming.add(pEdge);
+	}
+	
+	/*
+	 * Inserts pEdge, which is at position pIndex in aEdges, in the incidence lists
+	 * of its nodes after the edges that precede it in aEdges.
+	 */
+	private void indexAt(int pIndex, Edge pEdge)
+	{
+		Incidence start = incidenceOf(pEdge.getStart());
+		start.aAll.add(insertionPoint(start.aAll, pIndex), pEdge);
+		start.aOutgoing.add(insertionPoint(start.aOutgoing, pIndex), pEdge);
+		Incidence end = incidenceOf(pEdge.getEnd());
+		if( end != start )
+		{
+			end.aAll.add(insertionPoint(end.aAll, pIndex), pEdge);
+		}
+		end.aIncoming.add(insertionPoint(end.aIncoming, pIndex), pEdge);
+	}
+	
+	/*
+	 * Returns the number of edges in pEdges, which are in the order of aEdges, 
+	 * that are before position pIndex in aEdges.
+	 */
+	private int insertionPoint(List<Edge> pEdges, int pIndex)
+	{
+		int low = 0;
+		int high = pEdges.size();
+		while( low < high )
+		{
+			int middle = (low + high) >>> 1;
+			if( aEdges.indexOf(pEdges.get(middle)) < pIndex )
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/*
+	 * Removes pEdge from the incidence lists of its nodes, and forgets
+	 * the nodes that are no longer connected to any edge.
+	 */
+	private void unindex(Edge pEdge)
+	{
+		Incidence start = aIncidences.get(pEdge.getStart());
+		Incidence end = aIncidences.get(pEdge.getEnd());
+		assert start != null && end != null;
+		removeIdentical(start.aAll, pEdge);
+		removeIdentical(start.aOutgoing, pEdge);
+		if( end != start )
+		{
+			removeIdentical(end.aAll, pEdge);
+		}
+		removeIdentical(end.aIncoming, pEdge);
+		if( start.aAll.isEmpty() )
+		{
+			aIncidences.remove(pEdge.getStart());
+		}
+		if( end.aAll.isEmpty() )
+		{
+			aIncidences.remove(pEdge.getEnd());
+		}
+	}
+	
+	private Incidence incidenceOf(Node pNode)
+	{
+		Incidence incidence = aIncidences.get(pNode);
+		if( incidence == null )
+		{
+			incidence = new Incidence();
+			aIncidences.put(pNode, incidence);
+		}
+		return incidence;
+	}
+	
+	private static void removeIdentical(List<Edge> pEdges, Edge pEdge)
+	{
+		for( int i = 0; i < pEdges.size(); i++ )
+		{
+			if( pEdges.get(i) == pEdge )
+			{
+				pEdges.remove(i);
+				return;
+			}
+		}
 	}
 
 
@@ -328,8 +786,14 @@ public final class Diagram implements DiagramData
 	 */
 	public void removeEdge(Edge pEdge)
 	{
-		assert pEdge != null && aEdges.contains(pEdge);
-		aEdges.remove(pEdge);
+		assert pEdge != null && contains(pEdge);
+		int index = aEdges.indexOf(pEdge);
+		aEdges.remove(index);
+		edgesEdited(list -> list.without(index));
+		incrementRevision();
+		adjustOccurrence(pEdge, -1);
+		unindex(pEdge);
+		publish(DiagramChange.Type.EDGE_REMOVED, pEdge);
 	}
 
 	/**
@@ -357,8 +821,38 @@ public final class Diagram implements DiagramData
 		}
 		else if( containsAsRoot(pNode) )
 		{
-			removeRootNode(pNode);
-			addRootNode(pNode);
+			int index = aRootNodes.indexOf(pNode);
+			aRootNodes.remove(index);
+			aRootNodes.add(pNode);
+			rootNodesEdited(list -> list.without(index).withLast(pNode));
+			incrementRevision();
 		}
 	}
-}
\ No newline at end of file
+	
+	/*
+	 * The number of times an element occurs in the diagram: once for each edge 
+	 * and root node, and for each child node, as many times as its parent occurs,
+	 * with the revision of the diagram when the element was last added or changed.
+	 */
+	private static final class Membership
+	{
+		private int aOccurrences;
+		private long aRevision;
+	}
+	
+	/*
+	 * The edges connected to a node, with unmodifiable views 
+	 * that can be returned to clients without copying.
+	 */
+	private static final class Incidence
+	{
+		private static final Incidence NONE = new Incidence();
+		
+		private final List<Edge> aAll = new ArrayList<>();
+		private final List<Edge> aOutgoing = new ArrayList<>();
+		private final List<Edge> aIncoming = new ArrayList<>();
+		private final List<Edge> aAllView = Collections.unmodifiableList(aAll);
+		private final List<Edge> aOutgoingView = Collections.unmodifiableList(aOutgoing);
+		private final List<Edge> aIncomingView = Collections.unmodifiableList(aIncoming);
+	}
+}
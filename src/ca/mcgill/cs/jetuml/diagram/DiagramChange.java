@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+/**
+ * A change to a diagram, reported to the DiagramListener objects registered
+ * with the diagram. Two changes are equal if they are of the same type and 
+ * concern the same element.
+ */
+public final class DiagramChange
+{
+	/**
+	 * The kinds of changes.
+	 */
+	public enum Type
+	{
+		/** A root node, along with its descendants, was added to the diagram. */
+		NODE_ADDED(false), 
+		
+		/** A root node, along with its descendants, was removed from the diagram. */
+		NODE_REMOVED(false), 
+		
+		/** A node was moved. */
+		NODE_MOVED(true), 
+		
+		/** An edge was added to the diagram. */
+		EDGE_ADDED(false), 
+		
+		/** An edge was removed from the diagram. */
+		EDGE_REMOVED(false), 
+		
+		/** The value of a property of a node or an edge changed. */
+		PROPERTY_CHANGED(true), 
+		
+		/** A node was added to or removed from the children of a node of the diagram. */
+		CHILD_RELINKED(true);
+		
+		private final boolean aCoalesced;
+		
+		Type(boolean pCoalesced)
+		{
+			aCoalesced = pCoalesced;
+		}
+		
+		/**
+		 * @return True if repeated changes of this type to the same element 
+		 *     are reported once when they are part of the same batch.
+		 */
+		public boolean isCoalesced()
+		{
+			return aCoalesced;
+		}
+	}
+	
+	private final Type aType;
+	private final DiagramElement aElement;
+	
+	/**
+	 * Creates a change.
+	 * 
+	 * @param pType The type of change.
+	 * @param pElement The element that changed.
+	 * @pre pType != null && pElement != null
+	 */
+	public DiagramChange(Type pType, DiagramElement pElement)
+	{
+		assert pType != null && pElement != null;
+		aType = pType;
+		aElement = pElement;
+	}
+	
+	/**
+	 * @return The type of change.
+	 */
+	public Type getType()
+	{
+		return aType;
+	}
+	
+	/**
+	 * @return The element that changed. For NODE_ADDED and NODE_REMOVED changes,
+	 *     the root node. For CHILD_RELINKED changes, the child node.
+	 */
+	public DiagramElement getElement()
+	{
+		return aElement;
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return 31 * aType.hashCode() + System.identityHashCode(aElement);
+	}
+	
+	@Override
+	public boolean equals(Object pObject)
+	{
+		if( this == pObject )
+		{
+			return true;
+		}
+		if( pObject == null || pObject.getClass() != getClass() )
+		{
+			return false;
+		}
+		DiagramChange other = (DiagramChange) pObject;
+		return aType == other.aType && aElement == other.aElement;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return aType + " " + aElement;
+	}
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.List;
+
+/**
+ * Objects interested in the changes made to a diagram, for example 
+ * to keep information computed from the diagram up to date.
+ */
+public interface DiagramListener
+{
+	/**
+	 * Called after pDiagram changed. The changes made during a batch are 
+	 * reported together when the batch ends, otherwise each change is 
+	 * reported as soon as it is made.
+	 * 
+	 * @param pDiagram The diagram that changed.
+	 * @param pChanges The changes, in the order in which they were made.
+	 */
+	void diagramChanged(Diagram pDiagram, List<DiagramChange> pChanges);
+}
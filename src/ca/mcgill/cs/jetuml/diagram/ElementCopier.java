@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clones nodes and connects cloned edges to the clones of their end nodes.
+ * 
+ * Cloning a node also clones its descendants. The copier remembers the clone 
+ * of each node it cloned, including descendants, so that the edges can then be
+ * connected to the clones in a single pass, without searching the edges 
+ * connected to each node.
+ */
+public final class ElementCopier
+{
+	private final Map<Node, Node> aCopies = new IdentityHashMap<>();
+	
+	/**
+	 * Clones pNode and its descendants. If a node is cloned more than once, 
+	 * its first clone is used to connect edges.
+	 * 
+	 * @param pNode The node to clone.
+	 * @return The clone of pNode.
+	 * @pre pNode != null
+	 */
+	public Node copy(Node pNode)
+	{
+		assert pNode != null;
+		Node copy = pNode.clone();
+		record(pNode, copy);
+		return copy;
+	}
+	
+	/*
+	 * Maps pOriginal and its descendants to their counterparts in pCopy,
+	 * which has the same topology.
+	 */
+	private void record(Node pOriginal, Node pCopy)
+	{
+		aCopies.putIfAbsent(pOriginal, pCopy);
+		List<Node> originalChildren = pOriginal.getChildren();
+		List<Node> copyChildren = pCopy.getChildren();
+		for( int i = 0; i < originalChildren.size(); i++ )
+		{
+			record(originalChildren.get(i), copyChildren.get(i));
+		}
+	}
+	
+	/**
+	 * Connects pEdge to the clones of its start and end nodes, and to pDiagram. 
+	 * The ends of pEdge whose node was not cloned by this copier are not changed.
+	 * 
+	 * @param pEdge An edge, normally the clone of an edge between nodes cloned by this copier.
+	 * @param pDiagram The diagram to connect pEdge to.
+	 * @pre pEdge != null
+	 */
+	public void reconnect(Edge pEdge, Diagram pDiagram)
+	{
+		assert pEdge != null;
+		Node start = aCopies.getOrDefault(pEdge.getStart(), pEdge.getStart());
+		Node end = aCopies.getOrDefault(pEdge.getEnd(), pEdge.getEnd());
+		if( start != pEdge.getStart() || end != pEdge.getEnd() || pDiagram != pEdge.getDiagram() )
+		{
+			pEdge.connect(start, end, pDiagram);
+		}
+	}
+}
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import ca.mcgill.cs.jetuml.geom.Point;
+
+/**
+ * An immutable record of the content of a diagram at a given revision, 
+ * obtained with Diagram.snapshot. A snapshot can be read from any thread,
+ * including while the diagram is being edited.
+ * 
+ * The nodes and edges returned by a snapshot identify the elements of the 
+ * diagram: their state at the time of the snapshot must be obtained from the 
+ * snapshot, since the elements themselves may have changed since. The state 
+ * of each element is stored in a persistent map, so that the snapshot taken 
+ * after a change shares the state of all unchanged elements with the previous 
+ * snapshot, and only the state of the elements that changed is recorded again.
+ * Likewise, the root nodes and edges are stored in persistent lists, to which 
+ * the next snapshot applies the insertions and removals made since this one.
+ */
+public final class ImmutableDiagram
+{
+	private final DiagramType aType;
+	private final long aRevision;
+	private final PersistentList<Node> aRootNodes;
+	private final PersistentList<Edge> aEdges;
+	private final PersistentMap<DiagramElement, ElementState> aStates;
+	
+	private ImmutableDiagram(DiagramType pType, long pRevision, PersistentList<Node> pRootNodes, PersistentList<Edge> pEdges,
+			PersistentMap<DiagramElement, ElementState> pStates)
+	{
+		aType = pType;
+		aRevision = pRevision;
+		aRootNodes = pRootNodes;
+		aEdges = pEdges;
+		aStates = pStates;
+	}
+	
+	/*
+	 * Records the state of all the elements of pDiagram.
+	 */
+	static ImmutableDiagram of(Diagram pDiagram)
+	{
+		PersistentMap<DiagramElement, ElementState> states = PersistentMap.empty();
+		for( Node node : pDiagram.rootNodes() )
+		{
+			states = withSubtree(pDiagram, states, node);
+		}
+		for( Edge edge : pDiagram.edges() )
+		{
+			states = states.with(edge, new EdgeState(pDiagram, edge));
+		}
+		return new ImmutableDiagram(pDiagram.getType(), pDiagram.getRevision(), 
+				PersistentList.of(pDiagram.rootNodes()), PersistentList.of(pDiagram.edges()), states);
+	}
+	
+	private static PersistentMap<DiagramElement, ElementState> withSubtree(Diagram pDiagram, 
+			PersistentMap<DiagramElement, ElementState> pStates, Node pNode)
+	{
+		PersistentMap<DiagramElement, ElementState> states = pStates.with(pNode, new NodeState(pDiagram, pNode));
+		for( Node child : pNode.getChildren() )
+		{
+			states = withSubtree(pDiagram, states, child);
+		}
+		return states;
+	}
+	
+	/*
+	 * Creates the snapshot of pDiagram that follows this one, recording again 
+	 * only the state of the elements in pModified, and applying pRootNodeEdits and 
+	 * pEdgeEdits to the lists of root nodes and edges of this snapshot.
+	 */
+	ImmutableDiagram update(Diagram pDiagram, Set<DiagramElement> pModified, 
+			ListEdits<Node> pRootNodeEdits, ListEdits<Edge> pEdgeEdits)
+	{
+		PersistentMap<DiagramElement, ElementState> states = aStates;
+		for( DiagramElement element : pModified )
+		{
+			if( !pDiagram.contains(element) )
+			{
+				states = states.without(element);
+			}
+			else if( element instanceof Node )
+			{
+				states = states.with(element, new NodeState(pDiagram, (Node) element));
+			}
+			else
+			{
+				states = states.with(element, new EdgeState(pDiagram, (Edge) element));
+			}
+		}
+		PersistentList<Node> rootNodes = pRootNodeEdits.apply(aRootNodes, pDiagram.rootNodes());
+		PersistentList<Edge> edges = pEdgeEdits.apply(aEdges, pDiagram.edges());
+		return new ImmutableDiagram(aType, pDiagram.getRevision(), rootNodes, edges, states);
+	}
+	
+	/**
+	 * @return The type of the diagram.
+	 */
+	public DiagramType getType()
+	{
+		return aType;
+	}
+	
+	/**
+	 * @return The revision of the diagram when this snapshot was taken.
+	 */
+	public long getRevision()
+	{
+		return aRevision;
+	}
+	
+	/**
+	 * @param pElement An element of this snapshot.
+	 * @return The revision of the diagram when pElement was last added or changed.
+	 * @pre contains(pElement)
+	 */
+	public long getRevision(DiagramElement pElement)
+	{
+		return state(pElement).aRevision;
+	}
+	
+	/**
+	 * @return The root nodes of the diagram, in order. Unmodifiable.
+	 */
+	public List<Node> rootNodes()
+	{
+		return aRootNodes;
+	}
+	
+	/**
+	 * @return The edges of the diagram, in order. Unmodifiable.
+	 */
+	public List<Edge> edges()
+	{
+		return aEdges;
+	}
+	
+	/**
+	 * @param pElement The element to check.
+	 * @return True if pElement was in the diagram when this snapshot was taken.
+	 * @pre pElement != null
+	 */
+	public boolean contains(DiagramElement pElement)
+	{
+		assert pElement != null;
+		return aStates.containsKey(pElement);
+	}
+	
+	/**
+	 * @return The number of nodes and edges in this snapshot.
+	 */
+	public int size()
+	{
+		return aStates.size();
+	}
+	
+	/**
+	 * @param pNode A node of this snapshot.
+	 * @return The position of pNode.
+	 * @pre contains(pNode)
+	 */
+	public Point position(Node pNode)
+	{
+		return ((NodeState) state(pNode)).aPosition;
+	}
+	
+	/**
+	 * @param pNode A node of this snapshot.
+	 * @return The children of pNode, in order. Unmodifiable.
+	 * @pre contains(pNode)
+	 */
+	public List<Node> getChildren(Node pNode)
+	{
+		return ((NodeState) state(pNode)).aChildren;
+	}
+	
+	/**
+	 * @param pEdge An edge of this snapshot.
+	 * @return The start node of pEdge.
+	 * @pre contains(pEdge)
+	 */
+	public Node getStart(Edge pEdge)
+	{
+		return ((EdgeState) state(pEdge)).aStart;
+	}
+	
+	/**
+	 * @param pEdge An edge of this snapshot.
+	 * @return The end node of pEdge.
+	 * @pre contains(pEdge)
+	 */
+	public Node getEnd(Edge pEdge)
+	{
+		return ((EdgeState) state(pEdge)).aEnd;
+	}
+	
+	/**
+	 * @param pElement An element of this snapshot.
+	 * @return The names of the properties of pElement, in order. Unmodifiable.
+	 * @pre contains(pElement)
+	 */
+	public List<PropertyName> propertyNames(DiagramElement pElement)
+	{
+		return Collections.unmodifiableList(Arrays.asList(state(pElement).aNames));
+	}
+	
+	/**
+	 * @param pElement An element of this snapshot.
+	 * @param pName The name of a property of pElement.
+	 * @return The value of the property.
+	 * @pre contains(pElement)
+	 * @pre propertyNames(pElement).contains(pName)
+	 */
+	public Object propertyValue(DiagramElement pElement, PropertyName pName)
+	{
+		ElementState state = state(pElement);
+		for( int i = 0; i < state.aNames.length; i++ )
+		{
+			if( state.aNames[i] == pName )
+			{
+				return state.aValues[i];
+			}
+		}
+		assert false;
+		return null;
+	}
+	
+	private ElementState state(DiagramElement pElement)
+	{
+		assert pElement != null && contains(pElement);
+		return aStates.get(pElement);
+	}
+	
+	/*
+	 * The insertions and removals made to a list of a diagram since its last 
+	 * snapshot, recorded so that the next snapshot can apply them to the list 
+	 * of the previous one instead of copying the list. When there are more 
+	 * changes than elements in the list, the changes are discarded and the 
+	 * next snapshot copies the list instead, so that the record stays small
+	 * when no snapshot is taken for a long time.
+	 */
+	static final class ListEdits<E>
+	{
+		private final List<UnaryOperator<PersistentList<E>>> aEdits = new ArrayList<>();
+		private boolean aDiscarded = false;
+		
+		/*
+		 * Records pEdit, a change made to a list that has pSize elements 
+		 * after the change.
+		 */
+		void record(UnaryOperator<PersistentList<E>> pEdit, int pSize)
+		{
+			if( aDiscarded )
+			{
+				return;
+			}
+			if( aEdits.size() > pSize )
+			{
+				aEdits.clear();
+				aDiscarded = true;
+			}
+			else
+			{
+				aEdits.add(pEdit);
+			}
+		}
+		
+		/*
+		 * Returns pList with the recorded changes applied. pElements 
+		 * is the content of the list after the changes.
+		 */
+		PersistentList<E> apply(PersistentList<E> pList, List<E> pElements)
+		{
+			if( aDiscarded )
+			{
+				return PersistentList.of(pElements);
+			}
+			PersistentList<E> list = pList;
+			for( UnaryOperator<PersistentList<E>> edit : aEdits )
+			{
+				list = edit.apply(list);
+			}
+			assert list.size() == pElements.size();
+			return list;
+		}
+		
+		void clear()
+		{
+			aEdits.clear();
+			aDiscarded = false;
+		}
+	}
+	
+	/*
+	 * The state of an element: its revision and the values of its properties. 
+	 * The values of properties are strings, enumerated values, integers, or 
+	 * booleans, which are all immutable.
+	 */
+	private static class ElementState
+	{
+		private final long aRevision;
+		private final PropertyName[] aNames;
+		private final Object[] aValues;
+		
+		ElementState(Diagram pDiagram, DiagramElement pElement)
+		{
+			aRevision = pDiagram.getRevision(pElement);
+			List<Property> properties = new ArrayList<>();
+			pElement.properties().forEach(properties::add);
+			aNames = new PropertyName[properties.size()];
+			aValues = new Object[properties.size()];
+			for( int i = 0; i < aNames.length; i++ )
+			{
+				aNames[i] = properties.get(i).name();
+				aValues[i] = properties.get(i).get();
+			}
+		}
+	}
+	
+	private static final class NodeState extends ElementState
+	{
+		private final Point aPosition;
+		private final List<Node> aChildren;
+		
+		NodeState(Diagram pDiagram, Node pNode)
+		{
+			super(pDiagram, pNode);
+			aPosition = pNode.position();
+			aChildren = List.copyOf(pNode.getChildren());
+		}
+	}
+	
+	private static final class EdgeState extends ElementState
+	{
+		private final Node aStart;
+		private final Node aEnd;
+		
+		EdgeState(Diagram pDiagram, Edge pEdge)
+		{
+			super(pDiagram, pEdge);
+			aStart = pEdge.getStart();
+			aEnd = pEdge.getEnd();
+		}
+	}
+}
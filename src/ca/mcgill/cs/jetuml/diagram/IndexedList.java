@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * A list of distinct elements that supports finding, removing, and inserting 
+ * elements at any position in logarithmic time, so that the order of the 
+ * elements of a diagram can be maintained without shifting or searching arrays.
+ * 
+ * Elements are compared by identity: contains, indexOf and remove only 
+ * find the element itself. Null elements are not supported. An element 
+ * can be added more than once, but the operations on such an element take
+ * time proportional to its number of occurrences.
+ * 
+ * The elements are stored in a tree balanced with random priorities (a treap),
+ * in which the position of an element is its rank in an in-order traversal.
+ * Each element is mapped to its entries in the tree, and the rank of an entry
+ * is computed from the size of the subtrees on the path to the root.
+ *
+ * @param <E> The type of the elements.
+ */
+final class IndexedList<E> extends AbstractList<E>
+{
+	private final Map<E, Entry<E>> aEntries = new IdentityHashMap<>();
+	private final Random aRandom = new Random();
+	private Entry<E> aRoot;
+	
+	@Override
+	public int size()
+	{
+		return size(aRoot);
+	}
+	
+	@Override
+	public E get(int pIndex)
+	{
+		return entryAt(pIndex).aElement;
+	}
+	
+	private Entry<E> entryAt(int pIndex)
+	{
+		Objects.checkIndex(pIndex, size());
+		Entry<E> entry = aRoot;
+		int index = pIndex;
+		while( index != size(entry.aLeft) )
+		{
+			if( index < size(entry.aLeft) )
+			{
+				entry = entry.aLeft;
+			}
+			else
+			{
+				index -= size(entry.aLeft) + 1;
+				entry = entry.aRight;
+			}
+		}
+		return entry;
+	}
+	
+	@Override
+	public boolean contains(Object pElement)
+	{
+		return aEntries.containsKey(pElement);
+	}
+	
+	@Override
+	public int indexOf(Object pElement)
+	{
+		Entry<E> entry = first(aEntries.get(pElement));
+		return entry == null ? -1 : rank(entry);
+	}
+	
+	@Override
+	public int lastIndexOf(Object pElement)
+	{
+		int index = -1;
+		for( Entry<E> entry = aEntries.get(pElement); entry != null; entry = entry.aNextOccurrence )
+		{
+			index = Math.max(index, rank(entry));
+		}
+		return index;
+	}
+	
+	/**
+	 * Inserts pElement at position pIndex.
+	 * 
+	 * @param pIndex The position of the element.
+	 * @param pElement The element to insert.
+	 * @pre pElement != null
+	 */
+	@Override
+	public void add(int pIndex, E pElement)
+	{
+		assert pElement != null;
+		if( pIndex < 0 || pIndex > size() )
+		{
+			throw new IndexOutOfBoundsException(pIndex);
+		}
+		Entry<E> entry = new Entry<>(pElement, aRandom.nextInt());
+		entry.aNextOccurrence = aEntries.put(pElement, entry);
+		if( pIndex == size() )
+		{
+			aRoot = merge(aRoot, entry);
+		}
+		else
+		{
+			Split<E> split = new Split<>();
+			split(aRoot, pIndex, split);
+			aRoot = merge(merge(detach(split.aLeft), entry), detach(split.aRight));
+		}
+		aRoot.aParent = null;
+		modCount++;
+	}
+	
+	@Override
+	public E remove(int pIndex)
+	{
+		Entry<E> entry = entryAt(pIndex);
+		removeEntry(entry);
+		return entry.aElement;
+	}
+	
+	@Override
+	public boolean remove(Object pElement)
+	{
+		Entry<E> entry = first(aEntries.get(pElement));
+		if( entry == null )
+		{
+			return false;
+		}
+		removeEntry(entry);
+		return true;
+	}
+	
+	private void removeEntry(Entry<E> pEntry)
+	{
+		removeOccurrence(pEntry);
+		Entry<E> replacement = merge(detach(pEntry.aLeft), detach(pEntry.aRight));
+		Entry<E> parent = pEntry.aParent;
+		if( parent == null )
+		{
+			aRoot = replacement;
+			if( aRoot != null )
+			{
+				aRoot.aParent = null;
+			}
+		}
+		else
+		{
+			if( parent.aLeft == pEntry )
+			{
+				parent.setLeft(replacement);
+			}
+			else
+			{
+				parent.setRight(replacement);
+			}
+			for( Entry<E> ancestor = parent.aParent; ancestor != null; ancestor = ancestor.aParent )
+			{
+				ancestor.updateSize();
+			}
+		}
+		modCount++;
+	}
+	
+	@Override
+	public void clear()
+	{
+		aEntries.clear();
+		aRoot = null;
+		modCount++;
+	}
+	
+	@Override
+	public Iterator<E> iterator()
+	{
+		return new Iterator<E>()
+		{
+			private Entry<E> aNext = leftmost(aRoot);
+			private final int aExpectedModCount = modCount;
+			
+			@Override
+			public boolean hasNext()
+			{
+				return aNext != null;
+			}
+
+			@Override
+			public E next()
+			{
+				if( modCount != aExpectedModCount )
+				{
+					throw new ConcurrentModificationException();
+				}
+				if( aNext == null )
+				{
+					throw new NoSuchElementException();
+				}
+				E element = aNext.aElement;
+				aNext = successor(aNext);
+				return element;
+			}
+		};
+	}
+	
+	/*
+	 * Returns the first entry, in the order of the list, among pEntry and 
+	 * the other occurrences of its element, or null if pEntry is null.
+	 */
+	private Entry<E> first(Entry<E> pEntry)
+	{
+		if( pEntry == null || pEntry.aNextOccurrence == null )
+		{
+			return pEntry;
+		}
+		Entry<E> first = pEntry;
+		int firstRank = rank(pEntry);
+		for( Entry<E> entry = pEntry.aNextOccurrence; entry != null; entry = entry.aNextOccurrence )
+		{
+			int rank = rank(entry);
+			if( rank < firstRank )
+			{
+				first = entry;
+				firstRank = rank;
+			}
+		}
+		return first;
+	}
+	
+	private void removeOccurrence(Entry<E> pEntry)
+	{
+		Entry<E> head = aEntries.get(pEntry.aElement);
+		if( head == pEntry )
+		{
+			if( pEntry.aNextOccurrence == null )
+			{
+				aEntries.remove(pEntry.aElement);
+			}
+			else
+			{
+				aEntries.put(pEntry.aElement, pEntry.aNextOccurrence);
+			}
+			return;
+		}
+		Entry<E> previous = head;
+		while( previous.aNextOccurrence != pEntry )
+		{
+			previous = previous.aNextOccurrence;
+		}
+		previous.aNextOccurrence = pEntry.aNextOccurrence;
+	}
+	
+	/*
+	 * Returns the position of pEntry in the list.
+	 */
+	private static int rank(Entry<?> pEntry)
+	{
+		int rank = size(pEntry.aLeft);
+		for( Entry<?> entry = pEntry; entry.aParent != null; entry = entry.aParent )
+		{
+			if( entry == entry.aParent.aRight )
+			{
+				rank += size(entry.aParent.aLeft) + 1;
+			}
+		}
+		return rank;
+	}
+	
+	private static int size(Entry<?> pEntry)
+	{
+		return pEntry == null ? 0 : pEntry.aSize;
+	}
+	
+	private static <E> Entry<E> detach(Entry<E> pEntry)
+	{
+		if( pEntry != null )
+		{
+			pEntry.aParent = null;
+		}
+		return pEntry;
+	}
+	
+	private static <E> Entry<E> leftmost(Entry<E> pEntry)
+	{
+		Entry<E> entry = pEntry;
+		while( entry != null && entry.aLeft != null )
+		{
+			entry = entry.aLeft;
+		}
+		return entry;
+	}
+	
+	private static <E> Entry<E> successor(Entry<E> pEntry)
+	{
+		if( pEntry.aRight != null )
+		{
+			return leftmost(pEntry.aRight);
+		}
+		Entry<E> entry = pEntry;
+		while( entry.aParent != null && entry == entry.aParent.aRight )
+		{
+			entry = entry.aParent;
+		}
+		return entry.aParent;
+	}
+	
+	/*
+	 * Joins two trees such that all the entries of pLeft precede those of pRight.
+	 * The parent of the returned entry must be set by the caller.
+	 */
+	private static <E> Entry<E> merge(Entry<E> pLeft, Entry<E> pRight)
+	{
+		if( pLeft == null )
+		{
+			return pRight;
+		}
+		if( pRight == null )
+		{
+			return pLeft;
+		}
+		if( pLeft.aPriority > pRight.aPriority )
+		{
+			pLeft.setRight(merge(pLeft.aRight, pRight));
+			return pLeft;
+		}
+		else
+		{
+			pRight.setLeft(merge(pLeft, pRight.aLeft));
+			return pRight;
+		}
+	}
+	
+	/*
+	 * Splits pTree into a tree of its first pCount entries and a tree of the 
+	 * other entries. The parents of the resulting trees must be set by the caller.
+	 */
+	private static <E> void split(Entry<E> pTree, int pCount, Split<E> pResult)
+	{
+		if( pTree == null )
+		{
+			pResult.aLeft = null;
+			pResult.aRight = null;
+		}
+		else if( pCount <= size(pTree.aLeft) )
+		{
+			split(pTree.aLeft, pCount, pResult);
+			pTree.setLeft(pResult.aRight);
+			pResult.aRight = pTree;
+		}
+		else
+		{
+			split(pTree.aRight, pCount - size(pTree.aLeft) - 1, pResult);
+			pTree.setRight(pResult.aLeft);
+			pResult.aLeft = pTree;
+		}
+	}
+	
+	private static final class Split<E>
+	{
+		private Entry<E> aLeft;
+		private Entry<E> aRight;
+	}
+	
+	private static final class Entry<E>
+	{
+		private final E aElement;
+		private final int aPriority;
+		private Entry<E> aLeft;
+		private Entry<E> aRight;
+		private Entry<E> aParent;
+		private int aSize = 1;
+		// Another entry for the same element, if it occurs more than once
+		private Entry<E> aNextOccurrence;
+		
+		Entry(E pElement, int pPriority)
+		{
+			aElement = pElement;
+			aPriority = pPriority;
+		}
+		
+		void setLeft(Entry<E> pEntry)
+		{
+			aLeft = pEntry;
+			if( pEntry != null )
+			{
+				pEntry.aParent = this;
+			}
+			updateSize();
+		}
+		
+		void setRight(Entry<E> pEntry)
+		{
+			aRight = pEntry;
+			if( pEntry != null )
+			{
+				pEntry.aParent = this;
+			}
+			updateSize();
+		}
+		
+		void updateSize()
+		{
+			aSize = size(aLeft) + size(aRight) + 1;
+		}
+	}
+}
@@ -0,0 +1,357 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * An immutable list in which inserting or removing an element creates a new 
+ * list that shares most of its structure with the original one, so that both 
+ * versions remain valid and the cost of a change is logarithmic in the size 
+ * of the list.
+ * 
+ * Null elements are not supported. The methods of the List interface that 
+ * modify the list throw UnsupportedOperationException.
+ * 
+ * The elements are stored in a tree balanced with random priorities (a treap),
+ * in which the position of an element is its rank in an in-order traversal. 
+ * Changing the list copies the entries on the path from the root to the 
+ * position of the change.
+ *
+ * @param <E> The type of the elements.
+ */
+final class PersistentList<E> extends AbstractList<E>
+{
+	private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+	private static final Random RANDOM = new Random();
+	
+	private final Entry<E> aRoot;
+	
+	private PersistentList(Entry<E> pRoot)
+	{
+		aRoot = pRoot;
+	}
+	
+	/**
+	 * @return A list with no elements.
+	 * @param <E> The type of the elements.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> PersistentList<E> empty()
+	{
+		return (PersistentList<E>) EMPTY;
+	}
+	
+	/**
+	 * Creates a list of the elements of pElements in time linear in their number.
+	 * 
+	 * @param pElements The elements of the list, in order.
+	 * @return A list of the elements of pElements.
+	 * @param <E> The type of the elements.
+	 * @pre pElements != null && !pElements.contains(null)
+	 */
+	static <E> PersistentList<E> of(List<E> pElements)
+	{
+		assert pElements != null;
+		int size = pElements.size();
+		if( size == 0 )
+		{
+			return empty();
+		}
+		// Builds the tree of the priorities with a stack of its right spine
+		int[] priorities = new int[size];
+		int[] lefts = new int[size];
+		int[] rights = new int[size];
+		int[] spine = new int[size];
+		int top = -1;
+		for( int i = 0; i < size; i++ )
+		{
+			priorities[i] = RANDOM.nextInt();
+			rights[i] = -1;
+			int last = -1;
+			while( top >= 0 && priorities[spine[top]] < priorities[i] )
+			{
+				last = spine[top];
+				top--;
+			}
+			lefts[i] = last;
+			if( top >= 0 )
+			{
+				rights[spine[top]] = i;
+			}
+			spine[++top] = i;
+		}
+		Object[] elements = pElements.toArray();
+		return new PersistentList<>(build(spine[0], elements, priorities, lefts, rights));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <E> Entry<E> build(int pIndex, Object[] pElements, int[] pPriorities, int[] pLefts, int[] pRights)
+	{
+		if( pIndex < 0 )
+		{
+			return null;
+		}
+		assert pElements[pIndex] != null;
+		return new Entry<>((E) pElements[pIndex], pPriorities[pIndex], 
+				build(pLefts[pIndex], pElements, pPriorities, pLefts, pRights),
+				build(pRights[pIndex], pElements, pPriorities, pLefts, pRights));
+	}
+	
+	@Override
+	public int size()
+	{
+		return size(aRoot);
+	}
+	
+	@Override
+	public E get(int pIndex)
+	{
+		Objects.checkIndex(pIndex, size());
+		Entry<E> entry = aRoot;
+		int index = pIndex;
+		while( index != size(entry.aLeft) )
+		{
+			if( index < size(entry.aLeft) )
+			{
+				entry = entry.aLeft;
+			}
+			else
+			{
+				index -= size(entry.aLeft) + 1;
+				entry = entry.aRight;
+			}
+		}
+		return entry.aElement;
+	}
+	
+	/**
+	 * @param pIndex The position of the new element.
+	 * @param pElement The element to insert.
+	 * @return A list with the elements of this list, and pElement at position pIndex.
+	 * @pre pElement != null
+	 */
+	PersistentList<E> with(int pIndex, E pElement)
+	{
+		assert pElement != null;
+		if( pIndex < 0 || pIndex > size() )
+		{
+			throw new IndexOutOfBoundsException(pIndex);
+		}
+		return new PersistentList<>(insert(aRoot, pIndex, pElement, RANDOM.nextInt()));
+	}
+	
+	/**
+	 * @param pElement The element to insert.
+	 * @return A list with the elements of this list, followed by pElement.
+	 * @pre pElement != null
+	 */
+	PersistentList<E> withLast(E pElement)
+	{
+		return with(size(), pElement);
+	}
+	
+	/**
+	 * @param pIndex The position of the element to remove.
+	 * @return A list with the elements of this list, except the one at position pIndex.
+	 */
+	PersistentList<E> without(int pIndex)
+	{
+		Objects.checkIndex(pIndex, size());
+		Entry<E> root = remove(aRoot, pIndex);
+		if( root == null )
+		{
+			return empty();
+		}
+		return new PersistentList<>(root);
+	}
+	
+	@Override
+	public Iterator<E> iterator()
+	{
+		return new EntryIterator<>(aRoot);
+	}
+	
+	private static int size(Entry<?> pEntry)
+	{
+		return pEntry == null ? 0 : pEntry.aSize;
+	}
+	
+	private static <E> Entry<E> insert(Entry<E> pTree, int pIndex, E pElement, int pPriority)
+	{
+		if( pTree == null )
+		{
+			return new Entry<>(pElement, pPriority, null, null);
+		}
+		if( pPriority > pTree.aPriority )
+		{
+			Split<E> split = new Split<>();
+			split(pTree, pIndex, split);
+			return new Entry<>(pElement, pPriority, split.aLeft, split.aRight);
+		}
+		if( pIndex <= size(pTree.aLeft) )
+		{
+			return pTree.withLeft(insert(pTree.aLeft, pIndex, pElement, pPriority));
+		}
+		return pTree.withRight(insert(pTree.aRight, pIndex - size(pTree.aLeft) - 1, pElement, pPriority));
+	}
+	
+	private static <E> Entry<E> remove(Entry<E> pTree, int pIndex)
+	{
+		int leftSize = size(pTree.aLeft);
+		if( pIndex == leftSize )
+		{
+			return merge(pTree.aLeft, pTree.aRight);
+		}
+		if( pIndex < leftSize )
+		{
+			return pTree.withLeft(remove(pTree.aLeft, pIndex));
+		}
+		return pTree.withRight(remove(pTree.aRight, pIndex - leftSize - 1));
+	}
+	
+	/*
+	 * Joins two trees such that all the entries of pLeft precede those of pRight.
+	 */
+	private static <E> Entry<E> merge(Entry<E> pLeft, Entry<E> pRight)
+	{
+		if( pLeft == null )
+		{
+			return pRight;
+		}
+		if( pRight == null )
+		{
+			return pLeft;
+		}
+		if( pLeft.aPriority > pRight.aPriority )
+		{
+			return pLeft.withRight(merge(pLeft.aRight, pRight));
+		}
+		else
+		{
+			return pRight.withLeft(merge(pLeft, pRight.aLeft));
+		}
+	}
+	
+	/*
+	 * Splits pTree into a tree of its first pCount entries and a tree of the 
+	 * other entries.
+	 */
+	private static <E> void split(Entry<E> pTree, int pCount, Split<E> pResult)
+	{
+		if( pTree == null )
+		{
+			pResult.aLeft = null;
+			pResult.aRight = null;
+		}
+		else if( pCount <= size(pTree.aLeft) )
+		{
+			split(pTree.aLeft, pCount, pResult);
+			pResult.aRight = pTree.withLeft(pResult.aRight);
+		}
+		else
+		{
+			split(pTree.aRight, pCount - size(pTree.aLeft) - 1, pResult);
+			pResult.aLeft = pTree.withRight(pResult.aLeft);
+		}
+	}
+	
+	/*
+	 * Visits the entries in order, keeping the entries whose element and 
+	 * right subtree remain to be visited on a stack.
+	 */
+	private static final class EntryIterator<E> implements Iterator<E>
+	{
+		private final Deque<Entry<E>> aPath = new ArrayDeque<>();
+		
+		EntryIterator(Entry<E> pRoot)
+		{
+			pushLeft(pRoot);
+		}
+		
+		private void pushLeft(Entry<E> pEntry)
+		{
+			for( Entry<E> entry = pEntry; entry != null; entry = entry.aLeft )
+			{
+				aPath.push(entry);
+			}
+		}
+		
+		@Override
+		public boolean hasNext()
+		{
+			return !aPath.isEmpty();
+		}
+
+		@Override
+		public E next()
+		{
+			if( aPath.isEmpty() )
+			{
+				throw new NoSuchElementException();
+			}
+			Entry<E> entry = aPath.pop();
+			pushLeft(entry.aRight);
+			return entry.aElement;
+		}
+	}
+	
+	private static final class Split<E>
+	{
+		private Entry<E> aLeft;
+		private Entry<E> aRight;
+	}
+	
+	private static final class Entry<E>
+	{
+		private final E aElement;
+		private final int aPriority;
+		private final Entry<E> aLeft;
+		private final Entry<E> aRight;
+		private final int aSize;
+		
+		Entry(E pElement, int pPriority, Entry<E> pLeft, Entry<E> pRight)
+		{
+			aElement = pElement;
+			aPriority = pPriority;
+			aLeft = pLeft;
+			aRight = pRight;
+			aSize = size(pLeft) + size(pRight) + 1;
+		}
+		
+		Entry<E> withLeft(Entry<E> pLeft)
+		{
+			return new Entry<>(aElement, aPriority, pLeft, aRight);
+		}
+		
+		Entry<E> withRight(Entry<E> pRight)
+		{
+			return new Entry<>(aElement, aPriority, aLeft, pRight);
+		}
+	}
+}
@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map in which adding or removing a mapping creates a new map 
+ * that shares most of its structure with the original one, so that both 
+ * versions remain valid and the cost of a change is logarithmic in the 
+ * size of the map.
+ * 
+ * Keys are compared by identity. Null keys and values are not supported.
+ * 
+ * The mappings are stored in a hash array mapped trie: each level of the trie
+ * consumes five bits of the identity hash code of the keys, and each node 
+ * only stores the entries for which its bitmap has a bit set. Changing a mapping 
+ * copies the nodes on the path from the root to the mapping. Keys whose hash 
+ * codes are identical are stored together below the last level.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+final class PersistentMap<K, V>
+{
+	private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(Trie.EMPTY, 0);
+	
+	private final Trie aRoot;
+	private final int aSize;
+	
+	private PersistentMap(Trie pRoot, int pSize)
+	{
+		aRoot = pRoot;
+		aSize = pSize;
+	}
+	
+	/**
+	 * @return A map with no mappings.
+	 * @param <K> The type of the keys.
+	 * @param <V> The type of the values.
+	 */
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentMap<K, V> empty()
+	{
+		return (PersistentMap<K, V>) EMPTY;
+	}
+	
+	/**
+	 * @return The number of mappings in this map.
+	 */
+	int size()
+	{
+		return aSize;
+	}
+	
+	/**
+	 * @param pKey The key to look up.
+	 * @return The value mapped to pKey, or null if there is none.
+	 * @pre pKey != null
+	 */
+	@SuppressWarnings("unchecked")
+	V get(K pKey)
+	{
+		assert pKey != null;
+		return (V) aRoot.find(System.identityHashCode(pKey), 0, pKey);
+	}
+	
+	/**
+	 * @param pKey The key to look up.
+	 * @return True if this map has a mapping for pKey.
+	 * @pre pKey != null
+	 */
+	boolean containsKey(K pKey)
+	{
+		return get(pKey) != null;
+	}
+	
+	/**
+	 * @param pKey The key of the mapping.
+	 * @param pValue The value of the mapping.
+	 * @return A map with the mappings of this map, except that pKey is 
+	 *     mapped to pValue. This map if pKey is already mapped to pValue.
+	 * @pre pKey != null && pValue != null
+	 */
+	PersistentMap<K, V> with(K pKey, V pValue)
+	{
+		assert pKey != null && pValue != null;
+		Trie root = aRoot.with(System.identityHashCode(pKey), 0, pKey, pValue);
+		if( root == aRoot )
+		{
+			return this;
+		}
+		return new PersistentMap<>(root, containsKey(pKey) ? aSize : aSize + 1);
+	}
+	
+	/**
+	 * @param pKey The key of the mapping to remove.
+	 * @return A map with the mappings of this map, except for the one for pKey. 
+	 *     This map if there is no mapping for pKey.
+	 * @pre pKey != null
+	 */
+	PersistentMap<K, V> without(K pKey)
+	{
+		assert pKey != null;
+		Trie root = aRoot.without(System.identityHashCode(pKey), 0, pKey);
+		if( root == aRoot )
+		{
+			return this;
+		}
+		if( root == null )
+		{
+			return empty();
+		}
+		return new PersistentMap<>(root, aSize - 1);
+	}
+	
+	/**
+	 * Calls pAction on each mapping, in no particular order.
+	 * 
+	 * @param pAction The action to perform.
+	 * @pre pAction != null
+	 */
+	@SuppressWarnings("unchecked")
+	void forEach(BiConsumer<? super K, ? super V> pAction)
+	{
+		assert pAction != null;
+		aRoot.forEach((BiConsumer<Object, Object>) pAction);
+	}
+	
+	/*
+	 * A node of the trie. The array holds two slots for each bit set in the 
+	 * bitmap: a key and its value, or null and the node of the next level. 
+	 * Below the last level, the bitmap is not used and the array holds the 
+	 * keys and values of all the mappings whose keys have the same hash code.
+	 */
+	private static final class Trie
+	{
+		private static final int BITS = 5;
+		private static final int MASK = (1 << BITS) - 1;
+		private static final int LAST_LEVEL = 30;
+		private static final Trie EMPTY = new Trie(0, new Object[0]);
+		
+		private final int aBitmap;
+		private final Object[] aArray;
+		
+		private Trie(int pBitmap, Object[] pArray)
+		{
+			aBitmap = pBitmap;
+			aArray = pArray;
+		}
+		
+		private static int bit(int pHash, int pShift)
+		{
+			return 1 << ((pHash >>> pShift) & MASK);
+		}
+		
+		private int index(int pBit)
+		{
+			return 2 * Integer.bitCount(aBitmap & (pBit - 1));
+		}
+		
+		private int indexOfKey(Object pKey)
+		{
+			for( int i = 0; i < aArray.length; i += 2 )
+			{
+				if( aArray[i] == pKey )
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		Object find(int pHash, int pShift, Object pKey)
+		{
+			if( pShift > LAST_LEVEL )
+			{
+				int index = indexOfKey(pKey);
+				return index < 0 ? null : aArray[index + 1];
+			}
+			int bit = bit(pHash, pShift);
+			if( (aBitmap & bit) == 0 )
+			{
+				return null;
+			}
+			int index = index(bit);
+			if( aArray[index] == null )
+			{
+				return ((Trie) aArray[index + 1]).find(pHash, pShift + BITS, pKey);
+			}
+			return aArray[index] == pKey ? aArray[index + 1] : null;
+		}
+		
+		Trie with(int pHash, int pShift, Object pKey, Object pValue)
+		{
+			if( pShift > LAST_LEVEL )
+			{
+				int index = indexOfKey(pKey);
+				if( index < 0 )
+				{
+					return new Trie(0, insert(aArray, aArray.length, pKey, pValue));
+				}
+				return aArray[index + 1] == pValue ? this : new Trie(0, replace(aArray, index + 1, pValue));
+			}
+			int bit = bit(pHash, pShift);
+			int index = index(bit);
+			if( (aBitmap & bit) == 0 )
+			{
+				return new Trie(aBitmap | bit, insert(aArray, index, pKey, pValue));
+			}
+			Object key = aArray[index];
+			Object value = aArray[index + 1];
+			if( key == null )
+			{
+				Trie child = ((Trie) value).with(pHash, pShift + BITS, pKey, pValue);
+				return child == value ? this : new Trie(aBitmap, replace(aArray, index + 1, child));
+			}
+			if( key == pKey )
+			{
+				return value == pValue ? this : new Trie(aBitmap, replace(aArray, index + 1, pValue));
+			}
+			Trie child = EMPTY.with(System.identityHashCode(key), pShift + BITS, key, value)
+					.with(pHash, pShift + BITS, pKey, pValue);
+			Object[] array = replace(aArray, index + 1, child);
+			array[index] = null;
+			return new Trie(aBitmap, array);
+		}
+		
+		/*
+		 * Returns null if the resulting node has no mappings.
+		 */
+		Trie without(int pHash, int pShift, Object pKey)
+		{
+			if( pShift > LAST_LEVEL )
+			{
+				int index = indexOfKey(pKey);
+				if( index < 0 )
+				{
+					return this;
+				}
+				return aArray.length == 2 ? null : new Trie(0, remove(aArray, index));
+			}
+			int bit = bit(pHash, pShift);
+			if( (aBitmap & bit) == 0 )
+			{
+				return this;
+			}
+			int index = index(bit);
+			Object key = aArray[index];
+			if( key == null )
+			{
+				Trie child = (Trie) aArray[index + 1];
+				Trie newChild = child.without(pHash, pShift + BITS, pKey);
+				if( newChild == child )
+				{
+					return this;
+				}
+				if( newChild == null )
+				{
+					return aBitmap == bit ? null : new Trie(aBitmap & ~bit, remove(aArray, index));
+				}
+				if( newChild.aArray.length == 2 && newChild.aArray[0] != null )
+				{
+					// Keep a single remaining mapping at this level
+					Object[] array = replace(aArray, index, newChild.aArray[0]);
+					array[index + 1] = newChild.aArray[1];
+					return new Trie(aBitmap, array);
+				}
+				return new Trie(aBitmap, replace(aArray, index + 1, newChild));
+			}
+			if( key != pKey )
+			{
+				return this;
+			}
+			return aBitmap == bit ? null : new Trie(aBitmap & ~bit, remove(aArray, index));
+		}
+		
+		void forEach(BiConsumer<Object, Object> pAction)
+		{
+			for( int i = 0; i < aArray.length; i += 2 )
+			{
+				if( aArray[i] == null )
+				{
+					((Trie) aArray[i + 1]).forEach(pAction);
+				}
+				else
+				{
+					pAction.accept(aArray[i], aArray[i + 1]);
+				}
+			}
+		}
+		
+		private static Object[] insert(Object[] pArray, int pIndex, Object pKey, Object pValue)
+		{
+			Object[] array = new Object[pArray.length + 2];
+			System.arraycopy(pArray, 0, array, 0, pIndex);
+			array[pIndex] = pKey;
+			array[pIndex + 1] = pValue;
+			System.arraycopy(pArray, pIndex, array, pIndex + 2, pArray.length - pIndex);
+			return array;
+		}
+		
+		private static Object[] replace(Object[] pArray, int pIndex, Object pObject)
+		{
+			Object[] array = pArray.clone();
+			array[pIndex] = pObject;
+			return array;
+		}
+		
+		private static Object[] remove(Object[] pArray, int pIndex)
+		{
+			Object[] array = new Object[pArray.length - 2];
+			System.arraycopy(pArray, 0, array, 0, pIndex);
+			System.arraycopy(pArray, pIndex + 2, array, pIndex, pArray.length - pIndex - 2);
+			return array;
+		}
+	}
+}
@@ -22,8 +22,11 @@
 package ca.mcgill.cs.jetuml.diagram.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
@@ -40,6 +43,7 @@ import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.TypeNode;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.views.SpatialIndex;
 
 /**
  * A builder for class diagrams.
@@ -79,7 +83,7 @@ public class ClassDiagramBuilder extends DiagramBuilder
 		DiagramOperation result = null;
 		if( validChild(pNode))
 		{
-			Optional<PackageNode> container = findContainer(aDiagram.rootNodes(), pRequestedPosition);
+			Optional<PackageNode> container = findContainer(aDiagram.rootNodes(), packagesAt(pRequestedPosition));
 			if( container.isPresent() )
 			{
 				if( container.get().getChildren().size()==0 )
@@ -122,17 +126,34 @@ public class ClassDiagramBuilder extends DiagramBuilder
 		return pPotentialChild instanceof TypeNode || pPotentialChild instanceof AbstractPackageNode;
 	}
 	
+	/*
+	 * Returns the package nodes of the diagram that contain pPoint. 
+	 */
+	private Set<Node> packagesAt(Point pPoint)
+	{
+		Set<Node> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( Node node : SpatialIndex.forDiagram(aDiagram).nodesAt(pPoint) )
+		{
+			if( node instanceof PackageNode && NodeViewerRegistry.contains(node, pPoint) )
+			{
+				result.add(node);
+			}
+		}
+		return result;
+	}
+	
 	/* 
 	 * Finds if the node to be added should be added to a package. Returns Optional.empty() if not. 
 	 * If packages overlap, select the last one added, which by default should be on
 	 * top. This could be fixed if we ever add a z coordinate to the diagram.
+	 * pPackages are the packages that contain the requested position.
 	 */
-	private Optional<PackageNode> findContainer( List<Node> pNodes, Point pPoint)
+	private Optional<PackageNode> findContainer( List<Node> pNodes, Set<Node> pPackages)
 	{
 		PackageNode container = null;
 		for( Node node : pNodes )
 		{
-			if( node instanceof PackageNode && NodeViewerRegistry.contains(node, pPoint) )
+			if( pPackages.contains(node) )
 			{
 				container = (PackageNode) node;
 			}
@@ -148,7 +169,7 @@ public class ClassDiagramBuilder extends DiagramBuilder
 		}
 		else
 		{
-			Optional<PackageNode> deeperContainer = findContainer( children, pPoint );
+			Optional<PackageNode> deeperContainer = findContainer( children, pPackages );
 			if( deeperContainer.isPresent() )
 			{
 				return deeperContainer;
@@ -177,7 +198,7 @@ public class ClassDiagramBuilder extends DiagramBuilder
 				rootNodes.remove(pNode);
 			}
 		}
-		Optional<PackageNode> packageNode = findContainer(rootNodes, requestedPosition);
+		Optional<PackageNode> packageNode = findContainer(rootNodes, packagesAt(requestedPosition));
 		if( !packageNode.isPresent() )
 		{
 			return Optional.empty();
@@ -21,8 +21,10 @@
 package ca.mcgill.cs.jetuml.diagram.builder;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
 
 /**
  * An operation that is composed of other operations, following
@@ -31,11 +33,36 @@ import java.util.List;
  * Executing a compound operation executes all the sub-operations
  * in the order they were added. Undoing a compound operation
  * undoes all the sub-operation in the reverse order in which 
- * they were added.
+ * they were added. If the operation is created for a diagram,
+ * the changes made by the sub-operations are reported to the
+ * listeners of the diagram as a single batch.
  */
 public class CompoundOperation implements DiagramOperation
 {
 	private List<DiagramOperation> aOperations = new ArrayList<>();
+	private final Optional<Diagram> aDiagram;
+	
+	/**
+	 * Creates an empty operation whose changes are reported
+	 * individually.
+	 */
+	public CompoundOperation()
+	{
+		aDiagram = Optional.empty();
+	}
+	
+	/**
+	 * Creates an empty operation whose changes are reported
+	 * to the listeners of pDiagram as a single batch.
+	 * 
+	 * @param pDiagram The diagram modified by the operation.
+	 * @pre pDiagram != null
+	 */
+	public CompoundOperation(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		aDiagram = Optional.of(pDiagram);
+	}
 	
 	/**
 	 * Adds a sub-operation.
@@ -51,20 +78,34 @@ public class CompoundOperation implements DiagramOperation
 	@Override
 	public void execute()
 	{
-		for( DiagramOperation operation : aOperations)
+		aDiagram.ifPresent(Diagram::startBatch);
+		try
 		{
-			operation.execute();
+			for( DiagramOperation operation : aOperations)
+			{
+				operation.execute();
+			}
+		}
+		finally
+		{
+			aDiagram.ifPresent(Diagram::endBatch);
 		}
 	}
 
 	@Override
 	public void undo()
 	{
-		ArrayList<DiagramOperation> reverse = new ArrayList<>(aOperations);
-		Collections.reverse(reverse);
-		for( DiagramOperation operation : reverse)
+		aDiagram.ifPresent(Diagram::startBatch);
+		try
+		{
+			for( int i = aOperations.size() - 1; i >= 0; i-- )
+			{
+				aOperations.get(i).undo();
+			}
+		}
+		finally
 		{
-			operation.undo();
+			aDiagram.ifPresent(Diagram::endBatch);
 		}
 	}
 	
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -189,7 +190,7 @@ public abstract class DiagramBuilder
 	 */
 	public final DiagramOperation createAddElementsOperation(Iterable<DiagramElement> pElements)
 	{
-		CompoundOperation operation = new CompoundOperation();
+		CompoundOperation operation = new CompoundOperation(aDiagram);
 		for( DiagramElement element : pElements)
 		{
 			if( element instanceof Node )
@@ -252,12 +253,15 @@ public abstract class DiagramBuilder
 		}
 		if( pElement instanceof Node )
 		{
-			List<Node> descendants = getNodeAndAllChildren((Node)pElement);
-			for(Edge edge : aDiagram.edges())
+			Set<Edge> edges = Collections.newSetFromMap(new IdentityHashMap<>());
+			for( Node node : getNodeAndAllChildren((Node)pElement) )
 			{
-				if(descendants.contains(edge.getStart() ) || descendants.contains(edge.getEnd()))
+				for( Edge edge : aDiagram.edgesConnectedTo(node) )
 				{
-					result.add(edge);
+					if( edges.add(edge) )
+					{
+						result.add(edge);
+					}
 				}
 			}
 		}
@@ -322,7 +326,9 @@ public abstract class DiagramBuilder
 				result2.add(element);
 			}
 		}
-		Collections.sort(edges, (pEdge1, pEdge2) -> aDiagram.indexOf(pEdge2) - aDiagram.indexOf(pEdge1));
+		Map<Edge, Integer> indexes = new IdentityHashMap<>();
+		edges.forEach(edge -> indexes.put(edge, aDiagram.indexOf(edge)));
+		Collections.sort(edges, (pEdge1, pEdge2) -> indexes.get(pEdge2) - indexes.get(pEdge1));
 		Collections.sort(nodes, new Comparator<Node>() 
 		{
 			@Override
@@ -360,7 +366,7 @@ public abstract class DiagramBuilder
 		{
 			toDelete.addAll(getCoRemovals(element));
 		}
-		CompoundOperation result = new CompoundOperation();
+		CompoundOperation result = new CompoundOperation(aDiagram);
 		
 		for( DiagramElement element : tweakOrder(toDelete))
 		{
@@ -426,7 +432,7 @@ public abstract class DiagramBuilder
 		{
 			node2 = node2in.get();
 		}
-		CompoundOperation result = new CompoundOperation();
+		CompoundOperation result = new CompoundOperation(aDiagram);
 		if(node1 instanceof NoteNode && pEdge instanceof NoteEdge)
 		{
 			node2 = new PointNode();
@@ -27,6 +27,8 @@ import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.Property;
+import ca.mcgill.cs.jetuml.diagram.PropertyName;
 import ca.mcgill.cs.jetuml.diagram.builder.constraints.ConstraintSet;
 import ca.mcgill.cs.jetuml.diagram.builder.constraints.EdgeConstraints;
 import ca.mcgill.cs.jetuml.diagram.builder.constraints.ObjectDiagramEdgeConstraints;
@@ -76,8 +78,9 @@ public class ObjectDiagramBuilder extends DiagramBuilder
 		{
 			final FieldNode node = (FieldNode) pStartNode;
 			final String oldValue = node.getValue();
-			pOperation.add(new SimpleOperation(()-> node.setValue(""),
-					()-> node.setValue(oldValue)));
+			final Property value = node.properties().get(PropertyName.VALUE);
+			pOperation.add(new SimpleOperation(()-> value.set(""),
+					()-> value.set(oldValue)));
 		}
 	}
 	
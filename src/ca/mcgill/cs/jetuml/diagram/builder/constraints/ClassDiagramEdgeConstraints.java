@@ -71,9 +71,9 @@ public final class ClassDiagramEdgeConstraints
 			{
 				return true;
 			}
-			for( Edge edge : pStart.getDiagram().get().edgesConnectedTo(pStart) )
+			for( Edge edge : pStart.getDiagram().get().incomingEdges(pStart) )
 			{
-				if( edge.getClass() == pEdgeType && edge.getEnd() == pStart && edge.getStart() == pEnd )
+				if( edge.getClass() == pEdgeType && edge.getStart() == pEnd )
 				{
 					return false;
 				}
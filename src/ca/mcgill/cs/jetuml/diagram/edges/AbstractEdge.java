@@ -22,6 +22,7 @@ package ca.mcgill.cs.jetuml.diagram.edges;
 
 import ca.mcgill.cs.jetuml.diagram.AbstractDiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramChange;
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.Node;
 
@@ -38,9 +39,32 @@ public abstract class AbstractEdge extends AbstractDiagramElement implements Edg
 	public void connect(Node pStart, Node pEnd, Diagram pDiagram)
 	{
 		assert pStart != null && pEnd != null;
+		notifyChanged();
 		aStart = pStart;
 		aEnd = pEnd;
 		aDiagram = pDiagram;
+		notifyChanged();
+	}
+	
+	@Override
+	protected void propertyChanged()
+	{
+		if( aDiagram != null )
+		{
+			aDiagram.elementChanged(this, DiagramChange.Type.PROPERTY_CHANGED);
+		}
+	}
+	
+	/*
+	 * Records that the state of this edge has changed, so that
+	 * any geometry computed for its diagram is invalidated.
+	 */
+	private void notifyChanged()
+	{
+		if( aDiagram != null )
+		{
+			aDiagram.incrementRevision();
+		}
 	}
 
 	@Override
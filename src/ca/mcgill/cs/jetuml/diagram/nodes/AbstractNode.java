@@ -27,6 +27,7 @@ import java.util.Optional;
 
 import ca.mcgill.cs.jetuml.diagram.AbstractDiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramChange;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Point;
 
@@ -42,6 +43,7 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	public void translate(int pDeltaX, int pDeltaY)
 	{
 		aPosition = new Point( aPosition.getX() + pDeltaX, aPosition.getY() + pDeltaY );
+		notifyChanged(DiagramChange.Type.NODE_MOVED);
 	}
 	
 	@Override
@@ -54,6 +56,7 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	public final void moveTo(Point pPoint)
 	{
 		aPosition = pPoint;
+		notifyChanged(DiagramChange.Type.NODE_MOVED);
 	}
 
 	@Override
@@ -75,11 +78,13 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 	{
 		assert pDiagram != null;
 		aDiagram = Optional.of(pDiagram);
+		notifyChanged();
 	}
 
 	@Override
 	public final void detach()
 	{
+		notifyChanged();
 		aDiagram = Optional.empty();
 	}
 
@@ -89,6 +94,55 @@ public abstract class AbstractNode extends AbstractDiagramElement implements Nod
 		return aDiagram;
 	}
 	
+	@Override
+	protected void propertyChanged()
+	{
+		notifyChanged(DiagramChange.Type.PROPERTY_CHANGED);
+	}
+	
+	/**
+	 * Records that the state of this node has changed, so that
+	 * any geometry computed for its diagram is invalidated.
+	 * Does nothing if the node is not attached to a diagram.
+	 */
+	protected final void notifyChanged()
+	{
+		aDiagram.ifPresent(Diagram::incrementRevision);
+	}
+	
+	/*
+	 * Reports a change of type pType to the diagram of this node, if any.
+	 */
+	private void notifyChanged(DiagramChange.Type pType)
+	{
+		if( aDiagram.isPresent() )
+		{
+			aDiagram.get().elementChanged(this, pType);
+		}
+	}
+	
+	/**
+	 * Records that pChild was added to the children of this node, so that
+	 * the diagram of this node, if any, can keep track of its nodes.
+	 * 
+	 * @param pChild The child node that was added.
+	 */
+	protected final void notifyChildAdded(Node pChild)
+	{
+		aDiagram.ifPresent(diagram -> diagram.childAdded(this, pChild));
+	}
+	
+	/**
+	 * Records that pChild was removed from the children of this node, so that
+	 * the diagram of this node, if any, can keep track of its nodes.
+	 * 
+	 * @param pChild The child node that was removed.
+	 */
+	protected final void notifyChildRemoved(Node pChild)
+	{
+		aDiagram.ifPresent(diagram -> diagram.childRemoved(this, pChild));
+	}
+	
 	@Override
 	public boolean hasParent()
 	{
@@ -75,6 +75,8 @@ public final class ImplicitParameterNode extends NamedNode
 		}
 		aCallNodes.add(pNode);
 		pNode.link(this);
+		notifyChildAdded(pNode);
+		notifyChanged();
 	}
 
 	@Override
@@ -84,6 +86,8 @@ public final class ImplicitParameterNode extends NamedNode
 		assert pNode.getParent() == this;
 		aCallNodes.remove(pNode);
 		pNode.unlink();
+		notifyChildRemoved(pNode);
+		notifyChanged();
 	}
 	
 	@Override
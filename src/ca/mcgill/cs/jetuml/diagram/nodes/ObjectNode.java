@@ -77,6 +77,8 @@ public final class ObjectNode extends NamedNode
 		}
 		aFields.add(pIndex, pNode);
 		pNode.link(this);
+		notifyChildAdded(pNode);
+		notifyChanged();
 	}
 
 	@Override
@@ -92,6 +94,8 @@ public final class ObjectNode extends NamedNode
 		assert pNode.getParent() == this;
 		aFields.remove(pNode);
 		pNode.unlink();
+		notifyChildRemoved(pNode);
+		notifyChanged();
 	}
 	
 	@Override
@@ -73,6 +73,8 @@ public final class PackageNode extends AbstractPackageNode
 		}
 		aContainedNodes.add(pIndex, pNode);
 		pNode.link(this);
+		notifyChildAdded(pNode);
+		notifyChanged();
 	}
 
 	@Override
@@ -89,6 +91,8 @@ public final class PackageNode extends AbstractPackageNode
 		assert pNode.getParent() == this;
 		aContainedNodes.remove(pNode);
 		pNode.unlink();
+		notifyChildRemoved(pNode);
+		notifyChanged();
 	}
 	
 	@Override
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+/**
+ * An object that receives the elements of a path, in the order in which 
+ * they are drawn. Describing the geometry of a path as a sequence of calls
+ * to a PathConsumer makes it possible to use the same description to draw
+ * the path and to compute its geometric properties.
+ */
+public interface PathConsumer
+{
+	/**
+	 * Starts a new subpath at the given point.
+	 * 
+	 * @param pX The x coordinate of the point.
+	 * @param pY The y coordinate of the point.
+	 */
+	void moveTo(double pX, double pY);
+	
+	/**
+	 * Adds a straight segment from the current point to the given point.
+	 * 
+	 * @param pX The x coordinate of the end of the segment.
+	 * @param pY The y coordinate of the end of the segment.
+	 */
+	void lineTo(double pX, double pY);
+	
+	/**
+	 * Adds a quadratic curve from the current point to the given point.
+	 * 
+	 * @param pControlX The x coordinate of the control point.
+	 * @param pControlY The y coordinate of the control point.
+	 * @param pX The x coordinate of the end of the curve.
+	 * @param pY The y coordinate of the end of the curve.
+	 */
+	void quadTo(double pControlX, double pControlY, double pX, double pY);
+}
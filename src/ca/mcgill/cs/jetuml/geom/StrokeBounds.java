@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+/**
+ * Computes the bounds of the area covered by stroking a path, without 
+ * building the path or its outline. The path is stroked the way JavaFX strokes 
+ * shapes by default: centered on the path, with square caps at the ends of each 
+ * subpath and mitered joins between segments. 
+ * 
+ * The bounds are computed from the points of the path, the caps and the joins,
+ * and the extreme points of the curves, with the same arithmetic and the same 
+ * rounding to float precision as JavaFX. They include the half-pixel margin that
+ * JavaFX adds around stroked shapes, so that they are the same as the local bounds 
+ * of a stroked JavaFX Path.
+ * 
+ * To use this class, pass it the elements of the path, then call getBounds()
+ * or one of the other accessors.
+ */
+public final class StrokeBounds implements PathConsumer
+{
+	private static final float MITER_LIMIT = 10;
+	private static final float MARGIN = 0.5f;
+	
+	private final float aHalfWidth;
+	
+	private float aMinX = Float.POSITIVE_INFINITY;
+	private float aMinY = Float.POSITIVE_INFINITY;
+	private float aMaxX = Float.NEGATIVE_INFINITY;
+	private float aMaxY = Float.NEGATIVE_INFINITY;
+	
+	// Whether the last element received was a move, so that the current subpath has no segment
+	private boolean aAfterMove = true;
+	
+	// The start of the current subpath, and the direction and offset of its first segment
+	private float aStartX;
+	private float aStartY;
+	private float aStartDirectionX;
+	private float aStartDirectionY;
+	private float aStartOffsetX;
+	private float aStartOffsetY;
+	
+	// The current point, and the direction and offset of the end of the last segment
+	private float aCurrentX;
+	private float aCurrentY;
+	private float aDirectionX;
+	private float aDirectionY;
+	private float aOffsetX;
+	private float aOffsetY;
+	
+	/**
+	 * Creates an empty bounds calculator for a stroke of width 1,
+	 * the default width of the stroke of JavaFX shapes.
+	 */
+	public StrokeBounds()
+	{
+		this(1);
+	}
+	
+	/**
+	 * Creates an empty bounds calculator.
+	 * 
+	 * @param pStrokeWidth The width of the stroke.
+	 * @pre pStrokeWidth > 0
+	 */
+	public StrokeBounds(double pStrokeWidth)
+	{
+		assert pStrokeWidth > 0;
+		aHalfWidth = (float) pStrokeWidth / 2;
+	}
+	
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		endSubpath();
+		aCurrentX = (float) pX;
+		aCurrentY = (float) pY;
+		aStartX = aCurrentX;
+		aStartY = aCurrentY;
+	}
+	
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		float x = (float) pX;
+		float y = (float) pY;
+		float dx = x - aCurrentX;
+		float dy = y - aCurrentY;
+		if( dx == 0 && dy == 0 )
+		{
+			// Zero-length segments are joined as if they were pointing right 
+			dx = 1;
+		}
+		float offsetX = offsetX(dx, dy);
+		float offsetY = offsetY(dx, dy);
+		if( !aAfterMove )
+		{
+			join(dx, dy, offsetX, offsetY);
+		}
+		else
+		{
+			aStartDirectionX = dx;
+			aStartDirectionY = dy;
+			aStartOffsetX = offsetX;
+			aStartOffsetY = offsetY;
+		}
+		aCurrentX = x;
+		aCurrentY = y;
+		aDirectionX = dx;
+		aDirectionY = dy;
+		aOffsetX = offsetX;
+		aOffsetY = offsetY;
+		aAfterMove = false;
+	}
+	
+	@Override
+	public void quadTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		float controlX = (float) pControlX;
+		float controlY = (float) pControlY;
+		float x = (float) pX;
+		float y = (float) pY;
+		float dx = controlX - aCurrentX;
+		float dy = controlY - aCurrentY;
+		float offsetX = offsetX(dx, dy);
+		float offsetY = offsetY(dx, dy);
+		if( !aAfterMove )
+		{
+			join(dx, dy, offsetX, offsetY);
+		}
+		else
+		{
+			aStartDirectionX = dx;
+			aStartDirectionY = dy;
+			aStartOffsetX = offsetX;
+			aStartOffsetY = offsetY;
+		}
+		if( aMinX > controlX - aHalfWidth || aMaxX < controlX + aHalfWidth )
+		{
+			float extremum = quadExtremum(aCurrentX, controlX, x);
+			if( !Float.isNaN(extremum) )
+			{
+				aMinX = Math.min(aMinX, extremum - aHalfWidth);
+				aMaxX = Math.max(aMaxX, extremum + aHalfWidth);
+			}
+		}
+		if( aMinY > controlY - aHalfWidth || aMaxY < controlY + aHalfWidth )
+		{
+			float extremum = quadExtremum(aCurrentY, controlY, y);
+			if( !Float.isNaN(extremum) )
+			{
+				aMinY = Math.min(aMinY, extremum - aHalfWidth);
+				aMaxY = Math.max(aMaxY, extremum + aHalfWidth);
+			}
+		}
+		aCurrentX = x;
+		aCurrentY = y;
+		aDirectionX = x - controlX;
+		aDirectionY = y - controlY;
+		aOffsetX = offsetX(aDirectionX, aDirectionY);
+		aOffsetY = offsetY(aDirectionX, aDirectionY);
+		aAfterMove = false;
+	}
+	
+	/**
+	 * @return The smallest x coordinate of the stroke of the path received so far.
+	 */
+	public double getMinX()
+	{
+		endSubpath();
+		return isEmpty() ? 0 : aMinX - MARGIN;
+	}
+	
+	/**
+	 * @return The smallest y coordinate of the stroke of the path received so far.
+	 */
+	public double getMinY()
+	{
+		endSubpath();
+		return isEmpty() ? 0 : aMinY - MARGIN;
+	}
+	
+	/**
+	 * @return The width of the stroke of the path received so far, or -1 if 
+	 *     no segment was received.
+	 */
+	public double getWidth()
+	{
+		endSubpath();
+		return isEmpty() ? -1 : (aMaxX + MARGIN) - (aMinX - MARGIN);
+	}
+	
+	/**
+	 * @return The height of the stroke of the path received so far, or -1 if 
+	 *     no segment was received.
+	 */
+	public double getHeight()
+	{
+		endSubpath();
+		return isEmpty() ? -1 : (aMaxY + MARGIN) - (aMinY - MARGIN);
+	}
+	
+	/**
+	 * @return The bounds of the stroke of the path received so far, with the 
+	 *     coordinates and dimensions truncated to integers.
+	 * @pre the path has at least one segment
+	 */
+	public Rectangle getBounds()
+	{
+		endSubpath();
+		assert !isEmpty();
+		return new Rectangle((int) getMinX(), (int) getMinY(), (int) getWidth(), (int) getHeight());
+	}
+	
+	private boolean isEmpty()
+	{
+		return aMaxX < aMinX || aMaxY < aMinY;
+	}
+	
+	/*
+	 * Adds the caps at both ends of the current subpath, if it has segments.
+	 */
+	private void endSubpath()
+	{
+		if( aAfterMove )
+		{
+			return;
+		}
+		cap(aCurrentX, aCurrentY, aOffsetX, aOffsetY);
+		cap(aStartX, aStartY, -aStartOffsetX, -aStartOffsetY);
+		aAfterMove = true;
+	}
+	
+	private float offsetX(float pDX, float pDY)
+	{
+		float length = (float) Math.sqrt(pDX * pDX + pDY * pDY);
+		return length == 0 ? 0 : pDY * aHalfWidth / length;
+	}
+	
+	private float offsetY(float pDX, float pDY)
+	{
+		float length = (float) Math.sqrt(pDX * pDX + pDY * pDY);
+		return length == 0 ? 0 : -(pDX * aHalfWidth) / length;
+	}
+	
+	/*
+	 * The value of the quadratic curve with coordinates pStart, pControl 
+	 * and pEnd where its derivative is zero, or NaN if it is not 
+	 * strictly between the ends.
+	 */
+	private static float quadExtremum(float pStart, float pControl, float pEnd)
+	{
+		float numerator = pStart - pControl;
+		float denominator = pEnd - pControl + numerator;
+		if( denominator == 0 )
+		{
+			return Float.NaN;
+		}
+		float t = numerator / denominator;
+		if( t <= 0 || t >= 1 )
+		{
+			return Float.NaN;
+		}
+		float u = 1 - t;
+		return pStart * u * u + 2 * pControl * t * u + pEnd * t * t;
+	}
+	
+	/*
+	 * Adds the square cap at the point pX, pY, at the end of a 
+	 * segment whose offset is pOffsetX, pOffsetY.
+	 */
+	private void cap(float pX, float pY, float pOffsetX, float pOffsetY)
+	{
+		add(pX + pOffsetX - pOffsetY, pY + pOffsetY + pOffsetX);
+		add(pX - pOffsetX - pOffsetY, pY - pOffsetY + pOffsetX);
+	}
+	
+	/*
+	 * Adds the join at the current point between the last segment 
+	 * and a segment with direction pDX, pDY and offset pOffsetX, pOffsetY.
+	 */
+	private void join(float pDX, float pDY, float pOffsetX, float pOffsetY)
+	{
+		float x = aCurrentX;
+		float y = aCurrentY;
+		float previousOffsetX = aOffsetX;
+		float previousOffsetY = aOffsetY;
+		float offsetX = pOffsetX;
+		float offsetY = pOffsetY;
+		add(x + previousOffsetX, y + previousOffsetY);
+		add(x - previousOffsetX, y - previousOffsetY);
+		add(x + offsetX, y + offsetY);
+		add(x - offsetX, y - offsetY);
+		if( aDirectionX * pDY <= aDirectionY * pDX )
+		{
+			previousOffsetX = -previousOffsetX;
+			previousOffsetY = -previousOffsetY;
+			offsetX = -offsetX;
+			offsetY = -offsetY;
+		}
+		// The miter is the intersection of the outer sides of the segments
+		float x0 = x - aDirectionX + previousOffsetX;
+		float y0 = y - aDirectionY + previousOffsetY;
+		float x1 = x + previousOffsetX;
+		float y1 = y + previousOffsetY;
+		float x0p = x + pDX + offsetX;
+		float y0p = y + pDY + offsetY;
+		float x1p = x + offsetX;
+		float y1p = y + offsetY;
+		float dx = x1 - x0;
+		float dy = y1 - y0;
+		float dxp = x1p - x0p;
+		float dyp = y1p - y0p;
+		float t = (dxp * (y0 - y0p) - dyp * (x0 - x0p)) / (dx * dyp - dxp * dy);
+		float miterX = x0 + t * dx;
+		float miterY = y0 + t * dy;
+		float limit = MITER_LIMIT * aHalfWidth;
+		if( (miterX - x) * (miterX - x) + (miterY - y) * (miterY - y) < limit * limit )
+		{
+			add(miterX, miterY);
+		}
+	}
+	
+	private void add(float pX, float pY)
+	{
+		aMinX = Math.min(aMinX, pX);
+		aMinY = Math.min(aMinY, pY);
+		aMaxX = Math.max(aMaxX, pX);
+		aMaxY = Math.max(aMaxY, pY);
+	}
+}
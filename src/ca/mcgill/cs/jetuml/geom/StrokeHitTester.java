@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+/**
+ * Tests whether a point is in the area covered by stroking a path, without 
+ * building the path or its outline. The point is in the stroke if its distance
+ * to one of the segments or curves of the path is at most half the width of the 
+ * stroke. The stroke is thus treated as if it had round caps and round joins.
+ * JavaFX strokes shapes with square caps and mitered joins by default, so the 
+ * result differs from a stroked JavaFX Path only near the ends of the subpaths and
+ * on the outside of the corners between segments, where the tester is more strict.
+ * 
+ * Curves are flattened into segments that are at most FLATNESS pixels away 
+ * from the curve, so the result for a curve is exact within that tolerance.
+ * 
+ * To use a tester, pass it the elements of the path, then call isHit().
+ */
+public final class StrokeHitTester implements PathConsumer
+{
+	/** The maximal distance, in pixels, between a curve and the segments that approximate it. */
+	public static final double FLATNESS = 0.1;
+	
+	private final double aHalfWidth;
+	private final double aX;
+	private final double aY;
+	private boolean aHit = false;
+	
+	// The current point
+	private double aCurrentX;
+	private double aCurrentY;
+	
+	/**
+	 * Creates a tester for a point.
+	 * 
+	 * @param pStrokeWidth The width of the stroke.
+	 * @param pX The x coordinate of the point to test.
+	 * @param pY The y coordinate of the point to test.
+	 * @pre pStrokeWidth > 0
+	 */
+	public StrokeHitTester(double pStrokeWidth, double pX, double pY)
+	{
+		assert pStrokeWidth > 0;
+		aHalfWidth = pStrokeWidth / 2;
+		aX = pX;
+		aY = pY;
+	}
+	
+	/**
+	 * @return True if the stroke of the path received so far contains the point.
+	 */
+	public boolean isHit()
+	{
+		return aHit;
+	}
+	
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		aCurrentX = pX;
+		aCurrentY = pY;
+	}
+	
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		if( !aHit && distanceSquared(aCurrentX, aCurrentY, pX, pY) <= aHalfWidth * aHalfWidth )
+		{
+			aHit = true;
+		}
+		aCurrentX = pX;
+		aCurrentY = pY;
+	}
+	
+	/*
+	 * The curve is only flattened if the point is close to the triangle formed 
+	 * by its end points and its control point, which contains the curve.
+	 */
+	@Override
+	public void quadTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		double startX = aCurrentX;
+		double startY = aCurrentY;
+		if( aHit || aX < min(startX, pControlX, pX) - aHalfWidth || aX > max(startX, pControlX, pX) + aHalfWidth ||
+				aY < min(startY, pControlY, pY) - aHalfWidth || aY > max(startY, pControlY, pY) + aHalfWidth )
+		{
+			aCurrentX = pX;
+			aCurrentY = pY;
+			return;
+		}
+		// The distance between a piece of the curve and its chord is at most a quarter 
+		// of the length of the second difference of the points, times the square of the 
+		// length of the piece in the parameter of the curve.
+		double secondDifference = Math.hypot(startX - 2 * pControlX + pX, startY - 2 * pControlY + pY);
+		int pieces = Math.max(1, (int) Math.ceil(Math.sqrt(secondDifference / (4 * FLATNESS))));
+		for( int i = 1; i <= pieces; i++ )
+		{
+			double t = i / (double) pieces;
+			double u = 1 - t;
+			lineTo(u * u * startX + 2 * u * t * pControlX + t * t * pX, 
+					u * u * startY + 2 * u * t * pControlY + t * t * pY);
+		}
+	}
+	
+	/*
+	 * The square of the distance between the point and the segment between
+	 * (pX1, pY1) and (pX2, pY2).
+	 */
+	private double distanceSquared(double pX1, double pY1, double pX2, double pY2)
+	{
+		double dx = pX2 - pX1;
+		double dy = pY2 - pY1;
+		double lengthSquared = dx * dx + dy * dy;
+		double t = 0;
+		if( lengthSquared > 0 )
+		{
+			t = Math.max(0, Math.min(1, ((aX - pX1) * dx + (aY - pY1) * dy) / lengthSquared));
+		}
+		double x = pX1 + t * dx - aX;
+		double y = pY1 + t * dy - aY;
+		return x * x + y * y;
+	}
+	
+	private static double min(double pA, double pB, double pC)
+	{
+		return Math.min(pA, Math.min(pB, pC));
+	}
+	
+	private static double max(double pA, double pB, double pC)
+	{
+		return Math.max(pA, Math.max(pB, pC));
+	}
+}
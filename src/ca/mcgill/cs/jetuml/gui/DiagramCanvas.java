@@ -22,6 +22,11 @@ package ca.mcgill.cs.jetuml.gui;
 
 import static ca.mcgill.cs.jetuml.diagram.DiagramType.viewerFor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
 import ca.mcgill.cs.jetuml.application.UserPreferences;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreference;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreferenceChangeHandler;
@@ -30,16 +35,49 @@ import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreferenceChangeHa
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.geom.Dimension;
+import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Operation;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
 import ca.mcgill.cs.jetuml.views.Grid;
+import ca.mcgill.cs.jetuml.views.LevelOfDetail;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import ca.mcgill.cs.jetuml.views.ViewerUtilities;
+import javafx.animation.PauseTransition;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import javafx.util.Duration;
 
 /**
- * A canvas on which to view diagrams.
+ * A canvas on which to view diagrams. 
+ * 
+ * The canvas has a logical size, which is the area of the diagram that can 
+ * be edited, but its physical size only needs to cover the part of the diagram 
+ * that is visible in its viewport. The client positions the canvas with 
+ * setViewport, and the canvas draws the visible part of the diagram by 
+ * translating and scaling its graphics context. Mouse coordinates must be 
+ * converted with toDiagramPoint before they are used to query the diagram.
+ * 
+ * When only part of the diagram changes, clients can call paintPanel with the 
+ * region that changed, in which case only the elements that intersect this 
+ * region are drawn again. 
+ * 
+ * The canvas is drawn in three layers, which must be placed on top of each 
+ * other in the scene graph in the order returned by getLayers: a grid layer, 
+ * the canvas itself, which contains the diagram, and an overlay layer for 
+ * the selection handles and the selection tools. The diagram layer is kept 
+ * as long as the revision of the diagram does not change, so changes to the 
+ * selection only require drawing the overlay.
+ * 
+ * When the diagram is zoomed out, it is drawn with the level of detail
+ * that corresponds to the zoom factor, see LevelOfDetail.
+ * 
+ * When the showRenderStatistics preference is set, each paint operation is
+ * measured as a frame of RenderStatistics, and a summary of the frame is 
+ * shown in a fourth layer placed on top of the others.
  */
 public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanPreferenceChangeHandler, IntegerPreferenceChangeHandler
 {	
@@ -48,10 +86,38 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 * is automatically increased to accommodate a diagram larger than the 
 	 * preferred size. */
 	private static final int DIMENSION_BUFFER = 20;
+	/* The number of pixels by which the visible area is extended when selecting
+	 * the elements to draw, to account for decorations such as shadows that 
+	 * are not part of the bounds of an element. */
+	private static final int CULLING_MARGIN = 10;
+	private static final Color REPAINT_OVERLAY_COLOR = Color.rgb(255, 0, 0, 0.2);
+	private static final Duration REPAINT_OVERLAY_DURATION = Duration.millis(300);
+	private static final Color STATISTICS_BACKGROUND_COLOR = Color.rgb(0, 0, 0, 0.7);
+	private static final int STATISTICS_MARGIN = 8;
+	private static final int STATISTICS_LINE_HEIGHT = 14;
+	private static final int STATISTICS_WIDTH = 320;
+	private static final int STATISTICS_MEASUREMENTS = 5;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
 	
 	private final Diagram aDiagram;
+	private final int aDiagramWidth;
+	private final int aDiagramHeight;
 	private DiagramCanvasController aController;
 	
+	// The top-left corner of the viewport, in zoomed pixels, and the zoom factor
+	private double aViewportX = 0;
+	private double aViewportY = 0;
+	private double aZoom = 1;
+	private boolean aPainting = false;
+	
+	private final Canvas aGridLayer = new Canvas();
+	private final Canvas aOverlayLayer = new Canvas();
+	private final Canvas aStatisticsLayer = new Canvas();
+	// The tile used to draw the grid the last time, or null. Like the rest of the canvas, only used on the FX thread.
+	private Grid.Tile aGridTile;
+	// The revision of the diagram shown in the diagram layer, or -1 if the layer must be drawn again
+	private long aPaintedRevision = -1;
+	
 	/**
 	 * Constructs the canvas, assigns the diagram to it.
 	 * 
@@ -62,13 +128,28 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	{
 		assert pDiagram != null;
 		Dimension dimension = getDiagramCanvasWidth(pDiagram);
-		setWidth(dimension.width());
-		setHeight(dimension.height());
-		getGraphicsContext2D().setLineWidth(LINE_WIDTH);
-		getGraphicsContext2D().setFill(Color.WHITE);
+		aDiagramWidth = dimension.width();
+		aDiagramHeight = dimension.height();
+		aOverlayLayer.setMouseTransparent(true);
+		aStatisticsLayer.setMouseTransparent(true);
+		for( Canvas layer : getLayers() )
+		{
+			layer.setWidth(aDiagramWidth);
+			layer.setHeight(aDiagramHeight);
+			layer.getGraphicsContext2D().setLineWidth(LINE_WIDTH);
+			layer.getGraphicsContext2D().setFill(Color.WHITE);
+		}
 		aDiagram = pDiagram;
 	}
 	
+	/**
+	 * @return The layers that make up this canvas, from bottom to top.
+	 */
+	public List<Canvas> getLayers()
+	{
+		return List.of(aGridLayer, this, aOverlayLayer, aStatisticsLayer);
+	}
+	
 	/**
 	 * Should only be called once immediately after the constructor call.
 	 * 
@@ -93,24 +174,317 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		return aDiagram;
 	}
 	
+	/**
+	 * @return The width of the diagram area, in diagram coordinates.
+	 */
+	public int getDiagramWidth()
+	{
+		return aDiagramWidth;
+	}
+	
+	/**
+	 * @return The height of the diagram area, in diagram coordinates.
+	 */
+	public int getDiagramHeight()
+	{
+		return aDiagramHeight;
+	}
+	
+	/**
+	 * Resizes and moves the layers of this canvas to cover a viewport 
+	 * and repaints them. The location
+	 * and dimensions of the viewport are expressed in zoomed pixels, relative
+	 * to the top-left corner of the diagram area. Setting the current
+	 * viewport again has no effect.
+	 * 
+	 * @param pX The left edge of the viewport.
+	 * @param pY The top edge of the viewport.
+	 * @param pWidth The width of the viewport.
+	 * @param pHeight The height of the viewport.
+	 * @param pZoom The zoom factor applied to the diagram.
+	 * @pre pWidth >= 0 && pHeight >= 0 && pZoom > 0
+	 */
+	public void setViewport(double pX, double pY, double pWidth, double pHeight, double pZoom)
+	{
+		assert pWidth >= 0 && pHeight >= 0 && pZoom > 0;
+		if( pX == aViewportX && pY == aViewportY && pWidth == getWidth() && pHeight == getHeight() && pZoom == aZoom )
+		{
+			return;
+		}
+		aViewportX = pX;
+		aViewportY = pY;
+		aZoom = pZoom;
+		for( Canvas layer : getLayers() )
+		{
+			layer.relocate(pX, pY);
+			layer.setWidth(pWidth);
+			layer.setHeight(pHeight);
+		}
+		aPaintedRevision = -1;
+		paintPanel();
+	}
+	
+	/**
+	 * Converts a point in the coordinate system of this canvas, such as the location
+	 * of a mouse event, to the coordinate system of the diagram.
+	 * 
+	 * @param pX The X-coordinate in the canvas.
+	 * @param pY The Y-coordinate in the canvas.
+	 * @return The corresponding point in the diagram.
+	 */
+	public Point toDiagramPoint(double pX, double pY)
+	{
+		return new Point((int)((pX + aViewportX) / aZoom), (int)((pY + aViewportY) / aZoom));
+	}
+	
+	/**
+	 * @return The part of the diagram currently covered by this canvas, in 
+	 *     diagram coordinates.
+	 */
+	public Rectangle getVisibleArea()
+	{
+		int x = (int) Math.floor(aViewportX / aZoom);
+		int y = (int) Math.floor(aViewportY / aZoom);
+		return new Rectangle(x, y, 
+				(int) Math.ceil((aViewportX + getWidth()) / aZoom) - x, 
+				(int) Math.ceil((aViewportY + getHeight()) / aZoom) - y);
+	}
+	
 	/**
 	 * Paints the panel and all the graph elements in aDiagramView.
-	 * Called after the panel is resized.
+	 * Called after the panel is resized. The diagram layer is only 
+	 * drawn again if the diagram changed since it was last drawn.
 	 */
 	public void paintPanel()
 	{
-		GraphicsContext context = getGraphicsContext2D();
-		context.setFill(Color.WHITE); 
-		context.fillRect(0, 0, getWidth(), getHeight());
-		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
+		startFrame();
+		try
+		{
+			Rectangle visible = getVisibleArea();
+			synchronizeSelectionModel();
+			paintGrid();
+			if( aPaintedRevision != aDiagram.getRevision() )
+			{
+				paintDiagram(visible);
+			}
+			paintOverlay(visible, showRepaintRegions());
+		}
+		finally
+		{
+			endFrame();
+		}
+	}
+	
+	/**
+	 * Paints again the part of the panel that shows pRegion. Only the
+	 * elements that intersect pRegion are drawn, and the drawing is clipped 
+	 * to pRegion, so the rest of the canvas is left untouched.
+	 * 
+	 * @param pRegion The region to paint, in diagram coordinates. The region is 
+	 *     slightly extended to include selection handles and shadows drawn around
+	 *     element bounds.
+	 * @pre pRegion != null
+	 */
+	public void paintPanel(Rectangle pRegion)
+	{
+		assert pRegion != null;
+		startFrame();
+		try
 		{
-			Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+			synchronizeSelectionModel();
+			intersection(expand(pRegion, CULLING_MARGIN), getVisibleArea()).ifPresent(region -> 
+			{
+				paintDiagram(region);
+				paintOverlay(region, showRepaintRegions());
+			});
 		}
-		DiagramType.viewerFor(aDiagram).draw(aDiagram, context);
+		finally
+		{
+			endFrame();
+		}
+	}
+	
+	private static boolean showRepaintRegions()
+	{
+		return UserPreferences.instance().getBoolean(BooleanPreference.showRepaintRegions);
+	}
+	
+	private static void startFrame()
+	{
+		RenderStatistics.setEnabled(UserPreferences.instance().getBoolean(BooleanPreference.showRenderStatistics));
+		if( RenderStatistics.isEnabled() )
+		{
+			RenderStatistics.instance().startFrame();
+		}
+	}
+	
+	private void endFrame()
+	{
+		if( RenderStatistics.isEnabled() )
+		{
+			RenderStatistics.instance().endFrame();
+			paintStatistics();
+		}
+	}
+	
+	/*
+	 * Shows the statistics of the last frame in the top-left corner of the
+	 * viewport: the frame time, the use of the layout cache, and the 
+	 * slowest operations.
+	 */
+	private void paintStatistics()
+	{
+		RenderStatistics statistics = RenderStatistics.instance();
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("Frame: %.2f ms", statistics.getFrameTime() / NANOS_PER_MILLI));
+		long queries = statistics.getCacheHits() + statistics.getCacheMisses();
+		lines.add(String.format("Layout cache: %d hits, %d misses (%d%%)", statistics.getCacheHits(), 
+				statistics.getCacheMisses(), queries == 0 ? 100 : statistics.getCacheHits() * 100 / queries));
+		statistics.getMeasurements().stream().limit(STATISTICS_MEASUREMENTS).forEach(measurement -> 
+			lines.add(String.format("%s %s: %d calls, %.2f ms", measurement.getSource().getSimpleName(), 
+					measurement.getOperation().name().toLowerCase(), measurement.getCalls(), 
+					measurement.getTime() / NANOS_PER_MILLI)));
+		
+		GraphicsContext context = aStatisticsLayer.getGraphicsContext2D();
+		context.clearRect(0, 0, aStatisticsLayer.getWidth(), aStatisticsLayer.getHeight());
+		context.setFill(STATISTICS_BACKGROUND_COLOR);
+		context.fillRect(STATISTICS_MARGIN, STATISTICS_MARGIN, STATISTICS_WIDTH, 
+				(lines.size() + 1) * STATISTICS_LINE_HEIGHT);
+		context.setFill(Color.WHITE);
+		for( int i = 0; i < lines.size(); i++ )
+		{
+			context.fillText(lines.get(i), 2 * STATISTICS_MARGIN, STATISTICS_MARGIN + (i + 1) * STATISTICS_LINE_HEIGHT);
+		}
+	}
+	
+	private void synchronizeSelectionModel()
+	{
+		aPainting = true;
 		aController.synchronizeSelectionModel();
-		aController.getSelectionModel().forEach( selected -> ViewerUtilities.drawSelectionHandles(selected, context));
-		aController.getSelectionModel().getRubberband().ifPresent( rubberband -> ToolGraphics.drawRubberband(context, rubberband));
-		aController.getSelectionModel().getLasso().ifPresent( lasso -> ToolGraphics.drawLasso(context, lasso));
+		aPainting = false;
+	}
+	
+	/*
+	 * Returns the graphics context of pLayer, set up to draw pRegion only
+	 * in diagram coordinates. The state of the context must be restored 
+	 * after drawing.
+	 */
+	private GraphicsContext prepare(Canvas pLayer, Rectangle pRegion)
+	{
+		GraphicsContext context = pLayer.getGraphicsContext2D();
+		context.save();
+		context.setTransform(aZoom, 0, 0, aZoom, -aViewportX, -aViewportY);
+		context.beginPath();
+		context.rect(pRegion.getX(), pRegion.getY(), pRegion.getWidth(), pRegion.getHeight());
+		context.clip();
+		context.clearRect(pRegion.getX(), pRegion.getY(), pRegion.getWidth(), pRegion.getHeight());
+		return context;
+	}
+	
+	private void paintGrid()
+	{
+		if( !RenderStatistics.isEnabled() )
+		{
+			drawGrid();
+			return;
+		}
+		RenderStatistics.instance().enter();
+		try
+		{
+			drawGrid();
+		}
+		finally
+		{
+			RenderStatistics.instance().exit(Grid.class, Operation.DRAW);
+		}
+	}
+	
+	private void drawGrid()
+	{
+		Rectangle visible = getVisibleArea();
+		GraphicsContext context = prepare(aGridLayer, visible);
+		context.fillRect(visible.getX(), visible.getY(), visible.getWidth(), visible.getHeight());
+		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
+		{
+			aGridTile = Grid.draw(context, gridArea(visible), aGridTile);
+		}
+		context.restore();
+	}
+	
+	private void paintDiagram(Rectangle pRegion)
+	{
+		GraphicsContext context = prepare(this, pRegion);
+		LevelOfDetail.setCurrent(LevelOfDetail.forZoom(aZoom));
+		try
+		{
+			DiagramType.viewerFor(aDiagram).draw(aDiagram, new CanvasRenderingTarget(context), expand(pRegion, CULLING_MARGIN));
+		}
+		finally
+		{
+			LevelOfDetail.setCurrent(LevelOfDetail.FULL);
+			context.restore();
+		}
+		aPaintedRevision = aDiagram.getRevision();
+	}
+	
+	/*
+	 * Paints the selection handles and tools in pRegion, and if pFlash is true, 
+	 * covers pRegion with a translucent overlay that is erased shortly afterwards.
+	 */
+	private void paintOverlay(Rectangle pRegion, boolean pFlash)
+	{
+		GraphicsContext context = prepare(aOverlayLayer, pRegion);
+		RenderingTarget target = new CanvasRenderingTarget(context);
+		Rectangle culling = expand(pRegion, CULLING_MARGIN);
+		aController.getSelectionModel().forEach( selected -> 
+		{
+			if( ViewerUtilities.getBounds(selected).intersects(culling))
+			{
+				ViewerUtilities.drawSelectionHandles(selected, target);
+			}
+		});
+		aController.getSelectionModel().getRubberband().ifPresent( rubberband -> ToolGraphics.drawRubberband(target, rubberband));
+		aController.getSelectionModel().getLasso().ifPresent( lasso -> ToolGraphics.drawLasso(target, lasso));
+		if( pFlash )
+		{
+			context.setFill(REPAINT_OVERLAY_COLOR);
+			context.fillRect(pRegion.getX(), pRegion.getY(), pRegion.getWidth(), pRegion.getHeight());
+			PauseTransition erase = new PauseTransition(REPAINT_OVERLAY_DURATION);
+			erase.setOnFinished(pEvent -> intersection(pRegion, getVisibleArea()).ifPresent(region -> paintOverlay(region, false)));
+			erase.play();
+		}
+		context.restore();
+	}
+	
+	private static Rectangle expand(Rectangle pRectangle, int pMargin)
+	{
+		return new Rectangle(pRectangle.getX() - pMargin, pRectangle.getY() - pMargin, 
+				pRectangle.getWidth() + 2 * pMargin, pRectangle.getHeight() + 2 * pMargin);
+	}
+	
+	private static Optional<Rectangle> intersection(Rectangle pRectangle1, Rectangle pRectangle2)
+	{
+		int x = Math.max(pRectangle1.getX(), pRectangle2.getX());
+		int y = Math.max(pRectangle1.getY(), pRectangle2.getY());
+		int maxX = Math.min(pRectangle1.getMaxX(), pRectangle2.getMaxX());
+		int maxY = Math.min(pRectangle1.getMaxY(), pRectangle2.getMaxY());
+		if( maxX <= x || maxY <= y )
+		{
+			return Optional.empty();
+		}
+		return Optional.of(new Rectangle(x, y, maxX - x, maxY - y));
+	}
+	
+	/*
+	 * The part of the diagram area covered by pVisible.
+	 */
+	private Rectangle gridArea(Rectangle pVisible)
+	{
+		int x = Math.max(0, pVisible.getX());
+		int y = Math.max(0, pVisible.getY());
+		int maxX = Math.min(aDiagramWidth, pVisible.getMaxX());
+		int maxY = Math.min(aDiagramHeight, pVisible.getMaxY());
+		return new Rectangle(x, y, Math.max(0, maxX - x), Math.max(0, maxY - y));
 	}
 	
 	@Override
@@ -118,12 +492,36 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	{
 		paintPanel();		
 	}
+	
+	@Override
+	public void selectionModelChanged(Supplier<Optional<Rectangle>> pDirtyRegion)
+	{
+		// Changes caused by synchronizing the selection model are
+		// drawn by the paint operation that triggers them.
+		if( !aPainting )
+		{
+			pDirtyRegion.get().ifPresent(region -> 
+				intersection(expand(region, CULLING_MARGIN), getVisibleArea())
+					.ifPresent(visible -> paintOverlay(visible, showRepaintRegions())));
+		}
+	}
 
 	@Override
 	public void booleanPreferenceChanged(BooleanPreference pPreference)
 	{
 		if( pPreference == BooleanPreference.showGrid )
 		{
+			aGridTile = null;
+			paintPanel();
+		}
+		else if( pPreference == BooleanPreference.showRepaintRegions )
+		{
+			paintPanel();
+		}
+		else if( pPreference == BooleanPreference.showRenderStatistics )
+		{
+			aStatisticsLayer.getGraphicsContext2D().clearRect(0, 0, aStatisticsLayer.getWidth(), aStatisticsLayer.getHeight());
+			aPaintedRevision = -1;
 			paintPanel();
 		}
 	}
@@ -131,8 +529,10 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	@Override
 	public void integerPreferenceChanged(IntegerPreference pPreference) 
 	{
-		if ( pPreference == IntegerPreference.fontSize )
+		if ( pPreference == IntegerPreference.fontSize || pPreference == IntegerPreference.namesOnlyZoom || 
+				pPreference == IntegerPreference.outlineZoom )
 		{
+			aPaintedRevision = -1;
 			paintPanel();
 		}
 
@@ -33,6 +33,8 @@ import ca.mcgill.cs.jetuml.application.Clipboard;
 import ca.mcgill.cs.jetuml.application.MoveTracker;
 import ca.mcgill.cs.jetuml.application.UserPreferences;
 import ca.mcgill.cs.jetuml.application.UserPreferences.BooleanPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramChange;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -47,6 +49,7 @@ import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.Grid;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
@@ -73,6 +76,7 @@ public class DiagramCanvasController
 	private Point aMouseDownPoint;  
 	private DiagramOperationProcessor aProcessor = new DiagramOperationProcessor();
 	private MouseDraggedGestureHandler aHandler;
+	private DiagramSnapshot aSnapshot; // Created by the first change, except for sequence diagrams
 	
 	/**
 	 * Creates a new controller.
@@ -84,13 +88,14 @@ public class DiagramCanvasController
 	{
 		aCanvas = pCanvas;
 		aDiagramBuilder = DiagramType.newBuilderInstanceFor(aCanvas.getDiagram());
-		aDiagramBuilder.setCanvasDimension(new Dimension((int) aCanvas.getWidth(), (int)aCanvas.getHeight()));
+		aDiagramBuilder.setCanvasDimension(new Dimension(aCanvas.getDiagramWidth(), aCanvas.getDiagramHeight()));
 		aSelectionModel = new SelectionModel(aCanvas);
 		aToolBar = pToolBar;
 		aCanvas.setOnMousePressed(this::mousePressed);
 		aCanvas.setOnMouseReleased(this::mouseReleased);
 		aCanvas.setOnMouseDragged(this::mouseDragged);
 		aHandler = pHandler;
+		aCanvas.getDiagram().addListener(this::diagramChanged);
 	}
 	
 	/**
@@ -170,15 +175,17 @@ public class DiagramCanvasController
 		{
 			shiftElements(newElements, GRID_SIZE);
 		}
-		aProcessor.executeNewOperation(aDiagramBuilder.createAddElementsOperation(newElements));
 		List<DiagramElement> newElementList = new ArrayList<>();
 		for( DiagramElement element : newElements )
 		{
 			newElementList.add(element);
 		}
-		aSelectionModel.setSelectionTo(newElementList);
+		paintChanges(() -> 
+		{
+			aProcessor.executeNewOperation(aDiagramBuilder.createAddElementsOperation(newElements));
+			aSelectionModel.setSelectionTo(newElementList);
+		});
 		Clipboard.instance().copy(newElements);
-		aCanvas.paintPanel();
 	}
 	
 	/**
@@ -205,8 +212,7 @@ public class DiagramCanvasController
 	{
 		if( aProcessor.canUndo() )
 		{
-			aProcessor.undoLastExecutedOperation();
-			aCanvas.paintPanel();
+			paintChanges(aProcessor::undoLastExecutedOperation);
 		}
 	}
 	
@@ -219,8 +225,7 @@ public class DiagramCanvasController
 	{
 		if( aProcessor.canRedo() )
 		{
-			aProcessor.redoLastUndoneOperation();
-			aCanvas.paintPanel();
+			paintChanges(aProcessor::redoLastUndoneOperation);
 		}
 	}
 	
@@ -237,9 +242,11 @@ public class DiagramCanvasController
 	 */
 	public void removeSelected()
 	{
-		aProcessor.executeNewOperation(aDiagramBuilder.createRemoveElementsOperation(aSelectionModel));
-		aSelectionModel.clearSelection();
-		aCanvas.paintPanel();
+		paintChanges(() -> 
+		{
+			aProcessor.executeNewOperation(aDiagramBuilder.createRemoveElementsOperation(aSelectionModel));
+			aSelectionModel.clearSelection();
+		});
 	}
 	
 	/**
@@ -268,7 +275,7 @@ public class DiagramCanvasController
 	
 	private Point getMousePoint(MouseEvent pEvent)
 	{
-		return new Point((int)pEvent.getX(), (int)pEvent.getY());
+		return aCanvas.toDiagramPoint(pEvent.getX(), pEvent.getY());
 	}
 
 	private Optional<? extends DiagramElement> getSelectedElement(MouseEvent pEvent)
@@ -306,10 +313,7 @@ public class DiagramCanvasController
 				aSelectionModel.set(element.get());
 			}
 			// Reorder the selected nodes to ensure that they appear on the top
-			for(Node pSelected: aSelectionModel.getSelectedNodes()) 
-			{
-				aCanvas.getDiagram().placeOnTop(pSelected);
-			}
+			placeOnTop(aSelectionModel.getSelectedNodes());
 			aDragMode = DragMode.DRAG_MOVE;
 			aMoveTracker.startTrackingMove(aSelectionModel);
 		}
@@ -375,10 +379,12 @@ public class DiagramCanvasController
 		Point point = Grid.snapped(getMousePoint(pEvent));
 		if(aDiagramBuilder.canAdd(newNode, point))
 		{
-			aProcessor.executeNewOperation(aDiagramBuilder.createAddNodeOperation(newNode, new Point(point.getX(), point.getY())));
-			aSelectionModel.set(newNode);
-			aCanvas.getDiagram().placeOnTop(newNode);
-			aCanvas.paintPanel();
+			paintChanges(() -> 
+			{
+				aProcessor.executeNewOperation(aDiagramBuilder.createAddNodeOperation(newNode, new Point(point.getX(), point.getY())));
+				aSelectionModel.set(newNode);
+				aCanvas.getDiagram().placeOnTop(newNode);
+			});
 			if( UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode))
 			{
 				editSelected();
@@ -425,7 +431,6 @@ public class DiagramCanvasController
 		Point point = getMousePoint(pEvent);
 		aLastMousePoint = new Point(point.getX(), point.getY()); 
 		aMouseDownPoint = aLastMousePoint;
-		aCanvas.paintPanel();
 	}
 
 	private void mouseReleased(MouseEvent pEvent)
@@ -460,11 +465,13 @@ public class DiagramCanvasController
 			Point snappedPosition = Grid.snapped(position);
 			final int dx = snappedPosition.getX() - position.getX();
 			final int dy = snappedPosition.getY() - position.getY();
-			for(Node selected : aSelectionModel.getSelectedNodes())
+			paintChanges(() -> 
 			{
-				selected.translate(dx, dy);
-			}
-			aCanvas.paintPanel();
+				for(Node selected : aSelectionModel.getSelectedNodes())
+				{
+					selected.translate(dx, dy);
+				}
+			});
 		}
 	}
 	
@@ -476,10 +483,12 @@ public class DiagramCanvasController
 		{
 			if( aDiagramBuilder.canAdd(newEdge, aMouseDownPoint, pMousePoint))
 			{
-				aProcessor.executeNewOperation(aDiagramBuilder.createAddEdgeOperation(newEdge, 
-						aMouseDownPoint, pMousePoint));
-				aSelectionModel.set(newEdge);
-				aCanvas.paintPanel();
+				paintChanges(() -> 
+				{
+					aProcessor.executeNewOperation(aDiagramBuilder.createAddEdgeOperation(newEdge, 
+							aMouseDownPoint, pMousePoint));
+					aSelectionModel.set(newEdge);
+				});
 			}
 		}
 		aSelectionModel.deactivateRubberband();
@@ -492,7 +501,6 @@ public class DiagramCanvasController
 		{
 			aProcessor.storeAlreadyExecutedOperation(operation);
 		}
-		aCanvas.paintPanel();
 	}
 
 	private void mouseDragged(MouseEvent pEvent)
@@ -553,15 +561,19 @@ public class DiagramCanvasController
 		Rectangle bounds = aSelectionModel.getEntireSelectionBounds();
 		dx = Math.max(dx, -bounds.getX());
 		dy = Math.max(dy, -bounds.getY());
-		dx = Math.min(dx, (int) aCanvas.getWidth() - bounds.getMaxX());
-		dy = Math.min(dy, (int) aCanvas.getHeight() - bounds.getMaxY());
+		dx = Math.min(dx, aCanvas.getDiagramWidth() - bounds.getMaxX());
+		dy = Math.min(dy, aCanvas.getDiagramHeight() - bounds.getMaxY());
 
-		for(Node selected : aSelectionModel.getSelectedNodes())
+		final int deltaX = dx;
+		final int deltaY = dy;
+		paintChanges(() -> 
 		{
-			selected.translate(dx, dy);
-		}
+			for(Node selected : aSelectionModel.getSelectedNodes())
+			{
+				selected.translate(deltaX, deltaY);
+			}
+		});
 		aLastMousePoint = pMousePoint; 
-		aCanvas.paintPanel();
 	}
 	
 	/**
@@ -574,16 +586,81 @@ public class DiagramCanvasController
 			return;
 		}
 		List<Node> selectedNodes = aSelectionModel.getSelectedNodes();
-		if(((ClassDiagramBuilder)aDiagramBuilder).canLinkToPackage(selectedNodes))
+		paintChanges(() -> 
+		{
+			if(((ClassDiagramBuilder)aDiagramBuilder).canLinkToPackage(selectedNodes))
+			{
+				aProcessor.executeNewOperation(((ClassDiagramBuilder)aDiagramBuilder).createLinkToPackageOperation(selectedNodes));
+			}
+			else if(((ClassDiagramBuilder)aDiagramBuilder).canUnlinkFromPackage(selectedNodes))
+			{
+				aProcessor.executeNewOperation(((ClassDiagramBuilder)aDiagramBuilder).createUnlinkFromPackageOperation(selectedNodes));
+			}
+		});
+		// Place the modified nodes on the top
+		placeOnTop(selectedNodes);
+	}
+	
+	/*
+	 * Executes pChange and paints the region of the canvas affected by it.
+	 * The listeners of the diagram are notified of the change as a single batch,
+	 * when diagramChanged paints the region.
+	 */
+	private void paintChanges(Runnable pChange)
+	{
+		Diagram diagram = aCanvas.getDiagram();
+		if( diagram.getType() != DiagramType.SEQUENCE && (aSnapshot == null || !aSnapshot.isCurrent()) )
 		{
-			aProcessor.executeNewOperation(((ClassDiagramBuilder)aDiagramBuilder).createLinkToPackageOperation(selectedNodes));
+			aSnapshot = new DiagramSnapshot(diagram);
 		}
-		else if(((ClassDiagramBuilder)aDiagramBuilder).canUnlinkFromPackage(selectedNodes))
+		diagram.startBatch();
+		try
 		{
-			aProcessor.executeNewOperation(((ClassDiagramBuilder)aDiagramBuilder).createUnlinkFromPackageOperation(selectedNodes));
+			pChange.run();
+		}
+		finally
+		{
+			diagram.endBatch();
+		}
+	}
+	
+	/*
+	 * Paints the region of the canvas affected by pChanges. The region is computed 
+	 * by comparing the appearance of the elements affected by the changes with 
+	 * their appearance before the changes, as recorded by the snapshot. If the snapshot 
+	 * is not available, as is the case for sequence diagrams, or no longer applies, 
+	 * the visible part of the diagram is painted again.
+	 */
+	private void diagramChanged(Diagram pDiagram, List<DiagramChange> pChanges)
+	{
+		if( aSnapshot != null && aSnapshot.isCurrent() )
+		{
+			aSnapshot.update(pChanges).ifPresent(aCanvas::paintPanel);
+		}
+		else
+		{
+			aSnapshot = null;
+			aCanvas.paintPanel();
+		}
+	}
+	
+	/*
+	 * Moves pNodes above the other nodes and paints them again. Snapshots do not 
+	 * record the order of the nodes, so the region to paint cannot be found by 
+	 * paintChanges: it consists of the bounds of the topmost ancestor of each node, 
+	 * which is reordered as well.
+	 */
+	private void placeOnTop(List<Node> pNodes)
+	{
+		for( Node node : pNodes )
+		{
+			aCanvas.getDiagram().placeOnTop(node);
+			Node root = node;
+			while( root.hasParent() )
+			{
+				root = root.getParent();
+			}
+			aCanvas.paintPanel(NodeViewerRegistry.getBounds(root));
 		}
-		// Place the modified nodes on the top
-		selectedNodes.forEach(node -> aCanvas.getDiagram().placeOnTop(node));
-		aCanvas.paintPanel();
 	}
 }
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramChange;
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.Property;
+import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+/**
+ * Records what each element of a diagram looks like, and keeps the record 
+ * up to date as the diagram changes, so that the region of the canvas affected 
+ * by a change can be computed from the elements the change affects only.
+ *
+ * The appearance of a node is approximated by its bounds and the values of
+ * its properties. The appearance of an edge additionally includes its
+ * connection points and the bounds of its end nodes, which determine its path.
+ * The order of the elements is not recorded.
+ * 
+ * The elements reported by the changes to the diagram are compared with their 
+ * record, along with the elements whose appearance can depend on them: the 
+ * nodes that share a root node with them, since the bounds of a node depend on 
+ * its children, the edges connected to these nodes, and the edges connected to 
+ * the other end of these edges, whose positions on the sides of the nodes they 
+ * share depend on each other. In sequence diagrams, the position of a call can 
+ * depend on all the calls before it, so snapshots do not support them.
+ * The record is only valid for the font size at which it was made.
+ */
+final class DiagramSnapshot
+{
+	private final Diagram aDiagram;
+	private final int aFontSize;
+	private final Map<DiagramElement, Appearance> aElements = new IdentityHashMap<>();
+
+	/**
+	 * Records the appearance of all elements currently in pDiagram.
+	 *
+	 * @param pDiagram The diagram to record.
+	 * @pre pDiagram != null && pDiagram.getType() != DiagramType.SEQUENCE
+	 */
+	DiagramSnapshot(Diagram pDiagram)
+	{
+		assert pDiagram != null && pDiagram.getType() != DiagramType.SEQUENCE;
+		aDiagram = pDiagram;
+		aFontSize = fontSize();
+		pDiagram.rootNodes().forEach(this::recordTree);
+		pDiagram.edges().forEach(this::record);
+	}
+	
+	private static int fontSize()
+	{
+		return UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+	}
+	
+	/**
+	 * @return True if the elements were recorded with the current font size.
+	 */
+	boolean isCurrent()
+	{
+		return aFontSize == fontSize();
+	}
+	
+	private void recordTree(Node pNode)
+	{
+		record(pNode);
+		pNode.getChildren().forEach(this::recordTree);
+	}
+	
+	private void record(DiagramElement pElement)
+	{
+		aElements.put(pElement, appearanceOf(pElement));
+	}
+	
+	private static Appearance appearanceOf(DiagramElement pElement)
+	{
+		if( pElement instanceof Node )
+		{
+			Node node = (Node) pElement;
+			return new Appearance(NodeViewerRegistry.getBounds(node), root(node), null, null, null, propertyValues(node));
+		}
+		Edge edge = (Edge) pElement;
+		return new Appearance(EdgeViewerRegistry.getBounds(edge), null,
+				EdgeViewerRegistry.getConnectionPoints(edge),
+				NodeViewerRegistry.getBounds(edge.getStart()),
+				NodeViewerRegistry.getBounds(edge.getEnd()),
+				propertyValues(edge));
+	}
+	
+	private static Node root(Node pNode)
+	{
+		Node root = pNode;
+		while( root.hasParent() )
+		{
+			root = root.getParent();
+		}
+		return root;
+	}
+
+	/*
+	 * The values of properties are strings, enumerated values, integers, or 
+	 * booleans, which are immutable, so they can be kept without copying them.
+	 */
+	private static List<Object> propertyValues(DiagramElement pElement)
+	{
+		List<Object> values = new ArrayList<>();
+		for( Property property : pElement.properties() )
+		{
+			values.add(property.get());
+		}
+		return values;
+	}
+
+	/**
+	 * Brings the record up to date with pChanges, and computes the smallest 
+	 * rectangle that covers both the old and the new bounds of every element 
+	 * whose appearance changed, including the elements that were added or removed.
+	 *
+	 * @param pChanges Changes made to the diagram since the record was last brought up to date.
+	 * @return The region that changed, or empty if no element looks different.
+	 * @pre pChanges != null && isCurrent()
+	 */
+	Optional<Rectangle> update(List<DiagramChange> pChanges)
+	{
+		assert pChanges != null && isCurrent();
+		Set<DiagramElement> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		for( DiagramChange change : pChanges )
+		{
+			if( change.getElement() instanceof Node )
+			{
+				Node node = (Node) change.getElement();
+				addTree(root(node), nodes);
+				Appearance recorded = aElements.get(node);
+				if( recorded != null )
+				{
+					addTree(recorded.aRoot, nodes); // The node may have been moved out of its tree
+				}
+			}
+			else
+			{
+				Edge edge = (Edge) change.getElement();
+				affected.add(edge);
+				addEdgesOnSides(edge, affected);
+			}
+		}
+		affected.addAll(nodes);
+		for( Node node : nodes )
+		{
+			for( Edge edge : aDiagram.edgesConnectedTo(node) )
+			{
+				affected.add(edge);
+				addEdgesOnSides(edge, affected);
+			}
+		}
+		
+		Rectangle region = null;
+		for( DiagramElement element : affected )
+		{
+			Appearance before = aElements.get(element);
+			Appearance after = aDiagram.contains(element) ? appearanceOf(element) : null;
+			if( !Objects.equals(before, after) )
+			{
+				region = add(add(region, before), after);
+			}
+			if( after == null )
+			{
+				aElements.remove(element);
+			}
+			else
+			{
+				aElements.put(element, after);
+			}
+		}
+		return Optional.ofNullable(region);
+	}
+	
+	private static void addTree(Node pNode, Set<Node> pNodes)
+	{
+		if( pNodes.add(pNode) )
+		{
+			pNode.getChildren().forEach(child -> addTree(child, pNodes));
+		}
+	}
+	
+	/*
+	 * Adds the edges that share a node with pEdge, whose positions on 
+	 * the sides of the node depend on pEdge. 
+	 */
+	private void addEdgesOnSides(Edge pEdge, Set<DiagramElement> pElements)
+	{
+		for( Node node : new Node[] { pEdge.getStart(), pEdge.getEnd() } )
+		{
+			if( node != null && aDiagram.contains(node) )
+			{
+				pElements.addAll(aDiagram.edgesConnectedTo(node));
+			}
+		}
+	}
+
+	private static Rectangle add(Rectangle pRegion, Appearance pAppearance)
+	{
+		if( pAppearance == null )
+		{
+			return pRegion;
+		}
+		if( pRegion == null )
+		{
+			return pAppearance.aBounds;
+		}
+		return pRegion.add(pAppearance.aBounds);
+	}
+
+	/*
+	 * The recorded appearance of a single element. Only the bounds are used 
+	 * to compute regions, and only the root is used to find the nodes that 
+	 * shared a tree with a node, the other fields only serve to detect changes.
+	 */
+	private static final class Appearance
+	{
+		private final Rectangle aBounds;
+		private final Node aRoot;
+		private final Point aStart;
+		private final Point aEnd;
+		private final Rectangle aStartBounds;
+		private final Rectangle aEndBounds;
+		private final List<Object> aPropertyValues;
+
+		Appearance(Rectangle pBounds, Node pRoot, Line pConnectionPoints, Rectangle pStartBounds, Rectangle pEndBounds, 
+				List<Object> pPropertyValues)
+		{
+			aBounds = pBounds;
+			aRoot = pRoot;
+			aStart = pConnectionPoints == null ? null : pConnectionPoints.getPoint1();
+			aEnd = pConnectionPoints == null ? null : pConnectionPoints.getPoint2();
+			aStartBounds = pStartBounds;
+			aEndBounds = pEndBounds;
+			aPropertyValues = pPropertyValues;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(aBounds, aStart, aEnd, aStartBounds, aEndBounds, aPropertyValues);
+		}
+
+		@Override
+		public boolean equals(Object pObject)
+		{
+			if( this == pObject )
+			{
+				return true;
+			}
+			if( pObject == null || pObject.getClass() != getClass() )
+			{
+				return false;
+			}
+			Appearance other = (Appearance) pObject;
+			return aBounds.equals(other.aBounds) && aPropertyValues.equals(other.aPropertyValues) &&
+					aRoot == other.aRoot && 
+					Objects.equals(aStart, other.aStart) && Objects.equals(aEnd, other.aEnd) &&
+					Objects.equals(aStartBounds, other.aStartBounds) && Objects.equals(aEndBounds, other.aEndBounds);
+		}
+	}
+}
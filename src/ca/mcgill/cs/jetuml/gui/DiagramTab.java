@@ -33,11 +33,13 @@ import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.geom.Point;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.scene.Group;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tab;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 
 /**
@@ -47,12 +49,14 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 {
 	private static final double DEFAULT_SCALE = 1.0;
 	private static final double SCALE_MULTIPLIER = 1.25;
-	private static final double ZOOM_MIN = DEFAULT_SCALE / (SCALE_MULTIPLIER * SCALE_MULTIPLIER);
+	// Zooming out far enough to get an overview of large diagrams, see LevelOfDetail
+	private static final double ZOOM_MIN = DEFAULT_SCALE / Math.pow(SCALE_MULTIPLIER, 6);
 	private static final double ZOOM_MAX = DEFAULT_SCALE * SCALE_MULTIPLIER * SCALE_MULTIPLIER;
 	
 	private final DoubleProperty aZoom;
 	private final Diagram aDiagram;
 	private DiagramCanvas aDiagramCanvas;
+	private final Pane aSurface;
 	private final DiagramCanvasController aDiagramCanvasController;
 	private Optional<File> aFile = Optional.empty(); // The file associated with this diagram
 	
@@ -75,19 +79,24 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		BorderPane layout = new BorderPane();
 		layout.setRight(sideBar);
 
-		// We put the diagram in a fixed-size StackPane for the sole purpose of being able to
+		// The layers of the canvas only cover the visible part of the diagram. They are placed 
+		// in a surface that has the size of the zoomed diagram, so that the scroll bars reflect 
+		// the whole diagram, and are moved within the surface as the viewport changes.
+		aZoom = new SimpleDoubleProperty(DEFAULT_SCALE);
+		aSurface = new Pane();
+		aSurface.getChildren().addAll(aDiagramCanvas.getLayers());
+		
+		// We put the surface in a fixed-size StackPane for the sole purpose of being able to
 		// decorate it with CSS. The StackPane needs to have a fixed size so the border fits the 
-		// canvas and not the parent container.
-		StackPane pane = new StackPane(aDiagramCanvas);
+		// surface and not the parent container.
+		StackPane pane = new StackPane(aSurface);
 		final int buffer = 12; // (border insets + border width + 1)*2
-		pane.setMaxSize(aDiagramCanvas.getWidth() + buffer, aDiagramCanvas.getHeight() + buffer);
+		pane.maxWidthProperty().bind(aSurface.prefWidthProperty().add(buffer));
+		pane.maxHeightProperty().bind(aSurface.prefHeightProperty().add(buffer));
 		final String cssDefault = "-fx-border-color: grey; -fx-border-insets: 4;"
 				+ "-fx-border-width: 1; -fx-border-style: solid;";
 		pane.setStyle(cssDefault);
-		
-		aZoom = new SimpleDoubleProperty(DEFAULT_SCALE);
-		pane.scaleXProperty().bind(aZoom);
-		pane.scaleYProperty().bind(aZoom);
+		resizeSurface();
 		
 		// First, wrap the StackPane in a Group to allow the scrolling to be based around the visual bounds
 		// of the canvas rather than its layout bounds.
@@ -103,6 +112,16 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		scroll.setFitToHeight(true);
 		layout.setCenter(scroll);
 		
+		// Scrolling moves the surface relative to the scene, and resizing the window 
+		// changes the viewport bounds: both require the canvas to follow the viewport.
+		scroll.viewportBoundsProperty().addListener((pObservable, pOldValue, pNewValue) -> updateViewport());
+		aSurface.localToSceneTransformProperty().addListener((pObservable, pOldValue, pNewValue) -> updateViewport());
+		aZoom.addListener((pObservable, pOldValue, pNewValue) -> 
+		{
+			resizeSurface();
+			updateViewport();
+		});
+		
 		setTitle();
 		setContent(layout);
 
@@ -114,6 +133,34 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		});
 	}
 	
+	/* Sets the size of the surface to the size of the diagram at the current zoom level. */
+	private void resizeSurface()
+	{
+		double width = aDiagramCanvas.getDiagramWidth() * aZoom.get();
+		double height = aDiagramCanvas.getDiagramHeight() * aZoom.get();
+		aSurface.setMinSize(width, height);
+		aSurface.setPrefSize(width, height);
+		aSurface.setMaxSize(width, height);
+	}
+	
+	/* Moves and resizes the canvas layers to cover the part of the surface visible in the viewport. */
+	private void updateViewport()
+	{
+		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
+		Bounds viewport = scrollPane.getViewportBounds();
+		Bounds visible = aSurface.sceneToLocal(scrollPane.localToScene(new BoundingBox(
+				scrollPane.snappedLeftInset(), scrollPane.snappedTopInset(), viewport.getWidth(), viewport.getHeight())));
+		if( visible == null )
+		{
+			return;
+		}
+		double minX = max(0, visible.getMinX());
+		double minY = max(0, visible.getMinY());
+		double maxX = min(aSurface.getPrefWidth(), visible.getMaxX());
+		double maxY = min(aSurface.getPrefHeight(), visible.getMaxY());
+		aDiagramCanvas.setViewport(minX, minY, max(0, maxX - minX), max(0, maxY - minY), aZoom.get());
+	}
+	
 	/* retrieves the toolbar from the component graph */
 	private DiagramTabToolBar toolBar()
 	{
@@ -285,8 +332,10 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	public void interactionTo(Point pTo)
 	{
 		ViewportProjection projection = getViewportProjection();
-		((ScrollPane)((BorderPane)getContent()).getCenter()).setHvalue(projection.getAdjustedHValueToRevealX(pTo.getX()));
-		((ScrollPane)((BorderPane)getContent()).getCenter()).setVvalue(projection.getAdjustedVValueToRevealY(pTo.getY()));
+		int x = (int) (pTo.getX() * aZoom.get());
+		int y = (int) (pTo.getY() * aZoom.get());
+		((ScrollPane)((BorderPane)getContent()).getCenter()).setHvalue(projection.getAdjustedHValueToRevealX(x));
+		((ScrollPane)((BorderPane)getContent()).getCenter()).setVvalue(projection.getAdjustedVValueToRevealY(y));
 	}
 	
 	private ViewportProjection getViewportProjection()
@@ -294,12 +343,13 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
 		Bounds bounds = scrollPane.getViewportBounds();
 		// Because, when the scrollbars are not displayed, the Scrollpane will increase
-		// the viewport size beyond the canvas size, it's necessary to max out the dimensions
-		// at the size of the canvas.
-		int viewportWidth = Math.min((int) bounds.getWidth(), (int) aDiagramCanvas.getWidth());
-		int viewportHeight = Math.min((int) bounds.getHeight(), (int) aDiagramCanvas.getHeight());
-		return new ViewportProjection(viewportWidth, viewportHeight, 
-				(int) aDiagramCanvas.getWidth(), (int) aDiagramCanvas.getHeight(), 
+		// the viewport size beyond the diagram size, it's necessary to max out the dimensions
+		// at the size of the zoomed diagram.
+		int diagramWidth = (int) aSurface.getPrefWidth();
+		int diagramHeight = (int) aSurface.getPrefHeight();
+		int viewportWidth = Math.min((int) bounds.getWidth(), diagramWidth);
+		int viewportHeight = Math.min((int) bounds.getHeight(), diagramHeight);
+		return new ViewportProjection(viewportWidth, viewportHeight, diagramWidth, diagramHeight, 
 				scrollPane.getHvalue(), scrollPane.getVvalue());
 	}
 
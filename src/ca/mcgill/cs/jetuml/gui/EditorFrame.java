@@ -23,19 +23,16 @@ package ca.mcgill.cs.jetuml.gui;
 
 import static ca.mcgill.cs.jetuml.application.ApplicationResources.RESOURCES;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.prefs.Preferences;
 import java.util.stream.Stream;
 
@@ -52,8 +49,7 @@ import ca.mcgill.cs.jetuml.gui.tips.TipDialog;
 import ca.mcgill.cs.jetuml.persistence.DeserializationException;
 import ca.mcgill.cs.jetuml.persistence.PersistenceService;
 import ca.mcgill.cs.jetuml.persistence.VersionedDiagram;
-import ca.mcgill.cs.jetuml.views.ImageCreator;
-import javafx.embed.swing.SwingFXUtils;
+import javafx.concurrent.Task;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
@@ -82,12 +78,20 @@ public class EditorFrame extends BorderPane
 	private static final String KEY_LAST_IMAGE_FORMAT = "lastImageFormat";
 	private static final String USER_MANUAL_URL = "https://www.jetuml.org/docs/user-guide.html";
 	
-	private static final String[] IMAGE_FORMATS = validFormats("png", "jpg", "gif", "bmp");
+	private static final String SVG_FORMAT = "svg";
+	private static final String[] IMAGE_FORMATS = validFormats("png", "jpg", "gif", "bmp", SVG_FORMAT);
 	
 	private Stage aMainStage;
 	private RecentFilesQueue aRecentFiles = new RecentFilesQueue();
 	private Menu aRecentFilesMenu;
 	private WelcomeTab aWelcomeTab;
+	private final ExecutorService aExportExecutor = Executors.newSingleThreadExecutor(pRunnable -> 
+	{
+		// Exports in progress do not prevent the application from exiting
+		Thread thread = new Thread(pRunnable);
+		thread.setDaemon(true);
+		return thread;
+	});
 	
 	/**
 	 * Constructs a blank frame with a desktop pane but no diagram window.
@@ -143,7 +147,7 @@ public class EditorFrame extends BorderPane
 		List<String> validFormats = new ArrayList<>();
 		for( String format : pDesiredFormats )
 		{
-			if( recognizedWriters.contains(format))
+			if( recognizedWriters.contains(format) || format.equals(SVG_FORMAT))
 			{
 				validFormats.add(format);
 			}
@@ -237,6 +241,16 @@ public class EditorFrame extends BorderPane
 						UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode),
 						event -> UserPreferences.instance().setBoolean(BooleanPreference.autoEditNode, 
 								((CheckMenuItem) event.getSource()).isSelected())),
+				
+				factory.createCheckMenuItem("view.show_repaint_regions", false, 
+						UserPreferences.instance().getBoolean(BooleanPreference.showRepaintRegions),
+						event -> UserPreferences.instance().setBoolean(BooleanPreference.showRepaintRegions, 
+								((CheckMenuItem) event.getSource()).isSelected())),
+				
+				factory.createCheckMenuItem("view.show_render_statistics", false, 
+						UserPreferences.instance().getBoolean(BooleanPreference.showRenderStatistics),
+						event -> UserPreferences.instance().setBoolean(BooleanPreference.showRenderStatistics, 
+								((CheckMenuItem) event.getSource()).isSelected())),
 		
 				factory.createMenuItem("view.diagram_size", false, event -> new DiagramSizeDialog(aMainStage).show()),
 				factory.createMenuItem("view.font_size", false, event -> new FontSizeDialog(aMainStage).show()),
@@ -390,15 +404,27 @@ public class EditorFrame extends BorderPane
 	public void copyToClipboard() 
 	{
 		DiagramTab frame = getSelectedDiagramTab();
-		final Image image = ImageCreator.createImage(frame.getDiagram());
-		final Clipboard clipboard = Clipboard.getSystemClipboard();
-	    final ClipboardContent content = new ClipboardContent();
-	    content.putImage(image);
-	    clipboard.setContent(content);
-		Alert alert = new Alert(AlertType.INFORMATION, RESOURCES.getString("dialog.to_clipboard.message"), ButtonType.OK);
-		alert.initOwner(aMainStage);
-		alert.setHeaderText(RESOURCES.getString("dialog.to_clipboard.title"));
-		alert.showAndWait();
+		Task<Image> task = ImageExport.toImage(frame.getDiagram());
+		task.setOnSucceeded(pEvent ->
+		{
+			final Clipboard clipboard = Clipboard.getSystemClipboard();
+		    final ClipboardContent content = new ClipboardContent();
+		    content.putImage(task.getValue());
+		    clipboard.setContent(content);
+			Alert alert = new Alert(AlertType.INFORMATION, RESOURCES.getString("dialog.to_clipboard.message"), ButtonType.OK);
+			alert.initOwner(aMainStage);
+			alert.setHeaderText(RESOURCES.getString("dialog.to_clipboard.title"));
+			alert.showAndWait();
+		});
+		task.setOnFailed(pEvent ->
+		{
+			Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.copy_to_clipboard"), ButtonType.OK);
+			alert.initOwner(aMainStage);
+			alert.showAndWait();
+		});
+		new ProgressDialog(aMainStage, RESOURCES.getString("dialog.to_clipboard.title"), 
+				RESOURCES.getString("dialog.to_clipboard.progress"), task).show();
+		aExportExecutor.execute(task);
 	}
 
 	/* @pre there is a selected diagram tab, not just the welcome tab */
@@ -574,36 +600,17 @@ public class EditorFrame extends BorderPane
 			setLastDir(KEY_LAST_EXPORT_DIR, dir);
 		}
 		DiagramTab frame = getSelectedDiagramTab();
-		try (OutputStream out = new FileOutputStream(file)) 
-		{
-			BufferedImage image = getBufferedImage(frame.getDiagram()); 
-			if("jpg".equals(format))	// to correct the display of JPEG/JPG images (removes red hue)
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.OPAQUE);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0,  0, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else if("bmp".equals(format))	// to correct the BufferedImage type
-			{
-				BufferedImage imageRGB = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-				Graphics2D graphics = imageRGB.createGraphics();
-				graphics.drawImage(image, 0, 0, Color.WHITE, null);
-				ImageIO.write(imageRGB, format, out);
-				graphics.dispose();
-			}
-			else
-			{
-				ImageIO.write(image, format, out);
-			}
-		} 
-		catch(IOException exception) 
+		// The task copies the diagram, so it can be edited while the export runs
+		Task<Void> task = ImageExport.toFile(frame.getDiagram(), file, format);
+		task.setOnFailed(pEvent ->
 		{
 			Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.save_file"), ButtonType.OK);
 			alert.initOwner(aMainStage);
 			alert.showAndWait();
-		}
+		});
+		new ProgressDialog(aMainStage, RESOURCES.getString("dialog.export.title"), 
+				MessageFormat.format(RESOURCES.getString("dialog.export.progress"), file.getName()), task).show();
+		aExportExecutor.execute(task);
 	}
 	
 	private FileChooser getImageFileChooser(File pInitialDirectory, String pInitialFormat) 
@@ -634,19 +641,6 @@ public class EditorFrame extends BorderPane
 		return fileChooser;
 	}
 
-	/*
-	 * Return the image corresponding to the graph.
-	 * 
-	 * @param pDiagram The graph to convert to an image.
-	 * 
-	 * @return bufferedImage. To convert it into an image, use the syntax :
-	 * Toolkit.getDefaultToolkit().createImage(bufferedImage.getSource());
-	 */
-	private static BufferedImage getBufferedImage(Diagram pDiagram) 
-	{
-		return SwingFXUtils.fromFXImage(ImageCreator.createImage(pDiagram), null);
-	}
-	
 	private int getNumberOfUsavedDiagrams()
 	{
 		return (int) tabs().stream()
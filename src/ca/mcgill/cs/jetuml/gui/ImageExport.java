@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageOutputStream;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.views.ImageCreator;
+import ca.mcgill.cs.jetuml.views.RenderingThread;
+import ca.mcgill.cs.jetuml.views.SvgDocument;
+import javafx.concurrent.Task;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Creates tasks that export an image of a diagram on a background thread, 
+ * so that the user interface remains responsive while large diagrams
+ * are exported. 
+ * 
+ * The tasks must be created on the JavaFX application thread. They take a 
+ * copy of the diagram when they are created, so the diagram can be edited
+ * during the export. The copy is drawn on the JavaFX application thread one 
+ * strip at a time, while the background thread encodes the strips already drawn.
+ * The tasks report their progress and stop soon after they are cancelled.
+ */
+final class ImageExport
+{
+	private static final String SVG_FORMAT = "svg";
+	private static final int ALPHA = 0xff000000;
+	
+	private ImageExport() {}
+	
+	/**
+	 * Creates a task that writes an image of pDiagram to pFile. If the 
+	 * task fails or is cancelled, the file is deleted.
+	 * 
+	 * @param pDiagram The diagram to export.
+	 * @param pFile The file to write.
+	 * @param pFormat svg or the name of a format for which ImageIO has a writer.
+	 * @return A task that has not been started.
+	 * @pre pDiagram != null && pFile != null && pFormat != null
+	 */
+	static Task<Void> toFile(Diagram pDiagram, File pFile, String pFormat)
+	{
+		assert pDiagram != null && pFile != null && pFormat != null;
+		if( pFormat.equals(SVG_FORMAT) )
+		{
+			return new SvgFileTask(pDiagram.duplicate(), pFile);
+		}
+		return new ImageFileTask(ImageCreator.createTiledImage(pDiagram.duplicate()), pFile, pFormat);
+	}
+	
+	/**
+	 * Creates a task that computes a JavaFX image of pDiagram, for example 
+	 * to copy it to the clipboard.
+	 * 
+	 * @param pDiagram The diagram to export.
+	 * @return A task that has not been started.
+	 * @pre pDiagram != null
+	 */
+	static Task<Image> toImage(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return new ImageTask(ImageCreator.createTiledImage(pDiagram.duplicate()));
+	}
+	
+	/*
+	 * Deletes pFile if the task failed or was cancelled.
+	 */
+	private abstract static class FileTask extends Task<Void>
+	{
+		private final File aFile;
+		
+		FileTask(File pFile)
+		{
+			aFile = pFile;
+		}
+		
+		@Override
+		protected Void call() throws Exception
+		{
+			try
+			{
+				write(aFile);
+			}
+			catch(Exception exception)
+			{
+				Files.deleteIfExists(aFile.toPath());
+				throw exception;
+			}
+			if( isCancelled() )
+			{
+				Files.deleteIfExists(aFile.toPath());
+			}
+			return null;
+		}
+		
+		protected abstract void write(File pFile) throws Exception;
+	}
+	
+	/*
+	 * Each part of the document is drawn on the JavaFX application thread 
+	 * and written to the file in the background, so that only one part is 
+	 * held in memory and the JavaFX application thread can handle events, 
+	 * including cancellation, between two parts.
+	 */
+	private static final class SvgFileTask extends FileTask
+	{
+		private static final int ELEMENTS_PER_PART = 100;
+		
+		private final SvgDocument aDocument;
+		
+		SvgFileTask(Diagram pDiagram, File pFile)
+		{
+			super(pFile);
+			aDocument = ImageCreator.createSvgDocument(pDiagram);
+		}
+		
+		@Override
+		protected void write(File pFile) throws Exception
+		{
+			try( Writer writer = Files.newBufferedWriter(pFile.toPath(), StandardCharsets.UTF_8) )
+			{
+				// The document is only modified by the calls on the JavaFX application
+				// thread, which complete before its state is read here.
+				while( !aDocument.isComplete() && !isCancelled() )
+				{
+					writer.write(RenderingThread.call(() -> aDocument.next(ELEMENTS_PER_PART)));
+					updateProgress(aDocument.drawn(), aDocument.size());
+				}
+			}
+		}
+	}
+	
+	/*
+	 * The image writer reports its progress as it requests the rows of the image,
+	 * and is aborted when the task is cancelled.
+	 */
+	private static final class ImageFileTask extends FileTask implements IIOWriteProgressListener
+	{
+		private final RenderedImage aImage;
+		private final String aFormat;
+		
+		ImageFileTask(RenderedImage pImage, File pFile, String pFormat)
+		{
+			super(pFile);
+			aImage = pImage;
+			aFormat = pFormat;
+		}
+		
+		@Override
+		protected void write(File pFile) throws Exception
+		{
+			ImageWriter writer = ImageIO.getImageWritersByFormatName(aFormat).next();
+			try( OutputStream out = new FileOutputStream(pFile);
+				 ImageOutputStream imageOut = ImageIO.createImageOutputStream(out) )
+			{
+				writer.setOutput(imageOut);
+				writer.addIIOWriteProgressListener(this);
+				writer.write(aImage);
+			}
+			finally
+			{
+				writer.dispose();
+			}
+		}
+
+		@Override
+		public void imageProgress(ImageWriter pSource, float pPercentageDone)
+		{
+			updateProgress(pPercentageDone, 100);
+			if( isCancelled() )
+			{
+				pSource.abort();
+			}
+		}
+
+		@Override
+		public void imageStarted(ImageWriter pSource, int pImageIndex) {}
+
+		@Override
+		public void imageComplete(ImageWriter pSource) {}
+
+		@Override
+		public void thumbnailStarted(ImageWriter pSource, int pImageIndex, int pThumbnailIndex) {}
+
+		@Override
+		public void thumbnailProgress(ImageWriter pSource, float pPercentageDone) {}
+
+		@Override
+		public void thumbnailComplete(ImageWriter pSource) {}
+
+		@Override
+		public void writeAborted(ImageWriter pSource) {}
+	}
+	
+	/*
+	 * The pixels of each strip, which are opaque RGB values packed in ints, 
+	 * are copied to the JavaFX image as soon as the strip is drawn. The image is not shown until the task 
+	 * completes, so it can be written to from the background thread.
+	 */
+	private static final class ImageTask extends Task<Image>
+	{
+		private final RenderedImage aImage;
+		
+		ImageTask(RenderedImage pImage)
+		{
+			aImage = pImage;
+		}
+		
+		@Override
+		protected Image call()
+		{
+			int width = aImage.getWidth();
+			int height = aImage.getHeight();
+			WritableImage image = new WritableImage(width, height);
+			for( int strip = 0; strip < aImage.getNumYTiles() && !isCancelled(); strip++ )
+			{
+				Raster raster = aImage.getTile(0, strip);
+				// The last strip can extend below the image
+				int rows = Math.min(raster.getHeight(), height - raster.getMinY());
+				int[] pixels = (int[]) raster.getDataElements(0, raster.getMinY(), width, rows, null);
+				for( int i = 0; i < pixels.length; i++ )
+				{
+					pixels[i] |= ALPHA;
+				}
+				image.getPixelWriter().setPixels(0, raster.getMinY(), width, rows, 
+						PixelFormat.getIntArgbInstance(), pixels, 0, width);
+				updateProgress(strip + 1, aImage.getNumYTiles());
+			}
+			return image;
+		}
+	}
+}
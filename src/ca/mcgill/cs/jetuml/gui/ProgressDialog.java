@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static ca.mcgill.cs.jetuml.application.ApplicationResources.RESOURCES;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker.State;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.image.Image;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+
+/**
+ * A dialog that shows the progress of a background task and allows 
+ * users to cancel it. The dialog is not modal, so users can keep 
+ * working while the task runs, and it closes itself when the task
+ * is done.
+ */
+public class ProgressDialog
+{
+	private static final int SPACING = 10;
+	private static final int PROGRESS_WIDTH = 300;
+	
+	private final Stage aStage = new Stage();
+	private final Task<?> aTask;
+	
+	/**
+	 * Creates a new dialog for pTask.
+	 * 
+	 * @param pOwner The stage that owns this stage.
+	 * @param pTitle The title of the dialog.
+	 * @param pMessage A description of the task.
+	 * @param pTask The task whose progress to show.
+	 * @pre pTask != null
+	 */
+	public ProgressDialog(Stage pOwner, String pTitle, String pMessage, Task<?> pTask)
+	{
+		assert pTask != null;
+		aTask = pTask;
+		prepareStage(pOwner, pTitle);
+		aStage.setScene(createScene(pMessage));
+		aTask.stateProperty().addListener((pObservable, pOldValue, pNewValue) -> 
+		{
+			if( isFinished(pNewValue) )
+			{
+				aStage.close();
+			}
+		});
+	}
+	
+	private static boolean isFinished(State pState)
+	{
+		return pState == State.SUCCEEDED || pState == State.FAILED || pState == State.CANCELLED;
+	}
+	
+	private void prepareStage(Stage pOwner, String pTitle) 
+	{
+		aStage.setResizable(false);
+		aStage.initOwner(pOwner);
+		aStage.setTitle(pTitle);
+		aStage.getIcons().add(new Image(RESOURCES.getString("application.icon")));
+		aStage.setOnCloseRequest(pEvent -> aTask.cancel());
+	}
+	
+	private Scene createScene(String pMessage) 
+	{
+		BorderPane layout = new BorderPane();
+		layout.setPadding(new Insets(SPACING));
+		layout.setTop(new Text(pMessage));
+		
+		ProgressBar progress = new ProgressBar();
+		progress.setPrefWidth(PROGRESS_WIDTH);
+		progress.progressProperty().bind(aTask.progressProperty());
+		BorderPane.setMargin(progress, new Insets(SPACING, 0, SPACING, 0));
+		layout.setCenter(progress);
+		
+		Button cancel = new Button(RESOURCES.getString("dialog.progress.cancel"));
+		cancel.setOnAction(pEvent -> aTask.cancel());
+		HBox buttons = new HBox(cancel);
+		buttons.setAlignment(Pos.CENTER_RIGHT);
+		layout.setBottom(buttons);
+		
+		return new Scene(layout);
+	}
+	
+	/**
+	 * Shows the dialog without waiting for it to be closed.
+	 */
+	public void show() 
+	{
+		if( !isFinished(aTask.getState()) )
+		{
+			aStage.show();
+		}
+	}
+}
@@ -21,10 +21,14 @@
 package ca.mcgill.cs.jetuml.gui;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramData;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -33,6 +37,7 @@ import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.views.SpatialIndex;
 import ca.mcgill.cs.jetuml.views.ViewerUtilities;
 
 /**
@@ -42,6 +47,10 @@ import ca.mcgill.cs.jetuml.views.ViewerUtilities;
  * 1. A list of selected elements.
  * 2. Optionally, a rubberband tool used to select two nodes for drawing an edge
  * 3. Optionally, a lasso tool used to select any element within a region on a canvas.
+ * 
+ * Notifications report the region of the diagram affected by each change, which
+ * covers the old and new bounds of the elements whose selection status changed 
+ * and of the rubberband and lasso.
  */
 public class SelectionModel implements Iterable<DiagramElement>
 {
@@ -72,9 +81,10 @@ public class SelectionModel implements Iterable<DiagramElement>
 	{
 		assert pDiagramData != null;
 		clearSelection();
+		State before = new State();
 		pDiagramData.rootNodes().forEach(this::internalAddToSelection);
 		pDiagramData.edges().forEach(this::internalAddToSelection);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 
 	/**
@@ -150,35 +160,32 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 * in the lasso, and triggers a notification.
 	 * 
 	 * @param pLasso The bounds of the current lasso.
-	 * @param pDiagramData Data about the diagram whose elements are being selected with the lasso.
+	 * @param pDiagram The diagram whose elements are being selected with the lasso.
 	 *     only the elements in the lasso are selected.
 	 * @pre pLasso != null;
-	 * @pre pDiagramData != null;
+	 * @pre pDiagram != null;
 	 */
-	public void activateLasso(Rectangle pLasso, DiagramData pDiagramData)
+	public void activateLasso(Rectangle pLasso, Diagram pDiagram)
 	{
-		assert pLasso != null;
+		assert pLasso != null && pDiagram != null;
+		State before = new State();
 		aLasso = Optional.of(pLasso);
-		pDiagramData.rootNodes().forEach( node -> selectNode(node, pLasso));
-		pDiagramData.edges().forEach( edge -> selectEdge(edge, pLasso));
-		aObserver.selectionModelChanged();
-	}
-	
-	private void selectNode(Node pNode, Rectangle pLasso)
-	{
-		if(pLasso.contains(NodeViewerRegistry.getBounds(pNode)))
+		SpatialIndex index = SpatialIndex.forDiagram(pDiagram);
+		for( Node node : index.nodesIntersecting(pLasso) )
 		{
-			internalAddToSelection(pNode);
+			if(pLasso.contains(NodeViewerRegistry.getBounds(node)))
+			{
+				internalAddToSelection(node);
+			}
 		}
-		pNode.getChildren().forEach(child -> selectNode(child, pLasso));
-	}
-	
-	private void selectEdge(Edge pEdge, Rectangle pLasso )
-	{
-		if(pLasso.contains(EdgeViewerRegistry.getBounds(pEdge)))
+		for( Edge edge : index.edgesIntersecting(pLasso) )
 		{
-			internalAddToSelection(pEdge);
-		}		
+			if(pLasso.contains(EdgeViewerRegistry.getBounds(edge)))
+			{
+				internalAddToSelection(edge);
+			}
+		}
+		notifyObserver(before);
 	}
 	
 	/**
@@ -194,8 +201,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void deactivateLasso()
 	{
+		State before = new State();
 		aLasso = Optional.empty();
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	/**
@@ -206,8 +214,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void activateRubberband(Line pLine)
 	{
 		assert pLine != null;
+		State before = new State();
 		aRubberband = Optional.of(pLine);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	
@@ -224,8 +233,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void deactivateRubberband()
 	{
+		State before = new State();
 		aRubberband = Optional.empty();
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	/**
@@ -239,8 +249,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	{
 		assert pNewSelection != null;
 		clearSelection();
+		State before = new State();
 		pNewSelection.forEach(this::internalAddToSelection);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	/**
@@ -256,8 +267,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void addToSelection(DiagramElement pElement)
 	{
 		assert pElement != null;
+		State before = new State();
 		internalAddToSelection(pElement);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	private void internalAddToSelection(DiagramElement pElement)
@@ -319,8 +331,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	 */
 	public void clearSelection()
 	{
+		State before = new State();
 		aSelected.clear();
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	/**
@@ -357,8 +370,9 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void removeFromSelection(DiagramElement pElement)
 	{
 		assert pElement != null;
+		State before = new State();
 		aSelected.remove(pElement);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
 	}
 	
 	/**
@@ -370,9 +384,107 @@ public class SelectionModel implements Iterable<DiagramElement>
 	public void set(DiagramElement pElement)
 	{
 		assert pElement != null;
+		State before = new State();
 		aSelected.clear();
 		aSelected.add(pElement);
-		aObserver.selectionModelChanged();
+		notifyObserver(before);
+	}
+
+	/*
+	 * Notifies the observer with the region affected by the changes
+	 * since pBefore was recorded.
+	 */
+	private void notifyObserver(State pBefore)
+	{
+		State after = new State();
+		aObserver.selectionModelChanged(() -> changedRegion(pBefore, after));
+	}
+	
+	private static Optional<Rectangle> changedRegion(State pBefore, State pAfter)
+	{
+		Set<DiagramElement> selected = pAfter.aSelected;
+		Rectangle region = null;
+		for( DiagramElement element : pBefore.aSelected )
+		{
+			if( !selected.contains(element) )
+			{
+				region = addElement(region, element);
+			}
+		}
+		for( DiagramElement element : selected )
+		{
+			if( !pBefore.aSelected.contains(element) )
+			{
+				region = addElement(region, element);
+			}
+		}
+		if( !pBefore.aRubberband.equals(pAfter.aRubberband) )
+		{
+			region = add(add(region, pBefore.aRubberband.map(Line::spanning)), pAfter.aRubberband.map(Line::spanning));
+		}
+		if( !pBefore.aLasso.equals(pAfter.aLasso) )
+		{
+			region = add(add(region, pBefore.aLasso), pAfter.aLasso);
+		}
+		return Optional.ofNullable(region);
+	}
+	
+	/*
+	 * Elements that are no longer in a diagram have no selection handles
+	 * to erase, and their bounds may not be computable.
+	 */
+	private static Rectangle addElement(Rectangle pRegion, DiagramElement pElement)
+	{
+		if( !isInDiagram(pElement) )
+		{
+			return pRegion;
+		}
+		return add(pRegion, Optional.of(ViewerUtilities.getBounds(pElement)));
+	}
+	
+	private static boolean isInDiagram(DiagramElement pElement)
+	{
+		if( pElement instanceof Node )
+		{
+			Optional<Diagram> diagram = ((Node) pElement).getDiagram();
+			return diagram.isPresent() && diagram.get().contains(pElement);
+		}
+		else if( pElement instanceof Edge )
+		{
+			Diagram diagram = ((Edge) pElement).getDiagram();
+			return diagram != null && diagram.contains(pElement);
+		}
+		return false;
+	}
+	
+	private static Rectangle add(Rectangle pRegion, Optional<Rectangle> pBounds)
+	{
+		if( pBounds.isEmpty() )
+		{
+			return pRegion;
+		}
+		if( pRegion == null )
+		{
+			return pBounds.get();
+		}
+		return pRegion.add(pBounds.get());
+	}
+	
+	private static Set<DiagramElement> identitySet(List<DiagramElement> pElements)
+	{
+		Set<DiagramElement> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		result.addAll(pElements);
+		return result;
+	}
+	
+	/*
+	 * A copy of the visible state of the model at a given time.
+	 */
+	private final class State
+	{
+		private final Set<DiagramElement> aSelected = identitySet(SelectionModel.this.aSelected);
+		private final Optional<Line> aRubberband = SelectionModel.this.aRubberband;
+		private final Optional<Rectangle> aLasso = SelectionModel.this.aLasso;
 	}
 
 	@Override
@@ -20,6 +20,11 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.gui;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
 /**
  * Objects interested in changes to the state of a SelectionModel.
  */
@@ -29,4 +34,18 @@ public interface SelectionObserver
 	 * Called whenever the state of pModel changes.
 	 */
 	void selectionModelChanged();
+	
+	/**
+	 * Called whenever the state of pModel changes, with the region 
+	 * of the diagram whose appearance is affected by the change. The region
+	 * is computed on demand, because this requires the bounds of the elements 
+	 * involved. By default, observers ignore the region.
+	 * 
+	 * @param pDirtyRegion Supplies the union of the old and new bounds of the selection 
+	 *     handles and tools that changed, or empty if nothing visible changed.
+	 */
+	default void selectionModelChanged(Supplier<Optional<Rectangle>> pDirtyRegion)
+	{
+		selectionModelChanged();
+	}
 }
@@ -20,15 +20,20 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.persistence;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import ca.mcgill.cs.jetuml.JetUML;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
 import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.ImmutableDiagram;
 import ca.mcgill.cs.jetuml.diagram.Node;
-import ca.mcgill.cs.jetuml.diagram.Properties;
-import ca.mcgill.cs.jetuml.diagram.Property;
+import ca.mcgill.cs.jetuml.diagram.PropertyName;
 
 /**
  * Converts a graph to JSON notation. The notation includes:
@@ -46,81 +51,102 @@ public final class JsonEncoder
 	 * @return A JSON object that encodes the diagram.
 	 */
 	public static JSONObject encode(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return encode(pDiagram.snapshot());
+	}
+	
+	/**
+	 * Encodes a snapshot of a diagram. Because snapshots are immutable, 
+	 * this method can be called from any thread.
+	 * 
+	 * @param pDiagram The snapshot of the diagram to serialize.
+	 * @return A JSON object that encodes the diagram.
+	 */
+	public static JSONObject encode(ImmutableDiagram pDiagram)
 	{
 		assert pDiagram != null;
 		
 		JSONObject object = new JSONObject();
 		object.put("version", JetUML.VERSION.toString());
-		object.put("diagram", pDiagram.getName());
-		SerializationContext context = new SerializationContext(pDiagram);
-		object.put("nodes", encodeNodes(context));
-		object.put("edges", encodeEdges(context));
+		object.put("diagram", pDiagram.getType().getName());
+		Map<Node, Integer> identifiers = new IdentityHashMap<>();
+		pDiagram.rootNodes().forEach(node -> identify(node, pDiagram, identifiers));
+		object.put("nodes", encodeNodes(pDiagram, identifiers));
+		object.put("edges", encodeEdges(pDiagram, identifiers));
 		return object;
 	}
 	
-	private static JSONArray encodeNodes(SerializationContext pContext)
+	/*
+	 * Numbers the nodes in the order in which they are encoded: each node
+	 * is followed by its descendants.
+	 */
+	private static void identify(Node pNode, ImmutableDiagram pDiagram, Map<Node, Integer> pIdentifiers)
+	{
+		pIdentifiers.put(pNode, pIdentifiers.size());
+		pDiagram.getChildren(pNode).forEach(child -> identify(child, pDiagram, pIdentifiers));
+	}
+	
+	private static JSONArray encodeNodes(ImmutableDiagram pDiagram, Map<Node, Integer> pIdentifiers)
 	{
 		JSONArray nodes = new JSONArray();
-		for( Node node : pContext ) 
+		for( Node node : pDiagram.rootNodes() ) 
 		{
-			nodes.put(encodeNode(node, pContext));
+			encodeNode(node, pDiagram, pIdentifiers, nodes);
 		}
 		return nodes;
 	}
 	
-	private static JSONObject encodeNode(Node pNode, SerializationContext pContext)
+	private static void encodeNode(Node pNode, ImmutableDiagram pDiagram, Map<Node, Integer> pIdentifiers, JSONArray pNodes)
 	{
-		JSONObject object = toJSONObject(pNode.properties());
-		object.put("id", pContext.getId(pNode));
+		JSONObject object = toJSONObject(pNode, pDiagram);
+		object.put("id", pIdentifiers.get(pNode));
 		object.put("type", pNode.getClass().getSimpleName());
-		object.put("x", pNode.position().getX());
-		object.put("y", pNode.position().getY());
-		if( pNode.getChildren().size() > 0 )
+		object.put("x", pDiagram.position(pNode).getX());
+		object.put("y", pDiagram.position(pNode).getY());
+		List<Node> children = pDiagram.getChildren(pNode);
+		if( children.size() > 0 )
 		{
-			object.put("children", encodeChildren(pNode, pContext));
+			JSONArray identifiers = new JSONArray();
+			children.forEach(child -> identifiers.put(pIdentifiers.get(child)));
+			object.put("children", identifiers);
 		}
-		return object;
-	}
-	
-	private static JSONArray encodeChildren(Node pNode, SerializationContext pContext)
-	{
-		JSONArray children = new JSONArray();
-		pNode.getChildren().forEach(child -> children.put(pContext.getId(child)));
-		return children;
+		pNodes.put(object);
+		children.forEach(child -> encodeNode(child, pDiagram, pIdentifiers, pNodes));
 	}
 	
-	private static JSONArray encodeEdges(AbstractContext pContext)
+	private static JSONArray encodeEdges(ImmutableDiagram pDiagram, Map<Node, Integer> pIdentifiers)
 	{
 		JSONArray edges = new JSONArray();
-		for( Edge edge : pContext.pDiagram().edges() ) 
+		for( Edge edge : pDiagram.edges() ) 
 		{
-			JSONObject object = toJSONObject(edge.properties());
+			JSONObject object = toJSONObject(edge, pDiagram);
 			object.put("type", edge.getClass().getSimpleName());
-			object.put("start", pContext.getId(edge.getStart()));
-			object.put("end", pContext.getId(edge.getEnd()));
+			object.put("start", pIdentifiers.get(pDiagram.getStart(edge)));
+			object.put("end", pIdentifiers.get(pDiagram.getEnd(edge)));
 			
 			edges.put(object);
 		}
 		return edges;
 	}
 	
-	private static JSONObject toJSONObject(Properties pProperties)
+	private static JSONObject toJSONObject(DiagramElement pElement, ImmutableDiagram pDiagram)
 	{
 		JSONObject object = new JSONObject();
-		for( Property property : pProperties )
+		for( PropertyName name : pDiagram.propertyNames(pElement) )
 		{
-			Object value = property.get();
+			Object value = pDiagram.propertyValue(pElement, name);
 			if( value instanceof String || value instanceof Enum )
 			{
-				object.put(property.name().external(), value.toString());
+				object.put(name.external(), value.toString());
 			}
 			else if( value instanceof Integer)
 			{
-				object.put(property.name().external(), (int) value);
+				object.put(name.external(), (int) value);
 			}
 			else if( value instanceof Boolean)
 			{
-				object.put(property.name().external(), (boolean) value);
+				object.put(name.external(), (boolean) value);
 			}
 		}
 		return object;
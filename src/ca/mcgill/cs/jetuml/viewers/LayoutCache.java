@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import ca.mcgill.cs.jetuml.annotations.Singleton;
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.geom.Direction;
+import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+
+/**
+ * Stores the geometry computed by the viewers for the elements of a diagram, 
+ * so that it only needs to be computed once per revision of the diagram.
+ * The geometry of a diagram is attached to the diagram, so that it can be 
+ * garbage-collected with it.
+ * 
+ * The geometry stored for a diagram is discarded as soon as the revision 
+ * number of the diagram or the font size changes. Nodes whose ancestors 
+ * are not all part of their diagram, and edges that are not connected to 
+ * such nodes of their own diagram, are never cached. 
+ * 
+ * The number of queries answered from the cache (hits) and the number of 
+ * queries that required a computation (misses) are recorded to assess the 
+ * effectiveness of the cache.
+ */
+@Singleton
+public final class LayoutCache
+{
+	private static final LayoutCache INSTANCE = new LayoutCache();
+	
+	// Incremented to discard the geometry of all diagrams at once
+	private long aGeneration = 0;
+	private long aHits = 0;
+	private long aMisses = 0;
+	
+	private LayoutCache() {}
+	
+	/**
+	 * @return The singleton instance of this class.
+	 */
+	public static LayoutCache instance()
+	{
+		return INSTANCE;
+	}
+	
+	/**
+	 * Returns the bounds of pNode, computing them with pComputation if they are 
+	 * not already known for the current revision of the node's diagram.
+	 * 
+	 * @param pNode The node whose bounds are requested.
+	 * @param pComputation The function that computes the bounds of a node.
+	 * @return The bounds of pNode.
+	 * @pre pNode != null && pComputation != null
+	 */
+	public Rectangle getBounds(Node pNode, Function<Node, Rectangle> pComputation)
+	{
+		assert pNode != null && pComputation != null;
+		Optional<Diagram> diagram = pNode.getDiagram();
+		if( !isCacheable(pNode) )
+		{
+			aMisses++;
+			return pComputation.apply(pNode);
+		}
+		NodeLayout layout = layoutFor(diagram.get()).nodeLayout(pNode);
+		if( layout.aBounds == null )
+		{
+			aMisses++;
+			// Stored only after the computation, which may itself query the cache
+			Rectangle bounds = pComputation.apply(pNode);
+			layout.aBounds = bounds;
+			return bounds;
+		}
+		aHits++;
+		return layout.aBounds;
+	}
+	
+	/**
+	 * Returns the connection point of pNode in direction pDirection, computing it with
+	 * pComputation if it is not already known for the current revision of the node's diagram.
+	 * 
+	 * @param pNode The node whose connection point is requested.
+	 * @param pDirection The desired direction.
+	 * @param pComputation The function that computes the connection point.
+	 * @return The connection point on pNode.
+	 * @pre pNode != null && pDirection != null && pComputation != null
+	 */
+	public Point getConnectionPoint(Node pNode, Direction pDirection, BiFunction<Node, Direction, Point> pComputation)
+	{
+		assert pNode != null && pDirection != null && pComputation != null;
+		Optional<Diagram> diagram = pNode.getDiagram();
+		if( !isCacheable(pNode) )
+		{
+			aMisses++;
+			return pComputation.apply(pNode, pDirection);
+		}
+		NodeLayout layout = layoutFor(diagram.get()).nodeLayout(pNode);
+		Point point = layout.aConnectionPoints.get(pDirection.asAngle());
+		if( point == null )
+		{
+			aMisses++;
+			point = pComputation.apply(pNode, pDirection);
+			layout.aConnectionPoints.put(pDirection.asAngle(), point);
+			return point;
+		}
+		aHits++;
+		return point;
+	}
+	
+	/**
+	 * Returns the bounds of pEdge, computing them with pComputation if they are 
+	 * not already known for the current revision of the edge's diagram.
+	 * 
+	 * @param pEdge The edge whose bounds are requested.
+	 * @param pComputation The function that computes the bounds of an edge.
+	 * @return The bounds of pEdge.
+	 * @pre pEdge != null && pComputation != null
+	 */
+	public Rectangle getBounds(Edge pEdge, Function<Edge, Rectangle> pComputation)
+	{
+		assert pEdge != null && pComputation != null;
+		if( !isCacheable(pEdge) )
+		{
+			aMisses++;
+			return pComputation.apply(pEdge);
+		}
+		EdgeLayout layout = layoutFor(pEdge.getDiagram()).edgeLayout(pEdge);
+		if( layout.aBounds == null )
+		{
+			aMisses++;
+			Rectangle bounds = pComputation.apply(pEdge);
+			layout.aBounds = bounds;
+			return bounds;
+		}
+		aHits++;
+		return layout.aBounds;
+	}
+	
+	/**
+	 * Returns the connection points of pEdge, computing them with pComputation if they 
+	 * are not already known for the current revision of the edge's diagram.
+	 * 
+	 * @param pEdge The edge whose connection points are requested.
+	 * @param pComputation The function that computes the connection points of an edge.
+	 * @return A line joining the two connection points of pEdge.
+	 * @pre pEdge != null && pComputation != null
+	 */
+	public Line getConnectionPoints(Edge pEdge, Function<Edge, Line> pComputation)
+	{
+		assert pEdge != null && pComputation != null;
+		if( !isCacheable(pEdge) )
+		{
+			aMisses++;
+			return pComputation.apply(pEdge);
+		}
+		EdgeLayout layout = layoutFor(pEdge.getDiagram()).edgeLayout(pEdge);
+		if( layout.aConnectionPoints == null )
+		{
+			aMisses++;
+			Line line = pComputation.apply(pEdge);
+			layout.aConnectionPoints = line;
+			return line;
+		}
+		aHits++;
+		return layout.aConnectionPoints;
+	}
+	
+	/**
+	 * @return The number of queries answered without computation since 
+	 *     the last call to resetStatistics().
+	 */
+	public long getHits()
+	{
+		return aHits;
+	}
+	
+	/**
+	 * @return The number of queries that required a computation since 
+	 *     the last call to resetStatistics().
+	 */
+	public long getMisses()
+	{
+		return aMisses;
+	}
+	
+	/**
+	 * Sets the hit and miss counters back to zero.
+	 */
+	public void resetStatistics()
+	{
+		aHits = 0;
+		aMisses = 0;
+	}
+	
+	/**
+	 * Discards all the geometry stored in the cache.
+	 */
+	public void clear()
+	{
+		aGeneration++;
+	}
+	
+	/*
+	 * The geometry of a node can depend on that of its parent, so a node is only
+	 * cached if it and all its ancestors are part of the same diagram.
+	 */
+	private static boolean isCacheable(Node pNode)
+	{
+		Diagram diagram = pNode.getDiagram().orElse(null);
+		if( diagram == null )
+		{
+			return false;
+		}
+		Node node = pNode;
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			if( node.getDiagram().orElse(null) != diagram )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/*
+	 * The geometry of an edge is only guaranteed to be invalidated when it changes 
+	 * if both the edge and the nodes it connects are part of the same diagram.
+	 */
+	private static boolean isCacheable(Edge pEdge)
+	{
+		Diagram diagram = pEdge.getDiagram();
+		return diagram != null && isCacheable(pEdge.getStart()) && isCacheable(pEdge.getEnd()) &&
+				pEdge.getStart().getDiagram().get() == diagram && pEdge.getEnd().getDiagram().get() == diagram;
+	}
+	
+	/*
+	 * Returns the layout for the current revision of pDiagram, 
+	 * replacing any stale layout.
+	 */
+	private DiagramLayout layoutFor(Diagram pDiagram)
+	{
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		DiagramLayout layout = pDiagram.getAttachment(DiagramLayout.class).orElse(null);
+		if( layout == null || layout.aRevision != pDiagram.getRevision() || layout.aFontSize != fontSize ||
+				layout.aGeneration != aGeneration )
+		{
+			layout = new DiagramLayout(pDiagram.getRevision(), fontSize, aGeneration);
+			pDiagram.attach(DiagramLayout.class, layout);
+		}
+		return layout;
+	}
+	
+	/*
+	 * The geometry of the elements of a diagram, for one revision of the diagram.
+	 */
+	private static final class DiagramLayout
+	{
+		private final long aRevision;
+		private final int aFontSize;
+		private final long aGeneration;
+		private final Map<Node, NodeLayout> aNodes = new IdentityHashMap<>();
+		private final Map<Edge, EdgeLayout> aEdges = new IdentityHashMap<>();
+		
+		DiagramLayout(long pRevision, int pFontSize, long pGeneration)
+		{
+			aRevision = pRevision;
+			aFontSize = pFontSize;
+			aGeneration = pGeneration;
+		}
+		
+		NodeLayout nodeLayout(Node pNode)
+		{
+			NodeLayout layout = aNodes.get(pNode);
+			if( layout == null )
+			{
+				layout = new NodeLayout();
+				aNodes.put(pNode, layout);
+			}
+			return layout;
+		}
+		
+		EdgeLayout edgeLayout(Edge pEdge)
+		{
+			EdgeLayout layout = aEdges.get(pEdge);
+			if( layout == null )
+			{
+				layout = new EdgeLayout();
+				aEdges.put(pEdge, layout);
+			}
+			return layout;
+		}
+	}
+	
+	private static final class NodeLayout
+	{
+		private Rectangle aBounds;
+		private final Map<Integer, Point> aConnectionPoints = new HashMap<>();
+	}
+	
+	private static final class EdgeLayout
+	{
+		private Rectangle aBounds;
+		private Line aConnectionPoints;
+	}
+}
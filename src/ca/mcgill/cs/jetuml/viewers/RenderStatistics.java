@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.mcgill.cs.jetuml.annotations.Singleton;
+
+/**
+ * Measures how much time the viewers spend drawing diagrams and computing
+ * their layout, to find out which viewers make a repaint slow.
+ * 
+ * Measurements are taken by calling enter() before an operation and exit()
+ * after it, and are grouped by the class that performs the operation, 
+ * usually a viewer. Operations can be nested: the time recorded for an operation 
+ * excludes the time of the operations measured while it runs, so that the time 
+ * spent by a viewer that draws other elements is not counted twice. The 
+ * measurements are grouped in frames, delimited by startFrame() and endFrame(), 
+ * and the statistics of the last complete frame are kept.
+ * 
+ * Callers must only take measurements if isEnabled() returns true, so that
+ * the statistics cost nothing when they are disabled. This class is not
+ * thread-safe, and must only be used on the JavaFX application thread.
+ */
+@Singleton
+public final class RenderStatistics
+{
+	private static final RenderStatistics INSTANCE = new RenderStatistics();
+	private static final int INITIAL_DEPTH = 32;
+	
+	private static boolean aEnabled = false;
+	
+	/**
+	 * The kinds of operations measured.
+	 */
+	public enum Operation
+	{
+		DRAW, LAYOUT
+	}
+	
+	// For each class, the number of calls and the time, in nanoseconds, of each operation
+	private final Map<Class<?>, long[]> aCurrent = new IdentityHashMap<>();
+	// The start time and the time spent in nested operations of each operation in progress
+	private long[] aStarts = new long[INITIAL_DEPTH];
+	private long[] aNested = new long[INITIAL_DEPTH];
+	private int aDepth = 0;
+	private int aFrameDepth = 0;
+	private long aFrameStart;
+	private long aFrameHits;
+	private long aFrameMisses;
+	
+	private long aFrameTime = 0;
+	private long aCacheHits = 0;
+	private long aCacheMisses = 0;
+	private List<Measurement> aMeasurements = Collections.emptyList();
+	
+	private RenderStatistics() {}
+	
+	/**
+	 * @return The singleton instance of this class.
+	 */
+	public static RenderStatistics instance()
+	{
+		return INSTANCE;
+	}
+	
+	/**
+	 * @return True if measurements should be taken.
+	 */
+	public static boolean isEnabled()
+	{
+		return aEnabled;
+	}
+	
+	/**
+	 * @param pEnabled True if measurements should be taken from now on.
+	 */
+	public static void setEnabled(boolean pEnabled)
+	{
+		aEnabled = pEnabled;
+	}
+	
+	/**
+	 * Starts a new frame, discarding the measurements taken since the 
+	 * last frame. If a frame is already in progress, the new frame is 
+	 * considered part of it.
+	 */
+	public void startFrame()
+	{
+		if( aFrameDepth++ > 0 )
+		{
+			return;
+		}
+		for( long[] statistics : aCurrent.values() )
+		{
+			Arrays.fill(statistics, 0);
+		}
+		aDepth = 0;
+		aFrameHits = LayoutCache.instance().getHits();
+		aFrameMisses = LayoutCache.instance().getMisses();
+		aFrameStart = System.nanoTime();
+	}
+	
+	/**
+	 * Ends the frame in progress and makes its statistics available.
+	 * 
+	 * @pre a frame is in progress.
+	 */
+	public void endFrame()
+	{
+		assert aFrameDepth > 0;
+		if( --aFrameDepth > 0 )
+		{
+			return;
+		}
+		aFrameTime = System.nanoTime() - aFrameStart;
+		aCacheHits = LayoutCache.instance().getHits() - aFrameHits;
+		aCacheMisses = LayoutCache.instance().getMisses() - aFrameMisses;
+		List<Measurement> measurements = new ArrayList<>();
+		for( Map.Entry<Class<?>, long[]> entry : aCurrent.entrySet() )
+		{
+			for( Operation operation : Operation.values() )
+			{
+				long calls = entry.getValue()[operation.ordinal() * 2];
+				if( calls > 0 )
+				{
+					measurements.add(new Measurement(entry.getKey(), operation, calls, 
+							entry.getValue()[operation.ordinal() * 2 + 1]));
+				}
+			}
+		}
+		measurements.sort(Comparator.comparingLong(Measurement::getTime).reversed());
+		aMeasurements = Collections.unmodifiableList(measurements);
+	}
+	
+	/**
+	 * Discards the frame and the operations in progress, along with the 
+	 * statistics of the last frame.
+	 */
+	void reset()
+	{
+		aCurrent.clear();
+		aDepth = 0;
+		aFrameDepth = 0;
+		aFrameTime = 0;
+		aCacheHits = 0;
+		aCacheMisses = 0;
+		aMeasurements = Collections.emptyList();
+	}
+	
+	/**
+	 * Starts measuring an operation.
+	 */
+	public void enter()
+	{
+		if( aDepth == aStarts.length )
+		{
+			aStarts = Arrays.copyOf(aStarts, aDepth * 2);
+			aNested = Arrays.copyOf(aNested, aDepth * 2);
+		}
+		aNested[aDepth] = 0;
+		aStarts[aDepth] = System.nanoTime();
+		aDepth++;
+	}
+	
+	/**
+	 * Stops measuring the operation started by the matching call to enter(),
+	 * and records its time, excluding that of the nested operations.
+	 * 
+	 * @param pSource The class that performed the operation.
+	 * @param pOperation The kind of operation.
+	 * @pre pSource != null && pOperation != null
+	 * @pre enter() was called more times than exit().
+	 */
+	public void exit(Class<?> pSource, Operation pOperation)
+	{
+		assert pSource != null && pOperation != null && aDepth > 0;
+		aDepth--;
+		long elapsed = System.nanoTime() - aStarts[aDepth];
+		if( aDepth > 0 )
+		{
+			aNested[aDepth - 1] += elapsed;
+		}
+		long[] statistics = aCurrent.get(pSource);
+		if( statistics == null )
+		{
+			statistics = new long[Operation.values().length * 2];
+			aCurrent.put(pSource, statistics);
+		}
+		statistics[pOperation.ordinal() * 2]++;
+		statistics[pOperation.ordinal() * 2 + 1] += elapsed - aNested[aDepth];
+	}
+	
+	/**
+	 * @return The duration of the last frame, in nanoseconds.
+	 */
+	public long getFrameTime()
+	{
+		return aFrameTime;
+	}
+	
+	/**
+	 * @return The number of queries to the layout cache answered without 
+	 *     computation during the last frame.
+	 */
+	public long getCacheHits()
+	{
+		return aCacheHits;
+	}
+	
+	/**
+	 * @return The number of queries to the layout cache that required a 
+	 *     computation during the last frame.
+	 */
+	public long getCacheMisses()
+	{
+		return aCacheMisses;
+	}
+	
+	/**
+	 * @return The measurements of the last frame, from the slowest to the fastest.
+	 */
+	public List<Measurement> getMeasurements()
+	{
+		return aMeasurements;
+	}
+	
+	/**
+	 * The number of calls and the total time of one kind of operation 
+	 * performed by one class during a frame.
+	 */
+	public static final class Measurement
+	{
+		private final Class<?> aSource;
+		private final Operation aOperation;
+		private final long aCalls;
+		private final long aTime;
+		
+		private Measurement(Class<?> pSource, Operation pOperation, long pCalls, long pTime)
+		{
+			aSource = pSource;
+			aOperation = pOperation;
+			aCalls = pCalls;
+			aTime = pTime;
+		}
+		
+		/**
+		 * @return The class that performed the operations.
+		 */
+		public Class<?> getSource()
+		{
+			return aSource;
+		}
+		
+		/**
+		 * @return The kind of operation.
+		 */
+		public Operation getOperation()
+		{
+			return aOperation;
+		}
+		
+		/**
+		 * @return The number of operations.
+		 */
+		public long getCalls()
+		{
+			return aCalls;
+		}
+		
+		/**
+		 * @return The total time of the operations, in nanoseconds.
+		 */
+		public long getTime()
+		{
+			return aTime;
+		}
+	}
+}
@@ -24,17 +24,17 @@ import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.geom.StrokeBounds;
+import ca.mcgill.cs.jetuml.geom.StrokeHitTester;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.views.PathBuilder;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.geometry.Bounds;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
-import javafx.scene.shape.Path;
 import javafx.scene.shape.Shape;
 
 /**
@@ -50,9 +50,8 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 	private static final int DEGREES_180 = 180;
 	
 	/**
-	 * The default behavior is to draw a straight line between
-	 * the connections points oriented in the direction of each 
-	 * other node.
+	 * Builds the shape of the edge from the elements passed 
+	 * by tracePath.
 	 * 
 	 * @param pEdge The edge whose shape we want
 	 * @return The shape. 
@@ -61,11 +60,27 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 	protected Shape getShape(Edge pEdge)
 	{
 		assert pEdge != null;
+		PathBuilder builder = new PathBuilder();
+		tracePath(pEdge, builder);
+		return builder.getPath();
+	}
+	
+	/**
+	 * Passes the elements of the path of the edge, as it would be 
+	 * stroked, to pConsumer. The default behavior is to trace a straight 
+	 * line between the connections points oriented in the direction of each 
+	 * other node.
+	 * 
+	 * @param pEdge The edge whose path we want
+	 * @param pConsumer The consumer of the path elements.
+	 * @pre pEdge != null && pConsumer != null
+	 */
+	protected void tracePath(Edge pEdge, PathConsumer pConsumer)
+	{
+		assert pEdge != null && pConsumer != null;
 		Line endPoints = getConnectionPoints(pEdge);
-		Path path = new Path();
-		path.getElements().addAll(new MoveTo(endPoints.getX1(), endPoints.getY1()), 
-				new LineTo(endPoints.getX2(), endPoints.getY2()));
-		return path;
+		pConsumer.moveTo(endPoints.getX1(), endPoints.getY1());
+		pConsumer.lineTo(endPoints.getX2(), endPoints.getY2());
 	}
 	
 	/**
@@ -87,16 +102,22 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 			return false;
 		}
 
-		Shape fatPath = getShape(pEdge);
-		fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-		return fatPath.contains(pPoint.getX(), pPoint.getY());
+		// The edge is hit if the point is at most MAX_DISTANCE away from its path.
+		StrokeHitTester tester = new StrokeHitTester(2 * MAX_DISTANCE, pPoint.getX(), pPoint.getY());
+		tracePath(pEdge, tester);
+		return tester.isHit();
 	}
 	
+	/*
+	 * The bounds are computed from the traced path, and 
+	 * are the same as the bounds of the shape of the edge.
+	 */
 	@Override
 	public Rectangle getBounds(Edge pEdge)
 	{
-		Bounds bounds = getShape(pEdge).getBoundsInLocal();
-		return new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(), (int)bounds.getWidth(), (int)bounds.getHeight());
+		StrokeBounds bounds = new StrokeBounds();
+		tracePath(pEdge, bounds);
+		return bounds.getBounds();
 	}
 	
 	/*
@@ -119,7 +140,7 @@ public abstract class AbstractEdgeViewer implements EdgeViewer
 	}
 
 	@Override
-	public void drawSelectionHandles(Edge pEdge, GraphicsContext pGraphics)
+	public void drawSelectionHandles(Edge pEdge, RenderingTarget pGraphics)
 	{
 		ToolGraphics.drawHandles(pGraphics, getConnectionPoints(pEdge));		
 	}
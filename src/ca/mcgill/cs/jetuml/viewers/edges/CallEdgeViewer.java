@@ -27,26 +27,26 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
 import ca.mcgill.cs.jetuml.diagram.edges.ConstructorEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
-import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
 import ca.mcgill.cs.jetuml.views.ArrowHeadView;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
 import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import ca.mcgill.cs.jetuml.views.StringViewer.TextDecoration;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer to show call edges in a sequence diagrams. These are labeled
@@ -61,20 +61,16 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	private static final int SHIFT = 5;
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected void tracePath(Edge pEdge, PathConsumer pConsumer)
 	{
 		Point[] points = getPoints(pEdge);
-		Path path = new Path();
 		Point point = points[points.length - 1];
-		MoveTo moveTo = new MoveTo(point.getX(), point.getY());
-		path.getElements().add(moveTo);
+		pConsumer.moveTo(point.getX(), point.getY());
 		for(int i = points.length - 2; i >= 0; i--)
 		{
 			point = points[i];
-			LineTo lineTo = new LineTo(point.getX(), point.getY());
-			path.getElements().add(lineTo);
+			pConsumer.lineTo(point.getX(), point.getY());
 		}
-		return path;
 	}
 	
 	@Override
@@ -102,8 +98,8 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	{
 		Rectangle bounds = super.getBounds(pEdge);
 		Line connectionPoints = getConnectionPoints(pEdge);
-		bounds = bounds.add(Conversions.toRectangle(getArrowHeadView((CallEdge)pEdge).getPath(connectionPoints.getPoint1(), 
-					connectionPoints.getPoint2()).getBoundsInLocal()));
+		bounds = bounds.add(getArrowHeadView((CallEdge)pEdge).getBounds(connectionPoints.getPoint1(), 
+					connectionPoints.getPoint2()));
 		final String label = ((CallEdge)pEdge).getMiddleLabel();
 		if( label.length() > 0 )
 		{
@@ -113,7 +109,7 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 	}
 
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, RenderingTarget pGraphics)
 	{
 		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(pEdge), LineStyle.SOLID);
 		
@@ -146,7 +142,7 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 		}
 	}
 
-	private void drawLabel(CallEdge pEdge, GraphicsContext pGraphics, String pLabel)
+	private void drawLabel(CallEdge pEdge, RenderingTarget pGraphics, String pLabel)
 	{
 		if( pEdge.isSelfEdge() )
 		{
@@ -209,8 +205,8 @@ public final class CallEdgeViewer extends AbstractEdgeViewer
 		final float scale = 0.6f;
 		final int offset = 15;
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
 		canvas.getGraphicsContext2D().scale(scale, scale);
+		RenderingTarget graphics = new CanvasRenderingTarget(canvas.getGraphicsContext2D());
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(1, offset), new LineTo(BUTTON_SIZE*(1/scale)-1, offset));
 		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
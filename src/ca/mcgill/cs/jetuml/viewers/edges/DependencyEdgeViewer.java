@@ -26,7 +26,7 @@ import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge.Directionality;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
 import ca.mcgill.cs.jetuml.views.LineStyle;
-import javafx.scene.canvas.GraphicsContext;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 
 /**
  * A straight dotted line.
@@ -42,7 +42,7 @@ public final class DependencyEdgeViewer extends LabeledStraightEdgeViewer
 	}
 	
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, RenderingTarget pGraphics)
 	{
 		super.draw(pEdge, pGraphics);
 		if( ((DependencyEdge)pEdge).getDirectionality() == Directionality.Bidirectional )
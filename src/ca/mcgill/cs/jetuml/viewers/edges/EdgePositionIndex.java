@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.edges;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.edges.AggregationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.GeneralizationEdge;
+import ca.mcgill.cs.jetuml.viewers.edges.SegmentationStyle.Side;
+import ca.mcgill.cs.jetuml.viewers.edges.SegmentationStyleFactory.Position;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+/**
+ * Keeps track of the position of edges on each side of the nodes of a diagram, 
+ * so that the positions do not have to be recomputed every time an edge is 
+ * drawn or queried.
+ * 
+ * The positions on the sides of a node are kept across revisions and only recomputed 
+ * if the node, one of its neighbors, or the edges that connect them changed. Moving 
+ * a node thus only requires the positions on the sides of the node and of its 
+ * neighbors to be recomputed. The index of a diagram is attached to the diagram,
+ * so that it can be garbage-collected with it.
+ */
+final class EdgePositionIndex
+{
+	private final Diagram aDiagram;
+	private long aRevision = -1;
+	private int aFontSize = -1;
+	private final Map<Node, NodePositions> aPositions = new IdentityHashMap<>();
+	private final Set<Node> aVerified = Collections.newSetFromMap(new IdentityHashMap<>());
+	
+	private EdgePositionIndex(Diagram pDiagram)
+	{
+		aDiagram = pDiagram;
+	}
+	
+	/**
+	 * @param pDiagram The diagram whose index is requested.
+	 * @return The index for pDiagram.
+	 * @pre pDiagram != null
+	 */
+	static EdgePositionIndex forDiagram(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		EdgePositionIndex index = pDiagram.getAttachment(EdgePositionIndex.class).orElse(null);
+		if( index == null )
+		{
+			index = new EdgePositionIndex(pDiagram);
+			pDiagram.attach(EdgePositionIndex.class, index);
+		}
+		return index;
+	}
+	
+	/**
+	 * @param pNode The node whose edges are requested.
+	 * @return The edges of the diagram connected to pNode, in diagram order. 
+	 * @pre pNode != null
+	 */
+	List<Edge> edgesConnectedTo(Node pNode)
+	{
+		assert pNode != null;
+		return aDiagram.edgesConnectedTo(pNode);
+	}
+	
+	/**
+	 * @param pEdge The edge whose position is requested.
+	 * @param pTarget The node on which the edge is connected.
+	 * @param pSide The side of the node on which the edge is connected.
+	 * @return The position of pEdge on side pSide of pTarget. If pEdge is not attached 
+	 *     to this side, its index is 0.
+	 * @pre pEdge != null && pTarget != null && pSide != null
+	 */
+	Position getPosition(Edge pEdge, Node pTarget, Side pSide)
+	{
+		assert pEdge != null && pTarget != null && pSide != null;
+		refresh();
+		NodePositions positions = positionsFor(pTarget);
+		Map<Edge, Position> side = positions.aSides.get(pSide);
+		if( side == null )
+		{
+			side = SegmentationStyleFactory.computePositions(pTarget, pSide, edgesConnectedTo(pTarget));
+			positions.aSides.put(pSide, side);
+		}
+		Position position = side.get(pEdge);
+		if( position == null )
+		{
+			int total = side.isEmpty() ? 0 : side.values().iterator().next().getTotal();
+			position = new Position(0, total);
+		}
+		return position;
+	}
+	
+	/*
+	 * Returns the positions for pNode, discarding them if the 
+	 * geometry they were computed from is no longer valid.
+	 */
+	private NodePositions positionsFor(Node pNode)
+	{
+		NodePositions positions = aPositions.get(pNode);
+		if( !aVerified.contains(pNode) )
+		{
+			List<Object> signature = signatureOf(pNode);
+			if( positions == null || !positions.aSignature.equals(signature) )
+			{
+				positions = new NodePositions(signature);
+				aPositions.put(pNode, positions);
+			}
+			aVerified.add(pNode);
+		}
+		return positions;
+	}
+	
+	/*
+	 * Everything the positions on the sides of pNode depend on: the edges connected 
+	 * to the node, their type, and the geometry of the node and of its neighbors.
+	 */
+	private List<Object> signatureOf(Node pNode)
+	{
+		List<Object> signature = new ArrayList<>();
+		addGeometry(signature, pNode);
+		for( Edge edge : edgesConnectedTo(pNode) )
+		{
+			signature.add(edge);
+			if( edge instanceof GeneralizationEdge )
+			{
+				signature.add(((GeneralizationEdge)edge).getType());
+			}
+			else if( edge instanceof AggregationEdge )
+			{
+				signature.add(((AggregationEdge)edge).getType());
+			}
+			addGeometry(signature, edge.getStart() == pNode ? edge.getEnd() : edge.getStart());
+		}
+		return signature;
+	}
+	
+	private static void addGeometry(List<Object> pSignature, Node pNode)
+	{
+		pSignature.add(NodeViewerRegistry.getBounds(pNode));
+		for( Side side : Side.values() )
+		{
+			pSignature.add(NodeViewerRegistry.getConnectionPoints(pNode, side.getDirection()));
+		}
+	}
+	
+	/*
+	 * Discards the positions of the nodes that are no longer connected to any 
+	 * edge, and marks the others for verification, if the diagram changed since 
+	 * the last query.
+	 */
+	private void refresh()
+	{
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		if( aRevision == aDiagram.getRevision() && aFontSize == fontSize )
+		{
+			return;
+		}
+		aRevision = aDiagram.getRevision();
+		aFontSize = fontSize;
+		aPositions.keySet().removeIf(node -> aDiagram.edgesConnectedTo(node).isEmpty());
+		aVerified.clear();
+	}
+	
+	/*
+	 * The positions of the edges on each side of a node, along with 
+	 * the signature of the geometry they were computed from.
+	 */
+	private static final class NodePositions
+	{
+		private final List<Object> aSignature;
+		private final Map<Side, Map<Edge, Position>> aSides = new EnumMap<>(Side.class);
+		
+		NodePositions(List<Object> pSignature)
+		{
+			aSignature = pSignature;
+		}
+	}
+}
@@ -40,8 +40,11 @@ import ca.mcgill.cs.jetuml.diagram.edges.UseCaseGeneralizationEdge;
 import ca.mcgill.cs.jetuml.geom.Line;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.LayoutCache;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Operation;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * Keeps track of the association between an edge type and the viewer
@@ -111,9 +114,25 @@ public final class EdgeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pEdge != null
 	 */
-   	public static void draw(Edge pEdge, GraphicsContext pGraphics)
+   	public static void draw(Edge pEdge, RenderingTarget pGraphics)
    	{
-   		INSTANCE.viewerFor(pEdge).draw(pEdge, pGraphics);
+   		EdgeViewer viewer = INSTANCE.viewerFor(pEdge);
+   		if( RenderStatistics.isEnabled() )
+   		{
+   			RenderStatistics.instance().enter();
+   			try
+   			{
+   				viewer.draw(pEdge, pGraphics);
+   			}
+   			finally
+   			{
+   				RenderStatistics.instance().exit(viewer.getClass(), Operation.DRAW);
+   			}
+   		}
+   		else
+   		{
+   			viewer.draw(pEdge, pGraphics);
+   		}
    	}
    	
    	/**
@@ -122,9 +141,25 @@ public final class EdgeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pEdge != null && pGraphics != null
 	 */
-   	public static void drawSelectionHandles(Edge pEdge, GraphicsContext pGraphics)
+   	public static void drawSelectionHandles(Edge pEdge, RenderingTarget pGraphics)
    	{
-   		INSTANCE.viewerFor(pEdge).drawSelectionHandles(pEdge, pGraphics);
+   		EdgeViewer viewer = INSTANCE.viewerFor(pEdge);
+   		if( RenderStatistics.isEnabled() )
+   		{
+   			RenderStatistics.instance().enter();
+   			try
+   			{
+   				viewer.drawSelectionHandles(pEdge, pGraphics);
+   			}
+   			finally
+   			{
+   				RenderStatistics.instance().exit(viewer.getClass(), Operation.DRAW);
+   			}
+   		}
+   		else
+   		{
+   			viewer.drawSelectionHandles(pEdge, pGraphics);
+   		}
    	}
    	
 	/**
@@ -136,7 +171,25 @@ public final class EdgeViewerRegistry
    	 */
 	public static Rectangle getBounds(Edge pEdge)
 	{
-		return INSTANCE.viewerFor(pEdge).getBounds(pEdge);
+		return LayoutCache.instance().getBounds(pEdge, EdgeViewerRegistry::computeBounds);
+	}
+	
+	private static Rectangle computeBounds(Edge pEdge)
+	{
+		EdgeViewer viewer = INSTANCE.viewerFor(pEdge);
+		if( !RenderStatistics.isEnabled() )
+		{
+			return viewer.getBounds(pEdge);
+		}
+		RenderStatistics.instance().enter();
+		try
+		{
+			return viewer.getBounds(pEdge);
+		}
+		finally
+		{
+			RenderStatistics.instance().exit(viewer.getClass(), Operation.LAYOUT);
+		}
 	}
 	
   	/**
@@ -149,6 +202,24 @@ public final class EdgeViewerRegistry
      */
    	public static Line getConnectionPoints(Edge pEdge)
    	{
-		return INSTANCE.viewerFor(pEdge).getConnectionPoints(pEdge);
+		return LayoutCache.instance().getConnectionPoints(pEdge, EdgeViewerRegistry::computeConnectionPoints);
+   	}
+   	
+   	private static Line computeConnectionPoints(Edge pEdge)
+   	{
+   		EdgeViewer viewer = INSTANCE.viewerFor(pEdge);
+   		if( !RenderStatistics.isEnabled() )
+   		{
+   			return viewer.getConnectionPoints(pEdge);
+   		}
+   		RenderStatistics.instance().enter();
+   		try
+   		{
+   			return viewer.getConnectionPoints(pEdge);
+   		}
+   		finally
+   		{
+   			RenderStatistics.instance().exit(viewer.getClass(), Operation.LAYOUT);
+   		}
    	}
 }
@@ -23,19 +23,18 @@ package ca.mcgill.cs.jetuml.viewers.edges;
 import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
 import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.PathBuilder;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.QuadCurveTo;
-import javafx.scene.shape.Shape;
 
 /**
  * A viewer for an S- or C-shaped edge with an arrowhead.
@@ -45,19 +44,19 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	private static final int ENDSIZE = 10;
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected void tracePath(Edge pEdge, PathConsumer pConsumer)
 	{
 		if(isSShaped(pEdge))
 		{
-			return getSShape(getConnectionPoints(pEdge));
+			traceSShape(getConnectionPoints(pEdge), pConsumer);
 		}
 		else
 		{
-			return getCShape(getConnectionPoints(pEdge));
+			traceCShape(getConnectionPoints(pEdge), pConsumer);
 		}			
 	}
 	
-	private Path getSShape(Line pConnectionPoints)
+	private static void traceSShape(Line pConnectionPoints, PathConsumer pConsumer)
 	{
 		final int x1 = pConnectionPoints.getX1() + ENDSIZE;
 		final int y1 = pConnectionPoints.getY1();
@@ -66,18 +65,14 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 		final int xmid = (pConnectionPoints.getX1() + pConnectionPoints.getX2()) / 2;
 		final int ymid = (pConnectionPoints.getY1() + pConnectionPoints.getY2()) / 2;
      
-		MoveTo moveTo = new MoveTo(pConnectionPoints.getX1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo((x1 + xmid) / 2, y1, xmid, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo((x2 + xmid) / 2, y2, x2, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.getX2(), y2);
-		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		pConsumer.moveTo(pConnectionPoints.getX1(), y1);
+		pConsumer.lineTo(x1, y1);
+		pConsumer.quadTo((x1 + xmid) / 2, y1, xmid, ymid);
+		pConsumer.quadTo((x2 + xmid) / 2, y2, x2, y2);
+		pConsumer.lineTo(pConnectionPoints.getX2(), y2);
 	}
 	
-	private Path getCShape(Line pConnectionPoints)
+	private static void traceCShape(Line pConnectionPoints, PathConsumer pConsumer)
 	{
 		final int x1 = Math.max(pConnectionPoints.getX1(), pConnectionPoints.getX2()) + ENDSIZE;
 		final int y1 = pConnectionPoints.getY1();
@@ -85,15 +80,11 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 		final int y2 = pConnectionPoints.getY2();
 		final int ymid = (pConnectionPoints.getY1() + pConnectionPoints.getY2()) / 2;
 		
-		MoveTo moveTo = new MoveTo(pConnectionPoints.getX1(), y1);
-		LineTo lineTo1 = new LineTo(x1, y1);
-		QuadCurveTo quadTo1 = new QuadCurveTo(x2, y1, x2, ymid);
-		QuadCurveTo quadTo2 = new QuadCurveTo(x2, y2, x1, y2);
-		LineTo lineTo2 = new LineTo(pConnectionPoints.getX2(), y2);
-		
-		Path path = new Path();
-		path.getElements().addAll(moveTo, lineTo1, quadTo1, quadTo2, lineTo2);
-		return path;
+		pConsumer.moveTo(pConnectionPoints.getX1(), y1);
+		pConsumer.lineTo(x1, y1);
+		pConsumer.quadTo(x2, y1, x2, ymid);
+		pConsumer.quadTo(x2, y2, x1, y2);
+		pConsumer.lineTo(pConnectionPoints.getX2(), y2);
 	}
 	
 	/**
@@ -108,7 +99,7 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	}
 
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, RenderingTarget pGraphics)
 	{
 		ToolGraphics.strokeSharpPath(pGraphics, (Path) getShape(pEdge), LineStyle.SOLID);
 		Line connectionPoints = getConnectionPoints(pEdge);
@@ -145,10 +136,11 @@ public final class ObjectReferenceEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge)
 	{   //CSOFF: Magic numbers
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
-		graphics.scale(0.6, 0.6);
-		Path path = getCShape(new Line(new Point(5, 5), new Point(15,25)));
-		ToolGraphics.strokeSharpPath(graphics, path, LineStyle.SOLID);
+		canvas.getGraphicsContext2D().scale(0.6, 0.6);
+		RenderingTarget graphics = new CanvasRenderingTarget(canvas.getGraphicsContext2D());
+		PathBuilder builder = new PathBuilder();
+		traceCShape(new Line(new Point(5, 5), new Point(15,25)), builder);
+		ToolGraphics.strokeSharpPath(graphics, builder.getPath(), LineStyle.SOLID);
 		ArrowHead.BLACK_TRIANGLE.view().draw(graphics, new Point(20,25), new Point(15, 25));
 		return canvas;
 	}
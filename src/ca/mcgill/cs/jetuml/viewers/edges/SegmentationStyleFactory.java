@@ -23,7 +23,9 @@ package ca.mcgill.cs.jetuml.viewers.edges;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import ca.mcgill.cs.jetuml.diagram.Edge;
@@ -227,7 +229,7 @@ public final class SegmentationStyleFactory
 	private static boolean hasSelfEdge(Node pNode)
 	{
 		assert pNode.getDiagram().isPresent();
-		for( Edge edge : pNode.getDiagram().get().edgesConnectedTo(pNode))
+		for( Edge edge : EdgePositionIndex.forDiagram(pNode.getDiagram().get()).edgesConnectedTo(pNode))
 		{
 			if( edge.getStart() == edge.getEnd())
 			{
@@ -241,7 +243,8 @@ public final class SegmentationStyleFactory
 	 * Computes the relative attachment position for an edge's node endpoint:
 	 * either the start node (pForward == true) or the end node (pForward == false).
 	 * The position is given in terms of top-bottom for sides, and left-to-right
-	 * for top and bottom. 
+	 * for top and bottom. The positions are obtained from the index of the diagram, 
+	 * which only recomputes them when the geometry around the node changes.
 	 * @param pEdge The edge containing the node for which a connection is being calculated
 	 * @param pStartSide The side of the node for which a connection is being calculated
 	 * @param pForward true if this is the calculation for the start node of the edge
@@ -256,18 +259,37 @@ public final class SegmentationStyleFactory
 			tempTarget = pEdge.getEnd();
 		}
 		final Node target = tempTarget;
-		List<Edge> edgesOnSelectedSide = getAllEdgesForSide(target, pStartSide);
-		sortPositions(edgesOnSelectedSide, target, pStartSide);
+		assert target.getDiagram().isPresent();
+		return EdgePositionIndex.forDiagram(target.getDiagram().get()).getPosition(pEdge, target, pStartSide);
+	}
+	
+	/**
+	 * Computes the position of every edge attached to side pSide of pTarget. 
+	 * Edges that share a position with another edge (e.g., generalizations 
+	 * to the same node) are mapped to the same position.
+	 * 
+	 * @param pTarget The node whose side is being computed.
+	 * @param pSide The side of the node.
+	 * @param pConnectedEdges All the edges connected to pTarget, in diagram order.
+	 * @return A map from each edge attached to pSide to its position on that side.
+	 * @pre pTarget != null && pSide != null && pConnectedEdges != null
+	 */
+	static Map<Edge, Position> computePositions(Node pTarget, Side pSide, List<Edge> pConnectedEdges)
+	{
+		assert pTarget != null && pSide != null && pConnectedEdges != null;
+		List<Edge> edgesOnSelectedSide = getAllEdgesForSide(pTarget, pSide, pConnectedEdges);
+		sortPositions(edgesOnSelectedSide, pTarget, pSide);
 		
 		// Group identical edge ends
 		List<Edge> finalPositions = new ArrayList<>();
-		int index = -1;
-		for( Edge edge : edgesOnSelectedSide )
+		int[] indices = new int[edgesOnSelectedSide.size()];
+		for( int i = 0; i < edgesOnSelectedSide.size(); i++ )
 		{
+			Edge edge = edgesOnSelectedSide.get(i);
 			int aggregated = -1;
 			for( Edge classifiedEdge : finalPositions )
 			{
-				if( canAggregate(edge, classifiedEdge, target))
+				if( canAggregate(edge, classifiedEdge, pTarget))
 				{
 					aggregated = finalPositions.indexOf(classifiedEdge);
 					break;
@@ -278,12 +300,14 @@ public final class SegmentationStyleFactory
 				finalPositions.add(edge);
 				aggregated = finalPositions.size() - 1;
 			}
-			if( edge == pEdge )
-			{
-				index = aggregated;
-			}
+			indices[i] = aggregated;
+		}
+		Map<Edge, Position> positions = new IdentityHashMap<>();
+		for( int i = 0; i < indices.length; i++ )
+		{
+			positions.put(edgesOnSelectedSide.get(i), new Position(indices[i] + 1, finalPositions.size()));
 		}
-		return new Position(index + 1, finalPositions.size());
+		return positions;
 	}
 	
 	// CSOFF:
@@ -315,11 +339,10 @@ public final class SegmentationStyleFactory
 		}
 	} // CSON:
 	
-	private static List<Edge> getAllEdgesForSide(Node pTarget, Side pSide)
+	private static List<Edge> getAllEdgesForSide(Node pTarget, Side pSide, List<Edge> pConnectedEdges)
 	{
-		assert pTarget.getDiagram().isPresent();
 		List<Edge> edgesOnSelectedSide = new ArrayList<>();
-		for( Edge edge : pTarget.getDiagram().get().edgesConnectedTo(pTarget))
+		for( Edge edge : pConnectedEdges )
 		{
 			if( otherNode(edge, pTarget) == pTarget)
 			{
@@ -679,7 +702,7 @@ public final class SegmentationStyleFactory
 	 * on the side of a rectangular node, and the index
 	 * of a node. Immutable. The index starts at 1.
 	 */
-	private static class Position
+	static final class Position
 	{
 		private int aIndex;
 		private int aTotal;
@@ -695,6 +718,11 @@ public final class SegmentationStyleFactory
 			return aIndex;
 		}
 		
+		int getTotal()
+		{
+			return aTotal;
+		}
+		
 		/* Returns the index in the middle of the series */
 		private double getMiddle()
 		{
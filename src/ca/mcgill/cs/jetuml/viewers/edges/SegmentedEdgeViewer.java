@@ -26,21 +26,24 @@ import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.geom.StrokeBounds;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
+import ca.mcgill.cs.jetuml.views.LevelOfDetail;
 import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.PathBuilder;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
-import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
-import javafx.scene.shape.Shape;
 
 /**
  * Renders edges as a path consisting of straight line segments.
@@ -89,7 +92,7 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	 * @param pString the string to draw 
 	 * @param pCenter true if the string should be centered along the segment
 	 */
-	private static void drawString(GraphicsContext pGraphics, Point2D pEndPoint1, Point2D pEndPoint2, 
+	private static void drawString(RenderingTarget pGraphics, Point2D pEndPoint1, Point2D pEndPoint2, 
 			ArrowHead pArrowHead, String pString, boolean pCenter)
 	{
 		if (pString == null || pString.length() == 0)
@@ -115,10 +118,14 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	}
 	
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, RenderingTarget pGraphics)
 	{
 		Point2D[] points = getPoints(pEdge);		
 		ToolGraphics.strokeSharpPath(pGraphics, getSegmentPath(pEdge), aLineStyleExtractor.apply(pEdge));
+		if( !LevelOfDetail.current().showsArrowHeads() )
+		{
+			return;
+		}
 		aArrowStartExtractor.apply(pEdge).view().draw(pGraphics, 
 				Conversions.toPoint(points[1]), 
 				Conversions.toPoint(points[0]));
@@ -127,6 +134,10 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 				Conversions.toPoint(points[points.length - 2]), 
 				Conversions.toPoint(points[points.length - 1]));
 
+		if( !LevelOfDetail.current().showsText() )
+		{
+			return;
+		}
 		drawString(pGraphics, points[1], points[0], aArrowStartExtractor.apply(pEdge), aStartLabelExtractor.apply(pEdge), false);
 		drawString(pGraphics, points[points.length / 2 - 1], points[points.length / 2], null, aMiddleLabelExtractor.apply(pEdge), true);
 		drawString(pGraphics, points[points.length - 2], points[points.length - 1], 
@@ -181,9 +192,10 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 			}
 			if(pArrow != null)
 			{
-				Bounds arrowBounds = pArrow.view().getPath(
+				StrokeBounds arrowBounds = new StrokeBounds();
+				pArrow.view().tracePath(
 						Conversions.toPoint(pEndPoint1), 
-						Conversions.toPoint(pEndPoint2)).getBoundsInLocal();
+						Conversions.toPoint(pEndPoint2), arrowBounds);
 				if(pEndPoint1.getX() < pEndPoint2.getX())
 				{
 					xoff -= arrowBounds.getWidth();
@@ -211,33 +223,38 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	}
 	
 	@Override
-	protected Shape getShape(Edge pEdge)
+	protected void tracePath(Edge pEdge, PathConsumer pConsumer)
 	{
-		Path path = getSegmentPath(pEdge);
-		Point2D[] points = getPoints(pEdge);
-		path.getElements().addAll(aArrowStartExtractor.apply(pEdge).view().getPath(
-				Conversions.toPoint(points[1]),
-				Conversions.toPoint(points[0])).getElements());
-		path.getElements().addAll(aArrowEndExtractor.apply(pEdge).view().getPath(
-				Conversions.toPoint(points[points.length - 2]), 
-				Conversions.toPoint(points[points.length - 1])).getElements());
-		return path;
+		tracePath(pEdge, getPoints(pEdge), pConsumer);
+	}
+	
+	private void tracePath(Edge pEdge, Point2D[] pPoints, PathConsumer pConsumer)
+	{
+		traceSegments(pPoints, pConsumer);
+		aArrowStartExtractor.apply(pEdge).view().tracePath(
+				Conversions.toPoint(pPoints[1]),
+				Conversions.toPoint(pPoints[0]), pConsumer);
+		aArrowEndExtractor.apply(pEdge).view().tracePath(
+				Conversions.toPoint(pPoints[pPoints.length - 2]), 
+				Conversions.toPoint(pPoints[pPoints.length - 1]), pConsumer);
 	}
 
 	private Path getSegmentPath(Edge pEdge)
 	{
-		Point2D[] points = getPoints(pEdge);
-		Path path = new Path();
-		Point2D p = points[points.length - 1];
-		MoveTo moveTo = new MoveTo((float) p.getX(), (float) p.getY());
-		path.getElements().add(moveTo);
-		for(int i = points.length - 2; i >= 0; i--)
+		PathBuilder builder = new PathBuilder();
+		traceSegments(getPoints(pEdge), builder);
+		return builder.getPath();
+	}
+	
+	private static void traceSegments(Point2D[] pPoints, PathConsumer pConsumer)
+	{
+		Point2D p = pPoints[pPoints.length - 1];
+		pConsumer.moveTo((float) p.getX(), (float) p.getY());
+		for(int i = pPoints.length - 2; i >= 0; i--)
 		{
-			p = points[i];
-			LineTo lineTo = new LineTo((float) p.getX(), (float) p.getY());
-			path.getElements().add(lineTo);
+			p = pPoints[i];
+			pConsumer.lineTo((float) p.getX(), (float) p.getY());
 		}
-		return path;
 	}
 	
 	/*
@@ -264,11 +281,17 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 				Math.round(stringDimensions.getWidth()), Math.round(stringDimensions.getHeight()));
 	}
 	
+	/*
+	 * The route of the edge is computed only once, for both the 
+	 * path and the labels.
+	 */
 	@Override
 	public Rectangle getBounds(Edge pEdge)
 	{
 		Point2D[] points = getPoints(pEdge);
-		Rectangle bounds = super.getBounds(pEdge);
+		StrokeBounds pathBounds = new StrokeBounds();
+		tracePath(pEdge, points, pathBounds);
+		Rectangle bounds = pathBounds.getBounds();
 		bounds = bounds.add(getStringBounds(points[1], points[0], 
 				aArrowStartExtractor.apply(pEdge), aStartLabelExtractor.apply(pEdge), false));
 		bounds = bounds.add(getStringBounds(points[points.length / 2 - 1], 
@@ -282,12 +305,13 @@ public class SegmentedEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge) 
 	{
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
+		RenderingTarget graphics = new CanvasRenderingTarget(canvas.getGraphicsContext2D());
 		Path path = new Path();
 		path.getElements().addAll(new MoveTo(OFFSET, OFFSET), new LineTo(BUTTON_SIZE-OFFSET, BUTTON_SIZE-OFFSET));
-		ToolGraphics.strokeSharpPath(canvas.getGraphicsContext2D(), path, aLineStyleExtractor.apply(pEdge));
-		aArrowEndExtractor.apply(pEdge).view().draw(canvas.getGraphicsContext2D(), 
+		ToolGraphics.strokeSharpPath(graphics, path, aLineStyleExtractor.apply(pEdge));
+		aArrowEndExtractor.apply(pEdge).view().draw(graphics, 
 				new Point(OFFSET, OFFSET), new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET));
-		aArrowStartExtractor.apply(pEdge).view().draw(canvas.getGraphicsContext2D(), 
+		aArrowStartExtractor.apply(pEdge).view().draw(graphics, 
 				new Point(BUTTON_SIZE-OFFSET, BUTTON_SIZE - OFFSET), new Point(OFFSET, OFFSET));
 		return canvas;
 	}
@@ -26,18 +26,20 @@ import ca.mcgill.cs.jetuml.geom.Conversions;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import ca.mcgill.cs.jetuml.views.ArrowHead;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
 import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.ToolGraphics;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Arc;
 import javafx.scene.shape.ArcType;
@@ -55,7 +57,9 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	private static final int DEGREES_5 = 5;
 	private static final int DEGREES_10 = 10;
 	private static final int DEGREES_20 = 20;
+	private static final int DEGREES_180 = 180;
 	private static final int DEGREES_270 = 270;
+	private static final int DEGREES_360 = 360;
 	private static final double LINE_WIDTH = 0.6;
 	
 	private static final int RADIANS_TO_PIXELS = 7;
@@ -67,7 +71,7 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	private static final int VERTICAL_TOLERANCE = 20; 
 	
 	@Override
-	public void draw(Edge pEdge, GraphicsContext pGraphics)
+	public void draw(Edge pEdge, RenderingTarget pGraphics)
 	{
 		if(isSelfEdge(pEdge))
 		{
@@ -82,7 +86,7 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		drawArrowHead(pEdge, pGraphics);
 	}
 	
-	private void drawArrowHead(Edge pEdge, GraphicsContext pGraphics)
+	private void drawArrowHead(Edge pEdge, RenderingTarget pGraphics)
 	{
 		if( isSelfEdge(pEdge) )
 		{
@@ -108,7 +112,7 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	 *  Draws the label.
 	 *  @param pGraphics2D the graphics context
 	 */
-	private void drawLabel(StateTransitionEdge pEdge, GraphicsContext pGraphics)
+	private void drawLabel(StateTransitionEdge pEdge, RenderingTarget pGraphics)
 	{
 		String label = wrapLabel(pEdge);
 		Rectangle2D labelBounds = getLabelBounds(pEdge);
@@ -118,7 +122,7 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		STRING_VIEWER.draw(label, pGraphics, drawingRectangle);
 	}
 	
-	private void drawSelfEdge(Edge pEdge, GraphicsContext pGraphics)
+	private void drawSelfEdge(Edge pEdge, RenderingTarget pGraphics)
 	{
 		Arc arc = (Arc) getShape(pEdge);
 		double width = pGraphics.getLineWidth();
@@ -267,10 +271,24 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		}
 		else
 		{
-			return getNormalEdgeShape(pEdge);
+			return super.getShape(pEdge);
 		}
 	}
 	
+	/*
+	 * Self-edges are arcs, which are not traced: their shape
+	 * and hit test are computed separately.
+	 */
+	@Override
+	protected void tracePath(Edge pEdge, PathConsumer pConsumer)
+	{
+		assert !isSelfEdge(pEdge);
+		Line line = getConnectionPoints(pEdge);
+		Point2D control = getControlPoint(pEdge);
+		pConsumer.moveTo(line.getX1(), line.getY1());
+		pConsumer.quadTo(control.getX(), control.getY(), line.getX2(), line.getY2());
+	}
+	
 	private boolean isSelfEdge(Edge pEdge)
 	{
 		return pEdge.getStart() == pEdge.getEnd();
@@ -302,15 +320,102 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	@Override
 	public boolean contains(Edge pEdge, Point pPoint)
 	{
-		boolean result = super.contains(pEdge, pPoint);
-		if (getShape(pEdge) instanceof Arc)
+		if( isSelfEdge(pEdge) )
+		{
+			return selfEdgeContains(pEdge, pPoint);
+		}
+		return super.contains(pEdge, pPoint);
+	}
+	
+	/*
+	 * Whether pPoint is in the area of the self-edge arc, with its radius
+	 * enlarged by twice the selection distance. The area of the open arc
+	 * is closed by the chord between its ends, as for a filled Arc. The
+	 * computation follows the one of JavaFX, including the rounding of the
+	 * bounds of the arc to float, so that the result is the same.
+	 */
+	private boolean selfEdgeContains(Edge pEdge, Point pPoint)
+	{
+		Line line = getSelfEdgeConnectionPoints(pEdge);
+		double centerX = line.getX1();
+		double centerY = line.getY1() - SELF_EDGE_OFFSET;
+		double startAngle = DEGREES_270;
+		if( getPosition(pEdge) != 1 )
+		{
+			centerX = line.getX1() - SELF_EDGE_OFFSET;
+			centerY = line.getY1() - SELF_EDGE_OFFSET*2;
+			startAngle = 1;
+		}
+		double radius = SELF_EDGE_OFFSET*2 + 2 * MAX_DISTANCE;
+		float left = (float) (centerX - radius);
+		float top = (float) (centerY - radius);
+		float diameter = (float) (radius * 2);
+		// Coordinates relative to the center, where the diameter is 1
+		double x = (pPoint.getX() - left) / (double) diameter - 0.5;
+		double y = (pPoint.getY() - top) / (double) diameter - 0.5;
+		if( x * x + y * y >= 0.25 )
+		{
+			return false;
+		}
+		// Angles are counter-clockwise on the screen, so in the opposite direction as the y axis
+		double angle = normalizeDegrees((float) -Math.toDegrees(Math.atan2(y, x))) - normalizeDegrees(startAngle);
+		if( angle < 0 )
 		{
-			Arc arc = (Arc) getShape(pEdge);
-			arc.setRadiusX(arc.getRadiusX() + 2 * MAX_DISTANCE);
-			arc.setRadiusY(arc.getRadiusY() + 2 * MAX_DISTANCE);
-			result = arc.contains(pPoint.getX(), pPoint.getY());
+			angle += DEGREES_360;
 		}
-		return result;
+		if( angle < DEGREES_270 )
+		{
+			return true;
+		}
+		// Outside the angle of the arc: the point must be on the same side of the chord as the center
+		double start = Math.toRadians(-startAngle);
+		double end = start + Math.toRadians(-DEGREES_270);
+		float x1 = (float) Math.cos(start);
+		float y1 = (float) Math.sin(start);
+		float x2 = (float) Math.cos(end);
+		float y2 = (float) Math.sin(end);
+		return relativeCCW(x1, y1, x2, y2, (float) (2 * x), (float) (2 * y)) * relativeCCW(x1, y1, x2, y2, 0, 0) >= 0;
+	}
+	
+	/*
+	 * An angle in degrees, in the interval (-180, 180], for
+	 * angles in the interval (-540, 540].
+	 */
+	private static double normalizeDegrees(double pAngle)
+	{
+		if( pAngle > DEGREES_180 )
+		{
+			return pAngle - DEGREES_360;
+		}
+		else if( pAngle <= -DEGREES_180 )
+		{
+			return pAngle + DEGREES_360;
+		}
+		return pAngle;
+	}
+	
+	/*
+	 * 1 if the point is counter-clockwise from the line, -1 if it is clockwise,
+	 * and 0 if it is on the line, in the same way as java.awt.geom.Line2D.
+	 */
+	private static int relativeCCW(float pX1, float pY1, float pX2, float pY2, float pX, float pY)
+	{
+		float dx = pX2 - pX1;
+		float dy = pY2 - pY1;
+		float px = pX - pX1;
+		float py = pY - pY1;
+		float ccw = px * dy - py * dx;
+		if( ccw == 0 )
+		{
+			ccw = px * dx + py * dy;
+			if( ccw > 0 )
+			{
+				px -= dx;
+				py -= dy;
+				ccw = Math.max(0, px * dx + py * dy);
+			}
+		}
+		return (int) Math.signum(ccw);
 	}
 	
 	/** 
@@ -322,9 +427,9 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	{
 		assert pEdge.getDiagram() != null;
 		int lReturn = 0;
-		for( Edge edge : pEdge.getDiagram().edgesConnectedTo(pEdge.getStart()))
+		for( Edge edge : pEdge.getDiagram().outgoingEdges(pEdge.getStart()))
 		{
-			if( edge.getStart() == pEdge.getStart() && edge.getEnd() == pEdge.getEnd())
+			if( edge.getEnd() == pEdge.getEnd())
 			{
 				lReturn++;
 			}
@@ -361,18 +466,6 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 		}
 	}
 	
-	private Shape getNormalEdgeShape(Edge pEdge)
-	{
-		Line line = getConnectionPoints(pEdge);
-		Path path = new Path();
-		MoveTo moveTo = new MoveTo(line.getPoint1().getX(), line.getPoint1().getY());
-		QuadCurveTo curveTo = new QuadCurveTo(getControlPoint(pEdge).getX(), getControlPoint(pEdge).getY(), 
-				line.getPoint2().getX(), line.getPoint2().getY());
-		path.getElements().addAll(moveTo, curveTo);
-		return path;
-	}
-	
-	
 	/**
      *  Gets the control point for the quadratic spline.
      * @return the control point
@@ -393,7 +486,16 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	@Override
 	public Rectangle getBounds(Edge pEdge)
 	{
-		return super.getBounds(pEdge).add(Conversions.toRectangle(getLabelBounds((StateTransitionEdge)pEdge)));
+		Rectangle bounds;
+		if( isSelfEdge(pEdge) )
+		{
+			bounds = Conversions.toRectangle(getSelfEdgeShape(pEdge).getBoundsInLocal());
+		}
+		else
+		{
+			bounds = super.getBounds(pEdge);
+		}
+		return bounds.add(Conversions.toRectangle(getLabelBounds((StateTransitionEdge)pEdge)));
 	}
 	
 	@Override
@@ -434,8 +536,8 @@ public final class StateTransitionEdgeViewer extends AbstractEdgeViewer
 	public Canvas createIcon(Edge pEdge)
 	{   //CSOFF: Magic numbers
 		Canvas canvas = new Canvas(BUTTON_SIZE, BUTTON_SIZE);
-		GraphicsContext graphics = canvas.getGraphicsContext2D();
-		graphics.scale(0.6, 0.6);
+		canvas.getGraphicsContext2D().scale(0.6, 0.6);
+		RenderingTarget graphics = new CanvasRenderingTarget(canvas.getGraphicsContext2D());
 		Line line = new Line(new Point(2,2), new Point(40,40));
 		final double tangent = Math.tan(Math.toRadians(DEGREES_10));
 		double dx = (line.getX2() - line.getX1()) / 2;
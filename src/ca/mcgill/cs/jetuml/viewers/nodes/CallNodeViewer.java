@@ -20,24 +20,14 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.viewers.nodes;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
-import ca.mcgill.cs.jetuml.diagram.ControlFlow;
-import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
-import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.views.LineStyle;
-import ca.mcgill.cs.jetuml.views.StringViewer;
-import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
-import ca.mcgill.cs.jetuml.views.StringViewer.TextDecoration;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.ViewUtils;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
 /**
@@ -45,19 +35,8 @@ import javafx.scene.paint.Color;
  */
 public final class CallNodeViewer extends AbstractNodeViewer
 {
-	private static final int WIDTH = 16;
-	private static final int DEFAULT_HEIGHT = 30;
-	private static final int Y_GAP_BIG = 20;
-	private static final int Y_GAP_SMALL = 20; // Was 10, changed to 20 to account for label space
-	private static final int Y_GAP_TINY = 5; // Was 10, changed to 20 to account for label space
-	private static final ImplicitParameterNodeViewer IMPLICIT_PARAMETER_NODE_VIEWER = new ImplicitParameterNodeViewer();
-	// Inserts gaps between call nodes so that call edge labels don't intersect
-	private static final StringViewer NODE_GAP_TESTER = StringViewer.get(Alignment.CENTER_CENTER, TextDecoration.PADDED);
-	private static final String TEST_STRING = "|";
-	private static final int MINIMUM_SHIFT_THRESHOLD = 10;
-	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, RenderingTarget pGraphics)
 	{
 		if(((CallNode)pNode).isOpenBottom())
 		{
@@ -95,136 +74,9 @@ public final class CallNodeViewer extends AbstractNodeViewer
 		}
 	}
 	
-	/*
-	 * The x position is a function of the position of the implicit parameter
-	 * node and the nesting depth of the call node.
-	 */
-	private int getX(Node pNode)
-	{
-		final Diagram diagram = pNode.getDiagram().get();
-		final ImplicitParameterNode implicitParameterNode = (ImplicitParameterNode) pNode.getParent();
-		if(implicitParameterNode != null )
-		{
-			int depth = 0;
-			if( diagram != null )
-			{
-				depth = new ControlFlow(diagram).getNestingDepth((CallNode)pNode);
-			}
-			return IMPLICIT_PARAMETER_NODE_VIEWER.getTopRectangle(implicitParameterNode).getCenter().getX() -
-					WIDTH / 2 + depth * WIDTH/2;
-		}
-		else
-		{
-			return 0;
-		}
-	}
-	
-	/*
-	 * If the node has a caller, the Y coordinate is a gap below the last return Y value
-	 * of the caller or a set distance before the previous call node, whatever is lower.
-	 * If not, it's simply a set distance below the previous call node.
-	 */
-	private int getYWithNoConstructorCall(Node pNode)
-	{
-		final CallNode callNode = (CallNode) pNode;
-		final ImplicitParameterNode implicitParameterNode = (ImplicitParameterNode) callNode.getParent();
-		final Diagram diagram = callNode.getDiagram().get();
-		if( implicitParameterNode == null || diagram == null )
-		{
-			return 0; // Only used for the ImageCreator
-		}
-		ControlFlow flow = new ControlFlow(diagram);
-		Optional<CallNode> caller = flow.getCaller(callNode);
-		if( caller.isPresent() )
-		{
-			int result = 0;
-			if( flow.isNested(callNode) && flow.isFirstCallee(callNode))
-			{
-				result = getY(caller.get()) + Y_GAP_BIG;
-			}
-			else if( flow.isNested(callNode) && !flow.isFirstCallee(callNode) )
-			{
-				result = getMaxY(flow.getPreviousCallee(callNode)) + Y_GAP_SMALL;
-			}
-			else if( !flow.isNested(callNode) && flow.isFirstCallee(callNode) )
-			{
-				result = getY(caller.get()) + Y_GAP_SMALL;
-			}
-			else
-			{
-				result = getMaxY(flow.getPreviousCallee(callNode)) + Y_GAP_SMALL;
-			}
-			return result;
-		}
-		else
-		{
-			return IMPLICIT_PARAMETER_NODE_VIEWER.getTopRectangle(implicitParameterNode).getMaxY() + Y_GAP_SMALL;
-		}
-	} 
-
-	/**
-	 * @param pNode the node.
-	 * @return If there's no callee, returns a fixed offset from the y position.
-	 *     Otherwise, return with a gap from last callee.
-	 */
-	public int getMaxY(Node pNode)
-	{
-		final CallNode callNode = (CallNode) pNode;
-		final Diagram diagram = callNode.getDiagram().get();
-		List<Node> callees = new ArrayList<>();
-		if( diagram != null )
-		{
-			callees = new ControlFlow(diagram).getCallees(callNode);
-		}
-		if( callees.isEmpty() )
-		{
-			return getY(callNode) + DEFAULT_HEIGHT;
-		}
-		else
-		{
-			return getMaxY(callees.get(callees.size()-1)) + Y_GAP_SMALL;
-		}
-	}
-	
 	@Override
 	public Rectangle getBounds(Node pNode)
 	{
-		int y = getY(pNode);
-		return new Rectangle(getX(pNode), y, WIDTH, getMaxY(pNode) - y);
-	}
-	
-	private int getYWithConstructorCall(Node pNode) 
-	{
-		final ImplicitParameterNode implicitParameterNode = (ImplicitParameterNode) pNode.getParent();
-		return IMPLICIT_PARAMETER_NODE_VIEWER.getTopRectangle(implicitParameterNode).getMaxY() + Y_GAP_TINY;
-	}
-
-	private boolean isInConstructorCall(Node pNode)
-	{
-		Optional<Diagram> diagram = pNode.getDiagram();
-		if(diagram.isPresent())
-		{
-			ControlFlow flow = new ControlFlow(diagram.get());
-			return flow.isConstructorExecution(pNode);
-		}
-		return false;
-	}
-	
-	protected int getY(Node pNode)
-	{
-		int shift = NODE_GAP_TESTER.getDimension(TEST_STRING).height() / 3;
-		// Only apply shift if necessary
-		if ( shift < MINIMUM_SHIFT_THRESHOLD )
-		{
-			shift = 0;
-		}
-		if(isInConstructorCall(pNode))
-		{
-			return getYWithConstructorCall(pNode) + shift;
-		}
-		else 
-		{
-			return getYWithNoConstructorCall(pNode) + shift;
-		}
+		return SequenceLayout.getCallNodeBounds(pNode);
 	}
 }
@@ -27,6 +27,8 @@ import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import javafx.scene.canvas.Canvas;
@@ -49,7 +51,7 @@ public final class FieldNodeViewer extends AbstractNodeViewer
 	private static final ObjectNodeViewer OBJECT_NODE_VIEWER = new ObjectNodeViewer();
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, RenderingTarget pGraphics)
 	{
 		final Rectangle bounds = getBounds(pNode);
 		final int split = getSplitPosition(pNode);
@@ -150,7 +152,7 @@ public final class FieldNodeViewer extends AbstractNodeViewer
 		graphics.translate(Math.max((height - width) / 2, 0), 0);
 		graphics.setFill(Color.WHITE);
 		graphics.setStroke(Color.BLACK);
-		EQUALS_VIEWER.draw(ICON_LABEL, graphics, 
+		EQUALS_VIEWER.draw(ICON_LABEL, new CanvasRenderingTarget(graphics), 
 				new Rectangle(0, BUTTON_SIZE/2 - height/2+OFFSET, width, height));
 		return canvas;
 	}
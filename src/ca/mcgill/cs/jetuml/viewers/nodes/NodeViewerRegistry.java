@@ -41,8 +41,11 @@ import ca.mcgill.cs.jetuml.diagram.nodes.UseCaseNode;
 import ca.mcgill.cs.jetuml.geom.Direction;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.LayoutCache;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Operation;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * Keeps track of the association between a node type and the viewer
@@ -113,9 +116,25 @@ public final class NodeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pNode != null
 	 */
-   	public static void draw(Node pNode, GraphicsContext pGraphics)
+   	public static void draw(Node pNode, RenderingTarget pGraphics)
    	{
-   		INSTANCE.viewerFor(pNode).draw(pNode, pGraphics);
+   		NodeViewer viewer = INSTANCE.viewerFor(pNode);
+   		if( RenderStatistics.isEnabled() )
+   		{
+   			RenderStatistics.instance().enter();
+   			try
+   			{
+   				viewer.draw(pNode, pGraphics);
+   			}
+   			finally
+   			{
+   				RenderStatistics.instance().exit(viewer.getClass(), Operation.DRAW);
+   			}
+   		}
+   		else
+   		{
+   			viewer.draw(pNode, pGraphics);
+   		}
    	}
    	
    	/**
@@ -124,9 +143,25 @@ public final class NodeViewerRegistry
      * @param pGraphics the graphics context
      * @pre pNode != null && pGraphics != null
 	 */
-   	public static void drawSelectionHandles(Node pNode, GraphicsContext pGraphics)
+   	public static void drawSelectionHandles(Node pNode, RenderingTarget pGraphics)
    	{
-   		INSTANCE.viewerFor(pNode).drawSelectionHandles(pNode, pGraphics);
+   		NodeViewer viewer = INSTANCE.viewerFor(pNode);
+   		if( RenderStatistics.isEnabled() )
+   		{
+   			RenderStatistics.instance().enter();
+   			try
+   			{
+   				viewer.drawSelectionHandles(pNode, pGraphics);
+   			}
+   			finally
+   			{
+   				RenderStatistics.instance().exit(viewer.getClass(), Operation.DRAW);
+   			}
+   		}
+   		else
+   		{
+   			viewer.drawSelectionHandles(pNode, pGraphics);
+   		}
    	}
    	
 	/**
@@ -138,7 +173,25 @@ public final class NodeViewerRegistry
    	 */
 	public static Rectangle getBounds(Node pNode)
 	{
-		return INSTANCE.viewerFor(pNode).getBounds(pNode);
+		return LayoutCache.instance().getBounds(pNode, NodeViewerRegistry::computeBounds);
+	}
+	
+	private static Rectangle computeBounds(Node pNode)
+	{
+		NodeViewer viewer = INSTANCE.viewerFor(pNode);
+		if( !RenderStatistics.isEnabled() )
+		{
+			return viewer.getBounds(pNode);
+		}
+		RenderStatistics.instance().enter();
+		try
+		{
+			return viewer.getBounds(pNode);
+		}
+		finally
+		{
+			RenderStatistics.instance().exit(viewer.getClass(), Operation.LAYOUT);
+		}
 	}
 	
   	/**
@@ -152,6 +205,24 @@ public final class NodeViewerRegistry
      */
    	public static Point getConnectionPoints(Node pNode, Direction pDirection)
    	{
-		return INSTANCE.viewerFor(pNode).getConnectionPoint(pNode, pDirection);
+		return LayoutCache.instance().getConnectionPoint(pNode, pDirection, NodeViewerRegistry::computeConnectionPoint);
+   	}
+   	
+   	private static Point computeConnectionPoint(Node pNode, Direction pDirection)
+   	{
+   		NodeViewer viewer = INSTANCE.viewerFor(pNode);
+   		if( !RenderStatistics.isEnabled() )
+   		{
+   			return viewer.getConnectionPoint(pNode, pDirection);
+   		}
+   		RenderStatistics.instance().enter();
+   		try
+   		{
+   			return viewer.getConnectionPoint(pNode, pDirection);
+   		}
+   		finally
+   		{
+   			RenderStatistics.instance().exit(viewer.getClass(), Operation.LAYOUT);
+   		}
    	}
 }
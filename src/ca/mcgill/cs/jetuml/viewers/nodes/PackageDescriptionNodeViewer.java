@@ -27,11 +27,12 @@ import ca.mcgill.cs.jetuml.diagram.nodes.AbstractPackageNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.PackageDescriptionNode;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.CanvasRenderingTarget;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import ca.mcgill.cs.jetuml.views.StringViewer.TextDecoration;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * An object to render a package in a class diagram.
@@ -41,7 +42,7 @@ public final class PackageDescriptionNodeViewer extends AbstractPackageNodeViewe
 	private static final StringViewer CONTENTS_VIEWER = StringViewer.get(Alignment.CENTER_CENTER, TextDecoration.PADDED);
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, RenderingTarget pGraphics)
 	{
 		super.draw(pNode, pGraphics);
 		Rectangle bottomBounds = getBottomBounds((AbstractPackageNode)pNode);
@@ -70,7 +71,7 @@ public final class PackageDescriptionNodeViewer extends AbstractPackageNodeViewe
 	{
 		assert pNode instanceof AbstractPackageNode;
 		Canvas icon = super.createIcon(pNode);
-		CONTENTS_VIEWER.draw("description", icon.getGraphicsContext2D(), getBottomBounds((AbstractPackageNode)pNode));
+		CONTENTS_VIEWER.draw("description", new CanvasRenderingTarget(icon.getGraphicsContext2D()), getBottomBounds((AbstractPackageNode)pNode));
 		return icon;
 	}
 }
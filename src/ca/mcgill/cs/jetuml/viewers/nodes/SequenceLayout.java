@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.nodes;
+
+import static ca.mcgill.cs.jetuml.geom.GeomUtils.max;
+import static java.util.Collections.emptyList;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.ControlFlow;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.StringViewer;
+import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
+import ca.mcgill.cs.jetuml.views.StringViewer.TextDecoration;
+
+/**
+ * Computes the geometry of the call nodes and implicit parameter nodes of a 
+ * sequence diagram. 
+ * 
+ * The position of a call node depends on its caller, on the call node 
+ * that precedes it, and on the implicit parameter node that contains it, which
+ * itself can depend on the call node that constructs it. A layout obtains the calls 
+ * from the control flow of the diagram, which indexes them in a single pass over its
+ * edges, and computes the geometry of each node at most once, so that the cost of 
+ * laying out the whole diagram is linear in the number of nodes and edges. 
+ * 
+ * A layout is a snapshot of the diagram at a given revision. It is attached to the
+ * diagram and reused until the diagram or the font size changes. Layouts that depend 
+ * on implicit parameter nodes that are not part of the diagram, and thus whose changes 
+ * cannot be detected, are discarded after use.
+ */
+final class SequenceLayout
+{
+	private static final int CALL_NODE_WIDTH = 16;
+	private static final int TOP_HEIGHT = 60;
+	private static final int CALL_NODE_DEFAULT_HEIGHT = 30;
+	private static final int Y_GAP_BIG = 20;
+	private static final int Y_GAP_SMALL = 20; // Was 10, changed to 20 to account for label space
+	private static final int Y_GAP_TINY = 5; // Was 10, changed to 20 to account for label space
+	private static final int DEFAULT_WIDTH = 80;
+	private static final int DEFAULT_HEIGHT = 120;
+	private static final int HORIZONTAL_PADDING = 10; // 2x the left and right padding around the name of the implicit parameter
+	private static final int TAIL_HEIGHT = 20; // Piece of the life line below the last call node
+	private static final StringViewer NAME_VIEWER = StringViewer.get(Alignment.CENTER_CENTER, TextDecoration.PADDED, TextDecoration.UNDERLINED);
+	// Inserts gaps between call nodes so that call edge labels don't intersect
+	private static final StringViewer NODE_GAP_TESTER = StringViewer.get(Alignment.CENTER_CENTER, TextDecoration.PADDED);
+	private static final String TEST_STRING = "|";
+	private static final int MINIMUM_SHIFT_THRESHOLD = 10;
+	
+	private final Optional<Diagram> aDiagram;
+	private final long aRevision;
+	private final int aFontSize;
+	private final int aShift;
+	private boolean aDisposable = false;
+	
+	private final Optional<ControlFlow> aControlFlow;
+	
+	private final Map<Node, Integer> aYs = new IdentityHashMap<>();
+	private final Map<Node, Integer> aMaxYs = new IdentityHashMap<>();
+	private final Map<Node, Rectangle> aTopRectangles = new IdentityHashMap<>();
+	private final Map<Node, Rectangle> aBounds = new IdentityHashMap<>();
+	
+	private SequenceLayout(Optional<Diagram> pDiagram, int pFontSize)
+	{
+		aDiagram = pDiagram;
+		aRevision = pDiagram.map(Diagram::getRevision).orElse(0L);
+		aFontSize = pFontSize;
+		int shift = NODE_GAP_TESTER.getDimension(TEST_STRING).height() / 3;
+		// Only apply shift if necessary
+		if( shift < MINIMUM_SHIFT_THRESHOLD )
+		{
+			shift = 0;
+		}
+		aShift = shift;
+		aControlFlow = pDiagram.map(ControlFlow::new);
+	}
+	
+	/**
+	 * @param pNode A call node.
+	 * @return The bounds of pNode.
+	 * @pre pNode != null
+	 */
+	static Rectangle getCallNodeBounds(Node pNode)
+	{
+		return query(pNode, SequenceLayout::callNodeBounds);
+	}
+	
+	/**
+	 * @param pNode An implicit parameter node.
+	 * @return The rectangle at the top of pNode.
+	 * @pre pNode != null
+	 */
+	static Rectangle getTopRectangle(Node pNode)
+	{
+		return query(pNode, SequenceLayout::topRectangle);
+	}
+	
+	/**
+	 * @param pNode An implicit parameter node.
+	 * @return The bounds of pNode, including its life line.
+	 * @pre pNode != null
+	 */
+	static Rectangle getImplicitParameterNodeBounds(Node pNode)
+	{
+		return query(pNode, SequenceLayout::implicitParameterNodeBounds);
+	}
+	
+	private static <T> T query(Node pNode, BiFunction<SequenceLayout, Node, T> pQuery)
+	{
+		assert pNode != null;
+		return pQuery.apply(layoutFor(pNode.getDiagram()), pNode);
+	}
+	
+	/*
+	 * Returns the layout for the current revision of pDiagram.
+	 */
+	private static SequenceLayout layoutFor(Optional<Diagram> pDiagram)
+	{
+		int fontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		if( !pDiagram.isPresent() )
+		{
+			return new SequenceLayout(pDiagram, fontSize);
+		}
+		SequenceLayout layout = pDiagram.get().getAttachment(SequenceLayout.class).orElse(null);
+		if( layout == null || layout.aDisposable || layout.aRevision != pDiagram.get().getRevision() || 
+				layout.aFontSize != fontSize )
+		{
+			layout = new SequenceLayout(pDiagram, fontSize);
+			pDiagram.get().attach(SequenceLayout.class, layout);
+		}
+		return layout;
+	}
+	
+	private Rectangle callNodeBounds(Node pNode)
+	{
+		Rectangle bounds = aBounds.get(pNode);
+		if( bounds == null )
+		{
+			int y = y(pNode);
+			bounds = new Rectangle(x(pNode), y, CALL_NODE_WIDTH, maxY(pNode) - y);
+			aBounds.put(pNode, bounds);
+		}
+		return bounds;
+	}
+	
+	/*
+	 * The x position is a function of the position of the implicit parameter
+	 * node and the nesting depth of the call node.
+	 */
+	private int x(Node pNode)
+	{
+		final Node implicitParameterNode = pNode.getParent();
+		if( implicitParameterNode == null )
+		{
+			return 0;
+		}
+		return topRectangle(implicitParameterNode).getCenter().getX() -
+				CALL_NODE_WIDTH / 2 + aControlFlow.map(flow -> flow.getNestingDepth((CallNode) pNode)).orElse(0) * CALL_NODE_WIDTH/2;
+	}
+	
+	private int y(Node pNode)
+	{
+		Integer y = aYs.get(pNode);
+		if( y == null )
+		{
+			if( isConstructorExecution(pNode) )
+			{
+				y = topRectangle(pNode.getParent()).getMaxY() + Y_GAP_TINY + aShift;
+			}
+			else
+			{
+				y = yWithNoConstructorCall(pNode) + aShift;
+			}
+			aYs.put(pNode, y);
+		}
+		return y;
+	}
+	
+	/*
+	 * If the node has a caller, the Y coordinate is a gap below the last return Y value
+	 * of the caller or a set distance before the previous call node, whatever is lower.
+	 * If not, it's simply a set distance below the previous call node.
+	 */
+	private int yWithNoConstructorCall(Node pNode)
+	{
+		final Node implicitParameterNode = pNode.getParent();
+		if( implicitParameterNode == null || !aDiagram.isPresent() )
+		{
+			return 0; // Only used for the ImageCreator
+		}
+		ControlFlow flow = aControlFlow.get();
+		Optional<CallNode> caller = isInDiagram(pNode) ? flow.getCaller(pNode) : Optional.empty();
+		if( !caller.isPresent() )
+		{
+			return topRectangle(implicitParameterNode).getMaxY() + Y_GAP_SMALL;
+		}
+		CallNode callNode = (CallNode) pNode;
+		if( flow.isFirstCallee(callNode) )
+		{
+			return y(caller.get()) + (flow.isNested(callNode) ? Y_GAP_BIG : Y_GAP_SMALL);
+		}
+		else
+		{
+			return maxY(flow.getPreviousCallee(callNode)) + Y_GAP_SMALL;
+		}
+	}
+	
+	/*
+	 * If there's no callee, returns a fixed offset from the y position.
+	 * Otherwise, return with a gap from last callee.
+	 */
+	private int maxY(Node pNode)
+	{
+		Integer maxY = aMaxYs.get(pNode);
+		if( maxY == null )
+		{
+			List<Node> callees = emptyList();
+			if( isInDiagram(pNode) )
+			{
+				callees = aControlFlow.get().getCallees(pNode);
+			}
+			if( callees.isEmpty() )
+			{
+				maxY = y(pNode) + CALL_NODE_DEFAULT_HEIGHT;
+			}
+			else
+			{
+				maxY = maxY(callees.get(callees.size()-1)) + Y_GAP_SMALL;
+			}
+			aMaxYs.put(pNode, maxY);
+		}
+		return maxY;
+	}
+	
+	/*
+	 * Nodes outside the diagram, such as the children of an implicit parameter node
+	 * that was not added to it, have no caller and no callees in the diagram.
+	 */
+	private boolean isInDiagram(Node pNode)
+	{
+		return aDiagram.isPresent() && aDiagram.get().contains(pNode);
+	}
+	
+	private boolean isConstructorExecution(Node pNode)
+	{
+		return aControlFlow.isPresent() && aControlFlow.get().isConstructorExecution(pNode);
+	}
+	
+	private Rectangle topRectangle(Node pNode)
+	{
+		Rectangle top = aTopRectangles.get(pNode);
+		if( top == null )
+		{
+			if( !pNode.getDiagram().equals(aDiagram) )
+			{
+				// The changes to this node are not reflected in the revision of the diagram
+				aDisposable = true;
+			}
+			int width = Math.max(NAME_VIEWER.getDimension(((ImplicitParameterNode)pNode).getName()).width()+ 
+					HORIZONTAL_PADDING, DEFAULT_WIDTH);
+			int yVal = 0;
+			if( isInConstructorCall(pNode) )
+			{
+				yVal = yWithConstructorCall(pNode);
+			}
+			top = new Rectangle(pNode.position().getX(), yVal, width, TOP_HEIGHT);
+			aTopRectangles.put(pNode, top);
+		}
+		return top;
+	}
+	
+	private Rectangle implicitParameterNodeBounds(Node pNode)
+	{
+		Rectangle bounds = aBounds.get(pNode);
+		if( bounds == null )
+		{
+			Rectangle topRectangle = topRectangle(pNode);
+			int maxX = 0;
+			int maxY = 0;
+			for( Node child : pNode.getChildren() )
+			{
+				Rectangle childBounds = callNodeBounds(child);
+				maxX = Math.max(maxX, childBounds.getMaxX());
+				maxY = Math.max(maxY, childBounds.getMaxY());
+			}
+			int width = max(topRectangle.getWidth(), DEFAULT_WIDTH, maxX - pNode.position().getX());
+			int height = max(DEFAULT_HEIGHT, maxY + TAIL_HEIGHT) - topRectangle.getY();	
+			bounds = new Rectangle(pNode.position().getX(), topRectangle.getY(), width, height);
+			aBounds.put(pNode, bounds);
+		}
+		return bounds;
+	}
+	
+	/*
+	 * Returns true if the implicit parameter node is created by a constructor call.
+	 */
+	private boolean isInConstructorCall(Node pNode)
+	{
+		return !pNode.getChildren().isEmpty() && isConstructorExecution(pNode.getChildren().get(0));
+	}
+	
+	private int yWithConstructorCall(Node pNode)
+	{
+		ControlFlow flow = aControlFlow.get();
+		CallNode child = (CallNode) pNode.getChildren().get(0);
+		// If the node is the first callee, set a fix distance from its caller
+		if( flow.isFirstCallee(child) )
+		{
+			return y(flow.getCaller(child).get()) + Y_GAP_SMALL;
+		}
+		Node previousCallee = flow.getPreviousCallee(child);
+		// If the node is not the first callee but the previous callee is in constructor call
+		if( flow.isConstructorExecution(previousCallee) )
+		{
+			// Returns a fixed distance from the bound of the previous callee's parent
+			return implicitParameterNodeBounds(previousCallee.getParent()).getMaxY();
+		}
+		else
+		{
+			// Returns a fixed distance from the previous callee
+			return maxY(previousCallee) + Y_GAP_SMALL;
+		}
+	}
+}
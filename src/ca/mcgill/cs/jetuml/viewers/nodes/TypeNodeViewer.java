@@ -26,12 +26,13 @@ import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.diagram.nodes.TypeNode;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.views.LevelOfDetail;
 import ca.mcgill.cs.jetuml.views.LineStyle;
+import ca.mcgill.cs.jetuml.views.RenderingTarget;
 import ca.mcgill.cs.jetuml.views.StringViewer;
 import ca.mcgill.cs.jetuml.views.StringViewer.Alignment;
 import ca.mcgill.cs.jetuml.views.StringViewer.TextDecoration;
 import ca.mcgill.cs.jetuml.views.ViewUtils;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * An object to render a class or interface in a class diagram.
@@ -48,10 +49,16 @@ public class TypeNodeViewer extends AbstractNodeViewer
 	private static final StringViewer STRING_VIEWER = StringViewer.get(Alignment.TOP_LEFT, TextDecoration.PADDED);
 	
 	@Override
-	public void draw(Node pNode, GraphicsContext pGraphics)
+	public void draw(Node pNode, RenderingTarget pGraphics)
 	{	
 		assert pNode instanceof TypeNode;
 		TypeNode node = (TypeNode) pNode;
+		if( !LevelOfDetail.current().showsText() )
+		{
+			// The cached bounds avoid measuring the attributes and methods, which are not drawn
+			drawOutline(node, pGraphics, NodeViewerRegistry.getBounds(pNode));
+			return;
+		}
 		final Rectangle bounds = getBounds(pNode);
 		final int attributeHeight = attributeBoxHeight(node);
 		final int methodHeight = methodBoxHeight(node);
@@ -81,6 +88,19 @@ public class TypeNodeViewer extends AbstractNodeViewer
 		}	
 	}
 	
+	/*
+	 * Draws a node as a plain box, with its name centered in the box 
+	 * if the level of detail includes names.
+	 */
+	private void drawOutline(TypeNode pNode, RenderingTarget pGraphics, Rectangle pBounds)
+	{
+		ViewUtils.drawRectangle(pGraphics, pBounds);
+		if( LevelOfDetail.current().showsNames() )
+		{
+			NAME_VIEWER.draw(getNameText(pNode), pGraphics, pBounds);
+		}
+	}
+	
 	private static int attributeBoxHeight(TypeNode pNode)
 	{
 		return textDimensions(pNode.getAttributes()).height();
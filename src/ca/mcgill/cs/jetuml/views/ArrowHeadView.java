@@ -28,11 +28,11 @@ import static ca.mcgill.cs.jetuml.views.ArrowHead.NONE;
 import static ca.mcgill.cs.jetuml.views.ArrowHead.TRIANGLE;
 import static ca.mcgill.cs.jetuml.views.ArrowHead.V;
 
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
 import ca.mcgill.cs.jetuml.geom.Point;
-import javafx.scene.canvas.GraphicsContext;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.geom.StrokeBounds;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.LineTo;
-import javafx.scene.shape.MoveTo;
 import javafx.scene.shape.Path;
 
 /**
@@ -61,7 +61,7 @@ public final class ArrowHeadView
 	 * @param pPoint1 a point on the axis of the arrow head
 	 * @param pEnd the end point of the arrow head
 	 */
-	public void draw(GraphicsContext pGraphics, Point pPoint1, Point pEnd)
+	public void draw(RenderingTarget pGraphics, Point pPoint1, Point pEnd)
 	{
 		if(aArrowHead == ArrowHead.BLACK_DIAMOND || aArrowHead == BLACK_TRIANGLE) 
 		{
@@ -80,10 +80,38 @@ public final class ArrowHeadView
      * @return the path
      */
    	public Path getPath(Point pPoint1, Point pEnd)
+   	{
+   		PathBuilder builder = new PathBuilder();
+   		tracePath(pPoint1, pEnd, builder);
+   		return builder.getPath();
+   	}
+   	
+   	/**
+     * Gets the bounds of the path of the arrowhead, as it is stroked.
+     * @param pPoint1 a point on the axis of the arrow head
+     * @param pEnd the end point of the arrow head
+     * @return the bounds
+     * @pre aArrowHead != NONE
+     */
+   	public Rectangle getBounds(Point pPoint1, Point pEnd)
+   	{
+   		assert aArrowHead != NONE;
+   		StrokeBounds bounds = new StrokeBounds();
+   		tracePath(pPoint1, pEnd, bounds);
+   		return bounds.getBounds();
+   	}
+   	
+   	/**
+     * Passes the elements of the path of the arrowhead to pConsumer.
+     * @param pPoint1 a point on the axis of the arrow head
+     * @param pEnd the end point of the arrow head
+     * @param pConsumer the consumer of the path elements
+     */
+   	public void tracePath(Point pPoint1, Point pEnd, PathConsumer pConsumer)
    	{
    		if(aArrowHead == NONE) 
    		{
-   			return new Path();
+   			return;
    		}
    		
    		int dx = pEnd.getX() - pPoint1.getX();
@@ -94,31 +122,25 @@ public final class ArrowHeadView
    		int x2 = (int) Math.round(pEnd.getX() - ARROW_LENGTH * Math.cos(angle - ARROW_ANGLE));
    		int y2 = (int) Math.round(pEnd.getY() - ARROW_LENGTH * Math.sin(angle - ARROW_ANGLE));
 
-   		MoveTo moveToOrigin = new MoveTo(pEnd.getX(), pEnd.getY());
-   		LineTo lineTo1 = new LineTo(x1, y1);
-   		Path path = new Path();
-   		path.getElements().addAll(moveToOrigin, lineTo1);
+   		pConsumer.moveTo(pEnd.getX(), pEnd.getY());
+   		pConsumer.lineTo(x1, y1);
    		if(aArrowHead == V)
    		{
-   			MoveTo moveTo2 = new MoveTo(x2, y2);
-   			LineTo lineTo2 = new LineTo(pEnd.getX(), pEnd.getY());
-   			path.getElements().addAll(moveTo2, lineTo2);
+   			pConsumer.moveTo(x2, y2);
+   			pConsumer.lineTo(pEnd.getX(), pEnd.getY());
    		}
    		else if(aArrowHead == TRIANGLE || aArrowHead == BLACK_TRIANGLE)
    		{
-   			LineTo lineTo3 = new LineTo(x2, y2); 
-   			LineTo lineTo4 = new LineTo(moveToOrigin.getX(), moveToOrigin.getY());
-   			path.getElements().addAll(lineTo3, lineTo4);
+   			pConsumer.lineTo(x2, y2);
+   			pConsumer.lineTo(pEnd.getX(), pEnd.getY());
    		}
    		else if(aArrowHead == DIAMOND || aArrowHead == BLACK_DIAMOND)
    		{
    			final int x3 = (int) Math.round( x2 - ARROW_LENGTH * Math.cos(angle + ARROW_ANGLE));
    			final int y3 = (int) Math.round( y2 - ARROW_LENGTH * Math.sin(angle + ARROW_ANGLE));
-   			LineTo lineTo5 = new LineTo(x3, y3);
-   			LineTo lineTo6 = new LineTo(x2, y2);
-   			LineTo lineTo7 = new LineTo(moveToOrigin.getX(), moveToOrigin.getY());
-   			path.getElements().addAll(lineTo5, lineTo6, lineTo7);
+   			pConsumer.lineTo(x3, y3);
+   			pConsumer.lineTo(x2, y2);
+   			pConsumer.lineTo(pEnd.getX(), pEnd.getY());
    		}      
-   		return path;
    	}
 }
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.awt.image.ColorModel;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * An image of a diagram that is drawn piece by piece as its pixels are requested, 
+ * so that it can be written by an ImageIO writer without ever holding all of 
+ * its pixels in memory.
+ * 
+ * The image is divided into strips that span its width. When the pixels of a strip
+ * are requested, the strip is drawn one square tile at a time on a small canvas, 
+ * and only the last strip drawn is kept. Writers that request the pixels row by row,
+ * such as the PNG and BMP writers, thus only need memory for one strip. Writers 
+ * that request all the pixels at once, such as the JPEG and GIF writers, 
+ * still obtain them with getData, but without the intermediate copies 
+ * of a JavaFX image.
+ * 
+ * The pixels can be requested from any thread. The strips are always drawn 
+ * on the JavaFX application thread. When a strip is requested from another thread,
+ * the strip below it is drawn ahead, so that a writer running on that thread encodes
+ * one strip while the next one is being drawn. The diagram must not change while 
+ * the image is being written.
+ */
+final class DiagramImage implements RenderedImage
+{
+	private static final double LINE_WIDTH = 0.6;
+	/* The number of pixels by which a tile is extended when selecting
+	 * the elements to draw, to account for decorations such as shadows that 
+	 * are not part of the bounds of an element. */
+	private static final int CULLING_MARGIN = 10;
+	private static final ColorModel COLOR_MODEL = new DirectColorModel(24, 0xff0000, 0x00ff00, 0x0000ff);
+	
+	private final Diagram aDiagram;
+	private final DiagramViewer aViewer;
+	private final Rectangle aArea;
+	private final int aTileSize;
+	private final SampleModel aSampleModel;
+	private final int[] aTilePixels;
+	private Canvas aCanvas;
+	private WritableImage aTileImage;
+	private Raster aStrip; // The last strip drawn, or null
+	private Future<Raster> aNextStrip; // The strip being drawn ahead, or null
+	private int aNextStripY;
+	
+	/**
+	 * Creates an image of an area of a diagram.
+	 * 
+	 * @param pDiagram The diagram to draw.
+	 * @param pArea The area of the diagram to include in the image, in diagram coordinates.
+	 * @param pTileSize The width and height of the tiles, in pixels.
+	 * @pre pDiagram != null && pArea != null && pArea.getWidth() > 0 && pArea.getHeight() > 0 && pTileSize > 0
+	 */
+	DiagramImage(Diagram pDiagram, Rectangle pArea, int pTileSize)
+	{
+		assert pDiagram != null && pArea != null && pArea.getWidth() > 0 && pArea.getHeight() > 0 && pTileSize > 0;
+		aDiagram = pDiagram;
+		aViewer = DiagramType.viewerFor(pDiagram);
+		aArea = pArea;
+		aTileSize = pTileSize;
+		aSampleModel = COLOR_MODEL.createCompatibleSampleModel(pArea.getWidth(), pTileSize);
+		aTilePixels = new int[pTileSize * pTileSize];
+	}
+	
+	@Override
+	public Vector<RenderedImage> getSources()
+	{
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String pName)
+	{
+		return java.awt.Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames()
+	{
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel()
+	{
+		return COLOR_MODEL;
+	}
+
+	@Override
+	public SampleModel getSampleModel()
+	{
+		return aSampleModel;
+	}
+
+	@Override
+	public int getWidth()
+	{
+		return aArea.getWidth();
+	}
+
+	@Override
+	public int getHeight()
+	{
+		return aArea.getHeight();
+	}
+
+	@Override
+	public int getMinX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles()
+	{
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles()
+	{
+		return (getHeight() + aTileSize - 1) / aTileSize;
+	}
+
+	@Override
+	public int getMinTileX()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth()
+	{
+		return getWidth();
+	}
+
+	@Override
+	public int getTileHeight()
+	{
+		return aTileSize;
+	}
+
+	@Override
+	public int getTileGridXOffset()
+	{
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset()
+	{
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The tiles of this image are the strips that span its width. The
+	 * raster returned is not modified afterwards.
+	 */
+	@Override
+	public Raster getTile(int pTileX, int pTileY)
+	{
+		assert pTileX == 0 && pTileY >= 0 && pTileY < getNumYTiles();
+		if( aStrip == null || aStrip.getMinY() != pTileY * aTileSize )
+		{
+			aStrip = drawStripOnRenderingThread(pTileY * aTileSize);
+		}
+		return aStrip;
+	}
+	
+	/*
+	 * Because the methods of RenderedImage cannot throw checked exceptions,
+	 * an interruption while waiting for a strip is reported as a cancellation.
+	 */
+	private Raster drawStripOnRenderingThread(int pY)
+	{
+		Future<Raster> strip = aNextStrip;
+		if( strip == null || aNextStripY != pY )
+		{
+			if( strip != null )
+			{
+				strip.cancel(false);
+			}
+			strip = RenderingThread.submit(() -> drawStrip(pY));
+		}
+		aNextStrip = null;
+		int nextY = pY + aTileSize;
+		if( !Platform.isFxApplicationThread() && nextY < getHeight() )
+		{
+			aNextStrip = RenderingThread.submit(() -> drawStrip(nextY));
+			aNextStripY = nextY;
+		}
+		try
+		{
+			return strip.get();
+		}
+		catch(InterruptedException exception)
+		{
+			if( aNextStrip != null )
+			{
+				aNextStrip.cancel(false);
+				aNextStrip = null;
+			}
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		}
+		catch(ExecutionException exception)
+		{
+			if( exception.getCause() instanceof Error )
+			{
+				throw (Error) exception.getCause();
+			}
+			throw (RuntimeException) exception.getCause();
+		}
+	}
+
+	@Override
+	public Raster getData()
+	{
+		return getData(new java.awt.Rectangle(0, 0, getWidth(), getHeight()));
+	}
+
+	@Override
+	public Raster getData(java.awt.Rectangle pRegion)
+	{
+		return copyData(Raster.createWritableRaster(aSampleModel.createCompatibleSampleModel(pRegion.width, pRegion.height), 
+				new java.awt.Point(pRegion.x, pRegion.y)));
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster pRaster)
+	{
+		WritableRaster raster = pRaster;
+		if( raster == null )
+		{
+			raster = Raster.createWritableRaster(aSampleModel.createCompatibleSampleModel(getWidth(), getHeight()), null);
+		}
+		int first = Math.max(0, raster.getMinY() / aTileSize);
+		int last = Math.min(getNumYTiles() - 1, (raster.getMinY() + raster.getHeight() - 1) / aTileSize);
+		for( int strip = first; strip <= last; strip++ )
+		{
+			raster.setRect(getTile(0, strip));
+		}
+		return raster;
+	}
+	
+	/*
+	 * Draws the strip whose top row is pY, one tile at a time.
+	 */
+	private Raster drawStrip(int pY)
+	{
+		WritableRaster strip = Raster.createWritableRaster(aSampleModel, new java.awt.Point(0, pY));
+		int height = Math.min(aTileSize, getHeight() - pY);
+		for( int x = 0; x < getWidth(); x += aTileSize )
+		{
+			int width = Math.min(aTileSize, getWidth() - x);
+			drawTile(x, pY);
+			aTileImage.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), aTilePixels, 0, width);
+			strip.setDataElements(x, pY, width, height, aTilePixels);
+		}
+		return strip;
+	}
+	
+	/*
+	 * Draws the tile whose top-left corner is at pixel (pX, pY) in aTileImage.
+	 */
+	private void drawTile(int pX, int pY)
+	{
+		if( aCanvas == null )
+		{
+			aCanvas = new Canvas(aTileSize, aTileSize);
+			aTileImage = new WritableImage(aTileSize, aTileSize);
+		}
+		GraphicsContext context = aCanvas.getGraphicsContext2D();
+		context.setTransform(1, 0, 0, 1, 0, 0);
+		context.clearRect(0, 0, aTileSize, aTileSize);
+		context.setLineWidth(LINE_WIDTH);
+		context.setFill(Color.WHITE);
+		int left = aArea.getX() + pX;
+		int top = aArea.getY() + pY;
+		context.translate(-left, -top);
+		aViewer.draw(aDiagram, new CanvasRenderingTarget(context), new Rectangle(left - CULLING_MARGIN, top - CULLING_MARGIN, 
+				aTileSize + 2 * CULLING_MARGIN, aTileSize + 2 * CULLING_MARGIN));
+		aCanvas.snapshot(null, aTileImage);
+	}
+}
@@ -21,6 +21,8 @@
 
 package ca.mcgill.cs.jetuml.views;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import ca.mcgill.cs.jetuml.diagram.Diagram;
@@ -29,9 +31,10 @@ import ca.mcgill.cs.jetuml.diagram.Edge;
 import ca.mcgill.cs.jetuml.diagram.Node;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Operation;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * A strategy for drawing a diagram and computing geometric properties of a 
@@ -48,19 +51,125 @@ public class DiagramViewer
 	 * @param pDiagram the diagram to draw.
 	 * @pre pDiagram != null && pGraphics != null.
 	 */
-	public final void draw(Diagram pDiagram, GraphicsContext pGraphics)
+	public final void draw(Diagram pDiagram, RenderingTarget pGraphics)
 	{
 		assert pDiagram != null && pGraphics != null;
+		if( !RenderStatistics.isEnabled() )
+		{
+			drawAll(pDiagram, pGraphics);
+			return;
+		}
+		RenderStatistics.instance().enter();
+		try
+		{
+			drawAll(pDiagram, pGraphics);
+		}
+		finally
+		{
+			RenderStatistics.instance().exit(getClass(), Operation.DRAW);
+		}
+	}
+	
+	private void drawAll(Diagram pDiagram, RenderingTarget pGraphics)
+	{
 		pDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics));
 		pDiagram.edges().forEach(edge -> EdgeViewerRegistry.draw(edge, pGraphics));
 	}
 	
-	private void drawNode(Node pNode, GraphicsContext pGraphics)
+	/**
+	 * Draws part of pDiagram onto pGraphics. The elements are drawn in the same 
+	 * order as by draw: first each root node with its descendants, then each edge. 
+	 * This method draws the root nodes and edges at positions pStart (inclusive) to 
+	 * pEnd (exclusive) in this order, so that drawing all the positions in successive 
+	 * calls gives the same result as a single call to draw.
+	 * 
+	 * @param pDiagram the diagram to draw.
+	 * @param pGraphics the graphics context where the
+	 *     diagram should be drawn.
+	 * @param pStart the position of the first element to draw.
+	 * @param pEnd the position after the last element to draw.
+	 * @pre pDiagram != null && pGraphics != null.
+	 * @pre 0 <= pStart <= pEnd <= pDiagram.rootNodes().size() + pDiagram.edges().size()
+	 */
+	public final void draw(Diagram pDiagram, RenderingTarget pGraphics, int pStart, int pEnd)
+	{
+		assert pDiagram != null && pGraphics != null;
+		int roots = pDiagram.rootNodes().size();
+		assert 0 <= pStart && pStart <= pEnd && pEnd <= roots + pDiagram.edges().size();
+		for( int i = pStart; i < pEnd; i++ )
+		{
+			if( i < roots )
+			{
+				drawNode(pDiagram.rootNodes().get(i), pGraphics);
+			}
+			else
+			{
+				EdgeViewerRegistry.draw(pDiagram.edges().get(i - roots), pGraphics);
+			}
+		}
+	}
+	
+	private void drawNode(Node pNode, RenderingTarget pGraphics)
 	{
 		NodeViewerRegistry.draw(pNode, pGraphics);
 		pNode.getChildren().forEach(node -> drawNode(node, pGraphics));
 	}
 	
+	/**
+	 * Draws the elements of pDiagram whose bounds intersect pVisible onto pGraphics. 
+	 * The candidate elements are obtained from the spatial index of the diagram, so 
+	 * the cost of drawing a diagram that has not changed since it was indexed is 
+	 * proportional to the number of elements on screen rather than to the size of 
+	 * the diagram. The children of a node are tested independently of their parent.
+	 * 
+	 * @param pDiagram the diagram to draw.
+	 * @param pGraphics the graphics context where the
+	 *     diagram should be drawn.
+	 * @param pVisible the area of the diagram to draw, in diagram coordinates.
+	 * @pre pDiagram != null && pGraphics != null && pVisible != null.
+	 */
+	public final void draw(Diagram pDiagram, RenderingTarget pGraphics, Rectangle pVisible)
+	{
+		assert pDiagram != null && pGraphics != null && pVisible != null;
+		if( !RenderStatistics.isEnabled() )
+		{
+			drawVisible(pDiagram, pGraphics, pVisible);
+			return;
+		}
+		RenderStatistics.instance().enter();
+		try
+		{
+			drawVisible(pDiagram, pGraphics, pVisible);
+		}
+		finally
+		{
+			RenderStatistics.instance().exit(getClass(), Operation.DRAW);
+		}
+	}
+	
+	/*
+	 * The index returns the candidates in the order in which they are drawn: 
+	 * nodes before their children, and edges in diagram order.
+	 */
+	private void drawVisible(Diagram pDiagram, RenderingTarget pGraphics, Rectangle pVisible)
+	{
+		SpatialIndex index = SpatialIndex.forDiagram(pDiagram);
+		for( Node node : index.nodesIntersecting(pVisible) )
+		{
+			if( NodeViewerRegistry.getBounds(node).intersects(pVisible))
+			{
+				NodeViewerRegistry.draw(node, pGraphics);
+			}
+		}
+		for( Edge edge : index.edgesIntersecting(pVisible) )
+		{
+			if( EdgeViewerRegistry.getBounds(edge).intersects(pVisible))
+			{
+				EdgeViewerRegistry.draw(edge, pGraphics);
+			}
+		}
+	}
+	
 	/**
 	 * Finds the edge that contains the given point, if it 
 	 * exists.
@@ -73,7 +182,7 @@ public class DiagramViewer
 	public final Optional<Edge> findEdge(Diagram pDiagram, Point pPoint)
 	{
 		assert pDiagram != null && pPoint != null;
-		for(Edge edge : pDiagram.edges())
+		for(Edge edge : SpatialIndex.forDiagram(pDiagram).edgesAt(pPoint))
 		{
 			if(EdgeViewerRegistry.contains(edge, pPoint))
 			{
@@ -94,16 +203,80 @@ public class DiagramViewer
 	public final Optional<Node> findNode(Diagram pDiagram, Point pPoint)
 	{
 		assert pDiagram != null && pPoint != null;
-		Node result = null;
-		for(Node node : pDiagram.rootNodes())
+		List<Node> candidates = new ArrayList<>();
+		for( Node node : SpatialIndex.forDiagram(pDiagram).nodesAt(pPoint) )
 		{
-			Node temp = deepFindNode(pDiagram, node, pPoint);
-			if (temp != null)
+			if( NodeViewerRegistry.contains(node, pPoint) )
 			{
-				result = temp;
+				candidates.add(node);
 			}
 		}
-		return Optional.ofNullable(result);
+		if( candidates.isEmpty() )
+		{
+			return Optional.empty();
+		}
+		if( candidates.size() == 1 )
+		{
+			return Optional.of(candidates.get(0));
+		}
+		return Optional.ofNullable(selectNode(pDiagram, candidates, pPoint));
+	}
+	
+	/**
+	 * Selects, among several nodes that contain a point, the one that findNode 
+	 * should return: the deepest child of the last root node that contains the point.
+	 * Within a root node, the first child that contains the point is preferred.
+	 * 
+	 * @param pDiagram The diagram to query.
+	 * @param pCandidates The nodes that contain pPoint, in traversal order. 
+	 * @param pPoint The point to test for.
+	 * @return The node containing pPoint that should be returned by findNode.
+	 * @pre pDiagram != null && pCandidates.size() > 1 && pPoint != null
+	 */
+	protected Node selectNode(Diagram pDiagram, List<Node> pCandidates, Point pPoint)
+	{
+		assert pDiagram != null && pCandidates != null && pCandidates.size() > 1 && pPoint != null;
+		Node root = rootOf(pCandidates.get(pCandidates.size() - 1));
+		int first = 0;
+		while( rootOf(pCandidates.get(first)) != root )
+		{
+			first++;
+		}
+		// In traversal order, the descendants of a node follow it, and are preferred over it.
+		Node result = pCandidates.get(first);
+		for( Node candidate : pCandidates.subList(first + 1, pCandidates.size()) )
+		{
+			if( !isDescendant(candidate, result) )
+			{
+				break;
+			}
+			result = candidate;
+		}
+		return result;
+	}
+	
+	private static Node rootOf(Node pNode)
+	{
+		Node node = pNode;
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+		}
+		return node;
+	}
+	
+	private static boolean isDescendant(Node pNode, Node pAncestor)
+	{
+		Node node = pNode;
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			if( node == pAncestor )
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
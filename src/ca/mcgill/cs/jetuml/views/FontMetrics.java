@@ -53,6 +53,7 @@ public class FontMetrics
 	public static final int DEFAULT_FONT_SIZE = 12;
 	private static final String BLANK = "";
 	private Text aTextNode;
+	private final double aLeading;
 
 	/**
 	 * Creates a new FontMetrics object.
@@ -65,6 +66,8 @@ public class FontMetrics
 		
 		aTextNode = new Text();
 		aTextNode.setFont(pFont);
+		aTextNode.setText(BLANK);
+		aLeading = aTextNode.getLayoutBounds().getMaxY();
 	}
 
 	/**
@@ -78,8 +81,6 @@ public class FontMetrics
 		
 		aTextNode.setText(pString);
 		Bounds bounds = aTextNode.getLayoutBounds();
-		aTextNode.setText(BLANK);
-		double leading = aTextNode.getLayoutBounds().getMaxY();
-		return new Dimension((int) Math.round(bounds.getWidth()), (int) Math.round(bounds.getHeight() - leading));
+		return new Dimension((int) Math.round(bounds.getWidth()), (int) Math.round(bounds.getHeight() - aLeading));
 	}
 } 
\ No newline at end of file
@@ -25,8 +25,12 @@ import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Point;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
+import javafx.scene.paint.ImagePattern;
+import javafx.scene.transform.Affine;
 
 /**
  * A grid to which points and rectangles can be "snapped". The
@@ -36,31 +40,143 @@ public final class Grid
 {
 	private static final Color GRID_COLOR = Color.rgb(220, 220, 220);
 	private static final double GRID_SIZE = 10;
+	/* The maximum number of grid cells along each side of a tile. Tiles span 
+	 * several cells when needed for their size in pixels to be a whole number. */
+	private static final int MAX_TILE_CELLS = 64;
+	private static final double EPSILON = 1e-6;
 	
 	private Grid() {}
 	
 	/**
-     * Draws this grid inside a rectangle.
+     * Draws this grid inside a rectangle. The grid lines are at the multiples
+     * of the grid size. The grid is drawn by filling pBounds with a pre-rendered 
+     * tile. The tile is not cached here: callers keep the tile returned by this 
+     * method and pass it to the next call, and it is only rendered again if the 
+     * scale of the graphics context or the line width changed.
+     * 
      * @param pGraphics the graphics context
      * @param pBounds the bounding rectangle
+     * @param pTile The tile returned by the previous call, or null if there is none.
+     * @return The tile used to draw the grid.
      */
-	public static void draw(GraphicsContext pGraphics, Rectangle pBounds)
+	public static Tile draw(GraphicsContext pGraphics, Rectangle pBounds, Tile pTile)
 	{
-		Paint oldStroke = pGraphics.getStroke();
-		pGraphics.setStroke(GRID_COLOR);
-		int x1 = pBounds.getX();
-		int y1 = pBounds.getY();
-		int x2 = pBounds.getMaxX();
-		int y2 = pBounds.getMaxY();
-		for(int x = x1; x < x2; x += GRID_SIZE)
+		Affine transform = pGraphics.getTransform();
+		double scale = transform.getMxx();
+		Tile tile = tile(pTile, scale, pGraphics.getLineWidth());
+		double tileSize = tile.aCells * GRID_SIZE * scale;
+		pGraphics.save();
+		// The tile is drawn in device pixels so that it is not resampled
+		pGraphics.setTransform(1, 0, 0, 1, 0, 0);
+		pGraphics.setFill(new ImagePattern(tile.aImage, transform.getTx(), transform.getTy(), tileSize, tileSize, false));
+		pGraphics.fillRect(pBounds.getX() * scale + transform.getTx(), pBounds.getY() * scale + transform.getTy(), 
+				pBounds.getWidth() * scale, pBounds.getHeight() * scale);
+		pGraphics.restore();
+		return tile;
+	}
+	
+	/*
+	 * Returns pTile if it was rendered for pScale and pLineWidth, 
+	 * and a new tile otherwise.
+	 */
+	static Tile tile(Tile pTile, double pScale, double pLineWidth)
+	{
+		if( pTile == null || pTile.aScale != pScale || pTile.aLineWidth != pLineWidth )
+		{
+			return new Tile(pScale, pLineWidth);
+		}
+		return pTile;
+	}
+	
+	/**
+	 * A square image showing the grid lines of one or more cells at a given 
+	 * scale. The grid lines are rendered as in ToolGraphics.strokeSharpLine, 
+	 * with the opacity of each pixel proportional to the fraction of the pixel
+	 * covered by a line. Tiles are immutable.
+	 */
+	public static final class Tile
+	{
+		private final double aScale;
+		private final double aLineWidth;
+		private final int aCells;
+		private final Image aImage;
+		
+		Tile(double pScale, double pLineWidth)
+		{
+			aScale = pScale;
+			aLineWidth = pLineWidth;
+			aCells = cellsPerTile(GRID_SIZE * pScale);
+			int size = Math.max(1, (int) Math.round(aCells * GRID_SIZE * pScale));
+			double[] coverage = new double[size];
+			double halfWidth = pLineWidth * pScale / 2;
+			for( int i = 0; i < aCells; i++ )
+			{
+				double center = (i * GRID_SIZE + 0.5) * pScale;
+				addCoverage(coverage, center - halfWidth, center + halfWidth);
+			}
+			WritableImage image = new WritableImage(size, size);
+			PixelWriter writer = image.getPixelWriter();
+			int rgb = (int) Math.round(GRID_COLOR.getRed() * 255) << 16 | 
+					(int) Math.round(GRID_COLOR.getGreen() * 255) << 8 | (int) Math.round(GRID_COLOR.getBlue() * 255);
+			for( int y = 0; y < size; y++ )
+			{
+				for( int x = 0; x < size; x++ )
+				{
+					double alpha = 1 - (1 - coverage[x]) * (1 - coverage[y]);
+					writer.setArgb(x, y, (int) Math.round(alpha * 255) << 24 | rgb);
+				}
+			}
+			aImage = image;
+		}
+		
+		int getCells()
 		{
-			ToolGraphics.strokeSharpLine(pGraphics, x, y1, x, y2);
+			return aCells;
 		}
-		for(int y = y1; y < y2; y += GRID_SIZE)
+		
+		Image getImage()
+		{
+			return aImage;
+		}
+		
+		/*
+		 * The smallest number of cells whose total size in pixels is a whole number,
+		 * or the number of cells that comes closest if there is none.
+		 */
+		private static int cellsPerTile(double pCellSize)
+		{
+			int best = 1;
+			double bestError = 1;
+			for( int cells = 1; cells <= MAX_TILE_CELLS; cells++ )
+			{
+				double size = cells * pCellSize;
+				double error = Math.abs(size - Math.round(size));
+				if( error < EPSILON )
+				{
+					return cells;
+				}
+				if( error < bestError )
+				{
+					best = cells;
+					bestError = error;
+				}
+			}
+			return best;
+		}
+		
+		/*
+		 * Adds the fraction of each pixel covered by the interval [pStart, pEnd], wrapping 
+		 * around the edges of the tile.
+		 */
+		private static void addCoverage(double[] pCoverage, double pStart, double pEnd)
 		{
-			ToolGraphics.strokeSharpLine(pGraphics, x1, y, x2, y);
+			for( int pixel = (int) Math.floor(pStart); pixel < pEnd; pixel++ )
+			{
+				double overlap = Math.min(pEnd, pixel + 1) - Math.max(pStart, pixel);
+				int index = Math.floorMod(pixel, pCoverage.length);
+				pCoverage[index] = Math.min(1, pCoverage[index] + overlap);
+			}
 		}
-		pGraphics.setStroke(oldStroke);
 	}
 
 	
@@ -20,6 +20,10 @@
  *******************************************************************************/
 package ca.mcgill.cs.jetuml.views;
 
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.Writer;
+
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramType;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
@@ -37,6 +41,8 @@ public final class ImageCreator
 {
 	private static final double LINE_WIDTH = 0.6;
 	private static final int DIAGRAM_PADDING = 4;
+	private static final int TILE_SIZE = 512;
+	private static final int SVG_ELEMENTS_PER_PART = 100;
 	
 	private ImageCreator() {}
 	
@@ -57,10 +63,71 @@ public final class ImageCreator
 		context.setLineWidth(LINE_WIDTH);
 		context.setFill(Color.WHITE);
 		context.translate(-bounds.getX()+DIAGRAM_PADDING, -bounds.getY()+DIAGRAM_PADDING);
-		viewer.draw(pDiagram, context);
+		viewer.draw(pDiagram, new CanvasRenderingTarget(context));
 		WritableImage image = new WritableImage(bounds.getWidth() + DIAGRAM_PADDING * 2, 
 				bounds.getHeight() + DIAGRAM_PADDING *2);
 		canvas.snapshot(null, image);
 		return image;
 	}
+	
+	/**
+	 * Creates an image of an entire diagram, with a white border around, 
+	 * that is drawn in tiles as its pixels are requested. The memory needed 
+	 * to write this image row by row is bounded by the width of the diagram
+	 * rather than by its area, and the size of the diagram is not limited
+	 * by the maximum size of a texture. The image must be created on the 
+	 * JavaFX application thread, but its pixels can be requested from any thread.
+	 * 
+	 * @param pDiagram The diagram to create an image of.
+	 * @return An image of the diagram, to be written with ImageIO.
+	 * @pre pDiagram != null.
+	 */
+	public static RenderedImage createTiledImage(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return new DiagramImage(pDiagram, paddedBounds(pDiagram), TILE_SIZE);
+	}
+	
+	/**
+	 * Writes an SVG document that shows an entire diagram, with a white border around.
+	 * The elements of the diagram are written as they are drawn, so the 
+	 * memory needed does not depend on the size of the diagram.
+	 * 
+	 * @param pDiagram The diagram to write.
+	 * @param pWriter The writer to which to write the document. It is not closed.
+	 * @throws IOException If the document cannot be written.
+	 * @pre pDiagram != null && pWriter != null
+	 */
+	public static void writeSvg(Diagram pDiagram, Writer pWriter) throws IOException
+	{
+		assert pDiagram != null && pWriter != null;
+		SvgDocument document = createSvgDocument(pDiagram);
+		while( !document.isComplete() )
+		{
+			pWriter.write(document.next(SVG_ELEMENTS_PER_PART));
+		}
+		pWriter.flush();
+	}
+	
+	/**
+	 * Creates an SVG document that shows an entire diagram, with a white border 
+	 * around, and that is produced in parts. Must be called on the JavaFX 
+	 * application thread.
+	 * 
+	 * @param pDiagram The diagram to show.
+	 * @return A document of which no part has been obtained.
+	 * @pre pDiagram != null
+	 */
+	public static SvgDocument createSvgDocument(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return new SvgDocument(pDiagram, paddedBounds(pDiagram), LINE_WIDTH);
+	}
+	
+	private static Rectangle paddedBounds(Diagram pDiagram)
+	{
+		Rectangle bounds = DiagramType.viewerFor(pDiagram).getBounds(pDiagram);
+		return new Rectangle(bounds.getX() - DIAGRAM_PADDING, bounds.getY() - DIAGRAM_PADDING, 
+				bounds.getWidth() + DIAGRAM_PADDING * 2, bounds.getHeight() + DIAGRAM_PADDING * 2);
+	}
 }
\ No newline at end of file
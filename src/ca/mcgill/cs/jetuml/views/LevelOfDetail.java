@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+
+/**
+ * How much of a diagram to draw. When a diagram is zoomed out, text
+ * becomes too small to read and decorations too small to see, so 
+ * drawing them only costs time. The level of detail is selected from 
+ * the zoom factor, see forZoom, and the thresholds are the user 
+ * preferences namesOnlyZoom and outlineZoom, in percent.
+ * 
+ * The viewers draw with the current level of detail, which is FULL
+ * unless a client sets it with setCurrent for the duration of a drawing 
+ * operation. Only the drawing of elements is affected: their bounds 
+ * do not depend on the level of detail.
+ */
+public enum LevelOfDetail
+{
+	FULL, NAMES_ONLY, OUTLINE;
+	
+	private static LevelOfDetail aCurrent = FULL;
+	
+	/**
+	 * @param pZoom The zoom factor with which a diagram is drawn.
+	 * @return The level of detail that should be used to draw a diagram at pZoom.
+	 * @pre pZoom > 0
+	 */
+	public static LevelOfDetail forZoom(double pZoom)
+	{
+		assert pZoom > 0;
+		double percent = pZoom * 100;
+		if( percent < UserPreferences.instance().getInteger(IntegerPreference.outlineZoom) )
+		{
+			return OUTLINE;
+		}
+		if( percent < UserPreferences.instance().getInteger(IntegerPreference.namesOnlyZoom) )
+		{
+			return NAMES_ONLY;
+		}
+		return FULL;
+	}
+	
+	/**
+	 * @return The level of detail with which the viewers currently draw.
+	 */
+	public static LevelOfDetail current()
+	{
+		return aCurrent;
+	}
+	
+	/**
+	 * Sets the level of detail with which the viewers draw. Clients that
+	 * change the level of detail should set it back to FULL once they are done.
+	 * 
+	 * @param pLevelOfDetail The new level of detail.
+	 * @pre pLevelOfDetail != null
+	 */
+	public static void setCurrent(LevelOfDetail pLevelOfDetail)
+	{
+		assert pLevelOfDetail != null;
+		aCurrent = pLevelOfDetail;
+	}
+	
+	/**
+	 * @return True if the text that describes the content of nodes, such 
+	 *     as attributes and methods, and the labels of edges are drawn.
+	 */
+	public boolean showsText()
+	{
+		return this == FULL;
+	}
+	
+	/**
+	 * @return True if the names of nodes are drawn.
+	 */
+	public boolean showsNames()
+	{
+		return this != OUTLINE;
+	}
+	
+	/**
+	 * @return True if the arrow heads of edges are drawn.
+	 */
+	public boolean showsArrowHeads()
+	{
+		return this != OUTLINE;
+	}
+	
+	/**
+	 * @return True if drop shadows are drawn.
+	 */
+	public boolean showsShadows()
+	{
+		return this == FULL;
+	}
+}
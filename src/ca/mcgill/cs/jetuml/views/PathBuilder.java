@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import ca.mcgill.cs.jetuml.geom.PathConsumer;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.QuadCurveTo;
+
+/**
+ * Builds a JavaFX Path from the elements it receives.
+ */
+public final class PathBuilder implements PathConsumer
+{
+	private final Path aPath = new Path();
+	
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		aPath.getElements().add(new MoveTo(pX, pY));
+	}
+
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		aPath.getElements().add(new LineTo(pX, pY));
+	}
+
+	@Override
+	public void quadTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		aPath.getElements().add(new QuadCurveTo(pControlX, pControlY, pX, pY));
+	}
+	
+	/**
+	 * @return The path built from the elements received so far.
+	 */
+	public Path getPath()
+	{
+		return aPath;
+	}
+}
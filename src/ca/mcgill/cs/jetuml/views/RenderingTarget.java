@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import javafx.geometry.VPos;
+import javafx.scene.effect.Effect;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * A surface on which diagrams are drawn. The operations are the subset
+ * of the operations of a JavaFX GraphicsContext that the viewers use, 
+ * with the same meaning, so that diagrams can be drawn either on a canvas, 
+ * see CanvasRenderingTarget, or to another format, see SvgRenderingTarget.
+ * 
+ * As with a GraphicsContext, the attributes such as the fill and stroke
+ * colors apply to all the shapes drawn until they are changed again.
+ * The only transformations supported are translations.
+ */
+public interface RenderingTarget
+{
+	/**
+	 * @return The current fill paint.
+	 */
+	Paint getFill();
+	
+	/**
+	 * @param pFill The paint with which to fill shapes.
+	 */
+	void setFill(Paint pFill);
+	
+	/**
+	 * @return The current stroke paint.
+	 */
+	Paint getStroke();
+	
+	/**
+	 * @param pStroke The paint with which to stroke shapes.
+	 */
+	void setStroke(Paint pStroke);
+	
+	/**
+	 * @return The current line width.
+	 */
+	double getLineWidth();
+	
+	/**
+	 * @param pWidth The width of the lines.
+	 */
+	void setLineWidth(double pWidth);
+	
+	/**
+	 * @return The current dash pattern, which may be null.
+	 */
+	double[] getLineDashes();
+	
+	/**
+	 * @param pDashes The lengths of the dashes and gaps, or an empty array 
+	 *     or null for solid lines.
+	 */
+	void setLineDashes(double... pDashes);
+	
+	/**
+	 * @return The current font.
+	 */
+	Font getFont();
+	
+	/**
+	 * @param pFont The font with which to draw text.
+	 */
+	void setFont(Font pFont);
+	
+	/**
+	 * @return The current horizontal text alignment.
+	 */
+	TextAlignment getTextAlign();
+	
+	/**
+	 * @param pAlignment The horizontal alignment of text relative to its position.
+	 */
+	void setTextAlign(TextAlignment pAlignment);
+	
+	/**
+	 * @return The current vertical text alignment.
+	 */
+	VPos getTextBaseline();
+	
+	/**
+	 * @param pBaseline The vertical alignment of text relative to its position.
+	 */
+	void setTextBaseline(VPos pBaseline);
+	
+	/**
+	 * @param pEffect The effect to apply to the shapes drawn, or null for none.
+	 */
+	void setEffect(Effect pEffect);
+	
+	/**
+	 * Moves the origin of the coordinate system.
+	 * 
+	 * @param pX The distance to move the origin along the x-axis.
+	 * @param pY The distance to move the origin along the y-axis.
+	 */
+	void translate(double pX, double pY);
+	
+	/**
+	 * Fills a rectangle.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void fillRect(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes a rectangle.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void strokeRect(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Fills a rectangle with rounded corners.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 * @param pArcWidth The horizontal diameter of the corners.
+	 * @param pArcHeight The vertical diameter of the corners.
+	 */
+	void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight);
+	
+	/**
+	 * Strokes a rectangle with rounded corners.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner.
+	 * @param pY The y-coordinate of the top-left corner.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 * @param pArcWidth The horizontal diameter of the corners.
+	 * @param pArcHeight The vertical diameter of the corners.
+	 */
+	void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight);
+	
+	/**
+	 * Fills an oval.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void fillOval(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes an oval.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width.
+	 * @param pHeight The height.
+	 */
+	void strokeOval(double pX, double pY, double pWidth, double pHeight);
+	
+	/**
+	 * Strokes a line.
+	 * 
+	 * @param pX1 The x-coordinate of the first point.
+	 * @param pY1 The y-coordinate of the first point.
+	 * @param pX2 The x-coordinate of the second point.
+	 * @param pY2 The y-coordinate of the second point.
+	 */
+	void strokeLine(double pX1, double pY1, double pX2, double pY2);
+	
+	/**
+	 * Strokes an arc of an oval.
+	 * 
+	 * @param pX The x-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pY The y-coordinate of the top-left corner of the bounds of the oval.
+	 * @param pWidth The width of the oval.
+	 * @param pHeight The height of the oval.
+	 * @param pStartAngle The start of the arc, in degrees.
+	 * @param pArcExtent The extent of the arc, in degrees.
+	 * @param pClosure How the arc is closed.
+	 */
+	void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent, ArcType pClosure);
+	
+	/**
+	 * Fills text with the current fill paint, font and alignment.
+	 * 
+	 * @param pText The text to draw.
+	 * @param pX The x-coordinate of the text.
+	 * @param pY The y-coordinate of the text.
+	 */
+	void fillText(String pText, double pX, double pY);
+	
+	/**
+	 * Starts a new path, discarding the current one.
+	 */
+	void beginPath();
+	
+	/**
+	 * Starts a new sub-path of the current path at a point.
+	 * 
+	 * @param pX The x-coordinate of the point.
+	 * @param pY The y-coordinate of the point.
+	 */
+	void moveTo(double pX, double pY);
+	
+	/**
+	 * Adds a straight segment to the current path.
+	 * 
+	 * @param pX The x-coordinate of the end of the segment.
+	 * @param pY The y-coordinate of the end of the segment.
+	 */
+	void lineTo(double pX, double pY);
+	
+	/**
+	 * Adds a quadratic curve to the current path.
+	 * 
+	 * @param pControlX The x-coordinate of the control point.
+	 * @param pControlY The y-coordinate of the control point.
+	 * @param pX The x-coordinate of the end of the curve.
+	 * @param pY The y-coordinate of the end of the curve.
+	 */
+	void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY);
+	
+	/**
+	 * Fills the current path.
+	 */
+	void fill();
+	
+	/**
+	 * Strokes the current path.
+	 */
+	void stroke();
+}
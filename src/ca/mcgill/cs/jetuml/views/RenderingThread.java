@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javafx.application.Platform;
+
+/**
+ * Runs code that draws diagrams on the JavaFX application thread, 
+ * from any thread. Diagrams must always be drawn on this thread, both
+ * because canvases can only be snapshot there and because the 
+ * viewers share caches that are not synchronized.
+ */
+public final class RenderingThread
+{
+	private RenderingThread() {}
+	
+	/**
+	 * Runs pTask on the JavaFX application thread and waits for its result.
+	 * If this method is called on the JavaFX application thread, pTask
+	 * is run immediately.
+	 * 
+	 * @param pTask The task to run.
+	 * @param <T> The type of the result of the task.
+	 * @return The result of pTask.
+	 * @throws ExecutionException If pTask throws an exception, which is the cause
+	 *     of the ExecutionException.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting.
+	 * @pre pTask != null
+	 */
+	public static <T> T call(Callable<T> pTask) throws ExecutionException, InterruptedException
+	{
+		assert pTask != null;
+		return submit(pTask).get();
+	}
+	
+	/**
+	 * Schedules pTask to run on the JavaFX application thread without waiting
+	 * for it. If this method is called on the JavaFX application thread, pTask
+	 * is run immediately.
+	 * 
+	 * @param pTask The task to run.
+	 * @param <T> The type of the result of the task.
+	 * @return The future result of pTask.
+	 * @pre pTask != null
+	 */
+	public static <T> Future<T> submit(Callable<T> pTask)
+	{
+		assert pTask != null;
+		FutureTask<T> task = new FutureTask<>(pTask);
+		if( Platform.isFxApplicationThread() )
+		{
+			task.run();
+		}
+		else
+		{
+			Platform.runLater(task);
+		}
+		return task;
+	}
+}
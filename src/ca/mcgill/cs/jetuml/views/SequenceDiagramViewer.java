@@ -21,6 +21,8 @@
 
 package ca.mcgill.cs.jetuml.views;
 
+import java.util.List;
+
 import ca.mcgill.cs.jetuml.diagram.ControlFlow;
 import ca.mcgill.cs.jetuml.diagram.Diagram;
 import ca.mcgill.cs.jetuml.diagram.DiagramElement;
@@ -34,6 +36,25 @@ import ca.mcgill.cs.jetuml.geom.Rectangle;
  */
 public class SequenceDiagramViewer extends DiagramViewer
 {
+	/*
+	 * The calls of a sequence diagram are searched in the order of the 
+	 * control flow rather than in the order of the children of each node.
+	 */
+	@Override
+	protected Node selectNode(Diagram pDiagram, List<Node> pCandidates, Point pPoint)
+	{
+		Node result = null;
+		for(Node node : pDiagram.rootNodes())
+		{
+			Node temp = deepFindNode(pDiagram, node, pPoint);
+			if (temp != null)
+			{
+				result = temp;
+			}
+		}
+		return result;
+	}
+	
 	@Override
 	protected Node deepFindNode(Diagram pDiagram, Node pNode, Point pPoint )
 	{		
@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramElement;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+/**
+ * Indexes the elements of a diagram by their location, so that the elements 
+ * near a point or in an area can be found without testing every element 
+ * of the diagram.
+ * 
+ * The index divides the plane in square cells and records, for each cell, the 
+ * elements whose area overlaps the cell. The area of an element is its bounds, 
+ * enlarged by a margin that covers the tolerance of the contains methods of 
+ * the viewers. Because the contains method of implicit parameter nodes only
+ * considers the horizontal position of the point, these nodes are instead 
+ * indexed as columns of infinite height.
+ * 
+ * Queries return candidates: all the elements whose area contains the point or 
+ * intersects the rectangle, in the order in which the diagram is traversed (nodes 
+ * before their children, edges in diagram order). Clients are responsible for 
+ * applying the exact test to the candidates.
+ * 
+ * The index is attached to its diagram, and is refreshed when the revision of the 
+ * diagram or the font size changes. A refresh computes the bounds of every element 
+ * of the diagram again, because the bounds of an element can depend on other elements 
+ * (the bounds of an edge on its end points, of a call node on the calls that precede 
+ * it), so the revision of an element does not tell whether its bounds changed. Only 
+ * the elements whose area changed are then moved between cells.
+ */
+public final class SpatialIndex
+{
+	private static final int CELL_SIZE = 128;
+	private static final int MARGIN = 10;
+	
+	private final Diagram aDiagram;
+	private final Cells<Node> aNodes = new Cells<>();
+	private final Cells<Edge> aEdges = new Cells<>();
+	private final List<Node> aColumns = new ArrayList<>();
+	
+	private SpatialIndex(Diagram pDiagram)
+	{
+		aDiagram = pDiagram;
+	}
+	
+	/**
+	 * @param pDiagram The diagram whose index is requested.
+	 * @return The index for pDiagram.
+	 * @pre pDiagram != null
+	 */
+	public static SpatialIndex forDiagram(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		SpatialIndex index = pDiagram.getAttachment(SpatialIndex.class).orElse(null);
+		if( index == null )
+		{
+			index = new SpatialIndex(pDiagram);
+			pDiagram.attach(SpatialIndex.class, index);
+		}
+		return index;
+	}
+	
+	/**
+	 * @param pPoint The point to query.
+	 * @return The nodes that could contain pPoint, in traversal order.
+	 * @pre pPoint != null
+	 */
+	public List<Node> nodesAt(Point pPoint)
+	{
+		assert pPoint != null;
+		return nodesIntersecting(new Rectangle(pPoint.getX(), pPoint.getY(), 0, 0));
+	}
+	
+	/**
+	 * @param pPoint The point to query.
+	 * @return The edges that could contain pPoint, in diagram order.
+	 * @pre pPoint != null
+	 */
+	public List<Edge> edgesAt(Point pPoint)
+	{
+		assert pPoint != null;
+		return edgesIntersecting(new Rectangle(pPoint.getX(), pPoint.getY(), 0, 0));
+	}
+	
+	/**
+	 * @param pRectangle The area to query.
+	 * @return The nodes whose bounds could intersect pRectangle, in traversal order.
+	 * @pre pRectangle != null
+	 */
+	public List<Node> nodesIntersecting(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		if( aNodes.isStale(aDiagram) )
+		{
+			aColumns.clear();
+			aNodes.startRefresh(aDiagram);
+			aDiagram.rootNodes().forEach(this::indexNode);
+			aNodes.endRefresh();
+		}
+		List<Node> result = aNodes.query(pRectangle);
+		for( Node column : aColumns )
+		{
+			Rectangle area = aNodes.aAreas.get(column);
+			if( area.getX() <= pRectangle.getMaxX() && pRectangle.getX() <= area.getMaxX() )
+			{
+				result.add(column);
+			}
+		}
+		aNodes.sort(result);
+		return result;
+	}
+	
+	/**
+	 * @param pRectangle The area to query.
+	 * @return The edges whose bounds could intersect pRectangle, in diagram order.
+	 * @pre pRectangle != null
+	 */
+	public List<Edge> edgesIntersecting(Rectangle pRectangle)
+	{
+		assert pRectangle != null;
+		if( aEdges.isStale(aDiagram) )
+		{
+			aEdges.startRefresh(aDiagram);
+			for( Edge edge : aDiagram.edges() )
+			{
+				aEdges.update(edge, areaOf(EdgeViewerRegistry.getBounds(edge)));
+			}
+			aEdges.endRefresh();
+		}
+		List<Edge> result = aEdges.query(pRectangle);
+		aEdges.sort(result);
+		return result;
+	}
+	
+	private void indexNode(Node pNode)
+	{
+		Rectangle area = areaOf(NodeViewerRegistry.getBounds(pNode));
+		if( pNode instanceof ImplicitParameterNode )
+		{
+			aNodes.updateWithoutCells(pNode, area);
+			aColumns.add(pNode);
+		}
+		else
+		{
+			aNodes.update(pNode, area);
+		}
+		pNode.getChildren().forEach(this::indexNode);
+	}
+	
+	private static Rectangle areaOf(Rectangle pBounds)
+	{
+		return new Rectangle(pBounds.getX() - MARGIN, pBounds.getY() - MARGIN, 
+				pBounds.getWidth() + 2 * MARGIN, pBounds.getHeight() + 2 * MARGIN);
+	}
+	
+	private static int cell(int pCoordinate)
+	{
+		return Math.floorDiv(pCoordinate, CELL_SIZE);
+	}
+	
+	private static long key(int pX, int pY)
+	{
+		return ((long) pX << Integer.SIZE) | (pY & 0xffffffffL);
+	}
+	
+	/*
+	 * The cells of one kind of element, along with the area and the 
+	 * position in traversal order of each element, for one revision
+	 * of the diagram.
+	 */
+	private static final class Cells<T extends DiagramElement>
+	{
+		private long aRevision = -1;
+		private int aFontSize = -1;
+		private final Map<Long, List<T>> aCells = new HashMap<>();
+		private final Map<T, Rectangle> aAreas = new IdentityHashMap<>();
+		private final Set<T> aInCells = Collections.newSetFromMap(new IdentityHashMap<>());
+		private final Map<T, Integer> aOrder = new IdentityHashMap<>();
+		
+		boolean isStale(Diagram pDiagram)
+		{
+			return aRevision != pDiagram.getRevision() || 
+					aFontSize != UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+		}
+		
+		void startRefresh(Diagram pDiagram)
+		{
+			aRevision = pDiagram.getRevision();
+			aFontSize = UserPreferences.instance().getInteger(IntegerPreference.fontSize);
+			aOrder.clear();
+		}
+		
+		/*
+		 * Removes the elements that were not updated since the refresh started.
+		 */
+		void endRefresh()
+		{
+			List<T> removed = new ArrayList<>();
+			for( T element : aAreas.keySet() )
+			{
+				if( !aOrder.containsKey(element) )
+				{
+					removed.add(element);
+				}
+			}
+			for( T element : removed )
+			{
+				removeFromCells(element);
+				aAreas.remove(element);
+			}
+		}
+		
+		/*
+		 * Records pElement as the next element in traversal order and moves it to 
+		 * the cells overlapped by pArea, if its area changed.
+		 */
+		void update(T pElement, Rectangle pArea)
+		{
+			aOrder.put(pElement, aOrder.size());
+			if( aInCells.contains(pElement) && pArea.equals(aAreas.get(pElement)) )
+			{
+				return;
+			}
+			removeFromCells(pElement);
+			aAreas.put(pElement, pArea);
+			aInCells.add(pElement);
+			for( int x = cell(pArea.getX()); x <= cell(pArea.getMaxX()); x++ )
+			{
+				for( int y = cell(pArea.getY()); y <= cell(pArea.getMaxY()); y++ )
+				{
+					aCells.computeIfAbsent(key(x, y), key -> new ArrayList<>()).add(pElement);
+				}
+			}
+		}
+		
+		/*
+		 * Records pElement as the next element in traversal order, without adding 
+		 * it to any cell.
+		 */
+		void updateWithoutCells(T pElement, Rectangle pArea)
+		{
+			aOrder.put(pElement, aOrder.size());
+			removeFromCells(pElement);
+			aAreas.put(pElement, pArea);
+		}
+		
+		private void removeFromCells(T pElement)
+		{
+			if( !aInCells.remove(pElement) )
+			{
+				return;
+			}
+			Rectangle area = aAreas.get(pElement);
+			for( int x = cell(area.getX()); x <= cell(area.getMaxX()); x++ )
+			{
+				for( int y = cell(area.getY()); y <= cell(area.getMaxY()); y++ )
+				{
+					List<T> elements = aCells.get(key(x, y));
+					elements.remove(pElement);
+					if( elements.isEmpty() )
+					{
+						aCells.remove(key(x, y));
+					}
+				}
+			}
+		}
+		
+		List<T> query(Rectangle pRectangle)
+		{
+			Set<T> found = Collections.newSetFromMap(new IdentityHashMap<>());
+			List<T> result = new ArrayList<>();
+			for( int x = cell(pRectangle.getX()); x <= cell(pRectangle.getMaxX()); x++ )
+			{
+				for( int y = cell(pRectangle.getY()); y <= cell(pRectangle.getMaxY()); y++ )
+				{
+					for( T element : aCells.getOrDefault(key(x, y), Collections.emptyList()) )
+					{
+						if( aAreas.get(element).intersects(pRectangle) && found.add(element) )
+						{
+							result.add(element);
+						}
+					}
+				}
+			}
+			return result;
+		}
+		
+		void sort(List<T> pElements)
+		{
+			pElements.sort(Comparator.comparing(aOrder::get));
+		}
+	}
+}
@@ -33,7 +33,6 @@ import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreferenceChangeHa
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Rectangle;
 import javafx.geometry.VPos;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
@@ -223,7 +222,7 @@ public final class StringViewer
      * @param pGraphics the graphics context
      * @param pRectangle the rectangle into which to place the string
 	 */
-	public void draw(String pString, GraphicsContext pGraphics, Rectangle pRectangle)
+	public void draw(String pString, RenderingTarget pGraphics, Rectangle pRectangle)
 	{
 		final VPos oldVPos = pGraphics.getTextBaseline();
 		final TextAlignment oldAlign = pGraphics.getTextAlign();
@@ -274,6 +273,14 @@ public final class StringViewer
 		pGraphics.setTextAlign(oldAlign);
 	}
 	
+	/*
+	 * @return The cache of string dimensions shared by all string viewers.
+	 */
+	static TextDimensionCache dimensionCache()
+	{
+		return CANVAS_FONT.aDimensions;
+	}
+	
 	/**
 	 * Responsible for performing more rudimentary operations involving font,
 	 * as well as being synchronized with the user's current font.
@@ -285,6 +292,7 @@ public final class StringViewer
 		private Font aFontBold;
 		private FontMetrics aFontMetrics;
 		private FontMetrics aFontBoldMetrics;
+		private final TextDimensionCache aDimensions = new TextDimensionCache(TextDimensionCache.DEFAULT_CAPACITY);
 
 		private CanvasFont()
 		{
@@ -317,7 +325,7 @@ public final class StringViewer
 		 */
 		public Dimension getDimension(String pString, boolean pBold)
 		{
-			return getFontMetrics(pBold).getDimension(pString);
+			return aDimensions.get(pString, pBold, fontSize(), () -> getFontMetrics(pBold).getDimension(pString));
 		}
 
 		/**
@@ -328,7 +336,7 @@ public final class StringViewer
 		 * @param pString The canvas on which to draw the string
 		 * @param pBold If the text should be bold
 		 */
-		public void drawString(GraphicsContext pGraphics, int pTextX, int pTextY, String pString, boolean pBold)
+		public void drawString(RenderingTarget pGraphics, int pTextX, int pTextY, String pString, boolean pBold)
 		{
 			ViewUtils.drawText(pGraphics, pTextX, pTextY, pString, getFont(pBold));
 		}
@@ -358,6 +366,7 @@ public final class StringViewer
 			aFontBold = Font.font(aFont.getFamily(), FontWeight.BOLD, aFont.getSize());
 			aFontMetrics = new FontMetrics(aFont);
 			aFontBoldMetrics = new FontMetrics(aFontBold);
+			aDimensions.clear();
 		}
 
 	}
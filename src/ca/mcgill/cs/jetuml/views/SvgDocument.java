@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.io.StringWriter;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import javafx.scene.paint.Color;
+
+/**
+ * An SVG document that shows a diagram and is produced a few elements 
+ * at a time, so that the text of the whole document is never held in 
+ * memory, and so that the thread that draws the diagram can do other 
+ * work between two parts of the document.
+ * 
+ * The document must be created and its parts obtained on the JavaFX 
+ * application thread, like any drawing of a diagram.
+ */
+public final class SvgDocument
+{
+	private final Diagram aDiagram;
+	private final DiagramViewer aViewer;
+	private final StringWriter aBuffer = new StringWriter();
+	private final SvgRenderingTarget aTarget;
+	private final int aSize;
+	private int aDrawn = 0;
+	private boolean aComplete = false;
+	
+	SvgDocument(Diagram pDiagram, Rectangle pArea, double pLineWidth)
+	{
+		aDiagram = pDiagram;
+		aViewer = DiagramType.viewerFor(pDiagram);
+		aTarget = new SvgRenderingTarget(aBuffer, pArea);
+		aTarget.setLineWidth(pLineWidth);
+		aTarget.setFill(Color.WHITE);
+		aSize = pDiagram.rootNodes().size() + pDiagram.edges().size();
+	}
+	
+	/**
+	 * @return The number of root nodes and edges to draw in the document.
+	 */
+	public int size()
+	{
+		return aSize;
+	}
+	
+	/**
+	 * @return The number of root nodes and edges drawn so far.
+	 */
+	public int drawn()
+	{
+		return aDrawn;
+	}
+	
+	/**
+	 * @return True if the whole document was obtained.
+	 */
+	public boolean isComplete()
+	{
+		return aComplete;
+	}
+	
+	/**
+	 * Draws the next pCount root nodes, with their descendants, or edges, 
+	 * and returns the corresponding part of the document. The first part
+	 * starts the document, and the part obtained once all the elements 
+	 * are drawn completes it.
+	 * 
+	 * @param pCount The maximum number of elements to draw.
+	 * @return The text of the next part of the document.
+	 * @pre pCount > 0 && !isComplete()
+	 */
+	public String next(int pCount)
+	{
+		assert pCount > 0 && !aComplete;
+		int end = Math.min(aSize, aDrawn + pCount);
+		aViewer.draw(aDiagram, aTarget, aDrawn, end);
+		aDrawn = end;
+		if( aDrawn == aSize )
+		{
+			aTarget.finish();
+			aComplete = true;
+		}
+		String text = aBuffer.toString();
+		aBuffer.getBuffer().setLength(0);
+		return text;
+	}
+}
@@ -0,0 +1,570 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import javafx.geometry.VPos;
+import javafx.scene.effect.Effect;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Writes what is drawn on it as an SVG document. Each shape is written
+ * as soon as it is drawn, so the document is never held in memory.
+ * The client must call finish once it is done drawing, which completes 
+ * the document. The writer is not closed.
+ * 
+ * Only colors are supported as paints, and any effect is rendered 
+ * as the drop shadow used by the viewers. Errors writing to the 
+ * writer are reported as UncheckedIOException.
+ */
+public final class SvgRenderingTarget implements RenderingTarget
+{
+	private static final String SHADOW_FILTER = "shadow";
+	private static final double DEGREES_180 = 180;
+	private static final double DEGREES_360 = 360;
+	private static final int PRECISION = 100; // Coordinates are written with two decimals
+	
+	private final Writer aWriter;
+	private final StringBuilder aPath = new StringBuilder();
+	private Paint aFill = Color.BLACK;
+	private Paint aStroke = Color.BLACK;
+	private double aLineWidth = 1;
+	private double[] aLineDashes = null;
+	private Font aFont = Font.getDefault();
+	private TextAlignment aTextAlign = TextAlignment.LEFT;
+	private VPos aTextBaseline = VPos.BASELINE;
+	private boolean aShadow = false;
+	private double aTranslateX = 0;
+	private double aTranslateY = 0;
+	private Font aMeasuredFont = null; // The font whose line height is aLineHeight
+	private double aLineHeight = 0;
+	
+	/**
+	 * Starts an SVG document that shows an area with a white background.
+	 * 
+	 * @param pWriter The writer to which to write the document.
+	 * @param pArea The area of the drawing to include in the document. Its
+	 *     top-left corner is the origin of the document.
+	 * @pre pWriter != null && pArea != null
+	 */
+	public SvgRenderingTarget(Writer pWriter, Rectangle pArea)
+	{
+		assert pWriter != null && pArea != null;
+		aWriter = pWriter;
+		write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + pArea.getWidth() + "\" height=\"" + pArea.getHeight() + 
+				"\" viewBox=\"" + pArea.getX() + " " + pArea.getY() + " " + pArea.getWidth() + " " + pArea.getHeight() + "\">\n");
+		write("<defs><filter id=\"" + SHADOW_FILTER + "\"><feDropShadow dx=\"3\" dy=\"3\" stdDeviation=\"1.5\" " + 
+				"flood-color=\"#d3d3d3\"/></filter></defs>\n");
+		write("<rect x=\"" + pArea.getX() + "\" y=\"" + pArea.getY() + "\" width=\"" + pArea.getWidth() + "\" height=\"" + 
+				pArea.getHeight() + "\" fill=\"#ffffff\"/>\n");
+	}
+	
+	/**
+	 * Completes the document and flushes the writer.
+	 */
+	public void finish()
+	{
+		write("</svg>\n");
+		try
+		{
+			aWriter.flush();
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	@Override
+	public Paint getFill()
+	{
+		return aFill;
+	}
+	
+	@Override
+	public void setFill(Paint pFill)
+	{
+		aFill = pFill;
+	}
+	
+	@Override
+	public Paint getStroke()
+	{
+		return aStroke;
+	}
+	
+	@Override
+	public void setStroke(Paint pStroke)
+	{
+		aStroke = pStroke;
+	}
+	
+	@Override
+	public double getLineWidth()
+	{
+		return aLineWidth;
+	}
+	
+	@Override
+	public void setLineWidth(double pWidth)
+	{
+		aLineWidth = pWidth;
+	}
+	
+	@Override
+	public double[] getLineDashes()
+	{
+		return aLineDashes;
+	}
+	
+	@Override
+	public void setLineDashes(double... pDashes)
+	{
+		aLineDashes = pDashes;
+	}
+	
+	@Override
+	public Font getFont()
+	{
+		return aFont;
+	}
+	
+	@Override
+	public void setFont(Font pFont)
+	{
+		aFont = pFont;
+	}
+	
+	@Override
+	public TextAlignment getTextAlign()
+	{
+		return aTextAlign;
+	}
+	
+	@Override
+	public void setTextAlign(TextAlignment pAlignment)
+	{
+		aTextAlign = pAlignment;
+	}
+	
+	@Override
+	public VPos getTextBaseline()
+	{
+		return aTextBaseline;
+	}
+	
+	@Override
+	public void setTextBaseline(VPos pBaseline)
+	{
+		aTextBaseline = pBaseline;
+	}
+	
+	@Override
+	public void setEffect(Effect pEffect)
+	{
+		aShadow = pEffect != null;
+	}
+	
+	@Override
+	public void translate(double pX, double pY)
+	{
+		aTranslateX += pX;
+		aTranslateY += pY;
+	}
+	
+	@Override
+	public void fillRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeRect(pX, pY, pWidth, pHeight, 0, 0, true);
+	}
+	
+	@Override
+	public void strokeRect(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeRect(pX, pY, pWidth, pHeight, 0, 0, false);
+	}
+	
+	@Override
+	public void fillRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		writeRect(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight, true);
+	}
+	
+	@Override
+	public void strokeRoundRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight)
+	{
+		writeRect(pX, pY, pWidth, pHeight, pArcWidth, pArcHeight, false);
+	}
+	
+	private void writeRect(double pX, double pY, double pWidth, double pHeight, double pArcWidth, double pArcHeight, boolean pFill)
+	{
+		StringBuilder element = new StringBuilder("<rect");
+		attribute(element, "x", x(pX));
+		attribute(element, "y", y(pY));
+		attribute(element, "width", pWidth);
+		attribute(element, "height", pHeight);
+		if( pArcWidth > 0 && pArcHeight > 0 )
+		{
+			attribute(element, "rx", pArcWidth / 2);
+			attribute(element, "ry", pArcHeight / 2);
+		}
+		writeShape(element, pFill);
+	}
+	
+	@Override
+	public void fillOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeOval(pX, pY, pWidth, pHeight, true);
+	}
+	
+	@Override
+	public void strokeOval(double pX, double pY, double pWidth, double pHeight)
+	{
+		writeOval(pX, pY, pWidth, pHeight, false);
+	}
+	
+	private void writeOval(double pX, double pY, double pWidth, double pHeight, boolean pFill)
+	{
+		StringBuilder element = new StringBuilder("<ellipse");
+		attribute(element, "cx", x(pX + pWidth / 2));
+		attribute(element, "cy", y(pY + pHeight / 2));
+		attribute(element, "rx", pWidth / 2);
+		attribute(element, "ry", pHeight / 2);
+		writeShape(element, pFill);
+	}
+	
+	@Override
+	public void strokeLine(double pX1, double pY1, double pX2, double pY2)
+	{
+		StringBuilder element = new StringBuilder("<line");
+		attribute(element, "x1", x(pX1));
+		attribute(element, "y1", y(pY1));
+		attribute(element, "x2", x(pX2));
+		attribute(element, "y2", y(pY2));
+		writeShape(element, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * As for a GraphicsContext, the angles are measured counter-clockwise
+	 * from the positive x-axis.
+	 */
+	@Override
+	public void strokeArc(double pX, double pY, double pWidth, double pHeight, double pStartAngle, double pArcExtent, ArcType pClosure)
+	{
+		double radiusX = pWidth / 2;
+		double radiusY = pHeight / 2;
+		double centerX = pX + radiusX;
+		double centerY = pY + radiusY;
+		double extent = Math.max(-DEGREES_360, Math.min(DEGREES_360, pArcExtent));
+		StringBuilder element = new StringBuilder("<path d=\"M");
+		point(element, centerX + radiusX * Math.cos(Math.toRadians(pStartAngle)), centerY - radiusY * Math.sin(Math.toRadians(pStartAngle)));
+		// An SVG arc cannot end where it starts, so full ovals are drawn in two halves
+		int parts = Math.abs(extent) > DEGREES_180 ? 2 : 1;
+		for( int part = 1; part <= parts; part++ )
+		{
+			double angle = Math.toRadians(pStartAngle + extent * part / parts);
+			element.append('A').append(number(radiusX)).append(' ').append(number(radiusY)).append(" 0 0 ")
+				.append(extent > 0 ? '0' : '1').append(' ');
+			point(element, centerX + radiusX * Math.cos(angle), centerY - radiusY * Math.sin(angle));
+		}
+		if( pClosure == ArcType.ROUND )
+		{
+			element.append('L');
+			point(element, centerX, centerY);
+		}
+		if( pClosure != ArcType.OPEN )
+		{
+			element.append('Z');
+		}
+		writeShape(element.append('"'), false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The lines of a text that spans multiple lines are written as separate
+	 * spans, positioned like the lines drawn by a GraphicsContext.
+	 */
+	@Override
+	public void fillText(String pText, double pX, double pY)
+	{
+		String[] lines = pText.split("\n", -1);
+		double lineHeight = lineHeight();
+		double top = y(pY);
+		if( aTextBaseline == VPos.CENTER )
+		{
+			top -= (lines.length - 1) * lineHeight / 2;
+		}
+		else if( aTextBaseline == VPos.BOTTOM )
+		{
+			top -= (lines.length - 1) * lineHeight;
+		}
+		StringBuilder element = new StringBuilder("<text");
+		attribute(element, "x", x(pX));
+		attribute(element, "y", top);
+		if( aTextAlign == TextAlignment.CENTER )
+		{
+			attribute(element, "text-anchor", "middle");
+		}
+		else if( aTextAlign == TextAlignment.RIGHT )
+		{
+			attribute(element, "text-anchor", "end");
+		}
+		if( aTextBaseline == VPos.TOP )
+		{
+			attribute(element, "dominant-baseline", "text-before-edge");
+		}
+		else if( aTextBaseline == VPos.CENTER )
+		{
+			attribute(element, "dominant-baseline", "central");
+		}
+		else if( aTextBaseline == VPos.BOTTOM )
+		{
+			attribute(element, "dominant-baseline", "text-after-edge");
+		}
+		attribute(element, "font-family", escape(aFont.getFamily()));
+		attribute(element, "font-size", aFont.getSize());
+		if( aFont.getStyle().toLowerCase().contains("bold") )
+		{
+			attribute(element, "font-weight", "bold");
+		}
+		attribute(element, "xml:space", "preserve");
+		paint(element, "fill", aFill);
+		element.append('>');
+		for( int i = 0; i < lines.length; i++ )
+		{
+			element.append("<tspan");
+			attribute(element, "x", x(pX));
+			attribute(element, "dy", i == 0 ? 0 : lineHeight);
+			element.append('>').append(escape(lines[i])).append("</tspan>");
+		}
+		element.append("</text>\n");
+		write(element.toString());
+	}
+	
+	/*
+	 * The distance between the lines of a text drawn with the current font.
+	 */
+	private double lineHeight()
+	{
+		if( aFont != aMeasuredFont )
+		{
+			Text text = new Text();
+			text.setFont(aFont);
+			aLineHeight = text.getLayoutBounds().getHeight();
+			aMeasuredFont = aFont;
+		}
+		return aLineHeight;
+	}
+	
+	@Override
+	public void beginPath()
+	{
+		aPath.setLength(0);
+	}
+	
+	@Override
+	public void moveTo(double pX, double pY)
+	{
+		point(aPath.append('M'), pX, pY);
+	}
+	
+	@Override
+	public void lineTo(double pX, double pY)
+	{
+		point(aPath.append('L'), pX, pY);
+	}
+	
+	@Override
+	public void quadraticCurveTo(double pControlX, double pControlY, double pX, double pY)
+	{
+		point(aPath.append('Q'), pControlX, pControlY);
+		point(aPath.append(' '), pX, pY);
+	}
+	
+	/*
+	 * Appends the translated coordinates of a point to a path.
+	 */
+	private void point(StringBuilder pPath, double pX, double pY)
+	{
+		pPath.append(number(x(pX))).append(' ').append(number(y(pY)));
+	}
+	
+	@Override
+	public void fill()
+	{
+		writePath(true);
+	}
+	
+	@Override
+	public void stroke()
+	{
+		writePath(false);
+	}
+	
+	private void writePath(boolean pFill)
+	{
+		if( aPath.length() == 0 )
+		{
+			return;
+		}
+		StringBuilder element = new StringBuilder("<path d=\"").append(aPath).append('"');
+		writeShape(element, pFill);
+	}
+	
+	/*
+	 * Completes and writes the element started in pElement, with the 
+	 * current attributes for filling or stroking it.
+	 */
+	private void writeShape(StringBuilder pElement, boolean pFill)
+	{
+		if( pFill )
+		{
+			paint(pElement, "fill", aFill);
+		}
+		else
+		{
+			attribute(pElement, "fill", "none");
+			paint(pElement, "stroke", aStroke);
+			attribute(pElement, "stroke-width", aLineWidth);
+			if( aLineDashes != null && aLineDashes.length > 0 )
+			{
+				StringBuilder dashes = new StringBuilder();
+				for( double dash : aLineDashes )
+				{
+					if( dashes.length() > 0 )
+					{
+						dashes.append(' ');
+					}
+					dashes.append(number(dash));
+				}
+				attribute(pElement, "stroke-dasharray", dashes.toString());
+			}
+		}
+		if( aShadow )
+		{
+			attribute(pElement, "filter", "url(#" + SHADOW_FILTER + ")");
+		}
+		pElement.append("/>\n");
+		write(pElement.toString());
+	}
+	
+	private static void paint(StringBuilder pElement, String pAttribute, Paint pPaint)
+	{
+		assert pPaint == null || pPaint instanceof Color;
+		Color color = (Color) pPaint;
+		if( color == null || color.getOpacity() == 0 )
+		{
+			attribute(pElement, pAttribute, "none");
+			return;
+		}
+		attribute(pElement, pAttribute, String.format("#%02x%02x%02x", 
+				Math.round(color.getRed() * 255), Math.round(color.getGreen() * 255), Math.round(color.getBlue() * 255)));
+		if( color.getOpacity() < 1 )
+		{
+			attribute(pElement, pAttribute + "-opacity", color.getOpacity());
+		}
+	}
+	
+	private static void attribute(StringBuilder pElement, String pName, String pValue)
+	{
+		pElement.append(' ').append(pName).append("=\"").append(pValue).append('"');
+	}
+	
+	private static void attribute(StringBuilder pElement, String pName, double pValue)
+	{
+		attribute(pElement, pName, number(pValue));
+	}
+	
+	private static String number(double pValue)
+	{
+		double rounded = Math.round(pValue * PRECISION) / (double) PRECISION;
+		if( rounded == (long) rounded )
+		{
+			return Long.toString((long) rounded);
+		}
+		return Double.toString(rounded);
+	}
+	
+	private double x(double pX)
+	{
+		return pX + aTranslateX;
+	}
+	
+	private double y(double pY)
+	{
+		return pY + aTranslateY;
+	}
+	
+	private static String escape(String pText)
+	{
+		StringBuilder result = new StringBuilder(pText.length());
+		for( int i = 0; i < pText.length(); i++ )
+		{
+			char character = pText.charAt(i);
+			if( character == '&' )
+			{
+				result.append("&amp;");
+			}
+			else if( character == '<' )
+			{
+				result.append("&lt;");
+			}
+			else if( character == '>' )
+			{
+				result.append("&gt;");
+			}
+			else if( character == '"' )
+			{
+				result.append("&quot;");
+			}
+			else
+			{
+				result.append(character);
+			}
+		}
+		return result.toString();
+	}
+	
+	private void write(String pText)
+	{
+		try
+		{
+			aWriter.write(pText);
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+}
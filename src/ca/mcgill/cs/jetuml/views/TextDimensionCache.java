@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import ca.mcgill.cs.jetuml.geom.Dimension;
+
+/**
+ * A bounded cache of the dimension of strings, keyed on the string, 
+ * whether it is bold, and the font size. When the cache is full, the
+ * least recently used entry is evicted. The cache keeps statistics
+ * about its use so that its effectiveness can be assessed.
+ * 
+ * Measuring text with JavaFX requires a layout pass on a Text node,
+ * which dominates the time needed to compute the bounds of diagrams
+ * with a lot of text.
+ */
+final class TextDimensionCache
+{
+	static final int DEFAULT_CAPACITY = 2048;
+	
+	private final int aCapacity;
+	private final LinkedHashMap<Key, Dimension> aEntries;
+	private long aHits = 0;
+	private long aMisses = 0;
+	private long aEvictions = 0;
+	
+	/**
+	 * Creates an empty cache that can hold at most pCapacity dimensions.
+	 * 
+	 * @param pCapacity The maximum number of entries in the cache.
+	 * @pre pCapacity > 0
+	 */
+	TextDimensionCache(int pCapacity)
+	{
+		assert pCapacity > 0;
+		aCapacity = pCapacity;
+		aEntries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Dimension> pEldest)
+			{
+				if( size() > aCapacity )
+				{
+					aEvictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the dimension of pString in the given style, computing it 
+	 * with pMeasure and storing the result if it is not already in the cache.
+	 * 
+	 * @param pString The string to measure.
+	 * @param pBold Whether the string is rendered in bold.
+	 * @param pFontSize The size of the font used to render the string.
+	 * @param pMeasure The function to use to measure the string if needed.
+	 * @return The dimension of the string.
+	 * @pre pString != null && pMeasure != null
+	 */
+	synchronized Dimension get(String pString, boolean pBold, int pFontSize, Supplier<Dimension> pMeasure)
+	{
+		assert pString != null && pMeasure != null;
+		Key key = new Key(pString, pBold, pFontSize);
+		Dimension result = aEntries.get(key);
+		if( result == null )
+		{
+			aMisses++;
+			result = pMeasure.get();
+			aEntries.put(key, result);
+		}
+		else
+		{
+			aHits++;
+		}
+		return result;
+	}
+	
+	/**
+	 * Removes all the entries from the cache and resets its statistics.
+	 */
+	synchronized void clear()
+	{
+		aEntries.clear();
+		aHits = 0;
+		aMisses = 0;
+		aEvictions = 0;
+	}
+	
+	/**
+	 * @return The number of entries currently in the cache.
+	 */
+	synchronized int size()
+	{
+		return aEntries.size();
+	}
+	
+	/**
+	 * @return The maximum number of entries in the cache.
+	 */
+	int capacity()
+	{
+		return aCapacity;
+	}
+	
+	/**
+	 * @return The number of lookups that found their dimension in the cache.
+	 */
+	synchronized long hits()
+	{
+		return aHits;
+	}
+	
+	/**
+	 * @return The number of lookups that required measuring the string.
+	 */
+	synchronized long misses()
+	{
+		return aMisses;
+	}
+	
+	/**
+	 * @return The number of entries removed to make room for new ones.
+	 */
+	synchronized long evictions()
+	{
+		return aEvictions;
+	}
+	
+	/**
+	 * @return The proportion of lookups that found their dimension in the 
+	 * cache, or 0 if there was no lookup.
+	 */
+	synchronized double hitRate()
+	{
+		long lookups = aHits + aMisses;
+		if( lookups == 0 )
+		{
+			return 0;
+		}
+		return (double) aHits / lookups;
+	}
+	
+	@Override
+	public synchronized String toString()
+	{
+		return String.format("TextDimensionCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]", 
+				aEntries.size(), aCapacity, aHits, aMisses, aEvictions, hitRate());
+	}
+	
+	private static final class Key
+	{
+		private final String aString;
+		private final boolean aBold;
+		private final int aFontSize;
+		
+		Key(String pString, boolean pBold, int pFontSize)
+		{
+			aString = pString;
+			aBold = pBold;
+			aFontSize = pFontSize;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return 31 * (31 * aString.hashCode() + Boolean.hashCode(aBold)) + aFontSize;
+		}
+		
+		@Override
+		public boolean equals(Object pObject)
+		{
+			if( this == pObject )
+			{
+				return true;
+			}
+			if( pObject == null || pObject.getClass() != getClass() )
+			{
+				return false;
+			}
+			Key other = (Key) pObject;
+			return aBold == other.aBold && aFontSize == other.aFontSize && aString.equals(other.aString);
+		}
+	}
+}
@@ -27,7 +27,6 @@ import ca.mcgill.cs.jetuml.geom.Rectangle;
 import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
 import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 
 /**
  * Convenience methods to obtain viewer services.
@@ -43,7 +42,7 @@ public final class ViewerUtilities
 	 * @param pContext The graphics context.
 	 * @pre pElement != null && pContext != null
 	 */
-	public static void drawSelectionHandles(DiagramElement pElement, GraphicsContext pContext)
+	public static void drawSelectionHandles(DiagramElement pElement, RenderingTarget pContext)
 	{
 		assert pElement != null && pContext != null;
 		if( pElement instanceof Node )
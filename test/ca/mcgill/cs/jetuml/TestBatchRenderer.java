@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+
+public class TestBatchRenderer
+{
+	private final ByteArrayOutputStream aOutput = new ByteArrayOutputStream();
+	
+	@TempDir
+	Path aDirectory;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private int run(String... pArgs)
+	{
+		return BatchRenderer.run(List.of(pArgs), new PrintStream(aOutput, true, StandardCharsets.UTF_8));
+	}
+	
+	private String output()
+	{
+		return new String(aOutput.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	@Test
+	public void testRender_Png() throws Exception
+	{
+		assertEquals(0, run("-output", aDirectory.toString(), "testdata/testPersistenceService.class.jet"));
+		BufferedImage image = ImageIO.read(aDirectory.resolve("testPersistenceService.class.png").toFile());
+		assertTrue(image.getWidth() > 0 && image.getHeight() > 0);
+		assertTrue(output().contains("Rendered 1 of 1 files"));
+	}
+	
+	@Test
+	public void testRender_SvgGlob() throws Exception
+	{
+		String[] files = new File("testdata").list((pDirectory, pName) -> pName.startsWith("testPersistenceService") && pName.endsWith(".jet"));
+		assertEquals(0, run("-format", "svg", "-output", aDirectory.toString(), "testdata/testPersistenceService*.jet"));
+		for( String file : files )
+		{
+			assertTrue(Files.size(aDirectory.resolve(file.replace(".jet", ".svg"))) > 0);
+		}
+		assertTrue(output().contains(String.format("Rendered %d of %d files", files.length, files.length)));
+	}
+	
+	@Test
+	public void testRender_Directory() throws Exception
+	{
+		Files.copy(Path.of("testdata/testPersistenceService.state.jet"), aDirectory.resolve("state.jet"));
+		Files.writeString(aDirectory.resolve("notes.txt"), "Not a diagram");
+		assertEquals(0, run(aDirectory.toString()));
+		assertTrue(Files.exists(aDirectory.resolve("state.png")));
+		assertFalse(Files.exists(aDirectory.resolve("notes.png")));
+	}
+	
+	@Test
+	public void testRender_Failure() throws Exception
+	{
+		Files.writeString(aDirectory.resolve("invalid.class.jet"), "Not a diagram");
+		Files.copy(Path.of("testdata/testPersistenceService.class.jet"), aDirectory.resolve("valid.class.jet"));
+		assertEquals(1, run(aDirectory.resolve("invalid.class.jet").toString(), aDirectory.resolve("valid.class.jet").toString(), 
+				aDirectory.resolve("missing.class.jet").toString()));
+		assertFalse(Files.exists(aDirectory.resolve("invalid.class.png")));
+		assertTrue(Files.exists(aDirectory.resolve("valid.class.png")));
+		assertTrue(output().contains("FAILED " + aDirectory.resolve("invalid.class.jet")));
+		assertTrue(output().contains("FAILED " + aDirectory.resolve("missing.class.jet")));
+		assertTrue(output().contains("Rendered 1 of 2 files"));
+	}
+	
+	@Test
+	public void testRender_OutputCollision() throws Exception
+	{
+		Path output = aDirectory.resolve("output");
+		Files.createDirectories(aDirectory.resolve("a"));
+		Files.createDirectories(aDirectory.resolve("b"));
+		Path first = Files.copy(Path.of("testdata/testPersistenceService.class.jet"), aDirectory.resolve("a/diagram.jet"));
+		Path second = Files.copy(Path.of("testdata/testPersistenceService.state.jet"), aDirectory.resolve("b/diagram.jet"));
+		assertEquals(1, run("-output", output.toString(), first.toString(), second.toString(), first.toString()));
+		assertTrue(Files.exists(output.resolve("diagram.png")));
+		assertTrue(output().contains("FAILED " + second));
+		assertTrue(output().contains("Rendered 1 of 1 files"));
+	}
+	
+	@Test
+	public void testWrite_DiagramCollected() throws Exception
+	{
+		for( String format : new String[] {"png", "svg"} )
+		{
+			Diagram diagram = PersistenceService.read(new File("testdata/testPersistenceService.sequence.jet")).diagram();
+			Path output = aDirectory.resolve("diagram." + format);
+			BatchRenderer.write(diagram, output, format);
+			assertTrue(Files.size(output) > 0);
+			WeakReference<Diagram> reference = new WeakReference<>(diagram);
+			diagram = null;
+			assertTrue(MemoryUtils.isCollected(reference));
+		}
+	}
+	
+	@Test
+	public void testRender_Usage()
+	{
+		assertEquals(2, run());
+		assertEquals(2, run("-format", "unknown", "testdata/testPersistenceService.class.jet"));
+		assertEquals(2, run("-unknown", "testdata/testPersistenceService.class.jet"));
+	}
+}
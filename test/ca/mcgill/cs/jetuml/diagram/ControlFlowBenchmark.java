@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.ConstructorEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+
+/**
+ * A microbenchmark for the queries of ControlFlow on synthetic deep call trees. 
+ * 
+ * Compares the cost of the queries made by the sequence diagram layout for every 
+ * call node of a diagram when they are answered from the index of the calls, with 
+ * their cost when they are answered by scanning the edges of the diagram, as 
+ * ControlFlow did before the calls were indexed.
+ * 
+ * Usage: ControlFlowBenchmark [depth] [fan-out] [repetitions]
+ */
+public final class ControlFlowBenchmark
+{
+	private static final int DEFAULT_DEPTH = 200;
+	private static final int DEFAULT_FANOUT = 3;
+	private static final int DEFAULT_REPETITIONS = 10;
+	private static final int NUMBER_OF_OBJECTS = 4;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	
+	private ControlFlowBenchmark() {}
+	
+	/**
+	 * @param pArgs The depth of the call tree, the number of calls made 
+	 *     by each call node on the main path of the tree, and the number of repetitions. 
+	 */
+	public static void main(String[] pArgs)
+	{
+		int depth = pArgs.length > 0 ? Integer.parseInt(pArgs[0]) : DEFAULT_DEPTH;
+		int fanOut = pArgs.length > 1 ? Integer.parseInt(pArgs[1]) : DEFAULT_FANOUT;
+		int repetitions = pArgs.length > 2 ? Integer.parseInt(pArgs[2]) : DEFAULT_REPETITIONS;
+		
+		Diagram diagram = new Diagram(DiagramType.SEQUENCE);
+		CallNode[] nodes = createCallTree(diagram, depth, fanOut);
+		System.out.println(String.format("Call tree of depth %d: %d call nodes, %d edges", 
+				depth, nodes.length, diagram.edges().size()));
+		
+		// Warm-up, which also checks that both algorithms agree
+		if( queryIndexed(diagram, nodes)[1] != queryScanning(diagram, nodes)[1] )
+		{
+			throw new IllegalStateException("The algorithms disagree");
+		}
+		
+		long indexed = 0;
+		long scanning = 0;
+		for( int i = 0; i < repetitions; i++ )
+		{
+			diagram.incrementRevision(); // The index is built again as part of the measurement
+			indexed += queryIndexed(diagram, nodes)[0];
+			scanning += queryScanning(diagram, nodes)[0];
+		}
+		System.out.println(String.format("Scanning the edges: %.2f ms", scanning / NANOS_PER_MILLI / repetitions));
+		System.out.println(String.format("Index of the calls: %.2f ms", indexed / NANOS_PER_MILLI / repetitions));
+	}
+	
+	/*
+	 * Returns the time in nanoseconds to issue the queries made by the sequence 
+	 * diagram layout for every node with ControlFlow, and a checksum of the results.
+	 */
+	private static long[] queryIndexed(Diagram pDiagram, CallNode[] pNodes)
+	{
+		long start = System.nanoTime();
+		long checksum = 0;
+		for( CallNode node : pNodes )
+		{
+			ControlFlow flow = new ControlFlow(pDiagram);
+			checksum += flow.getCallees(node).size();
+			checksum += flow.getNestingDepth(node);
+			if( flow.getCaller(node).isPresent() && !flow.isFirstCallee(node) )
+			{
+				checksum += flow.getPreviousCallee(node).getChildren().size();
+			}
+			if( flow.isConstructorExecution(node) )
+			{
+				checksum++;
+			}
+		}
+		return new long[] { System.nanoTime() - start, checksum };
+	}
+	
+	/*
+	 * Same as queryIndexed, with the algorithms that scan the edges of the diagram.
+	 */
+	private static long[] queryScanning(Diagram pDiagram, CallNode[] pNodes)
+	{
+		long start = System.nanoTime();
+		long checksum = 0;
+		for( CallNode node : pNodes )
+		{
+			ScanningControlFlow flow = new ScanningControlFlow(pDiagram);
+			checksum += flow.getCallees(node).size();
+			checksum += flow.getNestingDepth(node);
+			if( flow.getCaller(node).isPresent() && !flow.isFirstCallee(node) )
+			{
+				checksum += flow.getPreviousCallee(node).getChildren().size();
+			}
+			if( flow.isConstructorExecution(node) )
+			{
+				checksum++;
+			}
+		}
+		return new long[] { System.nanoTime() - start, checksum };
+	}
+	
+	/*
+	 * Creates a main path of nested calls of depth pDepth that cycles through a fixed number
+	 * of objects, where each node on the path also makes pFanOut - 1 calls to leaf nodes.
+	 */
+	private static CallNode[] createCallTree(Diagram pDiagram, int pDepth, int pFanOut)
+	{
+		ImplicitParameterNode[] objects = new ImplicitParameterNode[NUMBER_OF_OBJECTS];
+		for( int i = 0; i < objects.length; i++ )
+		{
+			objects[i] = new ImplicitParameterNode();
+			pDiagram.addRootNode(objects[i]);
+		}
+		CallNode[] nodes = new CallNode[pDepth * pFanOut];
+		int count = 0;
+		CallNode caller = null;
+		for( int level = 0; level < pDepth; level++ )
+		{
+			for( int call = 0; call < pFanOut; call++ )
+			{
+				CallNode node = new CallNode();
+				objects[(level + call) % objects.length].addChild(node);
+				nodes[count++] = node;
+				if( caller != null )
+				{
+					CallEdge edge = new CallEdge();
+					edge.connect(caller, node, pDiagram);
+					pDiagram.addEdge(edge);
+				}
+			}
+			caller = nodes[count - 1];
+		}
+		return nodes;
+	}
+	
+	/*
+	 * The queries of ControlFlow as they were implemented before the calls 
+	 * were indexed, by scanning all the edges of the diagram.
+	 */
+	private static final class ScanningControlFlow
+	{
+		private final Diagram aDiagram;
+		
+		ScanningControlFlow(Diagram pDiagram)
+		{
+			aDiagram = pDiagram;
+		}
+		
+		List<Node> getCallees(Node pNode)
+		{
+			List<Node> callees = new ArrayList<>();
+			for( Edge edge : aDiagram.edges() )
+			{
+				if ( edge.getStart() == pNode && edge instanceof CallEdge )
+				{
+					callees.add(edge.getEnd());
+				}
+			}
+			return callees;
+		}
+		
+		Optional<CallNode> getCaller(Node pNode)
+		{
+			for( Edge edge : aDiagram.edges() )
+			{
+				if( edge.getEnd() == pNode  && edge instanceof CallEdge )
+				{
+					return Optional.of((CallNode) edge.getStart());
+				}
+			}
+			return Optional.empty();
+		}
+		
+		boolean isFirstCallee(CallNode pNode)
+		{
+			return getCallees(getCaller(pNode).get()).get(0) == pNode;
+		}
+		
+		CallNode getPreviousCallee(CallNode pNode)
+		{
+			List<Node> callees = getCallees(getCaller(pNode).get());
+			return (CallNode) callees.get(callees.indexOf(pNode) - 1);
+		}
+		
+		int getNestingDepth(CallNode pNode)
+		{
+			int result = 0;
+			Optional<CallNode> node = getCaller(pNode);
+			while( node.isPresent() )
+			{
+				if( node.get().getParent() == pNode.getParent() )
+				{
+					result++;
+				}
+				node = getCaller(node.get());
+			}
+			return result;
+		}
+		
+		boolean isConstructorExecution(Node pNode)
+		{
+			if( pNode.getClass() != CallNode.class )
+			{
+				return false;
+			}
+			for( Edge edge : aDiagram.edges() )
+			{
+				if ( edge.getEnd() == pNode && edge.getClass() == ConstructorEdge.class )
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
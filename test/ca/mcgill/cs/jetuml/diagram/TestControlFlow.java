@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -43,6 +44,7 @@ import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.NoteNode;
 import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
 
 /*
  * This class is used to test the methods of SequenceDiagram
@@ -217,6 +219,38 @@ public class TestControlFlow
 		assertSame(aCall2, aFlow.getPreviousCallee(callNode));
 	}
 	
+	@Test
+	public void testGetNestingDepth()
+	{
+		assertEquals(0, aFlow.getNestingDepth(aCall1));
+		assertEquals(0, aFlow.getNestingDepth(aCall2));
+		assertEquals(1, aFlow.getNestingDepth(aCall3));
+		assertEquals(0, aFlow.getNestingDepth(aCall4));
+		assertEquals(0, aFlow.getNestingDepth(aCall5));
+	}
+	
+	@Test
+	public void testGetNestingDepthCallback()
+	{
+		// aCall4 calls back an object further up the call stack
+		CallNode callNode = new CallNode();
+		aParameter2.addChild(callNode);
+		aDiagramAccessor.connectAndAdd(aCallEdge4, aCall4, callNode);
+		assertEquals(2, aFlow.getNestingDepth(callNode));
+	}
+	
+	@Test
+	public void testQueriesReflectDiagramChanges()
+	{
+		assertEquals(2, aFlow.getCallees(aCall2).size());
+		assertSame(aCall3, aFlow.getCaller(aCall4).get().getParent().getChildren().get(1));
+		aDiagram.removeEdge(aCallEdge3);
+		assertEquals(1, aFlow.getCallees(aCall2).size());
+		aDiagram.removeEdge(aCallEdge2);
+		assertFalse(aFlow.getCaller(aCall4).isPresent());
+		assertTrue(new ControlFlow(aDiagram).getCallees(aCall3).isEmpty());
+	}
+	
 	@Test
 	public void testIsConstructorExecutionInConstructorCall()
 	{
@@ -481,4 +515,29 @@ public class TestControlFlow
 	{	
 		assertFalse(aFlow.canCreateConstructedObject(aParameter3, new Point(0, 0)));
 	}
+	
+	@Test
+	public void testDiagramCollected()
+	{
+		assertEquals(1, aFlow.getNestingDepth(aCall3));
+		WeakReference<Diagram> reference = new WeakReference<>(aDiagram);
+		aDiagram = null;
+		aDiagramAccessor = null;
+		aFlow = null;
+		aParameter1 = null;
+		aParameter2 = null;
+		aParameter3 = null;
+		aCall1 = null;
+		aCall2 = null;
+		aCall3 = null;
+		aCall4 = null;
+		aCall5 = null;
+		aCallEdge1 = null;
+		aCallEdge2 = null;
+		aCallEdge3 = null;
+		aCallEdge4 = null;
+		aReturnEdge = null;
+		aConstructorEdge = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
 }
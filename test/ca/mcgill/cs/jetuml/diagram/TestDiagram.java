@@ -34,6 +34,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
 import ca.mcgill.cs.jetuml.diagram.nodes.AbstractNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
 import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
@@ -60,6 +61,18 @@ public class TestDiagram
 		aNode4 = new PackageNode();
 	}
 	
+	@Test
+	public void testAttachments()
+	{
+		assertFalse(aDiagram.getAttachment(String.class).isPresent());
+		aDiagram.attach(String.class, "A");
+		aDiagram.attach(Integer.class, 1);
+		aDiagram.attach(String.class, "B");
+		assertEquals("B", aDiagram.getAttachment(String.class).get());
+		assertEquals(1, aDiagram.getAttachment(Integer.class).get());
+		assertFalse(aDiagram.duplicate().getAttachment(String.class).isPresent());
+	}
+	
 	@Test
 	public void testContainsAsRoot_RootNode()
 	{
@@ -136,4 +149,129 @@ public class TestDiagram
 		assertSame(childNodes.get(0),callNode1);
 		assertSame(childNodes.get(1), callNode2);
 	}
+	
+	private Edge connect(Node pStart, Node pEnd)
+	{
+		Edge edge = new DependencyEdge();
+		edge.connect(pStart, pEnd, aDiagram);
+		return edge;
+	}
+	
+	@Test
+	public void testEdgesConnectedTo()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		Edge edge1 = connect(aNode1, aNode2);
+		Edge edge2 = connect(aNode3, aNode1);
+		Edge edge3 = connect(aNode1, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.addEdge(edge3);
+		
+		assertEquals(List.of(edge1, edge2, edge3), aDiagram.edgesConnectedTo(aNode1));
+		assertEquals(List.of(edge1, edge3), aDiagram.outgoingEdges(aNode1));
+		assertEquals(List.of(edge2, edge3), aDiagram.incomingEdges(aNode1));
+		assertEquals(List.of(edge1), aDiagram.incomingEdges(aNode2));
+		assertTrue(aDiagram.outgoingEdges(aNode2).isEmpty());
+		assertTrue(aDiagram.edgesConnectedTo(aNode4).isEmpty());
+		assertSame(aDiagram.edgesConnectedTo(aNode1), aDiagram.edgesConnectedTo(aNode1));
+	}
+	
+	@Test
+	public void testEdgesConnectedTo_RemoveAndInsert()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		Edge edge1 = connect(aNode1, aNode2);
+		Edge edge2 = connect(aNode3, aNode2);
+		Edge edge3 = connect(aNode2, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.addEdge(edge3);
+		
+		aDiagram.removeEdge(edge1);
+		assertEquals(List.of(edge3), aDiagram.edgesConnectedTo(aNode1));
+		assertEquals(List.of(edge2, edge3), aDiagram.edgesConnectedTo(aNode2));
+		aDiagram.removeEdge(edge2);
+		assertTrue(aDiagram.edgesConnectedTo(aNode3).isEmpty());
+		
+		aDiagram.addEdge(0, edge1);
+		aDiagram.addEdge(1, edge2);
+		assertEquals(List.of(edge1, edge2, edge3), aDiagram.edges());
+		assertEquals(List.of(edge1, edge3), aDiagram.edgesConnectedTo(aNode1));
+		assertEquals(List.of(edge1, edge2, edge3), aDiagram.edgesConnectedTo(aNode2));
+		assertEquals(List.of(edge1, edge2), aDiagram.incomingEdges(aNode2));
+		assertEquals(List.of(edge2), aDiagram.edgesConnectedTo(aNode3));
+	}
+	
+	@Test
+	public void testEdgesConnectedTo_Duplicate()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addEdge(connect(aNode1, aNode2));
+		Diagram copy = aDiagram.duplicate();
+		Node start = copy.rootNodes().get(0);
+		Node end = copy.rootNodes().get(1);
+		assertEquals(copy.edges(), copy.outgoingEdges(start));
+		assertEquals(copy.edges(), copy.incomingEdges(end));
+		assertTrue(copy.edgesConnectedTo(aNode1).isEmpty());
+		assertTrue(copy.containsAsRoot(start));
+		assertTrue(copy.contains(copy.edges().get(0)));
+		assertFalse(copy.contains(aNode1));
+	}
+	
+	@Test
+	public void testContains_ChildLinking()
+	{
+		aDiagram.addRootNode(aNode4);
+		aNode4.addChild(aNode2);
+		aNode2.addChild(aNode3);
+		assertTrue(aDiagram.contains(aNode2));
+		assertTrue(aDiagram.contains(aNode3));
+		assertSame(aDiagram, aNode3.getDiagram().get());
+		assertFalse(aDiagram.containsAsRoot(aNode2));
+		
+		aNode4.removeChild(aNode2);
+		assertFalse(aDiagram.contains(aNode2));
+		assertFalse(aDiagram.contains(aNode3));
+		assertTrue(aDiagram.contains(aNode4));
+	}
+	
+	@Test
+	public void testContains_RootAndChild()
+	{
+		aDiagram.addRootNode(aNode4);
+		aDiagram.addRootNode(aNode2);
+		aNode2.addChild(aNode3);
+		// The node is temporarily both a root node and a child node
+		aNode4.addChild(aNode2);
+		aDiagram.removeRootNode(aNode2);
+		assertTrue(aDiagram.contains(aNode2));
+		assertTrue(aDiagram.contains(aNode3));
+		
+		aDiagram.addRootNode(aNode2);
+		aNode4.removeChild(aNode2);
+		assertTrue(aDiagram.containsAsRoot(aNode2));
+		assertTrue(aDiagram.contains(aNode3));
+		aDiagram.removeRootNode(aNode2);
+		assertFalse(aDiagram.contains(aNode2));
+		assertFalse(aDiagram.contains(aNode3));
+	}
+	
+	@Test
+	public void testContains_Edges()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		Edge edge = connect(aNode1, aNode2);
+		assertFalse(aDiagram.contains(edge));
+		aDiagram.addEdge(edge);
+		assertTrue(aDiagram.contains(edge));
+		aDiagram.removeEdge(edge);
+		assertFalse(aDiagram.contains(edge));
+	}
 }
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.diagram.DiagramChange.Type;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+
+public class TestDiagramChanges 
+{
+	private Diagram aDiagram;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private List<List<DiagramChange>> aNotifications;
+	private DiagramListener aListener;
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aNode1 = new ClassNode();
+		aNode2 = new ClassNode();
+		aNotifications = new ArrayList<>();
+		aListener = (diagram, changes) -> aNotifications.add(changes);
+		aDiagram.addListener(aListener);
+	}
+	
+	private void assertNotification(int pIndex, DiagramChange... pChanges)
+	{
+		assertEquals(List.of(pChanges), aNotifications.get(pIndex));
+	}
+	
+	@Test
+	public void testNodeAddedAndRemoved()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.removeRootNode(aNode1);
+		assertEquals(2, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.NODE_ADDED, aNode1));
+		assertNotification(1, new DiagramChange(Type.NODE_REMOVED, aNode1));
+	}
+	
+	@Test
+	public void testEdgeAddedAndRemoved()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2, aDiagram);
+		aNotifications.clear();
+		aDiagram.addEdge(edge);
+		aDiagram.removeEdge(edge);
+		aDiagram.addEdge(0, edge);
+		assertEquals(3, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.EDGE_ADDED, edge));
+		assertNotification(1, new DiagramChange(Type.EDGE_REMOVED, edge));
+		assertNotification(2, new DiagramChange(Type.EDGE_ADDED, edge));
+	}
+	
+	@Test
+	public void testNodeMovedAndPropertyChanged()
+	{
+		aDiagram.addRootNode(aNode1);
+		aNotifications.clear();
+		aNode1.translate(10, 10);
+		aNode1.moveTo(new Point(0, 0));
+		aNode1.properties().get(PropertyName.NAME).set("Foo");
+		assertEquals(3, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.NODE_MOVED, aNode1));
+		assertNotification(1, new DiagramChange(Type.NODE_MOVED, aNode1));
+		assertNotification(2, new DiagramChange(Type.PROPERTY_CHANGED, aNode1));
+	}
+	
+	@Test
+	public void testChildRelinked()
+	{
+		PackageNode parent = new PackageNode();
+		aDiagram.addRootNode(parent);
+		aNotifications.clear();
+		parent.addChild(aNode1);
+		parent.removeChild(aNode1);
+		assertEquals(2, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.CHILD_RELINKED, aNode1));
+		assertNotification(1, new DiagramChange(Type.CHILD_RELINKED, aNode1));
+	}
+	
+	@Test
+	public void testNoChangesOutsideDiagram()
+	{
+		aNode1.translate(10, 10);
+		PackageNode parent = new PackageNode();
+		parent.addChild(aNode2);
+		assertTrue(aNotifications.isEmpty());
+	}
+	
+	@Test
+	public void testRemoveListener()
+	{
+		aDiagram.removeListener(aListener);
+		aDiagram.addRootNode(aNode1);
+		aNode1.translate(10, 10);
+		assertTrue(aNotifications.isEmpty());
+	}
+	
+	@Test
+	public void testBatch()
+	{
+		aDiagram.addRootNode(aNode1);
+		aNotifications.clear();
+		aDiagram.startBatch();
+		aDiagram.addRootNode(aNode2);
+		aDiagram.startBatch();
+		aNode1.translate(10, 10);
+		aNode2.translate(10, 10);
+		aDiagram.endBatch();
+		aNode1.translate(10, 10);
+		aNode1.properties().get(PropertyName.NAME).set("Foo");
+		aNode1.properties().get(PropertyName.NAME).set("Bar");
+		assertTrue(aNotifications.isEmpty());
+		aDiagram.endBatch();
+		assertEquals(1, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.NODE_ADDED, aNode2),
+				new DiagramChange(Type.NODE_MOVED, aNode1),
+				new DiagramChange(Type.NODE_MOVED, aNode2),
+				new DiagramChange(Type.PROPERTY_CHANGED, aNode1));
+	}
+	
+	@Test
+	public void testBatchKeepsStructuralChanges()
+	{
+		aDiagram.startBatch();
+		aDiagram.addRootNode(aNode1);
+		aDiagram.removeRootNode(aNode1);
+		aDiagram.addRootNode(aNode1);
+		aDiagram.endBatch();
+		assertEquals(1, aNotifications.size());
+		assertNotification(0, new DiagramChange(Type.NODE_ADDED, aNode1),
+				new DiagramChange(Type.NODE_REMOVED, aNode1),
+				new DiagramChange(Type.NODE_ADDED, aNode1));
+	}
+	
+	@Test
+	public void testEmptyBatch()
+	{
+		aDiagram.startBatch();
+		aDiagram.endBatch();
+		assertTrue(aNotifications.isEmpty());
+	}
+	
+	@Test
+	public void testRevisions()
+	{
+		long start = aDiagram.getRevision();
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		assertTrue(aDiagram.getRevision() > start);
+		long added1 = aDiagram.getRevision(aNode1);
+		long added2 = aDiagram.getRevision(aNode2);
+		assertTrue(added1 < added2);
+		aNode1.translate(10, 10);
+		assertTrue(aDiagram.getRevision(aNode1) > added2);
+		assertEquals(aDiagram.getRevision(), aDiagram.getRevision(aNode1));
+		assertEquals(added2, aDiagram.getRevision(aNode2));
+	}
+	
+	@Test
+	public void testRevisionOfChild()
+	{
+		PackageNode parent = new PackageNode();
+		aDiagram.addRootNode(parent);
+		long before = aDiagram.getRevision();
+		parent.addChild(aNode1);
+		assertTrue(aDiagram.getRevision(aNode1) > before);
+	}
+}
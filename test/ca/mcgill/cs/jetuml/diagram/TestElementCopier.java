@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+
+public class TestElementCopier
+{
+	private Diagram aDiagram;
+	private ElementCopier aCopier;
+	private PackageNode aPackage;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private DependencyEdge aEdge;
+	
+	@BeforeEach
+	public void setUp()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aCopier = new ElementCopier();
+		aPackage = new PackageNode();
+		aNode1 = new ClassNode();
+		aNode2 = new ClassNode();
+		aPackage.addChild(aNode2);
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aPackage);
+		aEdge = new DependencyEdge();
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(aEdge);
+	}
+	
+	@Test
+	public void testReconnectToCopiesOfDescendants()
+	{
+		Node node1 = aCopier.copy(aNode1);
+		Node copy = aCopier.copy(aPackage);
+		Edge edge = aEdge.clone();
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		aCopier.reconnect(edge, diagram);
+		assertSame(node1, edge.getStart());
+		assertSame(copy.getChildren().get(0), edge.getEnd());
+		assertSame(diagram, edge.getDiagram());
+	}
+	
+	@Test
+	public void testEndNotCopied()
+	{
+		Node node1 = aCopier.copy(aNode1);
+		Edge edge = aEdge.clone();
+		aCopier.reconnect(edge, aDiagram);
+		assertSame(node1, edge.getStart());
+		assertSame(aNode2, edge.getEnd());
+	}
+	
+	@Test
+	public void testFirstCopyIsUsed()
+	{
+		Node copy = aCopier.copy(aPackage);
+		Node node2 = aCopier.copy(aNode2);
+		Edge edge = aEdge.clone();
+		aCopier.reconnect(edge, aDiagram);
+		assertSame(copy.getChildren().get(0), edge.getEnd());
+		assertNotSame(node2, edge.getEnd());
+	}
+}
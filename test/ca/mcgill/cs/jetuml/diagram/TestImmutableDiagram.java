@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+
+public class TestImmutableDiagram
+{
+	private Diagram aDiagram;
+	private PackageNode aPackage;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private DependencyEdge aEdge;
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aPackage = new PackageNode();
+		aNode1 = new ClassNode();
+		aNode2 = new ClassNode();
+		aPackage.addChild(aNode2);
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aPackage);
+		aEdge = new DependencyEdge();
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(aEdge);
+	}
+	
+	@Test
+	public void testContent()
+	{
+		aNode1.moveTo(new Point(10, 20));
+		aNode1.properties().get(PropertyName.NAME).set("Foo");
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		assertEquals(DiagramType.CLASS, snapshot.getType());
+		assertEquals(aDiagram.getRevision(), snapshot.getRevision());
+		assertEquals(List.of(aNode1, aPackage), snapshot.rootNodes());
+		assertEquals(List.of(aEdge), snapshot.edges());
+		assertEquals(4, snapshot.size());
+		assertTrue(snapshot.contains(aNode2));
+		assertEquals(new Point(10, 20), snapshot.position(aNode1));
+		assertEquals("Foo", snapshot.propertyValue(aNode1, PropertyName.NAME));
+		assertEquals(List.of(aNode2), snapshot.getChildren(aPackage));
+		assertSame(aNode1, snapshot.getStart(aEdge));
+		assertSame(aNode2, snapshot.getEnd(aEdge));
+		assertEquals(aDiagram.getRevision(aNode1), snapshot.getRevision(aNode1));
+	}
+	
+	@Test
+	public void testUnchanged()
+	{
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		assertSame(snapshot, aDiagram.snapshot());
+	}
+	
+	@Test
+	public void testSnapshotIsNotModified()
+	{
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		aNode1.translate(10, 10);
+		aNode1.properties().get(PropertyName.NAME).set("Foo");
+		aPackage.removeChild(aNode2);
+		aDiagram.removeEdge(aEdge);
+		assertEquals(new Point(0, 0), snapshot.position(aNode1));
+		assertEquals("", snapshot.propertyValue(aNode1, PropertyName.NAME));
+		assertEquals(List.of(aNode2), snapshot.getChildren(aPackage));
+		assertTrue(snapshot.contains(aNode2));
+		assertEquals(List.of(aEdge), snapshot.edges());
+	}
+	
+	@Test
+	public void testUpdate()
+	{
+		aDiagram.snapshot();
+		aNode1.translate(10, 10);
+		aPackage.removeChild(aNode2);
+		aDiagram.removeEdge(aEdge);
+		ClassNode node3 = new ClassNode();
+		aPackage.addChild(node3);
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		assertEquals(new Point(10, 10), snapshot.position(aNode1));
+		assertEquals(List.of(node3), snapshot.getChildren(aPackage));
+		assertFalse(snapshot.contains(aNode2));
+		assertTrue(snapshot.contains(node3));
+		assertFalse(snapshot.contains(aEdge));
+		assertTrue(snapshot.edges().isEmpty());
+		assertEquals(3, snapshot.size());
+	}
+	
+	@Test
+	public void testUpdateSharesUnchangedLists()
+	{
+		ImmutableDiagram before = aDiagram.snapshot();
+		aNode1.translate(10, 10);
+		ImmutableDiagram after = aDiagram.snapshot();
+		assertSame(before.rootNodes(), after.rootNodes());
+		assertSame(before.edges(), after.edges());
+		aDiagram.placeOnTop(aNode1);
+		assertEquals(List.of(aPackage, aNode1), aDiagram.snapshot().rootNodes());
+	}
+	
+	@Test
+	public void testUpdateAppliesListChanges()
+	{
+		aDiagram.snapshot();
+		ClassNode node = new ClassNode();
+		aDiagram.addRootNode(node);
+		aDiagram.placeOnTop(aNode1);
+		aDiagram.removeEdge(aEdge);
+		aDiagram.addEdge(0, aEdge);
+		assertEquals(List.of(aPackage, node, aNode1), aDiagram.snapshot().rootNodes());
+		assertEquals(List.of(aEdge), aDiagram.snapshot().edges());
+		
+		// More changes than nodes between two snapshots
+		for( int i = 0; i < 10; i++ )
+		{
+			aDiagram.placeOnTop(aPackage);
+			aDiagram.placeOnTop(node);
+		}
+		assertEquals(List.of(aNode1, aPackage, node), aDiagram.snapshot().rootNodes());
+		aDiagram.removeRootNode(aNode1);
+		assertEquals(List.of(aPackage, node), aDiagram.snapshot().rootNodes());
+	}
+	
+	@Test
+	public void testRemoveAndAddSubtree()
+	{
+		aDiagram.snapshot();
+		aDiagram.removeEdge(aEdge);
+		aDiagram.removeRootNode(aPackage);
+		assertFalse(aDiagram.snapshot().contains(aNode2));
+		aNode2.translate(5, 5);
+		aDiagram.addRootNode(aPackage);
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		assertTrue(snapshot.contains(aNode2));
+		assertEquals(new Point(5, 5), snapshot.position(aNode2));
+	}
+	
+	@Test
+	public void testReadFromOtherThread() throws Exception
+	{
+		ImmutableDiagram snapshot = aDiagram.snapshot();
+		CompletableFuture<Point> position = CompletableFuture.supplyAsync(() -> snapshot.position(aNode1));
+		aNode1.translate(10, 10);
+		assertEquals(new Point(0, 0), position.get());
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestIndexedList
+{
+	private final IndexedList<String> aList = new IndexedList<>();
+	
+	@Test
+	public void testEmpty()
+	{
+		assertEquals(0, aList.size());
+		assertFalse(aList.iterator().hasNext());
+		assertEquals(-1, aList.indexOf("A"));
+		assertThrows(IndexOutOfBoundsException.class, () -> aList.get(0));
+	}
+	
+	@Test
+	public void testAddAndRemove()
+	{
+		aList.add("A");
+		aList.add("C");
+		aList.add(1, "B");
+		aList.add(0, "Z");
+		assertEquals(List.of("Z", "A", "B", "C"), aList);
+		assertEquals(2, aList.indexOf("B"));
+		assertTrue(aList.remove("Z"));
+		assertFalse(aList.remove("Z"));
+		assertEquals("C", aList.remove(2));
+		assertEquals(List.of("A", "B"), aList);
+		assertThrows(IndexOutOfBoundsException.class, () -> aList.add(3, "D"));
+	}
+	
+	@Test
+	public void testIdentity()
+	{
+		String element = new String("A");
+		aList.add(element);
+		assertFalse(aList.contains(new String("A")));
+		assertEquals(-1, aList.indexOf(new String("A")));
+		assertSame(element, aList.get(0));
+	}
+	
+	@Test
+	public void testRepeatedElements()
+	{
+		aList.add("A");
+		aList.add("B");
+		aList.add("A");
+		aList.add(0, "C");
+		assertEquals(1, aList.indexOf("A"));
+		assertEquals(3, aList.lastIndexOf("A"));
+		assertEquals("A", aList.remove(3));
+		assertEquals(List.of("C", "A", "B"), aList);
+		aList.add(0, "A");
+		assertTrue(aList.remove("A"));
+		assertEquals(List.of("C", "A", "B"), aList);
+		assertTrue(aList.remove("A"));
+		assertFalse(aList.contains("A"));
+	}
+	
+	@Test
+	public void testIteratorFailsFast()
+	{
+		aList.add("A");
+		aList.add("B");
+		Iterator<String> iterator = aList.iterator();
+		iterator.next();
+		aList.remove("B");
+		assertThrows(ConcurrentModificationException.class, iterator::next);
+	}
+	
+	@Test
+	public void testRandomOperations()
+	{
+		Random random = new Random(1);
+		List<String> expected = new ArrayList<>();
+		for( int i = 0; i < 5000; i++ )
+		{
+			int operation = random.nextInt(4);
+			if( operation < 2 || expected.isEmpty() )
+			{
+				String element = Integer.toString(i);
+				int index = random.nextInt(expected.size() + 1);
+				expected.add(index, element);
+				aList.add(index, element);
+			}
+			else if( operation == 2 )
+			{
+				String element = expected.remove(random.nextInt(expected.size()));
+				aList.remove(element);
+			}
+			else
+			{
+				String element = expected.remove(random.nextInt(expected.size()));
+				expected.add(element);
+				aList.remove(element);
+				aList.add(element);
+			}
+			if( i % 500 == 0 )
+			{
+				assertEquals(expected, aList);
+				for( int j = 0; j < expected.size(); j++ )
+				{
+					assertEquals(j, aList.indexOf(expected.get(j)));
+					assertSame(expected.get(j), aList.get(j));
+				}
+			}
+		}
+		assertEquals(expected, aList);
+	}
+}
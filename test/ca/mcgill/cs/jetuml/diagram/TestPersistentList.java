@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPersistentList
+{
+	private final PersistentList<String> aEmpty = PersistentList.empty();
+	
+	@Test
+	public void testEmpty()
+	{
+		assertTrue(aEmpty.isEmpty());
+		assertSame(aEmpty, PersistentList.of(List.of()));
+		assertThrows(IndexOutOfBoundsException.class, () -> aEmpty.get(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> aEmpty.without(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> aEmpty.with(1, "A"));
+	}
+	
+	@Test
+	public void testWithAndWithout()
+	{
+		PersistentList<String> list = aEmpty.withLast("B").with(0, "A").withLast("D").with(2, "C");
+		assertEquals(List.of("A", "B", "C", "D"), list);
+		assertEquals(List.of("A", "C", "D"), list.without(1));
+		assertEquals(List.of("A", "B", "C"), list.without(3));
+		assertTrue(list.without(0).without(0).without(0).without(0).isEmpty());
+	}
+	
+	@Test
+	public void testOf()
+	{
+		List<Integer> elements = new ArrayList<>();
+		for( int i = 0; i < 1000; i++ )
+		{
+			elements.add(i);
+		}
+		PersistentList<Integer> list = PersistentList.of(elements);
+		assertEquals(elements, list);
+		assertEquals(500, list.get(500));
+		assertEquals(elements.subList(0, 999), list.without(999));
+	}
+	
+	@Test
+	public void testUnsupportedOperations()
+	{
+		PersistentList<String> list = aEmpty.withLast("A");
+		assertThrows(UnsupportedOperationException.class, () -> list.add("B"));
+		assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+	}
+	
+	@Test
+	public void testVersionsAreIndependent()
+	{
+		Random random = new Random(0);
+		List<List<Integer>> expected = new ArrayList<>();
+		List<PersistentList<Integer>> versions = new ArrayList<>();
+		List<Integer> current = new ArrayList<>();
+		PersistentList<Integer> list = PersistentList.empty();
+		for( int i = 0; i < 2000; i++ )
+		{
+			if( current.isEmpty() || random.nextInt(3) > 0 )
+			{
+				int index = random.nextInt(current.size() + 1);
+				current.add(index, i);
+				list = list.with(index, i);
+			}
+			else
+			{
+				int index = random.nextInt(current.size());
+				current.remove(index);
+				list = list.without(index);
+			}
+			expected.add(new ArrayList<>(current));
+			versions.add(list);
+		}
+		for( int i = 0; i < versions.size(); i++ )
+		{
+			assertEquals(expected.get(i), versions.get(i));
+			assertEquals(expected.get(i).size(), versions.get(i).size());
+		}
+	}
+}
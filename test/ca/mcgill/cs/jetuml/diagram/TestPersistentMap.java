@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.diagram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPersistentMap
+{
+	private final PersistentMap<Object, String> aEmpty = PersistentMap.empty();
+	
+	@Test
+	public void testEmpty()
+	{
+		assertEquals(0, aEmpty.size());
+		assertNull(aEmpty.get(new Object()));
+		assertSame(aEmpty, aEmpty.without(new Object()));
+	}
+	
+	@Test
+	public void testWithAndWithout()
+	{
+		Object key1 = new Object();
+		Object key2 = new Object();
+		PersistentMap<Object, String> map = aEmpty.with(key1, "A").with(key2, "B");
+		assertEquals(2, map.size());
+		assertEquals("A", map.get(key1));
+		assertEquals("B", map.get(key2));
+		map = map.with(key1, "C");
+		assertEquals(2, map.size());
+		assertEquals("C", map.get(key1));
+		map = map.without(key2);
+		assertEquals(1, map.size());
+		assertFalse(map.containsKey(key2));
+		assertEquals(0, map.without(key1).size());
+	}
+	
+	@Test
+	public void testUnchanged()
+	{
+		Object key = new Object();
+		String value = "A";
+		PersistentMap<Object, String> map = aEmpty.with(key, value);
+		assertSame(map, map.with(key, value));
+		assertSame(map, map.without(new Object()));
+	}
+	
+	@Test
+	public void testKeysComparedByIdentity()
+	{
+		PersistentMap<Object, String> map = aEmpty.with("A", "1").with(new String("A"), "2");
+		assertEquals(2, map.size());
+		assertEquals("1", map.get("A"));
+	}
+	
+	@Test
+	public void testVersionsAreIndependent()
+	{
+		List<Object> keys = new ArrayList<>();
+		PersistentMap<Object, String> map = aEmpty;
+		for( int i = 0; i < 1000; i++ )
+		{
+			keys.add(new Object());
+			map = map.with(keys.get(i), Integer.toString(i));
+		}
+		PersistentMap<Object, String> changed = map.with(keys.get(0), "X").without(keys.get(1));
+		for( int i = 0; i < 1000; i++ )
+		{
+			assertEquals(Integer.toString(i), map.get(keys.get(i)));
+		}
+		assertEquals("X", changed.get(keys.get(0)));
+		assertNull(changed.get(keys.get(1)));
+		assertEquals(999, changed.size());
+	}
+	
+	@Test
+	public void testRandomOperations()
+	{
+		Random random = new Random(0);
+		List<Object> keys = new ArrayList<>();
+		for( int i = 0; i < 50000; i++ )
+		{
+			keys.add(new Object());
+		}
+		Map<Object, String> expected = new IdentityHashMap<>();
+		PersistentMap<Object, String> map = aEmpty;
+		for( int i = 0; i < 200000; i++ )
+		{
+			Object key = keys.get(random.nextInt(keys.size()));
+			if( random.nextInt(3) == 0 )
+			{
+				expected.remove(key);
+				map = map.without(key);
+			}
+			else
+			{
+				String value = Integer.toString(i);
+				expected.put(key, value);
+				map = map.with(key, value);
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		for( Object key : keys )
+		{
+			assertEquals(expected.get(key), map.get(key));
+		}
+		Map<Object, String> actual = new IdentityHashMap<>();
+		map.forEach(actual::put);
+		assertEquals(expected, actual);
+		assertTrue(actual.size() > 0);
+	}
+}
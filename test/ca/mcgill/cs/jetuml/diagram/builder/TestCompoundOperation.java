@@ -25,9 +25,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramChange;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+
 public class TestCompoundOperation
 {
 	private StringBuilder aBuilder;
@@ -136,4 +144,29 @@ public class TestCompoundOperation
 		aOperation.add(new SimpleOperation(()-> aBuilder.append("A"), ()->aBuilder.append("1")));
 		assertFalse(aOperation.isEmpty());
 	}
+	
+	@Test
+	public void testSingleNotification()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		diagram.addRootNode(node1);
+		diagram.addRootNode(node2);
+		List<List<DiagramChange>> notifications = new ArrayList<>();
+		diagram.addListener((pDiagram, pChanges) -> notifications.add(pChanges));
+		CompoundOperation operation = new CompoundOperation(diagram);
+		for( int i = 0; i < 3; i++ )
+		{
+			operation.add(new SimpleOperation(() -> node1.translate(10, 0), () -> node1.translate(-10, 0)));
+			operation.add(new SimpleOperation(() -> node2.translate(10, 0), () -> node2.translate(-10, 0)));
+		}
+		operation.execute();
+		assertEquals(1, notifications.size());
+		assertEquals(2, notifications.get(0).size());
+		operation.undo();
+		assertEquals(2, notifications.size());
+		assertEquals(List.of(new DiagramChange(DiagramChange.Type.NODE_MOVED, node2), 
+				new DiagramChange(DiagramChange.Type.NODE_MOVED, node1)), notifications.get(1));
+	}
 }
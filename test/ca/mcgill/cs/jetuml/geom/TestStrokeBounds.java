@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.views.PathBuilder;
+import javafx.geometry.Bounds;
+
+public class TestStrokeBounds
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	/*
+	 * Checks that the bounds are exactly the local bounds of 
+	 * the JavaFX path with the default stroke.
+	 */
+	private static void assertSameAsPath(Consumer<PathConsumer> pPath)
+	{
+		PathBuilder builder = new PathBuilder();
+		pPath.accept(builder);
+		Bounds expected = builder.getPath().getBoundsInLocal();
+		StrokeBounds bounds = new StrokeBounds();
+		pPath.accept(bounds);
+		assertEquals(expected.getMinX(), bounds.getMinX());
+		assertEquals(expected.getMinY(), bounds.getMinY());
+		assertEquals(expected.getWidth(), bounds.getWidth());
+		assertEquals(expected.getHeight(), bounds.getHeight());
+	}
+	
+	@Test
+	public void testHorizontalLine()
+	{
+		StrokeBounds bounds = new StrokeBounds();
+		bounds.moveTo(10, 20);
+		bounds.lineTo(50, 20);
+		// Half the stroke, and the margin of half a pixel 
+		assertEquals(9, bounds.getMinX());
+		assertEquals(19, bounds.getMinY());
+		assertEquals(42, bounds.getWidth());
+		assertEquals(2, bounds.getHeight());
+		assertEquals(new Rectangle(9, 19, 42, 2), bounds.getBounds());
+	}
+	
+	@Test
+	public void testEmpty()
+	{
+		assertSameAsPath(pConsumer -> {});
+		assertSameAsPath(pConsumer -> pConsumer.moveTo(10, 10));
+	}
+	
+	@Test
+	public void testLines()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(3, 7);
+			pConsumer.lineTo(48, 31);
+		});
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(20, 20);
+			pConsumer.lineTo(20, 20);
+		});
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(10.3, 10.7);
+			pConsumer.lineTo(60.1, 10.2);
+			pConsumer.lineTo(60.9, 50.4);
+		});
+	}
+	
+	@Test
+	public void testJoins()
+	{
+		// Within the miter limit
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(30, 10);
+			pConsumer.lineTo(0, 20);
+		});
+		// Beyond the miter limit
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(60, 1);
+			pConsumer.lineTo(0, 2);
+		});
+	}
+	
+	@Test
+	public void testSeveralSubpaths()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(100, 100);
+			pConsumer.lineTo(100, 50);
+			pConsumer.lineTo(20, 50);
+			pConsumer.moveTo(20, 50);
+			pConsumer.lineTo(25, 60);
+			pConsumer.lineTo(15, 60);
+			pConsumer.lineTo(20, 50);
+			pConsumer.moveTo(0, 0);
+		});
+	}
+	
+	@Test
+	public void testCurves()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.quadTo(50, 60, 100, 0);
+		});
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 50);
+			pConsumer.lineTo(20, 50);
+			pConsumer.quadTo(40, -10.5, 60, 50);
+			pConsumer.quadTo(90, 80, 70.2, 30);
+		});
+	}
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.geom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.views.PathBuilder;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+public class TestStrokeHitTester
+{
+	private static final double WIDTH = 6;
+	// Points on the boundary of round caps and joins, which JavaFX approximates with curves
+	private static final double LINE_TOLERANCE = 0.01;
+	// The flattening of the curves by the tester, and the approximation of their offset by JavaFX
+	private static final double CURVE_TOLERANCE = 0.25;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private static boolean isHit(Consumer<PathConsumer> pPath, double pX, double pY)
+	{
+		StrokeHitTester tester = new StrokeHitTester(WIDTH, pX, pY);
+		pPath.accept(tester);
+		return tester.isHit();
+	}
+	
+	private static Path createPath(Consumer<PathConsumer> pPath, double pWidth)
+	{
+		PathBuilder builder = new PathBuilder();
+		pPath.accept(builder);
+		Path path = builder.getPath();
+		path.setStrokeWidth(pWidth);
+		path.setStrokeLineCap(StrokeLineCap.ROUND);
+		path.setStrokeLineJoin(StrokeLineJoin.ROUND);
+		return path;
+	}
+	
+	/*
+	 * Compares the tester with the JavaFX path stroked with round caps and joins, on a 
+	 * grid of points with a step of a quarter pixel around the bounds of the path. Where 
+	 * they disagree, the point must be less than pTolerance away from the boundary of the stroke.
+	 */
+	private static void assertSameAsPath(Consumer<PathConsumer> pPath, double pTolerance)
+	{
+		Path path = createPath(pPath, WIDTH);
+		Path narrow = createPath(pPath, WIDTH - 2 * pTolerance);
+		Path wide = createPath(pPath, WIDTH + 2 * pTolerance);
+		javafx.geometry.Bounds bounds = path.getBoundsInLocal();
+		for( double x = Math.floor(bounds.getMinX()) - 2; x <= bounds.getMaxX() + 2; x += 0.25 )
+		{
+			for( double y = Math.floor(bounds.getMinY()) - 2; y <= bounds.getMaxY() + 2; y += 0.25 )
+			{
+				if( path.contains(x, y) != isHit(pPath, x, y) )
+				{
+					assertTrue(!narrow.contains(x, y) && wide.contains(x, y), "At (" + x + "," + y + ")");
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testHorizontalLine()
+	{
+		Consumer<PathConsumer> line = pConsumer -> 
+		{
+			pConsumer.moveTo(10, 10);
+			pConsumer.lineTo(50, 10);
+		};
+		assertTrue(isHit(line, 30, 10));
+		assertTrue(isHit(line, 30, 12.9));
+		assertFalse(isHit(line, 30, 13.1));
+		assertTrue(isHit(line, 52.9, 10));
+		assertFalse(isHit(line, 53.1, 10));
+		// The ends are round
+		assertTrue(isHit(line, 52, 12));
+		assertFalse(isHit(line, 52.5, 12.5));
+		assertSameAsPath(line, LINE_TOLERANCE);
+	}
+	
+	@Test
+	public void testDiagonalLine()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(30, 40);
+		}, LINE_TOLERANCE);
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(43, 17);
+			pConsumer.lineTo(2, 31);
+		}, LINE_TOLERANCE);
+	}
+	
+	@Test
+	public void testZeroLengthSegment()
+	{
+		Consumer<PathConsumer> point = pConsumer -> 
+		{
+			pConsumer.moveTo(20, 20);
+			pConsumer.lineTo(20, 20);
+		};
+		assertTrue(isHit(point, 20, 20));
+		assertTrue(isHit(point, 22, 22));
+		assertFalse(isHit(point, 23, 20.5));
+	}
+	
+	@Test
+	public void testMoveOnly()
+	{
+		assertFalse(isHit(pConsumer -> pConsumer.moveTo(20, 20), 20, 20));
+	}
+	
+	@Test
+	public void testRightAngle()
+	{
+		Consumer<PathConsumer> path = pConsumer -> 
+		{
+			pConsumer.moveTo(10, 10);
+			pConsumer.lineTo(60, 10);
+			pConsumer.lineTo(60, 50);
+			pConsumer.lineTo(20, 50);
+		};
+		assertTrue(isHit(path, 62, 8));
+		assertFalse(isHit(path, 62.5, 7.5));
+		assertSameAsPath(path, LINE_TOLERANCE);
+	}
+	
+	@Test
+	public void testSharpAngles()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(60, 5);
+			pConsumer.lineTo(0, 10);
+		}, LINE_TOLERANCE);
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(40, 20);
+			pConsumer.lineTo(5, 25);
+			pConsumer.lineTo(45, 45);
+		}, LINE_TOLERANCE);
+	}
+	
+	@Test
+	public void testSeveralSubpaths()
+	{
+		// A segmented edge with a triangle arrow head
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(100, 100);
+			pConsumer.lineTo(100, 50);
+			pConsumer.lineTo(20, 50);
+			pConsumer.lineTo(20, 10);
+			pConsumer.moveTo(20, 10);
+			pConsumer.lineTo(25, 20);
+			pConsumer.lineTo(15, 20);
+			pConsumer.lineTo(20, 10);
+		}, LINE_TOLERANCE);
+		// Points away from the last subpath are not hit
+		Consumer<PathConsumer> twoLines = pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.lineTo(10, 0);
+			pConsumer.moveTo(0, 20);
+			pConsumer.lineTo(10, 20);
+		};
+		assertTrue(isHit(twoLines, 5, 2));
+		assertTrue(isHit(twoLines, 5, 18));
+		assertFalse(isHit(twoLines, 5, 10));
+	}
+	
+	@Test
+	public void testCurve()
+	{
+		Consumer<PathConsumer> curve = pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.quadTo(50, 60, 100, 0);
+		};
+		assertTrue(isHit(curve, 50, 30));
+		assertTrue(isHit(curve, 50, 32.8));
+		assertFalse(isHit(curve, 50, 33.2));
+		assertTrue(isHit(curve, 50, 27.2));
+		assertFalse(isHit(curve, 50, 26.8));
+		assertTrue(isHit(curve, 0, 0));
+		assertFalse(isHit(curve, 50, 0));
+		assertSameAsPath(curve, CURVE_TOLERANCE);
+	}
+	
+	@Test
+	public void testCurvesAndLines()
+	{
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 50);
+			pConsumer.lineTo(20, 50);
+			pConsumer.quadTo(40, 0, 60, 50);
+			pConsumer.quadTo(70, 80, 90, 30);
+			pConsumer.lineTo(90, 0);
+		}, CURVE_TOLERANCE);
+		// A curve that folds back on itself
+		assertSameAsPath(pConsumer -> 
+		{
+			pConsumer.moveTo(0, 0);
+			pConsumer.quadTo(80, 10, 10, 20);
+		}, CURVE_TOLERANCE);
+	}
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.PropertyName;
+import ca.mcgill.cs.jetuml.diagram.edges.AggregationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+public class TestDiagramSnapshot
+{
+	private Diagram aDiagram;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private ClassNode aNode3;
+	private Edge aEdge;
+	private DiagramSnapshot aSnapshot;
+	private Optional<Rectangle> aRegion;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aNode1 = new ClassNode();
+		aNode2 = new ClassNode();
+		aNode2.moveTo(new Point(300, 0));
+		aNode3 = new ClassNode();
+		aNode3.moveTo(new Point(0, 300));
+		aEdge = new DependencyEdge();
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		aDiagram.addEdge(aEdge);
+		aRegion = Optional.empty();
+		aDiagram.addListener((pDiagram, pChanges) -> 
+		{
+			if( aSnapshot != null )
+			{
+				aRegion = aSnapshot.update(pChanges);
+			}
+		});
+	}
+	
+	/*
+	 * Records the diagram, then makes the changes of pChange in a batch.
+	 */
+	private void change(Runnable pChange)
+	{
+		aSnapshot = new DiagramSnapshot(aDiagram);
+		aDiagram.startBatch();
+		pChange.run();
+		aDiagram.endBatch();
+	}
+	
+	@Test
+	public void testNoChange()
+	{
+		change(() -> aNode3.translate(0, 0));
+		assertFalse(aRegion.isPresent());
+	}
+	
+	@Test
+	public void testMoveUnconnectedNode()
+	{
+		Rectangle oldBounds = NodeViewerRegistry.getBounds(aNode3);
+		change(() -> aNode3.translate(20, 10));
+		Rectangle newBounds = NodeViewerRegistry.getBounds(aNode3);
+		assertEquals(Optional.of(oldBounds.add(newBounds)), aRegion);
+	}
+	
+	@Test
+	public void testMoveConnectedNode()
+	{
+		Rectangle oldBounds = NodeViewerRegistry.getBounds(aNode2).add(EdgeViewerRegistry.getBounds(aEdge));
+		change(() -> aNode2.translate(0, 50));
+		Rectangle newBounds = NodeViewerRegistry.getBounds(aNode2).add(EdgeViewerRegistry.getBounds(aEdge));
+		assertEquals(Optional.of(oldBounds.add(newBounds)), aRegion);
+	}
+	
+	@Test
+	public void testMoveNodeSharingEndWithEdge()
+	{
+		// The positions of the edges on the side of target depend on each other
+		ClassNode moved = new ClassNode();
+		moved.moveTo(new Point(1000, 0));
+		ClassNode fixed = new ClassNode();
+		fixed.moveTo(new Point(1400, 0));
+		ClassNode target = new ClassNode();
+		target.moveTo(new Point(1200, 300));
+		Edge movedEdge = new AggregationEdge();
+		Edge fixedEdge = new AggregationEdge();
+		for( ClassNode node : new ClassNode[] { moved, fixed, target })
+		{
+			aDiagram.addRootNode(node);
+		}
+		movedEdge.connect(moved, target, aDiagram);
+		aDiagram.addEdge(movedEdge);
+		fixedEdge.connect(fixed, target, aDiagram);
+		aDiagram.addEdge(fixedEdge);
+		Rectangle oldFixedEdgeBounds = EdgeViewerRegistry.getBounds(fixedEdge);
+		Rectangle oldBounds = NodeViewerRegistry.getBounds(moved).add(EdgeViewerRegistry.getBounds(movedEdge))
+				.add(oldFixedEdgeBounds);
+		change(() -> moved.translate(600, 0));
+		assertNotEquals(oldFixedEdgeBounds, EdgeViewerRegistry.getBounds(fixedEdge));
+		Rectangle newBounds = NodeViewerRegistry.getBounds(moved).add(EdgeViewerRegistry.getBounds(movedEdge))
+				.add(EdgeViewerRegistry.getBounds(fixedEdge));
+		assertEquals(Optional.of(oldBounds.add(newBounds)), aRegion);
+	}
+	
+	@Test
+	public void testMoveChild()
+	{
+		PackageNode parent = new PackageNode();
+		parent.moveTo(new Point(600, 0));
+		ClassNode child = new ClassNode();
+		child.moveTo(new Point(610, 30));
+		parent.addChild(child);
+		aDiagram.addRootNode(parent);
+		Rectangle oldBounds = NodeViewerRegistry.getBounds(parent);
+		change(() -> child.translate(200, 200));
+		Rectangle newBounds = NodeViewerRegistry.getBounds(parent);
+		assertEquals(Optional.of(oldBounds.add(newBounds)), aRegion);
+	}
+	
+	@Test
+	public void testRemoveChild()
+	{
+		PackageNode parent = new PackageNode();
+		parent.moveTo(new Point(600, 0));
+		ClassNode child = new ClassNode();
+		child.moveTo(new Point(610, 30));
+		parent.addChild(child);
+		aDiagram.addRootNode(parent);
+		Rectangle oldBounds = NodeViewerRegistry.getBounds(parent);
+		change(() -> 
+		{
+			parent.removeChild(child);
+			child.translate(0, 400);
+			aDiagram.addRootNode(child);
+		});
+		assertEquals(Optional.of(oldBounds.add(NodeViewerRegistry.getBounds(child))), aRegion);
+	}
+	
+	@Test
+	public void testPropertyChange()
+	{
+		change(() -> aNode3.properties().get(PropertyName.NAME).set("A"));
+		assertEquals(Optional.of(NodeViewerRegistry.getBounds(aNode3)), aRegion);
+	}
+	
+	@Test
+	public void testPropertyChangeWithSameHashCode()
+	{
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		aNode3.properties().get(PropertyName.NAME).set("Aa");
+		change(() -> aNode3.properties().get(PropertyName.NAME).set("BB"));
+		assertEquals(Optional.of(NodeViewerRegistry.getBounds(aNode3)), aRegion);
+	}
+	
+	@Test
+	public void testAddAndRemove()
+	{
+		Rectangle edgeBounds = EdgeViewerRegistry.getBounds(aEdge);
+		change(() -> aDiagram.removeEdge(aEdge));
+		assertEquals(Optional.of(edgeBounds), aRegion);
+		aRegion = Optional.empty();
+		aDiagram.addEdge(aEdge);
+		assertEquals(Optional.of(edgeBounds), aRegion);
+	}
+}
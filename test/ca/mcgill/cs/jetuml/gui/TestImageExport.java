@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+import ca.mcgill.cs.jetuml.views.ImageCreator;
+import ca.mcgill.cs.jetuml.views.RenderingThread;
+import javafx.concurrent.Task;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+public class TestImageExport
+{
+	@TempDir
+	Path aDirectory;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private static Diagram diagram() throws Exception
+	{
+		return PersistenceService.read(new File("testdata/testPersistenceService.class.jet")).diagram();
+	}
+	
+	private static int[] pixels(Image pImage)
+	{
+		int width = (int) pImage.getWidth();
+		int height = (int) pImage.getHeight();
+		int[] pixels = new int[width * height];
+		pImage.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		return pixels;
+	}
+	
+	/*
+	 * The tasks are created on the JavaFX application thread and run on this one.
+	 */
+	private static <T> T run(Task<T> pTask) throws Exception
+	{
+		pTask.run();
+		return pTask.get();
+	}
+	
+	@Test
+	public void testToFile_Png() throws Exception
+	{
+		Diagram diagram = diagram();
+		File file = aDirectory.resolve("diagram.png").toFile();
+		run(RenderingThread.call(() -> ImageExport.toFile(diagram, file, "png")));
+		BufferedImage image = ImageIO.read(file);
+		Image expected = RenderingThread.call(() -> ImageCreator.createImage(diagram));
+		assertEquals((int) expected.getWidth(), image.getWidth());
+		assertEquals((int) expected.getHeight(), image.getHeight());
+	}
+	
+	@Test
+	public void testToFile_Svg() throws Exception
+	{
+		Diagram diagram = diagram();
+		File file = aDirectory.resolve("diagram.svg").toFile();
+		run(RenderingThread.call(() -> ImageExport.toFile(diagram, file, "svg")));
+		String document = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		assertTrue(document.startsWith("<?xml"));
+		assertTrue(document.trim().endsWith("</svg>"));
+	}
+	
+	@Test
+	public void testToFile_SvgInParts() throws Exception
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		for( int i = 0; i < 250; i++ )
+		{
+			ClassNode node = new ClassNode();
+			node.moveTo(new Point(i * 10, i * 20));
+			diagram.addRootNode(node);
+		}
+		File file = aDirectory.resolve("diagram.svg").toFile();
+		run(RenderingThread.call(() -> ImageExport.toFile(diagram, file, "svg")));
+		String expected = RenderingThread.call(() -> 
+		{
+			StringWriter writer = new StringWriter();
+			ImageCreator.writeSvg(diagram, writer);
+			return writer.toString();
+		});
+		assertEquals(expected, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testToFile_Failure() throws Exception
+	{
+		Diagram diagram = diagram();
+		File file = aDirectory.resolve("missing").resolve("diagram.png").toFile();
+		ExecutionException exception = assertThrows(ExecutionException.class, 
+				() -> run(RenderingThread.call(() -> ImageExport.toFile(diagram, file, "png"))));
+		assertTrue(exception.getCause() instanceof IOException);
+		assertFalse(file.exists());
+	}
+	
+	@Test
+	public void testToFile_CopyOfDiagram() throws Exception
+	{
+		Diagram diagram = diagram();
+		File file = aDirectory.resolve("diagram.png").toFile();
+		Image expected = RenderingThread.call(() -> ImageCreator.createImage(diagram));
+		Task<Void> task = RenderingThread.call(() -> ImageExport.toFile(diagram, file, "png"));
+		// Changes made after the task is created are not exported
+		Image changed = RenderingThread.call(() -> 
+		{
+			diagram.rootNodes().get(0).translate(1000, 1000);
+			return ImageCreator.createImage(diagram);
+		});
+		assertNotEquals(expected.getWidth(), changed.getWidth());
+		run(task);
+		assertEquals((int) expected.getWidth(), ImageIO.read(file).getWidth());
+	}
+	
+	/*
+	 * Returns a reference to the copy of the diagram exported by pTask, 
+	 * after running pTask.
+	 */
+	private static WeakReference<Object> runAndReferenceCopy(Task<Void> pTask) throws Exception
+	{
+		run(pTask);
+		Field imageField = pTask.getClass().getDeclaredField("aImage");
+		imageField.setAccessible(true);
+		Object image = imageField.get(pTask);
+		Field diagramField = image.getClass().getDeclaredField("aDiagram");
+		diagramField.setAccessible(true);
+		return new WeakReference<>(diagramField.get(image));
+	}
+	
+	@Test
+	public void testToFile_CopyCollected() throws Exception
+	{
+		Diagram diagram = diagram();
+		File file = aDirectory.resolve("diagram.png").toFile();
+		Task<Void> task = RenderingThread.call(() -> ImageExport.toFile(diagram, file, "png"));
+		WeakReference<Object> reference = runAndReferenceCopy(task);
+		assertNotNull(reference.get());
+		task = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
+	
+	@Test
+	public void testToImage() throws Exception
+	{
+		Diagram diagram = diagram();
+		int[] expected = RenderingThread.call(() -> pixels(ImageCreator.createImage(diagram)));
+		Image image = run(RenderingThread.call(() -> ImageExport.toImage(diagram)));
+		assertArrayEquals(expected, pixels(image));
+	}
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.testutils;
+
+import java.lang.ref.Reference;
+
+/**
+ * Support for checking in tests that objects can be garbage-collected.
+ */
+public final class MemoryUtils
+{
+	private static final int ATTEMPTS = 50;
+	private static final int PAUSE = 10; // Milliseconds
+	
+	private MemoryUtils() {}
+	
+	/**
+	 * Runs the garbage collector until the referent of pReference is collected,
+	 * giving up after a number of attempts.
+	 * 
+	 * @param pReference A reference to the object expected to be collected.
+	 * @return True if the referent of pReference was collected.
+	 */
+	public static boolean isCollected(Reference<?> pReference)
+	{
+		for( int i = 0; i < ATTEMPTS && pReference.get() != null; i++ )
+		{
+			System.gc();
+			try
+			{
+				Thread.sleep(PAUSE);
+			}
+			catch(InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return pReference.get() == null;
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.PropertyName;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Direction;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+public class TestLayoutCache
+{
+	private static final LayoutCache CACHE = LayoutCache.instance();
+	
+	private Diagram aDiagram;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private DependencyEdge aEdge;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aNode1 = new ClassNode();
+		aNode2 = new ClassNode();
+		aNode2.translate(200, 0);
+		aEdge = new DependencyEdge();
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(aEdge);
+		CACHE.resetStatistics();
+	}
+	
+	@Test
+	public void testNodeBoundsCached()
+	{
+		Rectangle bounds = NodeViewerRegistry.getBounds(aNode1);
+		assertEquals(0, CACHE.getHits());
+		assertEquals(1, CACHE.getMisses());
+		assertSame(bounds, NodeViewerRegistry.getBounds(aNode1));
+		assertEquals(1, CACHE.getHits());
+		assertEquals(1, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testConnectionPointsCachedPerDirection()
+	{
+		NodeViewerRegistry.getConnectionPoints(aNode1, Direction.EAST);
+		NodeViewerRegistry.getConnectionPoints(aNode1, Direction.EAST);
+		NodeViewerRegistry.getConnectionPoints(aNode1, Direction.WEST);
+		assertEquals(1, CACHE.getHits());
+		assertEquals(2, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testEdgeGeometryCached()
+	{
+		Rectangle bounds = EdgeViewerRegistry.getBounds(aEdge);
+		EdgeViewerRegistry.getConnectionPoints(aEdge);
+		CACHE.resetStatistics();
+		assertSame(bounds, EdgeViewerRegistry.getBounds(aEdge));
+		EdgeViewerRegistry.getConnectionPoints(aEdge);
+		assertEquals(2, CACHE.getHits());
+		assertEquals(0, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testInvalidatedByTranslate()
+	{
+		Rectangle bounds = NodeViewerRegistry.getBounds(aNode1);
+		Rectangle edgeBounds = EdgeViewerRegistry.getBounds(aEdge);
+		aNode1.translate(10, 10);
+		assertEquals(bounds.translated(10, 10), NodeViewerRegistry.getBounds(aNode1));
+		assertNotEquals(edgeBounds, EdgeViewerRegistry.getBounds(aEdge));
+	}
+	
+	@Test
+	public void testInvalidatedByPropertyChange()
+	{
+		Rectangle bounds = NodeViewerRegistry.getBounds(aNode1);
+		aNode1.properties().get(PropertyName.METHODS).set("foo()\nbar()\nbaz()");
+		CACHE.resetStatistics();
+		Rectangle newBounds = NodeViewerRegistry.getBounds(aNode1);
+		assertEquals(1, CACHE.getMisses());
+		assertTrue(newBounds.getHeight() > bounds.getHeight());
+	}
+	
+	@Test
+	public void testInvalidatedByStructuralChange()
+	{
+		NodeViewerRegistry.getBounds(aNode1);
+		aDiagram.removeEdge(aEdge);
+		CACHE.resetStatistics();
+		NodeViewerRegistry.getBounds(aNode1);
+		assertEquals(1, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testDetachedNodeNotCached()
+	{
+		ClassNode node = new ClassNode();
+		NodeViewerRegistry.getBounds(node);
+		NodeViewerRegistry.getBounds(node);
+		assertEquals(0, CACHE.getHits());
+		assertEquals(2, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testClear()
+	{
+		NodeViewerRegistry.getBounds(aNode1);
+		CACHE.clear();
+		NodeViewerRegistry.getBounds(aNode1);
+		assertEquals(0, CACHE.getHits());
+		assertEquals(2, CACHE.getMisses());
+	}
+	
+	@Test
+	public void testDiagramCollected()
+	{
+		NodeViewerRegistry.getBounds(aNode1);
+		NodeViewerRegistry.getConnectionPoints(aNode2, Direction.EAST);
+		WeakReference<Diagram> reference = new WeakReference<>(aDiagram);
+		aDiagram = null;
+		aNode1 = null;
+		aNode2 = null;
+		aEdge = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
+}
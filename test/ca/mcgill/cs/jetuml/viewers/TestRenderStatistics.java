@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Measurement;
+import ca.mcgill.cs.jetuml.viewers.RenderStatistics.Operation;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.TypeNodeViewer;
+
+public class TestRenderStatistics
+{
+	private static final RenderStatistics STATISTICS = RenderStatistics.instance();
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		STATISTICS.reset();
+		RenderStatistics.setEnabled(true);
+	}
+	
+	@AfterEach
+	public void tearDown()
+	{
+		RenderStatistics.setEnabled(false);
+	}
+	
+	@Test
+	public void testNestedOperationsExcluded() throws InterruptedException
+	{
+		STATISTICS.startFrame();
+		STATISTICS.enter();
+		STATISTICS.enter();
+		Thread.sleep(20);
+		STATISTICS.exit(String.class, Operation.LAYOUT);
+		STATISTICS.exit(Integer.class, Operation.DRAW);
+		STATISTICS.endFrame();
+		
+		List<Measurement> measurements = STATISTICS.getMeasurements();
+		assertEquals(2, measurements.size());
+		Measurement inner = measurements.get(0);
+		Measurement outer = measurements.get(1);
+		assertSame(String.class, inner.getSource());
+		assertSame(Operation.LAYOUT, inner.getOperation());
+		assertEquals(1, inner.getCalls());
+		assertTrue(inner.getTime() >= 20_000_000);
+		assertSame(Integer.class, outer.getSource());
+		assertTrue(outer.getTime() < inner.getTime());
+		assertTrue(STATISTICS.getFrameTime() >= inner.getTime() + outer.getTime());
+	}
+	
+	@Test
+	public void testCallsAccumulated()
+	{
+		STATISTICS.startFrame();
+		for( int i = 0; i < 3; i++ )
+		{
+			STATISTICS.enter();
+			STATISTICS.exit(String.class, Operation.DRAW);
+		}
+		STATISTICS.endFrame();
+		assertEquals(1, STATISTICS.getMeasurements().size());
+		assertEquals(3, STATISTICS.getMeasurements().get(0).getCalls());
+	}
+	
+	@Test
+	public void testFramesNested()
+	{
+		STATISTICS.startFrame();
+		STATISTICS.startFrame();
+		STATISTICS.enter();
+		STATISTICS.exit(String.class, Operation.DRAW);
+		STATISTICS.endFrame();
+		STATISTICS.enter();
+		STATISTICS.exit(String.class, Operation.DRAW);
+		STATISTICS.endFrame();
+		assertEquals(2, STATISTICS.getMeasurements().get(0).getCalls());
+		
+		STATISTICS.startFrame();
+		STATISTICS.endFrame();
+		assertTrue(STATISTICS.getMeasurements().isEmpty());
+	}
+	
+	@Test
+	public void testRegistryMeasuredWhenEnabled()
+	{
+		STATISTICS.startFrame();
+		NodeViewerRegistry.getBounds(new ClassNode());
+		STATISTICS.endFrame();
+		assertTrue(STATISTICS.getMeasurements().stream().anyMatch(measurement -> 
+			measurement.getSource() == TypeNodeViewer.class && measurement.getOperation() == Operation.LAYOUT));
+		assertTrue(STATISTICS.getCacheMisses() > 0);
+	}
+	
+	@Test
+	public void testOperationMeasuredWhenViewerFails()
+	{
+		STATISTICS.startFrame();
+		assertThrows(Throwable.class, () -> NodeViewerRegistry.draw(new ClassNode(), null));
+		STATISTICS.endFrame();
+		assertTrue(STATISTICS.getMeasurements().stream().anyMatch(measurement -> 
+			measurement.getSource() == TypeNodeViewer.class && measurement.getOperation() == Operation.DRAW));
+		
+		STATISTICS.startFrame();
+		STATISTICS.enter();
+		STATISTICS.exit(String.class, Operation.DRAW);
+		STATISTICS.endFrame();
+		assertEquals(1, STATISTICS.getMeasurements().size());
+	}
+	
+	@Test
+	public void testRegistryNotMeasuredWhenDisabled()
+	{
+		STATISTICS.startFrame();
+		RenderStatistics.setEnabled(false);
+		NodeViewerRegistry.getBounds(new ClassNode());
+		STATISTICS.endFrame();
+		assertTrue(STATISTICS.getMeasurements().isEmpty());
+	}
+}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.edges;
+
+import java.util.Random;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.edges.AggregationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.AssociationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.GeneralizationEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Conversions;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.geom.StrokeBounds;
+
+/**
+ * A microbenchmark for the computation of the bounds of edges on a synthetic
+ * class diagram with thousands of edges.
+ * 
+ * Compares the cost of computing the bounds of the path of every edge from the 
+ * JavaFX shape of the edge with the cost of computing them from the traced path,
+ * and reports the cost of computing the complete bounds of every edge, including 
+ * the labels. The bounds of the caches are not used.
+ * 
+ * Usage: EdgeBoundsBenchmark [edges] [repetitions]
+ */
+public final class EdgeBoundsBenchmark
+{
+	private static final int DEFAULT_EDGES = 5000;
+	private static final int DEFAULT_REPETITIONS = 10;
+	private static final int NODES_PER_ROW = 20;
+	private static final int SPACING = 250;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	
+	private static final AbstractEdgeViewer[] VIEWERS = { new DependencyEdgeViewer(), new GeneralizationEdgeViewer(), 
+			new AggregationEdgeViewer(), new AssociationEdgeViewer() };
+	
+	private EdgeBoundsBenchmark() {}
+	
+	/**
+	 * @param pArgs The number of edges and the number of repetitions.
+	 */
+	public static void main(String[] pArgs)
+	{
+		JavaFXLoader.load();
+		int numberOfEdges = pArgs.length > 0 ? Integer.parseInt(pArgs[0]) : DEFAULT_EDGES;
+		int repetitions = pArgs.length > 1 ? Integer.parseInt(pArgs[1]) : DEFAULT_REPETITIONS;
+		
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		Edge[] edges = createDiagram(diagram, numberOfEdges);
+		System.out.println(String.format("Class diagram: %d nodes, %d edges", diagram.rootNodes().size(), edges.length));
+		
+		int differences = 0;
+		for( int i = 0; i < edges.length; i++ )
+		{
+			if( !shapeBounds(edges[i], i).equals(pathBounds(edges[i], i)))
+			{
+				differences++;
+			}
+		}
+		System.out.println(String.format("Edges whose bounds differ: %d", differences));
+		
+		// Warm-up
+		computeAll(edges, 0);
+		computeAll(edges, 1);
+		computeAll(edges, 2);
+		
+		long shape = 0;
+		long path = 0;
+		long complete = 0;
+		for( int i = 0; i < repetitions; i++ )
+		{
+			shape += computeAll(edges, 0);
+			path += computeAll(edges, 1);
+			complete += computeAll(edges, 2);
+		}
+		System.out.println(String.format("Path bounds from the shape:  %.2f ms", shape / NANOS_PER_MILLI / repetitions));
+		System.out.println(String.format("Path bounds from the trace:  %.2f ms", path / NANOS_PER_MILLI / repetitions));
+		System.out.println(String.format("Complete bounds:             %.2f ms", complete / NANOS_PER_MILLI / repetitions));
+		System.exit(0); // Stops the JavaFX toolkit
+	}
+	
+	private static Rectangle shapeBounds(Edge pEdge, int pIndex)
+	{
+		AbstractEdgeViewer viewer = VIEWERS[pIndex % VIEWERS.length];
+		return Conversions.toRectangle(viewer.getShape(pEdge).getBoundsInLocal());
+	}
+	
+	private static Rectangle pathBounds(Edge pEdge, int pIndex)
+	{
+		AbstractEdgeViewer viewer = VIEWERS[pIndex % VIEWERS.length];
+		StrokeBounds bounds = new StrokeBounds();
+		viewer.tracePath(pEdge, bounds);
+		return bounds.getBounds();
+	}
+	
+	/*
+	 * Returns the time in nanoseconds to compute the bounds of all the edges, 
+	 * from the shape (0), from the traced path (1), or complete (2). 
+	 */
+	private static long computeAll(Edge[] pEdges, int pMethod)
+	{
+		long start = System.nanoTime();
+		int checksum = 0;
+		for( int i = 0; i < pEdges.length; i++ )
+		{
+			Rectangle bounds;
+			if( pMethod == 0 )
+			{
+				bounds = shapeBounds(pEdges[i], i);
+			}
+			else if( pMethod == 1 )
+			{
+				bounds = pathBounds(pEdges[i], i);
+			}
+			else
+			{
+				bounds = VIEWERS[i % VIEWERS.length].getBounds(pEdges[i]);
+			}
+			checksum += bounds.getWidth();
+		}
+		long time = System.nanoTime() - start;
+		if( checksum < 0 )
+		{
+			System.out.println(checksum); // Prevents the computations from being optimized away
+		}
+		return time;
+	}
+	
+	/*
+	 * Creates a grid of class nodes connected by pEdges edges between random
+	 * nodes, whose types cycle through the types of VIEWERS. 
+	 */
+	private static Edge[] createDiagram(Diagram pDiagram, int pEdges)
+	{
+		int numberOfNodes = Math.max(2, pEdges / 10);
+		ClassNode[] nodes = new ClassNode[numberOfNodes];
+		for( int i = 0; i < nodes.length; i++ )
+		{
+			nodes[i] = new ClassNode();
+			nodes[i].translate(i % NODES_PER_ROW * SPACING, i / NODES_PER_ROW * SPACING);
+			pDiagram.addRootNode(nodes[i]);
+		}
+		Random random = new Random(0);
+		Edge[] edges = new Edge[pEdges];
+		for( int i = 0; i < edges.length; i++ )
+		{
+			edges[i] = createEdge(i);
+			ClassNode start = nodes[random.nextInt(nodes.length)];
+			ClassNode end = nodes[random.nextInt(nodes.length)];
+			while( end == start )
+			{
+				end = nodes[random.nextInt(nodes.length)];
+			}
+			edges[i].connect(start, end, pDiagram);
+			pDiagram.addEdge(edges[i]);
+		}
+		return edges;
+	}
+	
+	private static Edge createEdge(int pIndex)
+	{
+		switch( pIndex % VIEWERS.length )
+		{
+		case 0: 
+			return new DependencyEdge();
+		case 1: 
+			return new GeneralizationEdge();
+		case 2: 
+			return new AggregationEdge(AggregationEdge.Type.Composition);
+		default:
+			AssociationEdge edge = new AssociationEdge();
+			edge.setStartLabel("0..*");
+			edge.setEndLabel("aField");
+			return edge;
+		}
+	}
+}
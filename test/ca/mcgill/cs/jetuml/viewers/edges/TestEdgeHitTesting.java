@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.edges;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.edges.AggregationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.GeneralizationEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.ObjectReferenceEdge;
+import ca.mcgill.cs.jetuml.diagram.edges.StateTransitionEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.FieldNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ObjectNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.StateNode;
+import ca.mcgill.cs.jetuml.geom.Line;
+import ca.mcgill.cs.jetuml.geom.Point;
+import javafx.geometry.Bounds;
+import javafx.scene.shape.Arc;
+import javafx.scene.shape.Shape;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+
+/*
+ * Compares the hit test of edges with the stroked shape of the edge, 
+ * which is how edges used to be hit tested. Since the hit test is based
+ * on the distance to the path of the edge, the shape is stroked with 
+ * round caps and joins.
+ */
+public class TestEdgeHitTesting
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private static void connect(Diagram pDiagram, Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd, pDiagram);
+		pDiagram.addEdge(pEdge);
+	}
+	
+	private static boolean shapeContains(AbstractEdgeViewer pViewer, Edge pEdge, Shape pShape, Point pPoint)
+	{
+		if( pShape instanceof Arc )
+		{
+			return pShape.contains(pPoint.getX(), pPoint.getY());
+		}
+		Line connectionPoints = pViewer.getConnectionPoints(pEdge);
+		if( pPoint.distance(connectionPoints.getPoint1()) <= AbstractEdgeViewer.MAX_DISTANCE || 
+				pPoint.distance(connectionPoints.getPoint2()) <= AbstractEdgeViewer.MAX_DISTANCE )
+		{
+			return false;
+		}
+		return pShape.contains(pPoint.getX(), pPoint.getY());
+	}
+	
+	private static Shape createShape(AbstractEdgeViewer pViewer, Edge pEdge, double pWidthDifference)
+	{
+		Shape shape = pViewer.getShape(pEdge);
+		if( shape instanceof Arc )
+		{
+			Arc arc = (Arc) shape;
+			arc.setRadiusX(arc.getRadiusX() + 2 * AbstractEdgeViewer.MAX_DISTANCE + pWidthDifference / 2);
+			arc.setRadiusY(arc.getRadiusY() + 2 * AbstractEdgeViewer.MAX_DISTANCE + pWidthDifference / 2);
+		}
+		else
+		{
+			shape.setStrokeWidth(2 * AbstractEdgeViewer.MAX_DISTANCE + pWidthDifference);
+			shape.setStrokeLineCap(StrokeLineCap.ROUND);
+			shape.setStrokeLineJoin(StrokeLineJoin.ROUND);
+		}
+		return shape;
+	}
+	
+	/*
+	 * Checks that the edge is hit at the same points as its stroked shape, around the 
+	 * edge, except for points that are less than pTolerance away from the boundary
+	 * of the stroke.
+	 */
+	private static void assertSameHits(AbstractEdgeViewer pViewer, Edge pEdge, double pTolerance)
+	{
+		Shape shape = createShape(pViewer, pEdge, 0);
+		Shape narrow = createShape(pViewer, pEdge, -2 * pTolerance);
+		Shape wide = createShape(pViewer, pEdge, 2 * pTolerance);
+		Bounds bounds = shape.getBoundsInLocal();
+		int hits = 0;
+		for( int x = (int) bounds.getMinX() - 2; x <= bounds.getMaxX() + 2; x++ )
+		{
+			for( int y = (int) bounds.getMinY() - 2; y <= bounds.getMaxY() + 2; y++ )
+			{
+				Point point = new Point(x, y);
+				boolean hit = pViewer.contains(pEdge, point);
+				if( hit )
+				{
+					hits++;
+				}
+				if( hit != shapeContains(pViewer, pEdge, shape, point))
+				{
+					assertTrue(!shapeContains(pViewer, pEdge, narrow, point) && shapeContains(pViewer, pEdge, wide, point),
+							"At " + point);
+				}
+			}
+		}
+		assertTrue(hits > 0);
+	}
+	
+	@Test
+	public void testSegmentedEdges()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		ClassNode node3 = new ClassNode();
+		node2.translate(250, 40);
+		node3.translate(80, 200);
+		diagram.addRootNode(node1);
+		diagram.addRootNode(node2);
+		diagram.addRootNode(node3);
+		DependencyEdge dependency = new DependencyEdge();
+		GeneralizationEdge generalization = new GeneralizationEdge(GeneralizationEdge.Type.Implementation);
+		AggregationEdge composition = new AggregationEdge(AggregationEdge.Type.Composition);
+		connect(diagram, dependency, node1, node2);
+		connect(diagram, generalization, node3, node1);
+		connect(diagram, composition, node2, node3);
+		
+		// JavaFX approximates round joins with curves, so points at exactly 
+		// MAX_DISTANCE from a corner can be on either side of the boundary.
+		assertSameHits(new DependencyEdgeViewer(), dependency, 0.01);
+		assertSameHits(new GeneralizationEdgeViewer(), generalization, 0.01);
+		assertSameHits(new AggregationEdgeViewer(), composition, 0.01);
+	}
+	
+	@Test
+	public void testObjectReferenceEdges()
+	{
+		Diagram diagram = new Diagram(DiagramType.OBJECT);
+		ObjectNode object1 = new ObjectNode();
+		FieldNode field = new FieldNode();
+		object1.addChild(field);
+		ObjectNode object2 = new ObjectNode();
+		ObjectNode object3 = new ObjectNode();
+		object2.translate(300, 100);
+		object3.translate(0, 200);
+		diagram.addRootNode(object1);
+		diagram.addRootNode(object2);
+		diagram.addRootNode(object3);
+		ObjectReferenceEdge sShaped = new ObjectReferenceEdge();
+		ObjectReferenceEdge cShaped = new ObjectReferenceEdge();
+		connect(diagram, sShaped, field, object2);
+		connect(diagram, cShaped, field, object3);
+		
+		ObjectReferenceEdgeViewer viewer = new ObjectReferenceEdgeViewer();
+		assertSameHits(viewer, sShaped, 0.5);
+		assertSameHits(viewer, cShaped, 0.5);
+	}
+	
+	@Test
+	public void testStateTransitionEdges()
+	{
+		Diagram diagram = new Diagram(DiagramType.STATE);
+		StateNode state1 = new StateNode();
+		StateNode state2 = new StateNode();
+		state2.translate(200, 100);
+		diagram.addRootNode(state1);
+		diagram.addRootNode(state2);
+		StateTransitionEdge transition1 = new StateTransitionEdge();
+		StateTransitionEdge transition2 = new StateTransitionEdge();
+		StateTransitionEdge self1 = new StateTransitionEdge();
+		StateTransitionEdge self2 = new StateTransitionEdge();
+		connect(diagram, transition1, state1, state2);
+		connect(diagram, transition2, state2, state1);
+		connect(diagram, self1, state1, state1);
+		connect(diagram, self2, state1, state1);
+		
+		StateTransitionEdgeViewer viewer = new StateTransitionEdgeViewer();
+		assertSameHits(viewer, transition1, 0.5);
+		assertSameHits(viewer, transition2, 0.5);
+		assertSameHits(viewer, self1, 0);
+		assertSameHits(viewer, self2, 0);
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.edges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.edges.AssociationEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+import ca.mcgill.cs.jetuml.viewers.edges.SegmentationStyle.Side;
+import ca.mcgill.cs.jetuml.viewers.edges.SegmentationStyleFactory.Position;
+
+public class TestEdgePositionIndex
+{
+	private Diagram aDiagram;
+	private ClassNode aTarget;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private ClassNode aNode3;
+	private ClassNode aNode4;
+	private Edge aEdge1;
+	private Edge aEdge2;
+	private Edge aEdge3;
+	private EdgePositionIndex aIndex;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aTarget = new ClassNode();
+		aNode1 = new ClassNode();
+		aNode1.translate(300, 0);
+		aNode2 = new ClassNode();
+		aNode2.translate(300, 200);
+		aNode3 = new ClassNode();
+		aNode3.translate(0, 500);
+		aNode4 = new ClassNode();
+		aNode4.translate(300, 500);
+		for( ClassNode node : new ClassNode[] {aTarget, aNode1, aNode2, aNode3, aNode4})
+		{
+			aDiagram.addRootNode(node);
+		}
+		aEdge1 = connect(aTarget, aNode1);
+		aEdge2 = connect(aTarget, aNode2);
+		aEdge3 = connect(aNode3, aNode4);
+		aIndex = EdgePositionIndex.forDiagram(aDiagram);
+	}
+	
+	private Edge connect(ClassNode pStart, ClassNode pEnd)
+	{
+		Edge edge = new AssociationEdge();
+		edge.connect(pStart, pEnd, aDiagram);
+		aDiagram.addEdge(edge);
+		return edge;
+	}
+	
+	@Test
+	public void testForDiagram()
+	{
+		assertSame(aIndex, EdgePositionIndex.forDiagram(aDiagram));
+		assertNotSame(aIndex, EdgePositionIndex.forDiagram(new Diagram(DiagramType.CLASS)));
+	}
+	
+	@Test
+	public void testDiagramCollected()
+	{
+		EdgeViewerRegistry.getBounds(aEdge1);
+		aIndex.getPosition(aEdge2, aTarget, Side.EAST);
+		WeakReference<Diagram> reference = new WeakReference<>(aDiagram);
+		aDiagram = null;
+		aTarget = null;
+		aNode1 = null;
+		aNode2 = null;
+		aNode3 = null;
+		aNode4 = null;
+		aEdge1 = null;
+		aEdge2 = null;
+		aEdge3 = null;
+		aIndex = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
+	
+	@Test
+	public void testEdgesConnectedTo()
+	{
+		assertEquals(2, aIndex.edgesConnectedTo(aTarget).size());
+		assertSame(aEdge1, aIndex.edgesConnectedTo(aTarget).get(0));
+		assertSame(aEdge2, aIndex.edgesConnectedTo(aTarget).get(1));
+		assertEquals(1, aIndex.edgesConnectedTo(aNode4).size());
+		aDiagram.removeEdge(aEdge1);
+		assertEquals(1, aIndex.edgesConnectedTo(aTarget).size());
+		assertEquals(1, aIndex.edgesConnectedTo(aNode1).size() + aIndex.edgesConnectedTo(aNode2).size());
+	}
+	
+	@Test
+	public void testPositions()
+	{
+		Position position1 = aIndex.getPosition(aEdge1, aTarget, Side.EAST);
+		Position position2 = aIndex.getPosition(aEdge2, aTarget, Side.EAST);
+		assertEquals(1, position1.getIndex());
+		assertEquals(2, position2.getIndex());
+		assertEquals(2, position1.getTotal());
+		assertEquals(0, aIndex.getPosition(aEdge3, aTarget, Side.EAST).getIndex());
+	}
+	
+	@Test
+	public void testPositionsUpdatedWhenNeighborMoves()
+	{
+		assertEquals(1, aIndex.getPosition(aEdge1, aTarget, Side.EAST).getIndex());
+		aNode1.translate(0, 400);
+		assertEquals(2, aIndex.getPosition(aEdge1, aTarget, Side.EAST).getIndex());
+		assertEquals(1, aIndex.getPosition(aEdge2, aTarget, Side.EAST).getIndex());
+	}
+	
+	@Test
+	public void testUnaffectedPositionsReused()
+	{
+		Position unaffected = aIndex.getPosition(aEdge3, aNode3, Side.EAST);
+		Position affected = aIndex.getPosition(aEdge1, aTarget, Side.EAST);
+		aNode1.translate(0, 10);
+		assertSame(unaffected, aIndex.getPosition(aEdge3, aNode3, Side.EAST));
+		assertNotSame(affected, aIndex.getPosition(aEdge1, aTarget, Side.EAST));
+	}
+}
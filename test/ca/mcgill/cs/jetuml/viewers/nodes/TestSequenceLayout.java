@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020, 2021 by McGill University.
+ *     
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.viewers.nodes;
+
+import static ca.mcgill.cs.jetuml.views.FontMetrics.DEFAULT_FONT_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.edges.CallEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.CallNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.ImplicitParameterNode;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+
+public class TestSequenceLayout
+{
+	private static int userDefinedFontSize;
+	private Diagram aDiagram;
+	private ImplicitParameterNode aObject1;
+	private ImplicitParameterNode aObject2;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		userDefinedFontSize = UserPreferences.instance().getInteger(UserPreferences.IntegerPreference.fontSize);
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
+		JavaFXLoader.load();
+	}
+	
+	@AfterAll
+	public static void restorePreferences()
+	{
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, userDefinedFontSize);
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.SEQUENCE);
+		aObject1 = new ImplicitParameterNode();
+		aObject2 = new ImplicitParameterNode();
+		aObject2.translate(200, 0);
+		aDiagram.addRootNode(aObject1);
+		aDiagram.addRootNode(aObject2);
+	}
+	
+	/*
+	 * Creates a chain of pDepth nested calls alternating between the two objects.
+	 */
+	private CallNode[] createCallChain(int pDepth)
+	{
+		CallNode[] nodes = new CallNode[pDepth];
+		for( int i = 0; i < pDepth; i++ )
+		{
+			nodes[i] = new CallNode();
+			(i % 2 == 0 ? aObject1 : aObject2).addChild(nodes[i]);
+			nodes[i].attach(aDiagram);
+			if( i > 0 )
+			{
+				CallEdge edge = new CallEdge();
+				edge.connect(nodes[i-1], nodes[i], aDiagram);
+				aDiagram.addEdge(edge);
+			}
+		}
+		return nodes;
+	}
+	
+	@Test
+	public void testLayoutReusedUntilDiagramChanges()
+	{
+		CallNode[] nodes = createCallChain(3);
+		Rectangle bounds = SequenceLayout.getCallNodeBounds(nodes[1]);
+		assertSame(bounds, SequenceLayout.getCallNodeBounds(nodes[1]));
+		aObject2.translate(10, 0);
+		Rectangle newBounds = SequenceLayout.getCallNodeBounds(nodes[1]);
+		assertNotSame(bounds, newBounds);
+		assertEquals(bounds.getX() + 10, newBounds.getX());
+		assertSame(newBounds, SequenceLayout.getCallNodeBounds(nodes[1]));
+	}
+	
+	@Test
+	public void testLayoutNotReusedWhenParentOutsideDiagram()
+	{
+		ImplicitParameterNode object = new ImplicitParameterNode();
+		CallNode node = new CallNode();
+		object.addChild(node);
+		node.attach(aDiagram);
+		int x = SequenceLayout.getCallNodeBounds(node).getX();
+		object.translate(100, 0);
+		assertEquals(x + 100, SequenceLayout.getCallNodeBounds(node).getX());
+	}
+	
+	@Test
+	public void testDiagramCollected()
+	{
+		SequenceLayout.getImplicitParameterNodeBounds(aObject1);
+		WeakReference<Diagram> reference = new WeakReference<>(aDiagram);
+		aDiagram = null;
+		aObject1 = null;
+		aObject2 = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
+	
+	@Test
+	public void testDeepCallChain()
+	{
+		CallNode[] nodes = createCallChain(400);
+		Rectangle first = SequenceLayout.getCallNodeBounds(nodes[0]);
+		Rectangle last = SequenceLayout.getCallNodeBounds(nodes[nodes.length-1]);
+		assertEquals(first.getMaxY(), last.getMaxY() + (nodes.length - 1) * 20);
+		assertEquals(first.getMaxY() + 20, SequenceLayout.getImplicitParameterNodeBounds(aObject1).getMaxY());
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.Raster;
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+public class TestDiagramImage
+{
+	private static final int PADDING = 4;
+	private static final int ANTI_ALIASING_TOLERANCE = 48;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	/*
+	 * Drawing must be done on the JavaFX application thread.
+	 */
+	private static <T> T onFXThread(Callable<T> pCallable) throws Exception
+	{
+		FutureTask<T> task = new FutureTask<>(pCallable);
+		Platform.runLater(task);
+		return task.get();
+	}
+	
+	private static Diagram diagram(String pFileName) throws Exception
+	{
+		return PersistenceService.read(new File("testdata/" + pFileName)).diagram();
+	}
+	
+	private static DiagramImage tiledImage(Diagram pDiagram, int pTileSize)
+	{
+		Rectangle bounds = DiagramType.viewerFor(pDiagram).getBounds(pDiagram);
+		return new DiagramImage(pDiagram, new Rectangle(bounds.getX() - PADDING, bounds.getY() - PADDING, 
+				bounds.getWidth() + PADDING * 2, bounds.getHeight() + PADDING * 2), pTileSize);
+	}
+	
+	private static int[] pixels(Image pImage)
+	{
+		int width = (int) pImage.getWidth();
+		int height = (int) pImage.getHeight();
+		int[] pixels = new int[width * height];
+		pImage.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		for( int i = 0; i < pixels.length; i++ )
+		{
+			pixels[i] &= 0xffffff;
+		}
+		return pixels;
+	}
+	
+	private static int[] pixels(Raster pRaster)
+	{
+		return (int[]) pRaster.getDataElements(pRaster.getMinX(), pRaster.getMinY(), pRaster.getWidth(), pRaster.getHeight(), null);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService.sequence.jet"})
+	public void testSameAsImage(String pFileName) throws Exception
+	{
+		Diagram diagram = diagram(pFileName);
+		int[] expected = onFXThread(() -> pixels(ImageCreator.createImage(diagram)));
+		// A tile size that does not divide the dimensions of the image
+		DiagramImage image = tiledImage(diagram, 37);
+		assertArrayEquals(expected, onFXThread(() -> pixels(image.getData())));
+	}
+	
+	/*
+	 * The renderer clips curves to the canvas before drawing them, 
+	 * which slightly changes the anti-aliasing of curves that cross the 
+	 * edge of a tile.
+	 */
+	@Test
+	public void testSameAsImage_Curves() throws Exception
+	{
+		Diagram diagram = diagram("testPersistenceService.state.jet");
+		int[] expected = onFXThread(() -> pixels(ImageCreator.createImage(diagram)));
+		int[] actual = onFXThread(() -> pixels(tiledImage(diagram, 37).getData()));
+		assertEquals(expected.length, actual.length);
+		for( int i = 0; i < expected.length; i++ )
+		{
+			for( int shift = 0; shift < 24; shift += 8 )
+			{
+				assertTrue(Math.abs((expected[i] >> shift & 0xff) - (actual[i] >> shift & 0xff)) <= ANTI_ALIASING_TOLERANCE);
+			}
+		}
+	}
+	
+	@Test
+	public void testGetData_OffRenderingThread() throws Exception
+	{
+		Diagram diagram = diagram("testPersistenceService.class.jet");
+		int[] expected = onFXThread(() -> pixels(ImageCreator.createImage(diagram)));
+		DiagramImage image = onFXThread(() -> tiledImage(diagram, 37));
+		// The strips are drawn on the JavaFX application thread on behalf of this one
+		assertArrayEquals(expected, pixels(image.getData()));
+	}
+	
+	@Test
+	public void testGetData_Region() throws Exception
+	{
+		Diagram diagram = diagram("testPersistenceService.class.jet");
+		DiagramImage image = tiledImage(diagram, 50);
+		Raster all = onFXThread(() -> image.getData());
+		java.awt.Rectangle row = new java.awt.Rectangle(0, 75, image.getWidth(), 1);
+		Raster region = onFXThread(() -> image.getData(row));
+		assertEquals(row, region.getBounds());
+		assertArrayEquals(pixels(all.createChild(0, 75, image.getWidth(), 1, 0, 75, null)), pixels(region));
+	}
+	
+	@Test
+	public void testGetTile_Strips() throws Exception
+	{
+		Diagram diagram = diagram("testPersistenceService.class.jet");
+		DiagramImage image = tiledImage(diagram, 50);
+		assertEquals(1, image.getNumXTiles());
+		assertEquals((image.getHeight() + 49) / 50, image.getNumYTiles());
+		Raster strip = onFXThread(() -> image.getTile(0, 1));
+		assertEquals(new java.awt.Rectangle(0, 50, image.getWidth(), 50), strip.getBounds());
+		// The last strip is kept until another one is requested
+		assertSame(strip, onFXThread(() -> image.getTile(0, 1)));
+	}
+}
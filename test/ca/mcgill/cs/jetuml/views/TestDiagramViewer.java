@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+
+public class TestDiagramViewer
+{
+	private static final Rectangle AREA = new Rectangle(0, 0, 3000, 3000);
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	/*
+	 * The SVG elements written by pDrawing.
+	 */
+	private static String svg(Consumer<RenderingTarget> pDrawing)
+	{
+		StringWriter writer = new StringWriter();
+		SvgRenderingTarget target = new SvgRenderingTarget(writer, AREA);
+		pDrawing.accept(target);
+		target.finish();
+		return writer.toString();
+	}
+	
+	@Test
+	public void testDrawVisible_SkipsElementsOutside()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassNode visible = new ClassNode();
+		visible.setName("VisibleNode");
+		ClassNode hidden = new ClassNode();
+		hidden.setName("HiddenNode");
+		hidden.moveTo(new Point(1000, 1000));
+		diagram.addRootNode(visible);
+		diagram.addRootNode(hidden);
+		DiagramViewer viewer = DiagramType.viewerFor(diagram);
+		String document = svg(target -> viewer.draw(diagram, target, new Rectangle(0, 0, 200, 200)));
+		assertTrue(document.contains("VisibleNode"));
+		assertFalse(document.contains("HiddenNode"));
+	}
+	
+	@Test
+	public void testDrawVisible_SameOrderAsDrawAll() throws Exception
+	{
+		for( String file : new String[] {"testPersistenceService.class.jet", "testPersistenceService.object.jet", 
+				"testPersistenceService.sequence.jet"} )
+		{
+			Diagram diagram = PersistenceService.read(new File("testdata/" + file)).diagram();
+			DiagramViewer viewer = DiagramType.viewerFor(diagram);
+			assertEquals(svg(target -> viewer.draw(diagram, target)), 
+					svg(target -> viewer.draw(diagram, target, viewer.getBounds(diagram))), file);
+		}
+	}
+}
@@ -21,14 +21,58 @@
 package ca.mcgill.cs.jetuml.views;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import ca.mcgill.cs.jetuml.JavaFXLoader;
 import ca.mcgill.cs.jetuml.geom.Dimension;
 import ca.mcgill.cs.jetuml.geom.Point;
+import javafx.scene.image.PixelReader;
 
 public class TestGrid
 {
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@Test
+	public void testTile_DefaultScale()
+	{
+		Grid.Tile tile = Grid.tile(null, 1, 0.6);
+		assertEquals(1, tile.getCells());
+		assertEquals(10, (int) tile.getImage().getWidth());
+		PixelReader reader = tile.getImage().getPixelReader();
+		// The lines cover 60% of the first row and column of pixels
+		assertEquals(0.6, reader.getColor(0, 5).getOpacity(), 0.01);
+		assertEquals(0.6, reader.getColor(5, 0).getOpacity(), 0.01);
+		assertEquals(0.0, reader.getColor(5, 5).getOpacity(), 0.01);
+		assertEquals(0.84, reader.getColor(0, 0).getOpacity(), 0.01);
+	}
+	
+	@Test
+	public void testTile_WholePixelSize()
+	{
+		assertEquals(2, Grid.tile(null, 1.25, 0.6).getCells());
+		assertEquals(25, (int) Grid.tile(null, 1.25, 0.6).getImage().getWidth());
+		assertEquals(5, Grid.tile(null, 0.64, 0.6).getCells());
+		assertEquals(32, (int) Grid.tile(null, 0.64, 0.6).getImage().getWidth());
+	}
+	
+	@Test
+	public void testTile_Cached()
+	{
+		Grid.Tile tile = Grid.tile(null, 1, 0.6);
+		assertSame(tile, Grid.tile(tile, 1, 0.6));
+		assertNotSame(tile, Grid.tile(tile, 2, 0.6));
+		assertNotSame(tile, Grid.tile(tile, 1, 1));
+		assertNotSame(tile, Grid.tile(null, 1, 0.6));
+	}
+	
 	@Test
 	public void testSnapped_ToTopLeft()
 	{
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.application.UserPreferences;
+import ca.mcgill.cs.jetuml.application.UserPreferences.IntegerPreference;
+
+public class TestLevelOfDetail
+{
+	private static int userNamesOnlyZoom;
+	private static int userOutlineZoom;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		userNamesOnlyZoom = UserPreferences.instance().getInteger(IntegerPreference.namesOnlyZoom);
+		userOutlineZoom = UserPreferences.instance().getInteger(IntegerPreference.outlineZoom);
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, 60);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, 35);
+	}
+	
+	@AfterAll
+	public static void restorePreferences()
+	{
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, userNamesOnlyZoom);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, userOutlineZoom);
+	}
+	
+	@Test
+	public void testForZoom_Full()
+	{
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.forZoom(1.5625));
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.forZoom(1));
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.forZoom(0.64));
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.forZoom(0.6));
+	}
+	
+	@Test
+	public void testForZoom_NamesOnly()
+	{
+		assertSame(LevelOfDetail.NAMES_ONLY, LevelOfDetail.forZoom(0.512));
+		assertSame(LevelOfDetail.NAMES_ONLY, LevelOfDetail.forZoom(0.35));
+	}
+	
+	@Test
+	public void testForZoom_Outline()
+	{
+		assertSame(LevelOfDetail.OUTLINE, LevelOfDetail.forZoom(0.3));
+		assertSame(LevelOfDetail.OUTLINE, LevelOfDetail.forZoom(0.01));
+	}
+	
+	@Test
+	public void testForZoom_Thresholds()
+	{
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, 0);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, 0);
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.forZoom(0.01));
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, 200);
+		assertSame(LevelOfDetail.NAMES_ONLY, LevelOfDetail.forZoom(1));
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, 60);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, 35);
+	}
+	
+	@Test
+	public void testCurrent()
+	{
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.current());
+		LevelOfDetail.setCurrent(LevelOfDetail.OUTLINE);
+		assertSame(LevelOfDetail.OUTLINE, LevelOfDetail.current());
+		LevelOfDetail.setCurrent(LevelOfDetail.FULL);
+		assertSame(LevelOfDetail.FULL, LevelOfDetail.current());
+	}
+	
+	@Test
+	public void testShows()
+	{
+		assertTrue(LevelOfDetail.FULL.showsText());
+		assertTrue(LevelOfDetail.FULL.showsNames());
+		assertTrue(LevelOfDetail.FULL.showsArrowHeads());
+		assertTrue(LevelOfDetail.FULL.showsShadows());
+		assertFalse(LevelOfDetail.NAMES_ONLY.showsText());
+		assertTrue(LevelOfDetail.NAMES_ONLY.showsNames());
+		assertTrue(LevelOfDetail.NAMES_ONLY.showsArrowHeads());
+		assertFalse(LevelOfDetail.NAMES_ONLY.showsShadows());
+		assertFalse(LevelOfDetail.OUTLINE.showsText());
+		assertFalse(LevelOfDetail.OUTLINE.showsNames());
+		assertFalse(LevelOfDetail.OUTLINE.showsArrowHeads());
+		assertFalse(LevelOfDetail.OUTLINE.showsShadows());
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import javafx.application.Platform;
+
+public class TestRenderingThread
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@Test
+	public void testCall_FromOtherThread() throws Exception
+	{
+		assertFalse(Platform.isFxApplicationThread());
+		assertTrue(RenderingThread.call(Platform::isFxApplicationThread));
+	}
+	
+	@Test
+	public void testCall_FromRenderingThread() throws Exception
+	{
+		// The nested call would never complete if it waited for the thread it runs on
+		assertEquals("nested", RenderingThread.call(() -> RenderingThread.call(() -> "nested")));
+	}
+	
+	@Test
+	public void testCall_Exception()
+	{
+		IOException exception = new IOException();
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> RenderingThread.call(() -> 
+		{
+			throw exception;
+		}));
+		assertSame(exception, thrown.getCause());
+	}
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.diagram.DiagramType;
+import ca.mcgill.cs.jetuml.diagram.Edge;
+import ca.mcgill.cs.jetuml.diagram.Node;
+import ca.mcgill.cs.jetuml.diagram.edges.DependencyEdge;
+import ca.mcgill.cs.jetuml.diagram.nodes.ClassNode;
+import ca.mcgill.cs.jetuml.diagram.nodes.PackageNode;
+import ca.mcgill.cs.jetuml.geom.Point;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.testutils.MemoryUtils;
+import ca.mcgill.cs.jetuml.viewers.edges.EdgeViewerRegistry;
+import ca.mcgill.cs.jetuml.viewers.nodes.NodeViewerRegistry;
+
+public class TestSpatialIndex
+{
+	private Diagram aDiagram;
+	private PackageNode aOuter;
+	private PackageNode aInner;
+	private ClassNode aNested;
+	private ClassNode aNode1;
+	private ClassNode aNode2;
+	private Edge aEdge;
+	private SpatialIndex aIndex;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aDiagram = new Diagram(DiagramType.CLASS);
+		aOuter = new PackageNode();
+		aOuter.translate(10, 10);
+		aInner = new PackageNode();
+		aInner.translate(20, 40);
+		aNested = new ClassNode();
+		aNested.translate(30, 70);
+		aInner.addChild(aNested);
+		aOuter.addChild(aInner);
+		aNode1 = new ClassNode();
+		aNode1.translate(400, 0);
+		aNode2 = new ClassNode();
+		aNode2.translate(1000, 600);
+		for( Node node : new Node[] {aOuter, aNode1, aNode2})
+		{
+			aDiagram.addRootNode(node);
+		}
+		aEdge = new DependencyEdge();
+		aEdge.connect(aNode1, aNode2, aDiagram);
+		aDiagram.addEdge(aEdge);
+		aIndex = SpatialIndex.forDiagram(aDiagram);
+	}
+	
+	@Test
+	public void testNodesAt()
+	{
+		assertEquals(List.of(aOuter, aInner, aNested), aIndex.nodesAt(new Point(40, 80)));
+		assertEquals(List.of(aNode1), aIndex.nodesAt(new Point(410, 10)));
+		assertTrue(aIndex.nodesAt(new Point(2000, 2000)).isEmpty());
+	}
+	
+	@Test
+	public void testEdgesAt()
+	{
+		Point middle = EdgeViewerRegistry.getConnectionPoints(aEdge).spanning().getCenter();
+		assertEquals(List.of(aEdge), aIndex.edgesAt(middle));
+		assertTrue(aIndex.edgesAt(new Point(40, 80)).isEmpty());
+	}
+	
+	@Test
+	public void testDiagramCollected()
+	{
+		aIndex.nodesAt(new Point(40, 80));
+		aIndex.edgesAt(new Point(40, 80));
+		WeakReference<Diagram> reference = new WeakReference<>(aDiagram);
+		aDiagram = null;
+		aOuter = null;
+		aInner = null;
+		aNested = null;
+		aNode1 = null;
+		aNode2 = null;
+		aEdge = null;
+		aIndex = null;
+		assertTrue(MemoryUtils.isCollected(reference));
+	}
+	
+	@Test
+	public void testNodesIntersecting()
+	{
+		assertEquals(List.of(aOuter, aInner, aNested, aNode1), aIndex.nodesIntersecting(new Rectangle(0, 0, 500, 100)));
+		assertEquals(List.of(aNode2), aIndex.nodesIntersecting(new Rectangle(900, 500, 300, 300)));
+	}
+	
+	@Test
+	public void testFollowsMovedNode()
+	{
+		aNode1.translate(1000, 1000);
+		assertTrue(aIndex.nodesAt(new Point(410, 10)).isEmpty());
+		assertEquals(List.of(aNode1), aIndex.nodesAt(new Point(1410, 1010)));
+	}
+	
+	@Test
+	public void testFollowsRemovedElements()
+	{
+		Point middle = EdgeViewerRegistry.getConnectionPoints(aEdge).spanning().getCenter();
+		aDiagram.removeEdge(aEdge);
+		aDiagram.removeRootNode(aNode1);
+		assertTrue(aIndex.nodesAt(new Point(410, 10)).isEmpty());
+		assertTrue(aIndex.edgesAt(middle).isEmpty());
+	}
+	
+	@Test
+	public void testFollowsOrder()
+	{
+		ClassNode overlapping = new ClassNode();
+		overlapping.translate(410, 10);
+		aDiagram.addRootNode(overlapping);
+		assertEquals(List.of(aNode1, overlapping), aIndex.nodesAt(new Point(420, 20)));
+		aDiagram.removeRootNode(aNode1);
+		aDiagram.addRootNode(aNode1);
+		assertEquals(List.of(overlapping, aNode1), aIndex.nodesAt(new Point(420, 20)));
+	}
+	
+	@Test
+	public void testFindMatchesExhaustiveSearch()
+	{
+		ClassNode overlapping = new ClassNode();
+		overlapping.translate(50, 50);
+		aDiagram.addRootNode(overlapping);
+		DiagramViewer viewer = new DiagramViewer();
+		for( int x = 0; x < 1200; x += 7 )
+		{
+			for( int y = 0; y < 800; y += 7 )
+			{
+				Point point = new Point(x, y);
+				assertEquals(exhaustiveFindNode(point), viewer.findNode(aDiagram, point));
+				assertEquals(exhaustiveFindEdge(point), viewer.findEdge(aDiagram, point));
+			}
+		}
+		assertFalse(viewer.findNode(aDiagram, new Point(2000, 2000)).isPresent());
+	}
+	
+	private Optional<Node> exhaustiveFindNode(Point pPoint)
+	{
+		Node result = null;
+		for( Node node : aDiagram.rootNodes() )
+		{
+			Node found = deepFindNode(node, pPoint);
+			if( found != null )
+			{
+				result = found;
+			}
+		}
+		return Optional.ofNullable(result);
+	}
+	
+	private Node deepFindNode(Node pNode, Point pPoint)
+	{
+		for( Node child : pNode.getChildren() )
+		{
+			Node found = deepFindNode(child, pPoint);
+			if( found != null )
+			{
+				return found;
+			}
+		}
+		return NodeViewerRegistry.contains(pNode, pPoint) ? pNode : null;
+	}
+	
+	private Optional<Edge> exhaustiveFindEdge(Point pPoint)
+	{
+		return aDiagram.edges().stream().filter(edge -> EdgeViewerRegistry.contains(edge, pPoint)).findFirst();
+	}
+}
@@ -25,6 +25,7 @@ import static ca.mcgill.cs.jetuml.views.FontMetrics.DEFAULT_FONT_SIZE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -111,6 +112,21 @@ public class TestStringViewer
 		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
 	}
 	
+	@Test
+	public void testDimensionCacheFlushedOnFontSizeChange()
+	{
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
+		topCenter.getDimension("Cached String");
+		assertTrue(StringViewer.dimensionCache().size() > 0);
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, 8);
+		assertEquals(0, StringViewer.dimensionCache().size());
+		Dimension small = topCenter.getDimension("Cached String");
+		assertEquals(small, topCenter.getDimension("Cached String"));
+		assertEquals(1, StringViewer.dimensionCache().hits());
+		UserPreferences.instance().setInteger(IntegerPreference.fontSize, DEFAULT_FONT_SIZE);
+		assertEquals(0, StringViewer.dimensionCache().size());
+	}
+	
 	@Test
 	public void testWrapString()
 	{
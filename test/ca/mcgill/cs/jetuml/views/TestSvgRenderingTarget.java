@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import ca.mcgill.cs.jetuml.JavaFXLoader;
+import ca.mcgill.cs.jetuml.diagram.Diagram;
+import ca.mcgill.cs.jetuml.geom.Rectangle;
+import ca.mcgill.cs.jetuml.persistence.PersistenceService;
+import javafx.geometry.VPos;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+public class TestSvgRenderingTarget
+{
+	private StringWriter aWriter;
+	private SvgRenderingTarget aTarget;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@BeforeEach
+	public void setup()
+	{
+		aWriter = new StringWriter();
+		aTarget = new SvgRenderingTarget(aWriter, new Rectangle(10, 20, 100, 50));
+	}
+	
+	/*
+	 * The elements written since the header, without the trailing new line.
+	 */
+	private String elements()
+	{
+		String document = aWriter.toString();
+		String header = "fill=\"#ffffff\"/>\n";
+		return document.substring(document.indexOf(header) + header.length()).trim();
+	}
+	
+	private static Document parse(String pDocument) throws Exception
+	{
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(pDocument.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@Test
+	public void testHeader() throws Exception
+	{
+		aTarget.finish();
+		Document document = parse(aWriter.toString());
+		assertEquals("svg", document.getDocumentElement().getTagName());
+		assertEquals("10 20 100 50", document.getDocumentElement().getAttribute("viewBox"));
+		assertEquals("100", document.getDocumentElement().getAttribute("width"));
+	}
+	
+	@Test
+	public void testFillAndStroke()
+	{
+		aTarget.setFill(Color.WHITE);
+		aTarget.fillRect(0.5, 1.5, 20, 10);
+		assertEquals("<rect x=\"0.5\" y=\"1.5\" width=\"20\" height=\"10\" fill=\"#ffffff\"/>", elements());
+		setup();
+		aTarget.setLineWidth(0.6);
+		aTarget.setLineDashes(3, 3);
+		aTarget.strokeLine(0, 0, 10, 10);
+		assertEquals("<line x1=\"0\" y1=\"0\" x2=\"10\" y2=\"10\" fill=\"none\" stroke=\"#000000\" stroke-width=\"0.6\" " + 
+				"stroke-dasharray=\"3 3\"/>", elements());
+	}
+	
+	@Test
+	public void testShadowAndOpacity()
+	{
+		aTarget.setEffect(new DropShadow());
+		aTarget.setFill(Color.rgb(255, 0, 0, 0.5));
+		aTarget.fillRoundRect(0, 0, 20, 10, 4, 6);
+		assertEquals("<rect x=\"0\" y=\"0\" width=\"20\" height=\"10\" rx=\"2\" ry=\"3\" fill=\"#ff0000\" fill-opacity=\"0.5\" " + 
+				"filter=\"url(#shadow)\"/>", elements());
+		setup();
+		aTarget.setEffect(null);
+		aTarget.setFill(Color.WHITE);
+		aTarget.fillOval(0, 0, 20, 10);
+		assertEquals("<ellipse cx=\"10\" cy=\"5\" rx=\"10\" ry=\"5\" fill=\"#ffffff\"/>", elements());
+	}
+	
+	@Test
+	public void testTranslateAndPath()
+	{
+		aTarget.translate(10, 20);
+		aTarget.beginPath();
+		aTarget.moveTo(0.5, 0.5);
+		aTarget.lineTo(10.5, 0.5);
+		aTarget.quadraticCurveTo(15, 5, 10.5, 10.5);
+		aTarget.stroke();
+		aTarget.translate(-10, -20);
+		aTarget.strokeRect(0, 0, 1, 1);
+		assertEquals("<path d=\"M10.5 20.5L20.5 20.5Q25 25 20.5 30.5\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>\n" + 
+				"<rect x=\"0\" y=\"0\" width=\"1\" height=\"1\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>", elements());
+	}
+	
+	@Test
+	public void testArc()
+	{
+		aTarget.strokeArc(0, 0, 20, 20, 0, 90, ArcType.OPEN);
+		assertEquals("<path d=\"M20 10A10 10 0 0 0 10 0\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>", elements());
+		setup();
+		aTarget.strokeArc(0, 0, 20, 20, 0, 360, ArcType.OPEN);
+		assertEquals("<path d=\"M20 10A10 10 0 0 0 0 10A10 10 0 0 0 20 10\" fill=\"none\" stroke=\"#000000\" stroke-width=\"1\"/>", 
+				elements());
+	}
+	
+	@Test
+	public void testText()
+	{
+		aTarget.setFont(Font.font("System", 12));
+		aTarget.setTextAlign(TextAlignment.CENTER);
+		aTarget.setTextBaseline(VPos.TOP);
+		aTarget.fillText("a<b & \"c\"", 5, 6);
+		String text = elements();
+		assertTrue(text.startsWith("<text x=\"5\" y=\"6\" text-anchor=\"middle\" dominant-baseline=\"text-before-edge\""));
+		assertTrue(text.endsWith("><tspan x=\"5\" dy=\"0\">a&lt;b &amp; &quot;c&quot;</tspan></text>"));
+	}
+	
+	@Test
+	public void testText_MultipleLines() throws Exception
+	{
+		aTarget.setTextBaseline(VPos.CENTER);
+		aTarget.fillText("a\nb\nc", 0, 100);
+		aTarget.finish();
+		Document document = parse(aWriter.toString());
+		assertEquals(3, document.getElementsByTagName("tspan").getLength());
+		double y = Double.parseDouble(((Element) document.getElementsByTagName("text").item(0)).getAttribute("y"));
+		double lineHeight = Double.parseDouble(((Element) document.getElementsByTagName("tspan").item(1)).getAttribute("dy"));
+		// The block of lines is centered on the position
+		assertEquals(100 - lineHeight, y, 0.01);
+	}
+	
+	@Test
+	public void testWriteSvg() throws Exception
+	{
+		Diagram diagram = PersistenceService.read(new File("testdata/testPersistenceService.class.jet")).diagram();
+		StringWriter writer = new StringWriter();
+		ImageCreator.writeSvg(diagram, writer);
+		Document document = parse(writer.toString());
+		assertEquals("svg", document.getDocumentElement().getTagName());
+		assertTrue(document.getElementsByTagName("text").getLength() > 0);
+		assertTrue(document.getElementsByTagName("path").getLength() > 0);
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2020 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package ca.mcgill.cs.jetuml.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.mcgill.cs.jetuml.geom.Dimension;
+
+public class TestTextDimensionCache
+{
+	private TextDimensionCache aCache;
+	private AtomicInteger aMeasurements;
+	
+	@BeforeEach
+	public void setup()
+	{
+		aCache = new TextDimensionCache(2);
+		aMeasurements = new AtomicInteger();
+	}
+	
+	private Dimension get(String pString, boolean pBold, int pFontSize)
+	{
+		return aCache.get(pString, pBold, pFontSize, () -> 
+		{
+			aMeasurements.incrementAndGet();
+			return new Dimension(pString.length(), pFontSize);
+		});
+	}
+	
+	@Test
+	public void testHit()
+	{
+		Dimension dimension = get("A", false, 12);
+		assertSame(dimension, get("A", false, 12));
+		assertEquals(1, aMeasurements.get());
+		assertEquals(1, aCache.hits());
+		assertEquals(1, aCache.misses());
+		assertEquals(0.5, aCache.hitRate());
+	}
+	
+	@Test
+	public void testKeyIncludesStyle()
+	{
+		get("A", false, 12);
+		get("A", true, 12);
+		get("A", false, 8);
+		assertEquals(3, aMeasurements.get());
+		assertEquals(new Dimension(1, 8), get("A", false, 8));
+	}
+	
+	@Test
+	public void testEvictsLeastRecentlyUsed()
+	{
+		get("A", false, 12);
+		get("B", false, 12);
+		get("A", false, 12);
+		get("C", false, 12);
+		assertEquals(2, aCache.size());
+		assertEquals(1, aCache.evictions());
+		get("A", false, 12);
+		assertEquals(3, aMeasurements.get());
+		get("B", false, 12);
+		assertEquals(4, aMeasurements.get());
+	}
+	
+	@Test
+	public void testClear()
+	{
+		get("A", false, 12);
+		get("A", false, 12);
+		aCache.clear();
+		assertEquals(0, aCache.size());
+		assertEquals(0, aCache.hits());
+		assertEquals(0, aCache.misses());
+		assertEquals(0.0, aCache.hitRate());
+		get("A", false, 12);
+		assertEquals(2, aMeasurements.get());
+	}
+}